@@ -0,0 +1,372 @@
+package org.pneditor.batch;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.pneditor.petrinet.AbstractPlace;
+import org.pneditor.petrinet.PetriNetInterface;
+import org.pneditor.petrinet.RandomSimulation;
+import org.pneditor.petrinet.algorithms.CompiledNet;
+import org.pneditor.petrinet.algorithms.PlaceBounds;
+import org.pneditor.petrinet.algorithms.ReachabilityGraph;
+import org.pneditor.save.xml.DocumentImporter;
+
+/**
+ * Runs analyses and simulations on {@code .pflow} documents without the editor
+ * and without a display, for build servers and scripts.
+ *
+ * <p>Usage: {@code java -cp bin:lib/* org.pneditor.batch.BatchRunner
+ * [options] file-or-directory...}, the directories being searched recursively
+ * for {@code .pflow} files. Options:</p>
+ * <ul>
+ * <li>{@code --model name}: the model to load the nets with, {@code initial}
+ * by default;</li>
+ * <li>{@code --analyses list}: some of {@code boundedness},
+ * {@code reachability} and {@code simulation}, all by default;</li>
+ * <li>{@code --steps n} and {@code --seed s}: the length and the seed of the
+ * random simulation, 1000 and 0 by default;</li>
+ * <li>{@code --max-states n}: the limit of the reachability graph;</li>
+ * <li>{@code --threads n}: the number of documents processed at once, the
+ * number of processors by default;</li>
+ * <li>{@code --format json|csv}: one JSON object per line, the default, or
+ * CSV with a header.</li>
+ * </ul>
+ *
+ * <p>The results are printed in the order of the files. The exit status is 1
+ * if a document could not be processed, 2 for a wrong command line.</p>
+ */
+public final class BatchRunner {
+
+	private static final String MODEL_PATH = "org.pneditor.petrinet.adapters.";
+	private static final String ADAPTER_PATH = ".PetriNetAdapter";
+
+	/**
+	 * The analyses the runner can do on every document.
+	 */
+	public enum Analysis {
+		/** Bounds of the places, by {@link PlaceBounds}. */
+		BOUNDEDNESS("bounded", "max_bound", "coverability_markings"),
+		/** Reachable markings and deadlocks, by {@link ReachabilityGraph}. */
+		REACHABILITY("states", "edges", "deadlocks", "complete"),
+		/** A random walk, firing an enabled transition chosen uniformly. */
+		SIMULATION("steps", "deadlocked", "final_tokens");
+
+		private final String[] columns;
+
+		Analysis(final String... columns) {
+			this.columns = columns;
+		}
+	}
+
+	private static final String[] COMMON_COLUMNS = { "file", "model", "places", "transitions", "arcs" };
+
+	private final String model;
+	private final Set<Analysis> analyses;
+	private final long steps;
+	private final long seed;
+	private final int maxStates;
+
+	public BatchRunner(final String model, final Set<Analysis> analyses, final long steps, final long seed,
+			final int maxStates) {
+		this.model = model;
+		this.analyses = EnumSet.copyOf(analyses);
+		this.steps = steps;
+		this.seed = seed;
+		this.maxStates = maxStates;
+	}
+
+	public static void main(final String[] args) throws Exception {
+		System.setProperty("java.awt.headless", "true");
+
+		String model = "initial";
+		Set<Analysis> analyses = EnumSet.allOf(Analysis.class);
+		long steps = 1000;
+		long seed = 0;
+		int maxStates = ReachabilityGraph.DEFAULT_STATE_LIMIT;
+		int threads = Runtime.getRuntime().availableProcessors();
+		boolean csv = false;
+		final List<String> inputs = new ArrayList<>();
+		try {
+			for (int i = 0; i < args.length; i++) {
+				final String option = args[i];
+				if (!option.startsWith("--")) {
+					inputs.add(option);
+					continue;
+				}
+				if (i + 1 == args.length) {
+					throw new IllegalArgumentException("missing value for " + option);
+				}
+				final String value = args[++i];
+				switch (option) {
+				case "--model":
+					model = value;
+					break;
+				case "--analyses":
+					analyses = EnumSet.noneOf(Analysis.class);
+					for (final String name : value.split(",")) {
+						analyses.add(Analysis.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+					}
+					break;
+				case "--steps":
+					steps = Long.parseLong(value);
+					break;
+				case "--seed":
+					seed = Long.parseLong(value);
+					break;
+				case "--max-states":
+					maxStates = Integer.parseInt(value);
+					break;
+				case "--threads":
+					threads = Integer.parseInt(value);
+					break;
+				case "--format":
+					if (!"csv".equals(value) && !"json".equals(value)) {
+						throw new IllegalArgumentException("unknown format " + value);
+					}
+					csv = "csv".equals(value);
+					break;
+				default:
+					throw new IllegalArgumentException("unknown option " + option);
+				}
+			}
+			if (inputs.isEmpty() || threads < 1 || steps < 0 || maxStates < 1) {
+				throw new IllegalArgumentException("nothing to do");
+			}
+			Class.forName(MODEL_PATH + model + ADAPTER_PATH);
+		} catch (IllegalArgumentException | ClassNotFoundException e) {
+			System.err.println(e instanceof ClassNotFoundException ? "unknown model " + model : e.getMessage());
+			System.err.println("usage: BatchRunner [--model initial] [--analyses boundedness,reachability,simulation]"
+					+ " [--steps 1000] [--seed 0] [--max-states n] [--threads n] [--format json|csv]"
+					+ " file-or-directory...");
+			System.exit(2);
+			return;
+		}
+
+		final List<Path> files = new ArrayList<>();
+		for (final String input : inputs) {
+			files.addAll(findDocuments(Paths.get(input)));
+		}
+		final BatchRunner runner = new BatchRunner(model, analyses, steps, seed, maxStates);
+		final PrintWriter out = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+		final boolean success = runner.run(files, threads, csv, out);
+		out.flush();
+		System.exit(success ? 0 : 1);
+	}
+
+	/**
+	 * @return the {@code .pflow} files under {@code input}, sorted, or
+	 *         {@code input} itself if it is a file
+	 */
+	static List<Path> findDocuments(final Path input) throws IOException {
+		if (!Files.isDirectory(input)) {
+			final List<Path> single = new ArrayList<>();
+			single.add(input);
+			return single;
+		}
+		try (Stream<Path> paths = Files.walk(input)) {
+			return paths.filter(path -> Files.isRegularFile(path) && path.toString().endsWith(".pflow"))
+					.sorted(Comparator.comparing(Path::toString)).collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * Processes the files on at most {@code threads} threads and prints a record
+	 * for each, in the order of the files.
+	 *
+	 * @return false if a file could not be processed
+	 */
+	public boolean run(final List<Path> files, final int threads, final boolean csv, final PrintWriter out)
+			throws InterruptedException {
+		final List<String> columns = getColumns();
+		if (csv) {
+			out.println(String.join(",", columns));
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		boolean success = true;
+		try {
+			final List<Future<Map<String, Object>>> results = new ArrayList<>();
+			for (final Path file : files) {
+				results.add(executor.submit(() -> process(file)));
+			}
+			for (final Future<Map<String, Object>> result : results) {
+				final Map<String, Object> record;
+				try {
+					record = result.get();
+				} catch (ExecutionException e) {
+					// process() reports its own exceptions, so this is an Error
+					throw new IllegalStateException(e.getCause());
+				}
+				success &= !record.containsKey("error");
+				out.println(csv ? toCsv(record, columns) : toJson(record));
+				out.flush();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return success;
+	}
+
+	/**
+	 * @return the columns of the records, in order
+	 */
+	public List<String> getColumns() {
+		final List<String> columns = new ArrayList<>();
+		for (final String column : COMMON_COLUMNS) {
+			columns.add(column);
+		}
+		for (final Analysis analysis : this.analyses) {
+			for (final String column : analysis.columns) {
+				columns.add(column);
+			}
+		}
+		columns.add("millis");
+		columns.add("error");
+		return columns;
+	}
+
+	/**
+	 * Loads one document and runs the analyses on it.
+	 *
+	 * @return the record of the results, with an {@code error} entry if it failed
+	 */
+	public Map<String, Object> process(final Path file) {
+		final Map<String, Object> record = new LinkedHashMap<>();
+		record.put("file", file.toString());
+		record.put("model", this.model);
+		final long start = System.nanoTime();
+		try {
+			final PetriNetInterface petriNet = new DocumentImporter().readPetriNetFromFile(file.toFile(),
+					(PetriNetInterface) Class.forName(MODEL_PATH + this.model + ADAPTER_PATH)
+							.getDeclaredConstructor().newInstance());
+			analyse(petriNet, record);
+		} catch (Exception e) {
+			record.put("error", describe(e));
+		}
+		record.put("millis", (System.nanoTime() - start) / 1_000_000);
+		return record;
+	}
+
+	/**
+	 * Runs the analyses on a net and adds their results to {@code record}. The
+	 * simulation fires the transitions of the net.
+	 */
+	public void analyse(final PetriNetInterface petriNet, final Map<String, Object> record) throws Exception {
+		record.put("places", petriNet.getPlaces().size());
+		record.put("transitions", petriNet.getTransitions().size());
+		record.put("arcs", petriNet.getArcs().size());
+		final CompiledNet net = new CompiledNet(petriNet);
+		if (this.analyses.contains(Analysis.BOUNDEDNESS)) {
+			final PlaceBounds bounds = new PlaceBounds(net);
+			int max = 0;
+			for (final int bound : bounds.getBoundIndexes()) {
+				max = Math.max(max, bound);
+			}
+			record.put("bounded", max != CompiledNet.OMEGA);
+			record.put("max_bound", max == CompiledNet.OMEGA ? "omega" : max);
+			record.put("coverability_markings", bounds.getExploredMarkings());
+		}
+		if (this.analyses.contains(Analysis.REACHABILITY)) {
+			final ReachabilityGraph graph = new ReachabilityGraph(this.maxStates);
+			graph.update(net);
+			int deadlocks = 0;
+			for (int state = 0; state < graph.getStateCount(); state++) {
+				if (net.isDeadlock(graph.getMarking(state))) {
+					deadlocks++;
+				}
+			}
+			record.put("states", graph.getStateCount());
+			record.put("edges", graph.getEdgeCount());
+			record.put("deadlocks", deadlocks);
+			record.put("complete", graph.isComplete());
+		}
+		if (this.analyses.contains(Analysis.SIMULATION)) {
+			simulate(petriNet, record);
+		}
+	}
+
+	private static String describe(final Throwable throwable) {
+		Throwable cause = throwable;
+		while (cause.getMessage() == null && cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+		return throwable.getClass().getSimpleName() + (cause.getMessage() == null ? "" : ": " + cause.getMessage());
+	}
+
+	/**
+	 * Fires up to {@code steps} transitions of the model itself with a
+	 * {@link RandomSimulation}.
+	 */
+	private void simulate(final PetriNetInterface petriNet, final Map<String, Object> record) throws Exception {
+		final RandomSimulation simulation = new RandomSimulation(petriNet, this.seed);
+		final long step = simulation.run(this.steps);
+		final boolean deadlocked = simulation.isDeadlocked();
+		long tokens = 0;
+		for (final AbstractPlace place : petriNet.getPlaces()) {
+			tokens += place.getTokens();
+		}
+		record.put("steps", step);
+		record.put("deadlocked", deadlocked);
+		record.put("final_tokens", tokens);
+	}
+
+	static String toJson(final Map<String, Object> record) {
+		final StringBuilder json = new StringBuilder("{");
+		for (final Map.Entry<String, Object> entry : record.entrySet()) {
+			if (json.length() > 1) {
+				json.append(", ");
+			}
+			json.append(quote(entry.getKey())).append(": ");
+			final Object value = entry.getValue();
+			json.append(value instanceof Number || value instanceof Boolean ? value.toString() : quote(value.toString()));
+		}
+		return json.append('}').toString();
+	}
+
+	static String toCsv(final Map<String, Object> record, final List<String> columns) {
+		final StringBuilder csv = new StringBuilder();
+		for (int i = 0; i < columns.size(); i++) {
+			if (i > 0) {
+				csv.append(',');
+			}
+			final Object value = record.get(columns.get(i));
+			if (value != null) {
+				final String text = value.toString();
+				csv.append(text.contains(",") || text.contains("\"") ? '"' + text.replace("\"", "\"\"") + '"' : text);
+			}
+		}
+		return csv.toString();
+	}
+
+	private static String quote(final String value) {
+		final StringBuilder quoted = new StringBuilder("\"");
+		for (final char c : value.toCharArray()) {
+			if (c == '"' || c == '\\') {
+				quoted.append('\\').append(c);
+			} else if (c < ' ') {
+				quoted.append(String.format("\\u%04x", (int) c));
+			} else {
+				quoted.append(c);
+			}
+		}
+		return quoted.append('"').toString();
+	}
+}
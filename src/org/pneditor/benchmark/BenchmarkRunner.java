@@ -0,0 +1,272 @@
+package org.pneditor.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Minimal throughput benchmark harness, in the spirit of JMH: a few warmup
+ * iterations, then timed iterations counting how many operations complete.
+ *
+ * <p>Every operation returns a value that is folded into a sink, so that the
+ * JIT cannot remove it. The bytes allocated by the benchmark thread are read
+ * from {@code com.sun.management.ThreadMXBean} when the JVM provides it,
+ * which gives the same {@code gc.alloc.rate} and {@code gc.alloc.rate.norm}
+ * figures as JMH's {@code -prof gc}. Results are written in the JSON format
+ * of JMH ({@code -rf json}), so existing tools can read and compare them.</p>
+ */
+public final class BenchmarkRunner {
+
+	/** Student's t quantile for 99.9% confidence, large sample approximation. */
+	private static final double CONFIDENCE_QUANTILE = 3.29;
+
+	/**
+	 * One operation of a benchmark.
+	 */
+	@FunctionalInterface
+	public interface Operation {
+		/**
+		 * @return any value depending on the work done, consumed by the runner
+		 */
+		long run() throws Exception;
+	}
+
+	/**
+	 * The measurements of one benchmark with one set of parameters.
+	 */
+	public static final class Result {
+		private final String benchmark;
+		private final Map<String, String> params;
+		private final double[] opsPerSecond;
+		private final double bytesPerOperation;
+		private final double megabytesPerSecond;
+
+		Result(final String benchmark, final Map<String, String> params, final double[] opsPerSecond,
+				final double bytesPerOperation, final double megabytesPerSecond) {
+			this.benchmark = benchmark;
+			this.params = Collections.unmodifiableMap(new LinkedHashMap<>(params));
+			this.opsPerSecond = opsPerSecond;
+			this.bytesPerOperation = bytesPerOperation;
+			this.megabytesPerSecond = megabytesPerSecond;
+		}
+
+		public String getBenchmark() {
+			return this.benchmark;
+		}
+
+		public Map<String, String> getParams() {
+			return this.params;
+		}
+
+		/**
+		 * @return the mean number of operations per second over the iterations
+		 */
+		public double getScore() {
+			double sum = 0;
+			for (final double value : this.opsPerSecond) {
+				sum += value;
+			}
+			return sum / this.opsPerSecond.length;
+		}
+
+		/**
+		 * @return half the width of the 99.9% confidence interval of the score,
+		 *         NaN with a single iteration
+		 */
+		public double getScoreError() {
+			final int n = this.opsPerSecond.length;
+			if (n < 2) {
+				return Double.NaN;
+			}
+			final double mean = getScore();
+			double squares = 0;
+			for (final double value : this.opsPerSecond) {
+				squares += (value - mean) * (value - mean);
+			}
+			return CONFIDENCE_QUANTILE * Math.sqrt(squares / (n - 1) / n);
+		}
+
+		/**
+		 * @return bytes allocated per operation, NaN if the JVM cannot tell
+		 */
+		public double getBytesPerOperation() {
+			return this.bytesPerOperation;
+		}
+
+		/**
+		 * @return megabytes allocated per second, NaN if the JVM cannot tell
+		 */
+		public double getAllocationRate() {
+			return this.megabytesPerSecond;
+		}
+	}
+
+	private final int warmupIterations;
+	private final int iterations;
+	private final long iterationNanos;
+	private final List<Result> results = new ArrayList<>();
+	private long sink;
+
+	/**
+	 * @param warmupIterations iterations run before measuring
+	 * @param iterations       measured iterations
+	 * @param iterationMillis  duration of every iteration
+	 */
+	public BenchmarkRunner(final int warmupIterations, final int iterations, final long iterationMillis) {
+		if (warmupIterations < 0 || iterations < 1 || iterationMillis < 1) {
+			throw new IllegalArgumentException("BenchmarkRunner(" + warmupIterations + ", " + iterations + ", "
+					+ iterationMillis + ") -- needs at least one measured iteration of at least 1 ms");
+		}
+		this.warmupIterations = warmupIterations;
+		this.iterations = iterations;
+		this.iterationNanos = iterationMillis * 1_000_000L;
+	}
+
+	/**
+	 * Runs a benchmark and keeps its result.
+	 *
+	 * @param benchmark name of the benchmark, such as {@code Class.method}
+	 * @param params    parameters of the run, reported with the result
+	 * @param operation the operation to repeat
+	 * @return the result
+	 * @throws Exception the first exception thrown by the operation
+	 */
+	public Result measure(final String benchmark, final Map<String, String> params, final Operation operation)
+			throws Exception {
+		for (int i = 0; i < this.warmupIterations; i++) {
+			iterate(operation);
+		}
+		final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		final com.sun.management.ThreadMXBean allocations = threads instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()
+						? (com.sun.management.ThreadMXBean) threads
+						: null;
+		final long threadId = Thread.currentThread().getId();
+
+		final double[] opsPerSecond = new double[this.iterations];
+		long totalOperations = 0;
+		long totalNanos = 0;
+		final long bytesBefore = allocations == null ? 0 : allocations.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < this.iterations; i++) {
+			final long[] measured = iterate(operation);
+			opsPerSecond[i] = measured[0] * 1e9 / measured[1];
+			totalOperations += measured[0];
+			totalNanos += measured[1];
+		}
+		double bytesPerOperation = Double.NaN;
+		double megabytesPerSecond = Double.NaN;
+		if (allocations != null) {
+			final long bytes = allocations.getThreadAllocatedBytes(threadId) - bytesBefore;
+			bytesPerOperation = (double) bytes / totalOperations;
+			megabytesPerSecond = bytes / 1048576.0 / (totalNanos / 1e9);
+		}
+		final Result result = new Result(benchmark, params, opsPerSecond, bytesPerOperation, megabytesPerSecond);
+		this.results.add(result);
+		return result;
+	}
+
+	/**
+	 * @return the number of operations and the elapsed nanoseconds
+	 */
+	private long[] iterate(final Operation operation) throws Exception {
+		final long start = System.nanoTime();
+		final long deadline = start + this.iterationNanos;
+		long operations = 0;
+		long now;
+		do {
+			this.sink += operation.run();
+			operations++;
+			now = System.nanoTime();
+		} while (now < deadline);
+		return new long[] { operations, now - start };
+	}
+
+	public List<Result> getResults() {
+		return Collections.unmodifiableList(this.results);
+	}
+
+	/**
+	 * Writes the results in the JSON format of JMH, throughput mode.
+	 */
+	public void writeJson(final Writer out) throws IOException {
+		out.write("[\n");
+		for (int r = 0; r < this.results.size(); r++) {
+			final Result result = this.results.get(r);
+			out.write("  {\n");
+			out.write("    \"jmhVersion\" : \"none\",\n");
+			out.write("    \"benchmark\" : " + quote(result.getBenchmark()) + ",\n");
+			out.write("    \"mode\" : \"thrpt\",\n");
+			out.write("    \"threads\" : 1,\n");
+			out.write("    \"forks\" : 1,\n");
+			out.write("    \"warmupIterations\" : " + this.warmupIterations + ",\n");
+			out.write("    \"measurementIterations\" : " + this.iterations + ",\n");
+			out.write("    \"params\" : {");
+			boolean first = true;
+			for (final Map.Entry<String, String> param : result.getParams().entrySet()) {
+				out.write((first ? " " : ", ") + quote(param.getKey()) + " : " + quote(param.getValue()));
+				first = false;
+			}
+			out.write(" },\n");
+			out.write("    \"primaryMetric\" : {\n");
+			out.write("      \"score\" : " + number(result.getScore()) + ",\n");
+			out.write("      \"scoreError\" : " + number(result.getScoreError()) + ",\n");
+			out.write("      \"scoreUnit\" : \"ops/s\",\n");
+			out.write("      \"rawData\" : [ [");
+			for (int i = 0; i < result.opsPerSecond.length; i++) {
+				out.write((i == 0 ? " " : ", ") + number(result.opsPerSecond[i]));
+			}
+			out.write(" ] ]\n");
+			out.write("    },\n");
+			out.write("    \"secondaryMetrics\" : {\n");
+			out.write("      \"gc.alloc.rate\" : { \"score\" : " + number(result.getAllocationRate())
+					+ ", \"scoreUnit\" : \"MB/sec\" },\n");
+			out.write("      \"gc.alloc.rate.norm\" : { \"score\" : " + number(result.getBytesPerOperation())
+					+ ", \"scoreUnit\" : \"B/op\" }\n");
+			out.write("    }\n");
+			out.write(r + 1 < this.results.size() ? "  },\n" : "  }\n");
+		}
+		out.write("]\n");
+		out.flush();
+	}
+
+	/**
+	 * Writes the results as CSV, one row per benchmark and parameters.
+	 */
+	public void writeCsv(final Writer out) throws IOException {
+		out.write("benchmark,params,score,score_error,unit,alloc_rate_mb_s,alloc_bytes_op\n");
+		for (final Result result : this.results) {
+			final StringBuilder params = new StringBuilder();
+			for (final Map.Entry<String, String> param : result.getParams().entrySet()) {
+				params.append(params.length() == 0 ? "" : ";").append(param.getKey()).append('=')
+						.append(param.getValue());
+			}
+			out.write(String.format(Locale.ROOT, "%s,%s,%.3f,%.3f,ops/s,%.3f,%.1f\n", result.getBenchmark(), params,
+					result.getScore(), result.getScoreError(), result.getAllocationRate(),
+					result.getBytesPerOperation()));
+		}
+		out.flush();
+	}
+
+	/**
+	 * @return the values returned by the operations, folded; printing it keeps
+	 *         the operations observable
+	 */
+	public long getSink() {
+		return this.sink;
+	}
+
+	private static String number(final double value) {
+		return Double.isNaN(value) || Double.isInfinite(value) ? "\"NaN\"" : String.format(Locale.ROOT, "%.3f", value);
+	}
+
+	private static String quote(final String value) {
+		return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+	}
+}
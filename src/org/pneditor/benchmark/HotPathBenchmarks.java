@@ -0,0 +1,295 @@
+package org.pneditor.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.pneditor.petrinet.AbstractArc;
+import org.pneditor.petrinet.AbstractPlace;
+import org.pneditor.petrinet.AbstractTransition;
+import org.pneditor.petrinet.Boundedness;
+import org.pneditor.petrinet.NetBatch;
+import org.pneditor.petrinet.PetriNetInterface;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Transition;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.PetriNET.PetriNet1;
+
+/**
+ * Throughput of the hot paths of the models and of the analyses, on rings of
+ * parameterised size:
+ * <ul>
+ * <li>{@code Transition.isDrawable}, every transition of a
+ * {@link PetriNet1};</li>
+ * <li>{@code PetriNet1.launchSimulation}, {@value #SIMULATION_STEPS} steps;</li>
+ * <li>{@code PetriNetAdapter.fire}, for every model, including the
+ * {@code initial} and {@code imta} ones of the bundled jar;</li>
+ * <li>{@code PetriNetAdapter.isEnabled}, every transition, for every model,
+ * to compare with {@code Transition.isDrawable};</li>
+ * <li>{@code AbstractArc.endpoints}, the source and destination of every arc,
+ * for every model;</li>
+ * <li>{@code PetriNetInterface.addRegArc} and {@code NetBatch.commit}, the
+ * building of a ring one element at a time or in one batch, for every
+ * model;</li>
+ * <li>{@code Boundedness.isBounded}, for every model.</li>
+ * </ul>
+ *
+ * <p>Usage: {@code java -cp bin:lib/* org.pneditor.benchmark.HotPathBenchmarks
+ * [--sizes 10,100,1000] [--models BEAUMONT_CHOUKI,initial,imta] [--warmup 3]
+ * [--iterations 5] [--time 1000] [--filter text] [--json file] [--csv file]}.
+ * The results, with the allocation rates, are printed and written as JSON (the
+ * format of JMH) or CSV.</p>
+ */
+public final class HotPathBenchmarks {
+
+	private static final String MODEL_PATH = "org.pneditor.petrinet.adapters.";
+	private static final String ADAPTER_PATH = ".PetriNetAdapter";
+
+	private static final int SIMULATION_STEPS = 1000;
+
+	/** The exploration of Boundedness follows every path, so its rings stay small. */
+	private static final int MAX_BOUNDEDNESS_SIZE = 6;
+
+	private HotPathBenchmarks() {
+	}
+
+	public static void main(final String[] args) throws Exception {
+		int[] sizes = { 10, 100, 1000 };
+		List<String> models = Arrays.asList("BEAUMONT_CHOUKI", "initial", "imta");
+		int warmup = 3;
+		int iterations = 5;
+		long time = 1000;
+		String filter = "";
+		String json = null;
+		String csv = null;
+		for (int i = 0; i < args.length; i++) {
+			final String option = args[i];
+			if (i + 1 == args.length) {
+				usage("missing value for " + option);
+			}
+			final String value = args[++i];
+			switch (option) {
+			case "--sizes":
+				sizes = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+				break;
+			case "--models":
+				models = Arrays.asList(value.split(","));
+				break;
+			case "--warmup":
+				warmup = Integer.parseInt(value);
+				break;
+			case "--iterations":
+				iterations = Integer.parseInt(value);
+				break;
+			case "--time":
+				time = Long.parseLong(value);
+				break;
+			case "--filter":
+				filter = value;
+				break;
+			case "--json":
+				json = value;
+				break;
+			case "--csv":
+				csv = value;
+				break;
+			default:
+				usage("unknown option " + option);
+			}
+		}
+
+		final BenchmarkRunner runner = new BenchmarkRunner(warmup, iterations, time);
+		for (final int size : sizes) {
+			if (size < 2) {
+				usage("sizes must be at least 2");
+			}
+			if (selected("Transition.isDrawable", filter)) {
+				final PetriNet1 net = modelRing(size);
+				final List<Transition> transitions = net.getTransitions();
+				report(runner.measure("Transition.isDrawable", params(size, "BEAUMONT_CHOUKI"), () -> {
+					long drawable = 0;
+					for (final Transition transition : transitions) {
+						if (transition.isDrawable()) {
+							drawable++;
+						}
+					}
+					return drawable;
+				}));
+			}
+			if (selected("PetriNet1.launchSimulation", filter)) {
+				final PetriNet1 net = modelRing(size);
+				report(runner.measure("PetriNet1.launchSimulation", params(size, "BEAUMONT_CHOUKI"), () -> {
+					net.launchSimulation(SIMULATION_STEPS);
+					return net.getPlaces().get(0).getNbTokens();
+				}));
+			}
+			for (final String model : models) {
+				if (selected("PetriNetAdapter.fire", filter)) {
+					final PetriNetInterface net = newNet(model);
+					final List<AbstractTransition> transitions = adapterRing(net, size, 1);
+					final int[] next = { 0 };
+					report(runner.measure("PetriNetAdapter.fire", params(size, model), () -> {
+						// the token goes around the ring, so the next transition is always enabled
+						net.fire(transitions.get(next[0]));
+						next[0] = next[0] + 1 == transitions.size() ? 0 : next[0] + 1;
+						return next[0];
+					}));
+				}
+				if (selected("PetriNetAdapter.isEnabled", filter)) {
+					final PetriNetInterface net = newNet(model);
+					final List<AbstractTransition> transitions = adapterRing(net, size, 1);
+					report(runner.measure("PetriNetAdapter.isEnabled", params(size, model), () -> {
+						long enabled = 0;
+						for (final AbstractTransition transition : transitions) {
+							if (net.isEnabled(transition)) {
+								enabled++;
+							}
+						}
+						return enabled;
+					}));
+				}
+				if (selected("AbstractArc.endpoints", filter)) {
+					final PetriNetInterface net = newNet(model);
+					adapterRing(net, size, 1);
+					final List<AbstractArc> arcs = new ArrayList<>(net.getArcs());
+					report(runner.measure("AbstractArc.endpoints", params(size, model), () -> {
+						long hash = 0;
+						for (final AbstractArc arc : arcs) {
+							hash += System.identityHashCode(arc.getSource()) ^ System.identityHashCode(arc.getDestination());
+						}
+						return hash;
+					}));
+				}
+				if (selected("PetriNetInterface.addRegArc", filter)) {
+					report(runner.measure("PetriNetInterface.addRegArc", params(size, model),
+							() -> adapterRing(newNet(model), size, 1).size()));
+				}
+				if (selected("NetBatch.commit", filter)) {
+					report(runner.measure("NetBatch.commit", params(size, model),
+							() -> batchRing(newNet(model), size, 1).getArcCount()));
+				}
+				if (selected("Boundedness.isBounded", filter)) {
+					final int ringSize = Math.min(size, MAX_BOUNDEDNESS_SIZE);
+					final PetriNetInterface net = newNet(model);
+					adapterRing(net, ringSize, 2);
+					final Map<String, String> params = params(ringSize, model);
+					if (ringSize < size) {
+						params.put("requestedSize", Integer.toString(size));
+					}
+					report(runner.measure("Boundedness.isBounded", params,
+							() -> new Boundedness(net).isBounded() ? 1 : 0));
+				}
+			}
+		}
+		System.out.println("# sink " + runner.getSink());
+
+		if (json != null) {
+			try (Writer out = writer(json)) {
+				runner.writeJson(out);
+			}
+		}
+		if (csv != null) {
+			try (Writer out = writer(csv)) {
+				runner.writeCsv(out);
+			}
+		}
+	}
+
+	/**
+	 * @return a ring of {@code size} places and transitions, with a token in
+	 *         every other place
+	 */
+	private static PetriNet1 modelRing(final int size) {
+		final PetriNet1 net = new PetriNet1();
+		for (int i = 0; i < size; i++) {
+			net.addPlace(i % 2 == 0 ? 1 : 0);
+			net.addTransition();
+		}
+		for (int i = 0; i < size; i++) {
+			net.addEdge(1, net.getPlaces().get(i), net.getTransitions().get(i));
+			net.addEdge(1, net.getTransitions().get(i), net.getPlaces().get((i + 1) % size));
+		}
+		return net;
+	}
+
+	/**
+	 * Builds a ring of {@code size} places and transitions through the common
+	 * interface, with {@code tokens} tokens in the first place.
+	 *
+	 * @return the transitions, in the order of the ring
+	 */
+	private static List<AbstractTransition> adapterRing(final PetriNetInterface net, final int size, final int tokens)
+			throws Exception {
+		final List<AbstractPlace> places = new ArrayList<>();
+		final List<AbstractTransition> transitions = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			places.add(net.addAbstractPlace());
+			transitions.add(net.addAbstractTransition());
+		}
+		for (int i = 0; i < size; i++) {
+			net.addRegArc(places.get(i), transitions.get(i));
+			net.addRegArc(transitions.get(i), places.get((i + 1) % size));
+		}
+		places.get(0).setTokens(tokens);
+		return transitions;
+	}
+
+	/**
+	 * Builds the same ring as {@link #adapterRing} in one batch.
+	 *
+	 * @return the committed batch
+	 */
+	private static NetBatch batchRing(final PetriNetInterface net, final int size, final int tokens) {
+		final NetBatch batch = net.newBatch(2 * size, 2 * size);
+		for (int i = 0; i < size; i++) {
+			batch.addPlace(0, i == 0 ? tokens : 0, NetBatch.NO_CAPACITY);
+			batch.addTransition(0);
+		}
+		for (int i = 0; i < size; i++) {
+			batch.addArc(NetBatch.REGULAR, 2 * i, 2 * i + 1, 1);
+			batch.addArc(NetBatch.REGULAR, 2 * i + 1, (2 * i + 2) % (2 * size), 1);
+		}
+		batch.commit();
+		return batch;
+	}
+
+	private static PetriNetInterface newNet(final String model) throws ReflectiveOperationException {
+		return (PetriNetInterface) Class.forName(MODEL_PATH + model + ADAPTER_PATH).getDeclaredConstructor()
+				.newInstance();
+	}
+
+	private static Map<String, String> params(final int size, final String model) {
+		final Map<String, String> params = new LinkedHashMap<>();
+		params.put("size", Integer.toString(size));
+		params.put("model", model);
+		return params;
+	}
+
+	private static boolean selected(final String benchmark, final String filter) {
+		return benchmark.contains(filter);
+	}
+
+	private static void report(final BenchmarkRunner.Result result) {
+		System.out.println(String.format(Locale.ROOT, "%-28s %-32s %14.1f +- %10.1f ops/s %12.1f B/op %10.1f MB/s",
+				result.getBenchmark(), result.getParams(), result.getScore(), result.getScoreError(),
+				result.getBytesPerOperation(), result.getAllocationRate()));
+	}
+
+	private static Writer writer(final String path) throws IOException {
+		return new OutputStreamWriter(Files.newOutputStream(Paths.get(path)), StandardCharsets.UTF_8);
+	}
+
+	private static void usage(final String message) {
+		System.err.println(message);
+		System.err.println("usage: HotPathBenchmarks [--sizes 10,100,1000] [--models BEAUMONT_CHOUKI,initial,imta]"
+				+ " [--warmup 3] [--iterations 5] [--time 1000] [--filter text] [--json file] [--csv file]");
+		System.exit(2);
+	}
+}
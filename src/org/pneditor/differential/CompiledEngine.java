@@ -0,0 +1,57 @@
+package org.pneditor.differential;
+
+import org.pneditor.petrinet.ResetArcMultiplicityException;
+import org.pneditor.petrinet.UnimplementedCaseException;
+import org.pneditor.petrinet.algorithms.CompiledNet;
+
+/**
+ * Drives a {@link CompiledNet}, the engine of the analyses, on an
+ * {@code int[]} marking.
+ */
+public class CompiledEngine implements Engine {
+
+	/** The name of this engine for {@link DifferentialTester}. */
+	public static final String NAME = "compiled";
+
+	private final InterfaceEngine source;
+	private CompiledNet net;
+	private int[] marking;
+
+	/**
+	 * @param model the model the nets are built with before being compiled
+	 */
+	public CompiledEngine(final String model) {
+		this.source = new InterfaceEngine(model);
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public void load(final NetCase net) throws UnimplementedCaseException {
+		this.source.load(net);
+		try {
+			this.net = new CompiledNet(this.source.getPetriNet());
+		} catch (ResetArcMultiplicityException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+		this.marking = this.net.getInitialMarking();
+	}
+
+	@Override
+	public boolean isEnabled(final int transition) {
+		return this.net.isEnabled(this.marking, transition);
+	}
+
+	@Override
+	public void fire(final int transition) {
+		this.net.fire(this.marking, transition);
+	}
+
+	@Override
+	public int getTokens(final int place) {
+		return this.marking[place];
+	}
+}
@@ -0,0 +1,505 @@
+package org.pneditor.differential;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.pneditor.petrinet.UnimplementedCaseException;
+
+/**
+ * Checks that several engines implement the same firing rule: random nets are
+ * loaded in all of them, and a random firing sequence is played in lockstep,
+ * comparing the markings and the enabled transitions at every step.
+ *
+ * <p>The first engine is the reference: the fired transitions are drawn among
+ * the ones it enables. An engine that does not support an arc or a capacity
+ * of a net sits that net out. The {@link #regressions() nets of past bugs}
+ * are checked before the random ones. On a mismatch, the net and the firing sequence are shrunk, by
+ * removing firings, transitions, places and arcs and by lowering weights and
+ * tokens, as long as the mismatch remains.</p>
+ *
+ * <p>Usage: {@code java -cp bin:lib/* org.pneditor.differential.DifferentialTester
+ * [options]}. Options:</p>
+ * <ul>
+ * <li>{@code --engines list}: model names, {@code compiled}, the
+ * {@link org.pneditor.petrinet.algorithms.CompiledNet compiled engine} of
+ * the analyses, and {@code sampler}, the {@link SamplerEngine incremental
+ * engine} of the simulations, by default
+ * {@code compiled,BEAUMONT_CHOUKI,sampler,initial,imta};</li>
+ * <li>{@code --cases n} and {@code --steps n}: the number of nets and the
+ * length of the firing sequence of each, 10000 and 1000 by default;</li>
+ * <li>{@code --places n} and {@code --transitions n}: the largest size of
+ * the nets, 6 by default;</li>
+ * <li>{@code --arcs list}: some of {@code input}, {@code output},
+ * {@code inhibitor}, {@code reset} and {@code read}, all but {@code read} by
+ * default;</li>
+ * <li>{@code --capacities true|false}: whether some nets have place
+ * capacities, {@code true} by default;</li>
+ * <li>{@code --seed s}: net {@code i} is drawn with the seed {@code s + i}, so
+ * that {@code --seed s+i --cases 1} replays it;</li>
+ * <li>{@code --threads n}: the number of nets run at once, the number of
+ * processors by default.</li>
+ * </ul>
+ *
+ * <p>The exit status is 1 on a mismatch, 2 for a wrong command line.</p>
+ */
+public final class DifferentialTester {
+
+	/**
+	 * A difference between the engines.
+	 */
+	public static final class Failure {
+
+		private final NetCase net;
+		private final int[] trace;
+		private final String message;
+
+		Failure(final NetCase net, final int[] trace, final String message) {
+			this.net = net;
+			this.trace = trace;
+			this.message = message;
+		}
+
+		public NetCase getNet() {
+			return this.net;
+		}
+
+		/**
+		 * @return the transitions fired before the difference showed
+		 */
+		public int[] getTrace() {
+			return this.trace.clone();
+		}
+
+		public String getMessage() {
+			return this.message;
+		}
+
+		@Override
+		public String toString() {
+			final StringBuilder text = new StringBuilder(this.net.toString());
+			text.append("\nfiring");
+			if (this.trace.length == 0) {
+				text.append(" nothing");
+			}
+			for (final int transition : this.trace) {
+				text.append(" t").append(transition);
+			}
+			return text.append(":\n").append(this.message).toString();
+		}
+	}
+
+	private final List<String> engineNames;
+	private final int maxPlaces;
+	private final int maxTransitions;
+	private final Set<NetCase.Kind> kinds;
+	private final boolean capacities;
+	private final int steps;
+
+	private final LongAdder firedSteps = new LongAdder();
+	private final LongAdder skippedCases = new LongAdder();
+
+	/**
+	 * @throws IllegalArgumentException if an engine name is not known
+	 */
+	public DifferentialTester(final List<String> engineNames, final int maxPlaces, final int maxTransitions,
+			final Set<NetCase.Kind> kinds, final boolean capacities, final int steps) {
+		this.engineNames = new ArrayList<>(engineNames);
+		this.maxPlaces = maxPlaces;
+		this.maxTransitions = maxTransitions;
+		this.kinds = EnumSet.copyOf(kinds);
+		this.capacities = capacities;
+		this.steps = steps;
+		newEngines();
+	}
+
+	public static void main(final String[] args) throws Exception {
+		System.setProperty("java.awt.headless", "true");
+
+		List<String> engines = Arrays.asList(CompiledEngine.NAME, "BEAUMONT_CHOUKI", SamplerEngine.NAME, "initial",
+				"imta");
+		long cases = 10_000;
+		int steps = 1000;
+		int places = 6;
+		int transitions = 6;
+		Set<NetCase.Kind> kinds = EnumSet.complementOf(EnumSet.of(NetCase.Kind.READ));
+		boolean capacities = true;
+		long seed = 0;
+		int threads = Runtime.getRuntime().availableProcessors();
+		final DifferentialTester tester;
+		try {
+			for (int i = 0; i < args.length; i++) {
+				final String option = args[i];
+				if (i + 1 == args.length) {
+					throw new IllegalArgumentException("missing value for " + option);
+				}
+				final String value = args[++i];
+				switch (option) {
+				case "--engines":
+					engines = Arrays.asList(value.split(","));
+					break;
+				case "--cases":
+					cases = Long.parseLong(value);
+					break;
+				case "--steps":
+					steps = Integer.parseInt(value);
+					break;
+				case "--places":
+					places = Integer.parseInt(value);
+					break;
+				case "--transitions":
+					transitions = Integer.parseInt(value);
+					break;
+				case "--arcs":
+					kinds = EnumSet.noneOf(NetCase.Kind.class);
+					for (final String name : value.split(",")) {
+						kinds.add(NetCase.Kind.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+					}
+					break;
+				case "--capacities":
+					capacities = Boolean.parseBoolean(value);
+					break;
+				case "--seed":
+					seed = Long.parseLong(value);
+					break;
+				case "--threads":
+					threads = Integer.parseInt(value);
+					break;
+				default:
+					throw new IllegalArgumentException("unknown option " + option);
+				}
+			}
+			if (engines.size() < 2 || cases < 1 || steps < 0 || places < 1 || transitions < 1 || threads < 1) {
+				throw new IllegalArgumentException("nothing to compare");
+			}
+			tester = new DifferentialTester(engines, places, transitions, kinds, capacities, steps);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println("usage: DifferentialTester [--engines compiled,BEAUMONT_CHOUKI,sampler,initial,imta]"
+					+ " [--cases 10000] [--steps 1000] [--places 6] [--transitions 6]"
+					+ " [--arcs input,output,inhibitor,reset,read] [--capacities true] [--seed 0] [--threads n]");
+			System.exit(2);
+			return;
+		}
+
+		final long start = System.nanoTime();
+		final Failure failure = tester.run(cases, seed, threads);
+		final double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.println(String.format(Locale.ROOT, "%d steps in %.1f s (%.0f steps/s), %d nets skipped",
+				tester.getFiredSteps(), seconds, tester.getFiredSteps() / seconds, tester.getSkippedCases()));
+		if (failure != null) {
+			System.out.println("Mismatch, shrunk to:");
+			System.out.println(tester.shrink(failure));
+		}
+		System.exit(failure == null ? 0 : 1);
+	}
+
+	private List<Engine> newEngines() {
+		final List<Engine> engines = new ArrayList<>();
+		for (final String name : this.engineNames) {
+			switch (name) {
+			case CompiledEngine.NAME:
+				engines.add(new CompiledEngine("BEAUMONT_CHOUKI"));
+				break;
+			case SamplerEngine.NAME:
+				engines.add(new SamplerEngine());
+				break;
+			default:
+				engines.add(new InterfaceEngine(name));
+				break;
+			}
+		}
+		return engines;
+	}
+
+	/**
+	 * @return the nets of past mismatches, checked before the random ones
+	 */
+	static List<NetCase> regressions() {
+		final List<NetCase> nets = new ArrayList<>();
+		// a transition putting into a full place is enabled again once the
+		// place is emptied: the sampler did not re-test it
+		nets.add(new NetCase(new int[] { 1, 0 }, new int[] { 1, NetCase.NO_CAPACITY }, 2,
+				Arrays.asList(new NetCase.Arc(NetCase.Kind.INPUT, 0, 0, 1),
+						new NetCase.Arc(NetCase.Kind.OUTPUT, 1, 0, 1),
+						new NetCase.Arc(NetCase.Kind.OUTPUT, 0, 1, 1))));
+		return nets;
+	}
+
+	/**
+	 * @return the number of transitions fired in every engine so far
+	 */
+	public long getFiredSteps() {
+		return this.firedSteps.sum();
+	}
+
+	/**
+	 * @return the number of nets that less than two engines could load
+	 */
+	public long getSkippedCases() {
+		return this.skippedCases.sum();
+	}
+
+	/**
+	 * Runs the {@link #regressions()}, then the nets {@code seed} to
+	 * {@code seed + cases - 1} on at most {@code threads} threads, until the
+	 * first mismatch.
+	 *
+	 * @return the mismatch of the first regression or of the first net in seed
+	 *         order that has one, or {@code null}
+	 */
+	public Failure run(final long cases, final long seed, final int threads) throws InterruptedException {
+		final List<Engine> regressionEngines = newEngines();
+		for (final NetCase net : regressions()) {
+			final Failure found = check(regressionEngines, net, null, new SplittableRandom(seed));
+			if (found != null) {
+				return found;
+			}
+		}
+
+		final AtomicLong nextCase = new AtomicLong();
+		final AtomicLong failedCase = new AtomicLong(Long.MAX_VALUE);
+		final AtomicReference<Failure> failure = new AtomicReference<>();
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final List<Future<?>> workers = new ArrayList<>();
+			for (int w = 0; w < threads; w++) {
+				workers.add(executor.submit(() -> {
+					final List<Engine> engines = newEngines();
+					for (long index = nextCase.getAndIncrement(); index < cases
+							&& index < failedCase.get(); index = nextCase.getAndIncrement()) {
+						final SplittableRandom random = new SplittableRandom(seed + index);
+						final NetCase net = NetCase.random(random, this.maxPlaces, this.maxTransitions, this.kinds,
+								this.capacities);
+						final Failure found = check(engines, net, null, random);
+						if (found != null) {
+							synchronized (failure) {
+								if (index < failedCase.get()) {
+									failedCase.set(index);
+									failure.set(found);
+								}
+							}
+						}
+					}
+				}));
+			}
+			for (final Future<?> worker : workers) {
+				try {
+					worker.get();
+				} catch (ExecutionException e) {
+					// check() reports the exceptions of the engines, so this is an Error
+					throw new IllegalStateException(e.getCause());
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return failure.get();
+	}
+
+	/**
+	 * Plays a firing sequence on the engines in lockstep.
+	 *
+	 * @param trace  the transitions to fire, or {@code null} to draw
+	 *               {@code steps} transitions with {@code random}
+	 * @return the first difference between the engines, or {@code null} if
+	 *         they agree, if less than two of them support the net, or if the
+	 *         reference cannot fire the trace
+	 */
+	Failure check(final List<Engine> engines, final NetCase net, final int[] trace, final SplittableRandom random) {
+		final List<Engine> loaded = new ArrayList<>();
+		for (final Engine engine : engines) {
+			try {
+				engine.load(net);
+				loaded.add(engine);
+			} catch (UnimplementedCaseException e) {
+				// this engine sits the net out
+			} catch (RuntimeException e) {
+				return new Failure(net, new int[0], engine.getName() + " cannot load the net: " + e);
+			}
+		}
+		if (loaded.size() < 2) {
+			this.skippedCases.increment();
+			return null;
+		}
+
+		final int limit = trace == null ? this.steps : trace.length;
+		final int[] fired = new int[limit];
+		final boolean[] enabled = new boolean[net.getTransitionCount()];
+		for (int step = 0;; step++) {
+			final String mismatch = compare(loaded, net, enabled);
+			if (mismatch != null) {
+				return new Failure(net, Arrays.copyOf(fired, step), mismatch);
+			}
+			if (step == limit) {
+				return null;
+			}
+			final int next = trace == null ? draw(enabled, random) : trace[step];
+			if (next < 0 || !enabled[next]) {
+				return null;
+			}
+			for (final Engine engine : loaded) {
+				try {
+					engine.fire(next);
+				} catch (Exception e) {
+					return new Failure(net, Arrays.copyOf(fired, step + 1),
+							engine.getName() + " cannot fire t" + next + ": " + e);
+				}
+			}
+			fired[step] = next;
+			this.firedSteps.increment();
+		}
+	}
+
+	/**
+	 * Compares the markings and the enabled transitions of the engines with the
+	 * ones of the first, filling {@code enabled} with the latter.
+	 *
+	 * @return the first difference, or {@code null}
+	 */
+	private static String compare(final List<Engine> engines, final NetCase net, final boolean[] enabled) {
+		final Engine reference = engines.get(0);
+		for (int p = 0; p < net.getPlaceCount(); p++) {
+			final int tokens = reference.getTokens(p);
+			for (final Engine engine : engines) {
+				if (engine.getTokens(p) != tokens) {
+					return "p" + p + " holds " + tokens + " tokens in " + reference.getName() + " but "
+							+ engine.getTokens(p) + " in " + engine.getName();
+				}
+			}
+		}
+		for (int t = 0; t < enabled.length; t++) {
+			for (final Engine engine : engines) {
+				final boolean isEnabled;
+				try {
+					isEnabled = engine.isEnabled(t);
+				} catch (Exception e) {
+					return engine.getName() + " cannot tell if t" + t + " is enabled: " + e;
+				}
+				if (engine == reference) {
+					enabled[t] = isEnabled;
+				} else if (isEnabled != enabled[t]) {
+					return "t" + t + (enabled[t] ? " is" : " is not") + " enabled in " + reference.getName()
+							+ " but" + (isEnabled ? " is" : " not") + " in " + engine.getName();
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return an enabled transition chosen uniformly, -1 if there is none
+	 */
+	private static int draw(final boolean[] enabled, final SplittableRandom random) {
+		int count = 0;
+		for (final boolean isEnabled : enabled) {
+			if (isEnabled) {
+				count++;
+			}
+		}
+		if (count == 0) {
+			return -1;
+		}
+		int rank = random.nextInt(count);
+		for (int t = 0;; t++) {
+			if (enabled[t] && rank-- == 0) {
+				return t;
+			}
+		}
+	}
+
+	/**
+	 * Makes the net and the firing sequence of a mismatch as small as
+	 * possible, keeping any mismatch between the engines.
+	 *
+	 * @return a mismatch none of whose reductions is one
+	 */
+	public Failure shrink(final Failure failure) {
+		final List<Engine> engines = newEngines();
+		Failure smallest = failure;
+		boolean isShrunk = true;
+		while (isShrunk) {
+			isShrunk = false;
+			for (final Failure candidate : reductions(smallest)) {
+				final Failure found = check(engines, candidate.net, candidate.trace, null);
+				if (found != null && isSmaller(found, smallest)) {
+					smallest = found;
+					isShrunk = true;
+					break;
+				}
+			}
+		}
+		return smallest;
+	}
+
+	private static boolean isSmaller(final Failure failure, final Failure other) {
+		final int size = failure.net.getSize();
+		final int otherSize = other.net.getSize();
+		return size < otherSize || size == otherSize && failure.trace.length < other.trace.length;
+	}
+
+	/**
+	 * @return the nets and traces one step smaller than the failure, the
+	 *         largest reductions first
+	 */
+	private static List<Failure> reductions(final Failure failure) {
+		final NetCase net = failure.net;
+		final int[] trace = failure.trace;
+		final List<Failure> reductions = new ArrayList<>();
+		for (int t = 0; t < net.getTransitionCount(); t++) {
+			reductions.add(new Failure(net.withoutTransition(t), withoutTransition(trace, t), null));
+		}
+		for (int p = 0; p < net.getPlaceCount(); p++) {
+			reductions.add(new Failure(net.withoutPlace(p), trace, null));
+		}
+		for (int i = 0; i < trace.length; i++) {
+			final int[] shorter = new int[trace.length - 1];
+			System.arraycopy(trace, 0, shorter, 0, i);
+			System.arraycopy(trace, i + 1, shorter, i, shorter.length - i);
+			reductions.add(new Failure(net, shorter, null));
+		}
+		for (int a = 0; a < net.getArcs().size(); a++) {
+			reductions.add(new Failure(net.withoutArc(a), trace, null));
+		}
+		for (int a = 0; a < net.getArcs().size(); a++) {
+			final int weight = net.getArcs().get(a).getWeight();
+			if (weight > 1) {
+				reductions.add(new Failure(net.withWeight(a, weight - 1), trace, null));
+			}
+		}
+		for (int p = 0; p < net.getPlaceCount(); p++) {
+			if (net.hasCapacity(p)) {
+				reductions.add(new Failure(net.withCapacity(p, NetCase.NO_CAPACITY), trace, null));
+				if (net.getCapacity(p) > net.getTokens(p)) {
+					reductions.add(new Failure(net.withCapacity(p, net.getCapacity(p) - 1), trace, null));
+				}
+			}
+		}
+		for (int p = 0; p < net.getPlaceCount(); p++) {
+			if (net.getTokens(p) > 0) {
+				reductions.add(new Failure(net.withTokens(p, 0), trace, null));
+				reductions.add(new Failure(net.withTokens(p, net.getTokens(p) - 1), trace, null));
+			}
+		}
+		return reductions;
+	}
+
+	/**
+	 * @return the trace without the firings of the transition, the next
+	 *         transitions being renumbered
+	 */
+	private static int[] withoutTransition(final int[] trace, final int transition) {
+		return Arrays.stream(trace).filter(t -> t != transition).map(t -> t > transition ? t - 1 : t).toArray();
+	}
+}
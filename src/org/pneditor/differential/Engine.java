@@ -0,0 +1,26 @@
+package org.pneditor.differential;
+
+import org.pneditor.petrinet.UnimplementedCaseException;
+
+/**
+ * An implementation of the firing rule driven by {@link DifferentialTester},
+ * on places and transitions numbered as in the loaded {@link NetCase}.
+ */
+public interface Engine {
+
+	String getName();
+
+	/**
+	 * Replaces the net of the engine by {@code net}, in its initial marking.
+	 *
+	 * @throws UnimplementedCaseException if the engine does not support an arc
+	 *                                    of the net
+	 */
+	void load(NetCase net) throws UnimplementedCaseException;
+
+	boolean isEnabled(int transition) throws Exception;
+
+	void fire(int transition) throws Exception;
+
+	int getTokens(int place);
+}
@@ -0,0 +1,114 @@
+package org.pneditor.differential;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.pneditor.petrinet.AbstractArc;
+import org.pneditor.petrinet.AbstractPlace;
+import org.pneditor.petrinet.AbstractTransition;
+import org.pneditor.petrinet.PetriNetInterface;
+import org.pneditor.petrinet.ResetArcMultiplicityException;
+import org.pneditor.petrinet.UnimplementedCaseException;
+
+/**
+ * Drives a model through its {@link PetriNetInterface} adapter, as the editor
+ * does.
+ */
+public class InterfaceEngine implements Engine {
+
+	private static final String MODEL_PATH = "org.pneditor.petrinet.adapters.";
+	private static final String ADAPTER_PATH = ".PetriNetAdapter";
+
+	private final String model;
+	private PetriNetInterface petriNet;
+	private final List<AbstractPlace> places = new ArrayList<>();
+	private final List<AbstractTransition> transitions = new ArrayList<>();
+
+	/**
+	 * @param model the name of the model, as for the {@code --model} option of
+	 *              {@link org.pneditor.batch.BatchRunner}
+	 * @throws IllegalArgumentException if there is no such model
+	 */
+	public InterfaceEngine(final String model) {
+		this.model = model;
+		newPetriNet();
+	}
+
+	@Override
+	public String getName() {
+		return this.model;
+	}
+
+	public PetriNetInterface getPetriNet() {
+		return this.petriNet;
+	}
+
+	@Override
+	public void load(final NetCase net) throws UnimplementedCaseException {
+		newPetriNet();
+		this.places.clear();
+		this.transitions.clear();
+		for (int p = 0; p < net.getPlaceCount(); p++) {
+			final AbstractPlace place = this.petriNet.addAbstractPlace();
+			place.setTokens(net.getTokens(p));
+			if (net.hasCapacity(p)) {
+				place.setCapacity(net.getCapacity(p));
+			}
+			this.places.add(place);
+		}
+		for (int t = 0; t < net.getTransitionCount(); t++) {
+			this.transitions.add(this.petriNet.addAbstractTransition());
+		}
+		for (final NetCase.Arc arc : net.getArcs()) {
+			final AbstractPlace place = this.places.get(arc.getPlace());
+			final AbstractTransition transition = this.transitions.get(arc.getTransition());
+			final AbstractArc added;
+			switch (arc.getKind()) {
+			case INPUT:
+				added = this.petriNet.addRegArc(place, transition);
+				break;
+			case OUTPUT:
+				added = this.petriNet.addRegArc(transition, place);
+				break;
+			case INHIBITOR:
+				added = this.petriNet.addInhibArc(place, transition);
+				break;
+			case RESET:
+				this.petriNet.addResArc(place, transition);
+				continue;
+			default:
+				added = this.petriNet.addReadArc(place, transition);
+				break;
+			}
+			try {
+				added.setMultiplicity(arc.getWeight());
+			} catch (ResetArcMultiplicityException e) {
+				throw new IllegalStateException(e.getMessage(), e);
+			}
+		}
+	}
+
+	private void newPetriNet() {
+		try {
+			this.petriNet = (PetriNetInterface) Class.forName(MODEL_PATH + this.model + ADAPTER_PATH)
+					.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalArgumentException("unknown model " + this.model, e);
+		}
+	}
+
+	@Override
+	public boolean isEnabled(final int transition) throws ResetArcMultiplicityException {
+		return this.petriNet.isEnabled(this.transitions.get(transition));
+	}
+
+	@Override
+	public void fire(final int transition) throws ResetArcMultiplicityException {
+		this.petriNet.fire(this.transitions.get(transition));
+	}
+
+	@Override
+	public int getTokens(final int place) {
+		return this.places.get(place).getTokens();
+	}
+}
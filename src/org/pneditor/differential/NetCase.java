@@ -0,0 +1,281 @@
+package org.pneditor.differential;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+/**
+ * A small net given by indices, that every {@link Engine} can load, and that
+ * {@link DifferentialTester} shrinks by removing or lowering its parts.
+ *
+ * <p>A place has at most one of the input, inhibitory, reset and read arcs to
+ * a transition, and at most one output arc from it, as some models refuse
+ * parallel arcs. A place may have a capacity, never below its initial
+ * tokens.</p>
+ */
+public final class NetCase {
+
+	/** The capacity of a place without capacity, as in the models. */
+	public static final int NO_CAPACITY = Integer.MAX_VALUE;
+
+	/**
+	 * The kinds of arcs between a place and a transition.
+	 */
+	public enum Kind {
+		/** A regular arc from the place to the transition. */
+		INPUT,
+		/** A regular arc from the transition to the place. */
+		OUTPUT,
+		INHIBITOR,
+		RESET,
+		READ
+	}
+
+	/**
+	 * An arc of a case.
+	 */
+	public static final class Arc {
+
+		private final Kind kind;
+		private final int place;
+		private final int transition;
+		private final int weight;
+
+		public Arc(final Kind kind, final int place, final int transition, final int weight) {
+			this.kind = kind;
+			this.place = place;
+			this.transition = transition;
+			this.weight = kind == Kind.RESET ? 1 : weight;
+		}
+
+		public Kind getKind() {
+			return this.kind;
+		}
+
+		public int getPlace() {
+			return this.place;
+		}
+
+		public int getTransition() {
+			return this.transition;
+		}
+
+		/**
+		 * @return the multiplicity of the arc, always 1 for a reset arc
+		 */
+		public int getWeight() {
+			return this.weight;
+		}
+
+		@Override
+		public String toString() {
+			final String weightSuffix = this.weight == 1 ? "" : " x" + this.weight;
+			switch (this.kind) {
+			case OUTPUT:
+				return "t" + this.transition + " -> p" + this.place + weightSuffix;
+			case INPUT:
+				return "p" + this.place + " -> t" + this.transition + weightSuffix;
+			default:
+				return "p" + this.place + " -" + this.kind.name().toLowerCase() + "-> t" + this.transition
+						+ weightSuffix;
+			}
+		}
+	}
+
+	private final int[] tokens;
+	private final int[] capacities;
+	private final int transitionCount;
+	private final List<Arc> arcs;
+
+	/**
+	 * @param tokens          the initial tokens of the places
+	 * @param capacities      the capacities of the places, {@link #NO_CAPACITY}
+	 *                        for none
+	 * @param transitionCount the number of transitions
+	 * @param arcs            arcs between these places and transitions
+	 */
+	public NetCase(final int[] tokens, final int[] capacities, final int transitionCount, final List<Arc> arcs) {
+		this.tokens = tokens.clone();
+		this.capacities = capacities.clone();
+		this.transitionCount = transitionCount;
+		this.arcs = Collections.unmodifiableList(new ArrayList<>(arcs));
+	}
+
+	private static int[] noCapacities(final int placeCount) {
+		final int[] capacities = new int[placeCount];
+		Arrays.fill(capacities, NO_CAPACITY);
+		return capacities;
+	}
+
+	/**
+	 * Draws a net of 1 to {@code maxPlaces} places and 1 to
+	 * {@code maxTransitions} transitions, with arcs of the given kinds and
+	 * multiplicities up to 3. With {@code capacities}, half of the nets have
+	 * capacities, on about half of their places, up to 2 above their initial
+	 * tokens; the other half are left to the models without capacities.
+	 */
+	public static NetCase random(final SplittableRandom random, final int maxPlaces, final int maxTransitions,
+			final Set<Kind> kinds, final boolean capacities) {
+		final int placeCount = 1 + random.nextInt(maxPlaces);
+		final int transitionCount = 1 + random.nextInt(maxTransitions);
+		final int[] tokens = new int[placeCount];
+		for (int p = 0; p < placeCount; p++) {
+			tokens[p] = random.nextInt(4);
+		}
+		final int[] placeCapacities = noCapacities(placeCount);
+		if (capacities && random.nextBoolean()) {
+			for (int p = 0; p < placeCount; p++) {
+				if (random.nextBoolean()) {
+					placeCapacities[p] = tokens[p] + random.nextInt(3);
+				}
+			}
+		}
+		final Kind[] inputKinds = kinds.stream().filter(kind -> kind != Kind.OUTPUT).toArray(Kind[]::new);
+		final List<Arc> arcs = new ArrayList<>();
+		for (int t = 0; t < transitionCount; t++) {
+			for (int p = 0; p < placeCount; p++) {
+				// about two input and two output arcs per transition
+				if (inputKinds.length > 0 && random.nextInt(placeCount) < 2) {
+					final Kind kind = random.nextInt(2) == 0 && kinds.contains(Kind.INPUT) ? Kind.INPUT
+							: inputKinds[random.nextInt(inputKinds.length)];
+					arcs.add(new Arc(kind, p, t, 1 + random.nextInt(3)));
+				}
+				if (kinds.contains(Kind.OUTPUT) && random.nextInt(placeCount) < 2) {
+					arcs.add(new Arc(Kind.OUTPUT, p, t, 1 + random.nextInt(3)));
+				}
+			}
+		}
+		return new NetCase(tokens, placeCapacities, transitionCount, arcs);
+	}
+
+	public int getPlaceCount() {
+		return this.tokens.length;
+	}
+
+	public int getTransitionCount() {
+		return this.transitionCount;
+	}
+
+	public int getTokens(final int place) {
+		return this.tokens[place];
+	}
+
+	/**
+	 * @return the capacity of the place, {@link #NO_CAPACITY} if it has none
+	 */
+	public int getCapacity(final int place) {
+		return this.capacities[place];
+	}
+
+	public boolean hasCapacity(final int place) {
+		return this.capacities[place] != NO_CAPACITY;
+	}
+
+	public List<Arc> getArcs() {
+		return this.arcs;
+	}
+
+	/**
+	 * @return this case without the place and its arcs, the next places being
+	 *         renumbered
+	 */
+	public NetCase withoutPlace(final int place) {
+		final int[] newTokens = new int[this.tokens.length - 1];
+		System.arraycopy(this.tokens, 0, newTokens, 0, place);
+		System.arraycopy(this.tokens, place + 1, newTokens, place, newTokens.length - place);
+		final int[] newCapacities = new int[newTokens.length];
+		System.arraycopy(this.capacities, 0, newCapacities, 0, place);
+		System.arraycopy(this.capacities, place + 1, newCapacities, place, newCapacities.length - place);
+		final List<Arc> newArcs = new ArrayList<>();
+		for (final Arc arc : this.arcs) {
+			if (arc.place != place) {
+				newArcs.add(new Arc(arc.kind, arc.place > place ? arc.place - 1 : arc.place, arc.transition,
+						arc.weight));
+			}
+		}
+		return new NetCase(newTokens, newCapacities, this.transitionCount, newArcs);
+	}
+
+	/**
+	 * @return this case without the transition and its arcs, the next
+	 *         transitions being renumbered
+	 */
+	public NetCase withoutTransition(final int transition) {
+		final List<Arc> newArcs = new ArrayList<>();
+		for (final Arc arc : this.arcs) {
+			if (arc.transition != transition) {
+				newArcs.add(new Arc(arc.kind, arc.place,
+						arc.transition > transition ? arc.transition - 1 : arc.transition, arc.weight));
+			}
+		}
+		return new NetCase(this.tokens, this.capacities, this.transitionCount - 1, newArcs);
+	}
+
+	public NetCase withoutArc(final int index) {
+		final List<Arc> newArcs = new ArrayList<>(this.arcs);
+		newArcs.remove(index);
+		return new NetCase(this.tokens, this.capacities, this.transitionCount, newArcs);
+	}
+
+	public NetCase withWeight(final int index, final int weight) {
+		final List<Arc> newArcs = new ArrayList<>(this.arcs);
+		final Arc arc = newArcs.get(index);
+		newArcs.set(index, new Arc(arc.kind, arc.place, arc.transition, weight));
+		return new NetCase(this.tokens, this.capacities, this.transitionCount, newArcs);
+	}
+
+	public NetCase withTokens(final int place, final int count) {
+		final int[] newTokens = this.tokens.clone();
+		newTokens[place] = count;
+		return new NetCase(newTokens, this.capacities, this.transitionCount, this.arcs);
+	}
+
+	/**
+	 * @param capacity the new capacity of the place, {@link #NO_CAPACITY} for
+	 *                 none, not below its tokens
+	 */
+	public NetCase withCapacity(final int place, final int capacity) {
+		final int[] newCapacities = this.capacities.clone();
+		newCapacities[place] = capacity;
+		return new NetCase(this.tokens, newCapacities, this.transitionCount, this.arcs);
+	}
+
+	/**
+	 * @return the size of the case, that shrinking lowers
+	 */
+	public int getSize() {
+		int size = this.tokens.length + this.transitionCount;
+		for (final int count : this.tokens) {
+			size += count;
+		}
+		for (final int capacity : this.capacities) {
+			if (capacity != NO_CAPACITY) {
+				size += 1 + capacity;
+			}
+		}
+		for (final Arc arc : this.arcs) {
+			size += 1 + arc.weight;
+		}
+		return size;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder text = new StringBuilder();
+		text.append(this.tokens.length).append(" places, tokens ").append(Arrays.toString(this.tokens));
+		if (Arrays.stream(this.capacities).anyMatch(capacity -> capacity != NO_CAPACITY)) {
+			text.append(", capacities ").append(Arrays.stream(this.capacities)
+					.mapToObj(capacity -> capacity == NO_CAPACITY ? "-" : Integer.toString(capacity))
+					.collect(Collectors.joining(", ", "[", "]")));
+		}
+		text.append(", ").append(this.transitionCount).append(" transitions, arcs:");
+		for (final Arc arc : this.arcs) {
+			text.append("\n  ").append(arc);
+		}
+		return text.toString();
+	}
+}
@@ -0,0 +1,86 @@
+package org.pneditor.differential;
+
+import java.util.List;
+
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Place;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Transition;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.PetriNET.PetriNet1;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Simulation.TransitionSampler;
+
+/**
+ * Drives the BEAUMONT_CHOUKI model as its simulations do: the enabled
+ * transitions are the drawable ones kept by a {@link TransitionSampler}, which
+ * only re-tests the transitions a firing may have changed.
+ */
+public class SamplerEngine implements Engine {
+
+	/** The name of this engine for {@link DifferentialTester}. */
+	public static final String NAME = "sampler";
+
+	private PetriNet1 petriNet;
+	private TransitionSampler sampler;
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	/**
+	 * Builds the net with the arcs of the BEAUMONT_CHOUKI adapter, which ignores
+	 * the weight of inhibitor arcs.
+	 */
+	@Override
+	public void load(final NetCase net) {
+		this.petriNet = new PetriNet1();
+		for (int p = 0; p < net.getPlaceCount(); p++) {
+			this.petriNet.addPlace(net.getTokens(p));
+			if (net.hasCapacity(p)) {
+				this.petriNet.getPlaces().get(p).setCapacity(net.getCapacity(p));
+			}
+		}
+		for (int t = 0; t < net.getTransitionCount(); t++) {
+			this.petriNet.addTransition();
+		}
+		final List<Place> places = this.petriNet.getPlaces();
+		final List<Transition> transitions = this.petriNet.getTransitions();
+		for (final NetCase.Arc arc : net.getArcs()) {
+			final Place place = places.get(arc.getPlace());
+			final Transition transition = transitions.get(arc.getTransition());
+			switch (arc.getKind()) {
+			case INPUT:
+				this.petriNet.addEdge(arc.getWeight(), place, transition);
+				break;
+			case OUTPUT:
+				this.petriNet.addEdge(arc.getWeight(), transition, place);
+				break;
+			case INHIBITOR:
+				this.petriNet.addEdgeZero(place, transition);
+				break;
+			case RESET:
+				this.petriNet.addEdgeEmpty(place, transition);
+				break;
+			default:
+				this.petriNet.addReadEdge(arc.getWeight(), place, transition);
+				break;
+			}
+		}
+		this.sampler = new TransitionSampler(transitions);
+	}
+
+	@Override
+	public boolean isEnabled(final int transition) {
+		return this.sampler.isDrawable(this.petriNet.getTransitions().get(transition));
+	}
+
+	@Override
+	public void fire(final int transition) {
+		final Transition fired = this.petriNet.getTransitions().get(transition);
+		this.petriNet.stepSimulation(fired);
+		this.sampler.update(fired);
+	}
+
+	@Override
+	public int getTokens(final int place) {
+		return this.petriNet.getPlaces().get(place).getNbTokens();
+	}
+}
@@ -36,6 +36,12 @@ import javax.swing.*;
 import javax.swing.event.*;
 import org.pneditor.editor.actions.*;
 import org.pneditor.editor.actions.algorithms.BoundednessAction;
+import org.pneditor.editor.actions.algorithms.CtlAction;
+import org.pneditor.editor.actions.algorithms.FluidAction;
+import org.pneditor.editor.actions.algorithms.LtlAction;
+import org.pneditor.editor.actions.algorithms.PlaceBoundsAction;
+import org.pneditor.editor.actions.algorithms.SiphonsAndTrapsAction;
+import org.pneditor.editor.actions.algorithms.UnfoldingAction;
 import org.pneditor.editor.actions.draw.ArcSelectToolAction;
 import org.pneditor.editor.actions.draw.PlaceSelectToolAction;
 import org.pneditor.editor.actions.draw.SelectionSelectToolAction;
@@ -50,8 +56,10 @@ import org.pneditor.editor.actions.edit.SelectAllAction;
 import org.pneditor.editor.actions.edit.UndoAction;
 import org.pneditor.editor.actions.element.SetArcInhibitoryAction;
 import org.pneditor.editor.actions.element.SetArcMultiplicityAction;
+import org.pneditor.editor.actions.element.SetArcReadAction;
 import org.pneditor.editor.actions.element.SetArcRegularAction;
 import org.pneditor.editor.actions.element.SetArcResetAction;
+import org.pneditor.editor.actions.element.SetCapacityAction;
 import org.pneditor.editor.actions.element.SetLabelAction;
 import org.pneditor.editor.actions.element.SetTokensAction;
 import org.pneditor.editor.actions.file.ExportAction;
@@ -71,7 +79,10 @@ import org.pneditor.editor.filechooser.ViptoolPnmlFileType;
 import org.pneditor.editor.gpetrinet.GraphicArc;
 import org.pneditor.editor.gpetrinet.GraphicElement;
 import org.pneditor.editor.gpetrinet.GraphicPetriNet;
+import org.pneditor.metrics.Metrics;
+import org.pneditor.petrinet.AbstractPlace;
 import org.pneditor.petrinet.PetriNetInterface;
+import org.pneditor.petrinet.algorithms.ReachabilityGraph;
 import org.pneditor.util.GraphicsTools;
 import org.pneditor.PNEConstantsConfiguration;
 
@@ -306,6 +317,7 @@ public final class Root implements WindowListener, ListSelectionListener, Select
 		this.placePopup = new JPopupMenu();
 		this.placePopup.add(this.setLabel);
 		this.placePopup.add(this.setTokens);
+		this.placePopup.add(this.setCapacity);
 		this.placePopup.addSeparator();
 		this.placePopup.add(this.cutAction);
 		this.placePopup.add(this.copyAction);
@@ -334,6 +346,7 @@ public final class Root implements WindowListener, ListSelectionListener, Select
 		this.arcPopup.add(this.setArcMultiplicity);
 		this.arcPopup.add(this.setArcRegular);
 		this.arcPopup.add(this.setArcInhibitory);
+		this.arcPopup.add(this.setArcRead);
 		this.arcPopup.add(this.setArcReset);
 
 		this.arcPopup.add(this.delete);
@@ -357,8 +370,10 @@ public final class Root implements WindowListener, ListSelectionListener, Select
 	
 	private Action setLabel;
 	private Action setTokens;
+	private Action setCapacity;
 	private Action setArcMultiplicity;
 	private Action setArcInhibitory;
+	private Action setArcRead;
 	private Action setArcReset;
 	private Action setArcRegular;
 	
@@ -370,7 +385,27 @@ public final class Root implements WindowListener, ListSelectionListener, Select
 	
 	private final Set<JMenuItem> modelsList = new HashSet<>();
 
+	// Place bounds overlay - per tab, dropped as soon as the net is edited
+	private Map<AbstractPlace, Integer> placeBounds;
+
+	public Map<AbstractPlace, Integer> getPlaceBounds() {
+		return this.placeBounds;
+	}
+
+	public void setPlaceBounds(final Map<AbstractPlace, Integer> placeBounds) {
+		this.placeBounds = placeBounds;
+		repaintCanvas();
+	}
+
+	// Kept across edits so that analyses only re-explore what an edit changed
+	private final ReachabilityGraph reachabilityGraph = new ReachabilityGraph();
+
+	public ReachabilityGraph getReachabilityGraph() {
+		return this.reachabilityGraph;
+	}
+
 	public void refreshAll() {
+		this.placeBounds = null;
 		this.canvas.repaint();
 		enableOnlyPossibleActions();
 	}
@@ -398,9 +433,11 @@ public final class Root implements WindowListener, ListSelectionListener, Select
 		this.delete.setEnabled(isDeletable);
 		this.setArcMultiplicity.setEnabled(!isReset);
 		this.setArcInhibitory.setEnabled(isSourceAPlace);
+		this.setArcRead.setEnabled(isSourceAPlace);
 		this.setArcReset.setEnabled(isSourceAPlace);
 		this.setArcRegular.setEnabled(isArc);
 		this.setTokens.setEnabled(isPlace);
+		this.setCapacity.setEnabled(isPlace);
 		this.setLabel.setEnabled(isPlace || isTransition);
 		this.undo.setEnabled(getUndoManager().isUndoable());
 		this.redo.setEnabled(getUndoManager().isRedoable());
@@ -514,8 +551,10 @@ public final class Root implements WindowListener, ListSelectionListener, Select
 	private JMenu setupAndGetElementMenu() {
 		this.setLabel = new SetLabelAction(this);
 		this.setTokens = new SetTokensAction(this);
+		this.setCapacity = new SetCapacityAction(this);
 		this.setArcMultiplicity = new SetArcMultiplicityAction(this);
 		this.setArcInhibitory = new SetArcInhibitoryAction(this);
+		this.setArcRead = new SetArcReadAction(this);
 		this.setArcRegular = new SetArcRegularAction(this);
 		this.setArcReset = new SetArcResetAction(this);
 		
@@ -525,9 +564,11 @@ public final class Root implements WindowListener, ListSelectionListener, Select
 		elementMenu.add(this.setLabel);
 		elementMenu.addSeparator();
 		elementMenu.add(this.setTokens);
+		elementMenu.add(this.setCapacity);
 		elementMenu.addSeparator();
 		elementMenu.add(this.setArcMultiplicity);
 		elementMenu.add(this.setArcInhibitory);
+		elementMenu.add(this.setArcRead);
 		elementMenu.add(this.setArcReset);
 		elementMenu.add(this.setArcRegular);
 		
@@ -647,9 +688,16 @@ public final class Root implements WindowListener, ListSelectionListener, Select
 
 		// asus 2012 algorithms submenu items
 		algorithmsMenu.add(new BoundednessAction(this));
+		algorithmsMenu.add(new PlaceBoundsAction(this));
+		algorithmsMenu.add(new SiphonsAndTrapsAction(this));
+		algorithmsMenu.add(new CtlAction(this));
+		algorithmsMenu.add(new LtlAction(this));
+		algorithmsMenu.add(new UnfoldingAction(this));
+		algorithmsMenu.add(new FluidAction(this));
 
 		final JMenu helpMenu = new JMenu("Help");
 		helpMenu.add(new AboutAction(this));
+		helpMenu.add(new DumpMetricsAction(this));
 		
 		menuBar.add(setupAndGetFileMenu());
 		menuBar.add(setupAndGetEditMenu());
@@ -672,6 +720,11 @@ public final class Root implements WindowListener, ListSelectionListener, Select
 
 		this.mainFrame.add(splitPane, BorderLayout.CENTER);
 		this.mainFrame.add(this.toolBar, BorderLayout.NORTH);
+		if (Metrics.ENABLED) {
+			final JLabel metricsLabel = new JLabel(Metrics.getSummary());
+			new javax.swing.Timer(1000, e -> metricsLabel.setText(Metrics.getSummary())).start();
+			this.mainFrame.add(metricsLabel, BorderLayout.SOUTH);
+		}
 
 		this.mainFrame.addWindowListener(this);
 		this.mainFrame.setLocation(50, 50);
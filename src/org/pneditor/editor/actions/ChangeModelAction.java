@@ -17,7 +17,9 @@
 package org.pneditor.editor.actions;
 
 import java.awt.event.ActionEvent;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.swing.AbstractAction;
@@ -31,9 +33,8 @@ import org.pneditor.petrinet.AbstractArc;
 import org.pneditor.petrinet.AbstractNode;
 import org.pneditor.petrinet.AbstractPlace;
 import org.pneditor.petrinet.AbstractTransition;
+import org.pneditor.petrinet.NetBatch;
 import org.pneditor.petrinet.PetriNetInterface;
-import org.pneditor.petrinet.ResetArcMultiplicityException;
-import org.pneditor.petrinet.UnimplementedCaseException;
 
 import logger.PNEditorLogger;
 
@@ -63,60 +64,59 @@ public class ChangeModelAction extends AbstractAction {
 	public void actionPerformed(final ActionEvent e) {
 		this.root.setCurrentModel(this.model);
 		
-		final Map<AbstractNode,AbstractNode> matchingNodes = new HashMap<>();
 		try {
 			final PetriNetInterface petriNet = (PetriNetInterface) Class.forName(MODEL_PATH + this.model + ADAPTER_PATH).newInstance();
-			for (final GraphicElement element : this.root.getGraphicPetriNet().getElements()) {
+			final List<GraphicElement> elements = this.root.getGraphicPetriNet().getElements();
+			final NetBatch batch = petriNet.newBatch(elements.size(), elements.size());
+			final Map<AbstractNode, Integer> matchingNodes = new HashMap<>();
+			final List<GraphicElement> batchedNodes = new ArrayList<>();
+			for (final GraphicElement element : elements) {
 
 				if (element.isPlace()) {
-					final GraphicPlace gPlace = (GraphicPlace) element;
-					final AbstractPlace oldPlace = gPlace.getPlace();
-					final AbstractPlace place = petriNet.addAbstractPlace(oldPlace.getId());
-					place.setTokens(oldPlace.getTokens());
-					place.setLabel(oldPlace.getLabel());
-					gPlace.setPlace(place);
-					
-					matchingNodes.put(oldPlace, place);
+					final AbstractPlace oldPlace = ((GraphicPlace) element).getPlace();
+					matchingNodes.put(oldPlace, batch.addPlace(oldPlace.getId(), oldPlace.getTokens(),
+							oldPlace.getCapacity()));
+					batchedNodes.add(element);
 				}
 
 				if (element.isTransition()) {
-					final GraphicTransition gTransition = (GraphicTransition) element;
-					final AbstractTransition oldTransition = gTransition.getTransition();
-					final AbstractTransition transition = petriNet.addAbstractTransition(oldTransition.getId());
-					transition.setLabel(oldTransition.getLabel());
-					gTransition.setTransition(transition);
-					
-					matchingNodes.put(oldTransition, transition);
+					final AbstractTransition oldTransition = ((GraphicTransition) element).getTransition();
+					matchingNodes.put(oldTransition, batch.addTransition(oldTransition.getId()));
+					batchedNodes.add(element);
 				}
 			}
 
-			for (final GraphicElement element : this.root.getGraphicPetriNet().getElements()) {
+			final List<GraphicArc> batchedArcs = new ArrayList<>();
+			for (final GraphicElement element : elements) {
 
 				if (!element.isNode()) {
 					final GraphicArc gArc = (GraphicArc) element;
 					final AbstractArc oldArc = gArc.getArc();
-					try {
-						AbstractArc arc;
-						final AbstractNode source = matchingNodes.get(oldArc.getSource());
-						final AbstractNode destination = matchingNodes.get(oldArc.getDestination());
-						
-						if (oldArc.isReset()) {
-							arc = petriNet.addResArc((AbstractPlace) source,
-									(AbstractTransition) destination);
-						} else {
-							if (oldArc.isInhibitory()) {
-								arc = petriNet.addInhibArc((AbstractPlace) source,
-										(AbstractTransition) destination);
-							} else {
-								arc = petriNet.addRegArc(source, destination);
-							}
-							arc.setMultiplicity(oldArc.getMultiplicity());
-						}
-						gArc.setArc(arc);
-					} catch (UnimplementedCaseException | ResetArcMultiplicityException e1) {
-						// ResetArcMultiplicityException should not happen
-						
-					}
+					batch.addArcLike(oldArc, matchingNodes.get(oldArc.getSource()),
+							matchingNodes.get(oldArc.getDestination()));
+					batchedArcs.add(gArc);
+				}
+			}
+			batch.commit();
+
+			for (int i = 0; i < batchedNodes.size(); i++) {
+				final GraphicElement element = batchedNodes.get(i);
+				if (element.isPlace()) {
+					final GraphicPlace gPlace = (GraphicPlace) element;
+					final AbstractPlace place = (AbstractPlace) batch.getNode(i);
+					place.setLabel(gPlace.getPlace().getLabel());
+					gPlace.setPlace(place);
+				} else {
+					final GraphicTransition gTransition = (GraphicTransition) element;
+					final AbstractTransition transition = (AbstractTransition) batch.getNode(i);
+					transition.setLabel(gTransition.getTransition().getLabel());
+					gTransition.setTransition(transition);
+				}
+			}
+			for (int i = 0; i < batchedArcs.size(); i++) {
+				// an arc the new model does not support is logged by the batch
+				if (batch.getArc(i) != null) {
+					batchedArcs.get(i).setArc(batch.getArc(i));
 				}
 			}
 			this.root.getGraphicPetriNet().setPetriNet(petriNet);
@@ -0,0 +1,50 @@
+package org.pneditor.editor.actions;
+
+import java.awt.event.ActionEvent;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import javax.swing.AbstractAction;
+import javax.swing.JFileChooser;
+import javax.swing.JOptionPane;
+import org.pneditor.editor.Root;
+import org.pneditor.metrics.Metrics;
+
+/**
+ * Saves the counters and timers of the metrics registry as a CSV file.
+ * Disabled unless the editor was started with {@code -Dpneditor.metrics=true}.
+ */
+@SuppressWarnings("serial")
+public class DumpMetricsAction extends AbstractAction {
+
+    private final Root root;
+
+    public DumpMetricsAction(final Root root) {
+    	super();
+        this.root = root;
+        String name = "Dump metrics...";
+        putValue(NAME, name);
+        putValue(SHORT_DESCRIPTION, name);
+        setEnabled(Metrics.ENABLED);
+    }
+
+    @Override
+	public void actionPerformed(final ActionEvent e) {
+        final JFileChooser chooser = new JFileChooser();
+        chooser.setCurrentDirectory(this.root.getCurrentDirectory());
+        chooser.setSelectedFile(new File("metrics.csv"));
+        chooser.setDialogTitle("Dump metrics");
+
+        if (chooser.showSaveDialog(this.root.getParentFrame()) == JFileChooser.APPROVE_OPTION) {
+            final File file = chooser.getSelectedFile();
+            try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                Metrics.dump(out);
+            } catch (IOException ex) {
+                JOptionPane.showMessageDialog(this.root.getParentFrame(), ex.getMessage());
+            }
+        }
+        this.root.setCurrentDirectory(chooser.getCurrentDirectory());
+    }
+}
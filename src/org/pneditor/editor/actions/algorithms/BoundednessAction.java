@@ -18,9 +18,17 @@ package org.pneditor.editor.actions.algorithms;
 
 import java.awt.HeadlessException;
 import java.awt.event.ActionEvent;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import javax.management.ObjectName;
 import javax.swing.AbstractAction;
+import javax.swing.JDialog;
 import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
 import org.pneditor.editor.Root;
+import org.pneditor.monitoring.BoundednessMonitor;
+import org.pneditor.monitoring.Monitoring;
+import org.pneditor.petrinet.Boundedness;
 import org.pneditor.petrinet.ResetArcMultiplicityException;
 
 import logger.PNEditorLogger;
@@ -43,21 +51,62 @@ public class BoundednessAction extends AbstractAction {
         setEnabled(true);
     }
 
+    /**
+     * Runs the check on a background thread, so that the editor keeps painting
+     * while it is paused from a JMX console. A modal dialog blocks the edits of
+     * the net meanwhile and lets the user cancel the check.
+     */
     @Override
     public void actionPerformed(final ActionEvent e) {
+        final Boundedness boundedness = new Boundedness(this.root.getPetriNet());
+        final BoundednessMonitor monitor = new BoundednessMonitor();
+        boundedness.setMonitor(monitor);
+        final JOptionPane pane = new JOptionPane("Checking boundedness...", JOptionPane.INFORMATION_MESSAGE,
+                JOptionPane.DEFAULT_OPTION, null, new Object[] { "Cancel" });
+        final JDialog dialog = pane.createDialog(this.root.getParentFrame(), "Boundedness");
+
+        final SwingWorker<Boolean, Void> worker = new SwingWorker<Boolean, Void>() {
+            @Override
+            protected Boolean doInBackground() throws ResetArcMultiplicityException {
+                final ObjectName name = Monitoring.ENABLED ? Monitoring.register("Boundedness", monitor) : null;
+                try {
+                    return boundedness.isBounded();
+                } finally {
+                    Monitoring.unregister(name);
+                }
+            }
+
+            @Override
+            protected void done() {
+                dialog.dispose();
+                showResult(this);
+            }
+        };
+        worker.execute();
+        dialog.setVisible(true);
+        if (!worker.isDone()) {
+            // the dialog was closed by the user
+            monitor.cancel();
+        }
+    }
+
+    private void showResult(final SwingWorker<Boolean, Void> worker) {
         try {
-			if (this.root.getPetriNet().isBounded()) {
-			    JOptionPane.showMessageDialog(this.root.getParentFrame(), "PetriNet is NOT bounded ", "Algorithm output", JOptionPane.INFORMATION_MESSAGE);
-			} else {
+			if (worker.get()) {
 			    JOptionPane.showMessageDialog(this.root.getParentFrame(), "PetriNet is bounded", "Algorithm output", JOptionPane.INFORMATION_MESSAGE);
+			} else {
+			    JOptionPane.showMessageDialog(this.root.getParentFrame(), "PetriNet is NOT bounded ", "Algorithm output", JOptionPane.INFORMATION_MESSAGE);
 			}
 		} catch (HeadlessException e1) {
 			PNEditorLogger.warningLogs(e1.getMessage());
-		} catch (ResetArcMultiplicityException e2) {
-			PNEditorLogger.severeLogs(e2.getMessage());
+		} catch (InterruptedException e2) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e3) {
+			if (e3.getCause() instanceof CancellationException) {
+				JOptionPane.showMessageDialog(this.root.getParentFrame(), "Boundedness check cancelled", "Algorithm output", JOptionPane.INFORMATION_MESSAGE);
+			} else {
+				PNEditorLogger.severeLogs(e3.getCause().getMessage());
+			}
 		}
     }
-
-
-
 }
@@ -0,0 +1,88 @@
+package org.pneditor.editor.actions.algorithms;
+
+import java.awt.Dimension;
+import java.awt.HeadlessException;
+import java.awt.event.ActionEvent;
+import javax.swing.AbstractAction;
+import javax.swing.JOptionPane;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import org.pneditor.editor.Root;
+import org.pneditor.petrinet.ResetArcMultiplicityException;
+import org.pneditor.petrinet.algorithms.CompiledNet;
+import org.pneditor.petrinet.algorithms.CtlFormula;
+import org.pneditor.petrinet.algorithms.CtlModelChecker;
+import org.pneditor.petrinet.algorithms.FormulaSyntaxException;
+import org.pneditor.petrinet.algorithms.ReachabilityGraph;
+
+import logger.PNEditorLogger;
+
+/**
+ * Checks a CTL formula on the reachability graph of the net and shows a
+ * witness or counterexample path.
+ */
+@SuppressWarnings("serial")
+public class CtlAction extends AbstractAction {
+
+	private static final String HELP = "CTL formula, e.g. AG !deadlock, AG (p1 > 0 -> AF p2 > 0), EF (p1 + p2 = 3)";
+
+	private final Root root;
+	private String lastFormula = "AG !deadlock";
+
+	public CtlAction(final Root root) {
+		super();
+		this.root = root;
+		String name = "CTL model checking";
+		putValue(NAME, name);
+		putValue(SHORT_DESCRIPTION, "Checks a CTL formula on the reachable markings");
+		setEnabled(true);
+	}
+
+	@Override
+	public void actionPerformed(final ActionEvent e) {
+		try {
+			final String text = JOptionPane.showInputDialog(this.root.getParentFrame(), HELP, this.lastFormula);
+			if (text == null || text.trim().isEmpty()) {
+				return;
+			}
+			this.lastFormula = text;
+
+			final CompiledNet net = new CompiledNet(this.root.getPetriNet());
+			final CtlFormula formula;
+			try {
+				formula = CtlFormula.parse(text, net);
+			} catch (FormulaSyntaxException exception) {
+				JOptionPane.showMessageDialog(this.root.getParentFrame(), exception.getMessage(), "Invalid formula",
+						JOptionPane.ERROR_MESSAGE);
+				return;
+			}
+			final ReachabilityGraph graph = this.root.getReachabilityGraph();
+			graph.update(net);
+			final CtlModelChecker.Result result = new CtlModelChecker(graph).check(formula);
+
+			final StringBuilder message = new StringBuilder();
+			message.append(text.trim()).append(result.holds() ? "\nholds" : "\ndoes NOT hold")
+					.append(" in the initial marking (").append(result.getSatisfyingStates()).append(" of ")
+					.append(graph.getStateCount()).append(" reachable markings satisfy it)\n");
+			if (!result.isComplete()) {
+				message.append("WARNING: the exploration stopped after ").append(graph.getStateCount())
+						.append(" markings, the answer may be wrong\n");
+			}
+			final String path = result.describePath();
+			if (!path.isEmpty()) {
+				message.append(result.holds() ? "\nWitness:\n" : "\nCounterexample:\n").append(path);
+			}
+
+			final JTextArea area = new JTextArea(message.toString());
+			area.setEditable(false);
+			final JScrollPane scrollPane = new JScrollPane(area);
+			scrollPane.setPreferredSize(new Dimension(480, 300));
+			JOptionPane.showMessageDialog(this.root.getParentFrame(), scrollPane, "Algorithm output",
+					JOptionPane.INFORMATION_MESSAGE);
+		} catch (HeadlessException e1) {
+			PNEditorLogger.warningLogs(e1.getMessage());
+		} catch (ResetArcMultiplicityException e2) {
+			PNEditorLogger.severeLogs(e2.getMessage());
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package org.pneditor.editor.actions.algorithms;
+
+import java.awt.BorderLayout;
+import java.awt.HeadlessException;
+import java.awt.event.ActionEvent;
+import javax.swing.AbstractAction;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import org.pneditor.editor.Root;
+import org.pneditor.petrinet.ResetArcMultiplicityException;
+import org.pneditor.petrinet.algorithms.CompiledNet;
+import org.pneditor.petrinet.algorithms.FluidNet;
+import org.pneditor.petrinet.algorithms.FluidSolver;
+
+import logger.PNEditorLogger;
+
+/**
+ * Integrates the fluid approximation of the net, every transition having rate
+ * 1, and plots the token count of every place over time.
+ */
+@SuppressWarnings("serial")
+public class FluidAction extends AbstractAction {
+
+	private final Root root;
+	private String lastHorizon = "100";
+
+	public FluidAction(final Root root) {
+		super();
+		this.root = root;
+		String name = "Fluid approximation";
+		putValue(NAME, name);
+		putValue(SHORT_DESCRIPTION, "Plots the continuous approximation of the token counts over time");
+		setEnabled(true);
+	}
+
+	@Override
+	public void actionPerformed(final ActionEvent e) {
+		try {
+			final String text = JOptionPane.showInputDialog(this.root.getParentFrame(),
+					"Time horizon (every transition has rate 1)", this.lastHorizon);
+			if (text == null || text.trim().isEmpty()) {
+				return;
+			}
+			double horizon;
+			try {
+				horizon = Double.parseDouble(text.trim());
+			} catch (NumberFormatException exception) {
+				horizon = -1;
+			}
+			if (!(horizon > 0) || Double.isInfinite(horizon)) {
+				JOptionPane.showMessageDialog(this.root.getParentFrame(), "Invalid time horizon: " + text,
+						"Fluid approximation", JOptionPane.ERROR_MESSAGE);
+				return;
+			}
+			this.lastHorizon = text.trim();
+
+			final CompiledNet net = new CompiledNet(this.root.getPetriNet());
+			final FluidNet fluidNet = new FluidNet(net, FluidNet.Semantics.INFINITE_SERVER);
+			final FluidSolver.Trajectory trajectory = new FluidSolver(fluidNet).solve(horizon,
+					FluidSolver.DEFAULT_STEP_LIMIT);
+
+			final String[] names = new String[net.getPlaceCount()];
+			final StringBuilder summary = new StringBuilder("<html>");
+			final double[] last = trajectory.getFinalState();
+			for (int p = 0; p < names.length; p++) {
+				names[p] = net.getPlaceName(p);
+				summary.append(names[p]).append(" = ").append(String.format("%.4g", last[p])).append(" &nbsp; ");
+			}
+			final int steps = trajectory.getPointCount() - 1;
+			summary.append("<br>at t = ").append(String.format("%.4g", trajectory.getTime(steps)))
+					.append(" after ").append(steps).append(" steps");
+			if (!trajectory.isComplete()) {
+				summary.append("<br>WARNING: the integration stopped before the time horizon");
+			}
+			if (fluidNet.hasResetArcs()) {
+				summary.append("<br>WARNING: reset arcs are ignored");
+			}
+			summary.append("</html>");
+
+			final JPanel panel = new JPanel(new BorderLayout());
+			panel.add(new TrajectoryPanel(trajectory, names), BorderLayout.CENTER);
+			panel.add(new JLabel(summary.toString()), BorderLayout.SOUTH);
+			JOptionPane.showMessageDialog(this.root.getParentFrame(), panel, "Algorithm output",
+					JOptionPane.PLAIN_MESSAGE);
+		} catch (HeadlessException e1) {
+			PNEditorLogger.warningLogs(e1.getMessage());
+		} catch (ResetArcMultiplicityException e2) {
+			PNEditorLogger.severeLogs(e2.getMessage());
+		}
+	}
+}
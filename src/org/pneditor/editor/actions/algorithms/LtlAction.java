@@ -0,0 +1,117 @@
+package org.pneditor.editor.actions.algorithms;
+
+import java.awt.HeadlessException;
+import java.awt.event.ActionEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.swing.AbstractAction;
+import javax.swing.JOptionPane;
+import org.pneditor.editor.Root;
+import org.pneditor.editor.commands.FireTransitionCommand;
+import org.pneditor.editor.gpetrinet.GraphicElement;
+import org.pneditor.editor.gpetrinet.GraphicTransition;
+import org.pneditor.petrinet.AbstractTransition;
+import org.pneditor.petrinet.ResetArcMultiplicityException;
+import org.pneditor.petrinet.algorithms.CompiledNet;
+import org.pneditor.petrinet.algorithms.FormulaSyntaxException;
+import org.pneditor.petrinet.algorithms.LtlFormula;
+import org.pneditor.petrinet.algorithms.LtlModelChecker;
+
+import logger.PNEditorLogger;
+
+/**
+ * Checks an LTL formula on the fly and offers to replay the counterexample on
+ * the net.
+ */
+@SuppressWarnings("serial")
+public class LtlAction extends AbstractAction {
+
+	private static final String HELP = "LTL formula, e.g. G !deadlock, G (p1 > 0 -> F p2 > 0), G F enabled(t1)";
+
+	private final Root root;
+	private String lastFormula = "G !deadlock";
+
+	public LtlAction(final Root root) {
+		super();
+		this.root = root;
+		String name = "LTL model checking";
+		putValue(NAME, name);
+		putValue(SHORT_DESCRIPTION, "Checks an LTL formula on every run, stopping at the first counterexample");
+		setEnabled(true);
+	}
+
+	@Override
+	public void actionPerformed(final ActionEvent e) {
+		try {
+			final String text = JOptionPane.showInputDialog(this.root.getParentFrame(), HELP, this.lastFormula);
+			if (text == null || text.trim().isEmpty()) {
+				return;
+			}
+			this.lastFormula = text;
+
+			final CompiledNet net = new CompiledNet(this.root.getPetriNet());
+			final LtlFormula formula;
+			try {
+				formula = LtlFormula.parse(text, net);
+			} catch (FormulaSyntaxException exception) {
+				JOptionPane.showMessageDialog(this.root.getParentFrame(), exception.getMessage(), "Invalid formula",
+						JOptionPane.ERROR_MESSAGE);
+				return;
+			}
+			final LtlModelChecker.Result result = new LtlModelChecker(net, LtlModelChecker.DEFAULT_STATE_LIMIT)
+					.check(formula);
+
+			final String explored = "\n(" + result.getExploredStates() + " product states explored)";
+			if (result.holds() == null) {
+				JOptionPane.showMessageDialog(this.root.getParentFrame(),
+						text.trim() + "\nundecided: the state limit was reached" + explored, "Algorithm output",
+						JOptionPane.WARNING_MESSAGE);
+			} else if (result.holds()) {
+				JOptionPane.showMessageDialog(this.root.getParentFrame(), text.trim() + "\nholds" + explored,
+						"Algorithm output", JOptionPane.INFORMATION_MESSAGE);
+			} else {
+				final String message = text.trim() + "\ndoes NOT hold" + explored + "\n\nCounterexample:\n"
+						+ result.describeCounterexample() + "\n\nReplay it on the net?";
+				final int answer = JOptionPane.showConfirmDialog(this.root.getParentFrame(), message,
+						"Algorithm output", JOptionPane.YES_NO_OPTION, JOptionPane.INFORMATION_MESSAGE);
+				if (answer == JOptionPane.YES_OPTION) {
+					final List<AbstractTransition> sequence = new ArrayList<>(result.getPrefix());
+					sequence.addAll(result.getCycle());
+					replay(sequence);
+				}
+			}
+		} catch (HeadlessException e1) {
+			PNEditorLogger.warningLogs(e1.getMessage());
+		} catch (ResetArcMultiplicityException e2) {
+			PNEditorLogger.severeLogs(e2.getMessage());
+		}
+	}
+
+	/**
+	 * Fires the transitions one by one, as undoable commands, stopping at the
+	 * first one the model does not enable (the models may differ from the
+	 * interface semantics used by the checker).
+	 */
+	private void replay(final List<AbstractTransition> sequence) throws ResetArcMultiplicityException {
+		final Map<AbstractTransition, GraphicTransition> graphicTransitions = new HashMap<>();
+		for (final GraphicElement element : this.root.getGraphicPetriNet().getElements()) {
+			if (element.isTransition()) {
+				final GraphicTransition transition = (GraphicTransition) element;
+				graphicTransitions.put(transition.getTransition(), transition);
+			}
+		}
+		for (final AbstractTransition transition : sequence) {
+			final GraphicTransition graphicTransition = graphicTransitions.get(transition);
+			if (graphicTransition == null || !this.root.getPetriNet().isEnabled(transition)) {
+				JOptionPane.showMessageDialog(this.root.getParentFrame(),
+						"The model does not enable the next transition of the counterexample", "Replay",
+						JOptionPane.WARNING_MESSAGE);
+				return;
+			}
+			this.root.getUndoManager().executeCommand(
+					new FireTransitionCommand(graphicTransition, this.root.getGraphicPetriNet()));
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package org.pneditor.editor.actions.algorithms;
+
+import java.awt.HeadlessException;
+import java.awt.event.ActionEvent;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.swing.AbstractAction;
+import javax.swing.JOptionPane;
+import org.pneditor.editor.Root;
+import org.pneditor.petrinet.AbstractPlace;
+import org.pneditor.petrinet.ResetArcMultiplicityException;
+import org.pneditor.petrinet.algorithms.CompiledNet;
+import org.pneditor.petrinet.algorithms.PlaceBounds;
+import org.pneditor.petrinet.algorithms.ReachabilityGraph;
+
+import logger.PNEditorLogger;
+
+/**
+ * Computes the bound of every place and shows it on the canvas.
+ */
+@SuppressWarnings("serial")
+public class PlaceBoundsAction extends AbstractAction {
+
+	private final Root root;
+
+	public PlaceBoundsAction(final Root root) {
+		super();
+		this.root = root;
+		String name = "Place bounds";
+		putValue(NAME, name);
+		putValue(SHORT_DESCRIPTION, "Maximum number of tokens of every place");
+		setEnabled(true);
+	}
+
+	@Override
+	public void actionPerformed(final ActionEvent e) {
+		try {
+			final CompiledNet net = new CompiledNet(this.root.getPetriNet());
+			final ReachabilityGraph graph = this.root.getReachabilityGraph();
+			final int[] bounds;
+			final String explored;
+			boolean exact = true;
+			if (graph.update(net)) {
+				// finite state space: the reachable markings give the exact bounds
+				bounds = graph.getBounds();
+				explored = graph.getStateCount() + " reachable markings (" + graph.getExpandedStates()
+						+ " re-explored)\n";
+			} else {
+				final PlaceBounds placeBounds = new PlaceBounds(net);
+				bounds = placeBounds.getBoundIndexes();
+				explored = placeBounds.getExploredMarkings() + " markings explored\n";
+				exact = placeBounds.isExact();
+			}
+			final Map<AbstractPlace, Integer> overlay = new HashMap<>();
+			for (int p = 0; p < bounds.length; p++) {
+				overlay.put(net.getPlace(p), bounds[p]);
+			}
+			this.root.setPlaceBounds(overlay);
+
+			int unbounded = 0;
+			int largest = 0;
+			for (final int bound : bounds) {
+				if (bound == CompiledNet.OMEGA) {
+					unbounded++;
+				} else {
+					largest = Math.max(largest, bound);
+				}
+			}
+			final String message = explored
+					+ (unbounded == 0 ? "PetriNet is " + largest + "-bounded"
+							: unbounded + " of " + bounds.length
+									+ (exact ? " places are NOT bounded" : " places may be unbounded"))
+					+ (exact ? "" : "\n(upper bounds: inhibitor and reset arcs are over-approximated)");
+			JOptionPane.showMessageDialog(this.root.getParentFrame(), message, "Algorithm output",
+					JOptionPane.INFORMATION_MESSAGE);
+		} catch (HeadlessException e1) {
+			PNEditorLogger.warningLogs(e1.getMessage());
+		} catch (ResetArcMultiplicityException e2) {
+			PNEditorLogger.severeLogs(e2.getMessage());
+		}
+	}
+}
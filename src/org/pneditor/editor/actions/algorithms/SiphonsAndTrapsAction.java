@@ -0,0 +1,77 @@
+package org.pneditor.editor.actions.algorithms;
+
+import java.awt.HeadlessException;
+import java.awt.event.ActionEvent;
+import java.util.BitSet;
+import java.util.List;
+import javax.swing.AbstractAction;
+import javax.swing.JOptionPane;
+import org.pneditor.editor.Root;
+import org.pneditor.petrinet.ResetArcMultiplicityException;
+import org.pneditor.petrinet.algorithms.CompiledNet;
+import org.pneditor.petrinet.algorithms.SiphonsAndTraps;
+
+import logger.PNEditorLogger;
+
+/**
+ * Lists the minimal siphons and traps of the current net and tells whether
+ * Commoner's property holds.
+ */
+@SuppressWarnings("serial")
+public class SiphonsAndTrapsAction extends AbstractAction {
+
+	private static final int MAX_LISTED = 15;
+
+	private final Root root;
+
+	public SiphonsAndTrapsAction(final Root root) {
+		super();
+		this.root = root;
+		String name = "Siphons and traps";
+		putValue(NAME, name);
+		putValue(SHORT_DESCRIPTION, name);
+		setEnabled(true);
+	}
+
+	@Override
+	public void actionPerformed(final ActionEvent e) {
+		try {
+			final SiphonsAndTraps analysis = new SiphonsAndTraps(this.root.getPetriNet());
+			final StringBuilder message = new StringBuilder();
+			final List<BitSet> siphons = analysis.getMinimalSiphonIndexes();
+			final List<BitSet> traps = analysis.getMinimalTrapIndexes();
+			final List<BitSet> uncovered = analysis.getUncoveredSiphonIndexes();
+
+			message.append("Minimal siphons: ").append(siphons.size()).append('\n');
+			appendSets(message, analysis.getNet(), siphons);
+			message.append("Minimal traps: ").append(traps.size()).append('\n');
+			appendSets(message, analysis.getNet(), traps);
+			if (uncovered.isEmpty()) {
+				message.append("Commoner's property holds: every siphon contains a marked trap");
+			} else {
+				message.append("Commoner's property does NOT hold, siphons without a marked trap:\n");
+				appendSets(message, analysis.getNet(), uncovered);
+			}
+			JOptionPane.showMessageDialog(this.root.getParentFrame(), message.toString(), "Algorithm output",
+					JOptionPane.INFORMATION_MESSAGE);
+		} catch (HeadlessException e1) {
+			PNEditorLogger.warningLogs(e1.getMessage());
+		} catch (ResetArcMultiplicityException e2) {
+			PNEditorLogger.severeLogs(e2.getMessage());
+		}
+	}
+
+	private static void appendSets(final StringBuilder message, final CompiledNet net, final List<BitSet> sets) {
+		for (int i = 0; i < sets.size() && i < MAX_LISTED; i++) {
+			final BitSet set = sets.get(i);
+			message.append("  {");
+			for (int p = set.nextSetBit(0); p >= 0; p = set.nextSetBit(p + 1)) {
+				message.append(p == set.nextSetBit(0) ? "" : ", ").append(net.getPlaceName(p));
+			}
+			message.append("}\n");
+		}
+		if (sets.size() > MAX_LISTED) {
+			message.append("  ... ").append(sets.size() - MAX_LISTED).append(" more\n");
+		}
+	}
+}
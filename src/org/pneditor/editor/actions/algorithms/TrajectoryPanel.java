@@ -0,0 +1,91 @@
+package org.pneditor.editor.actions.algorithms;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Path2D;
+import javax.swing.JPanel;
+
+import org.pneditor.petrinet.algorithms.FluidSolver;
+
+/**
+ * Line plot of the token count of every place along a fluid trajectory.
+ */
+@SuppressWarnings("serial")
+class TrajectoryPanel extends JPanel {
+
+	private static final int MARGIN = 40;
+	private static final int LEGEND_WIDTH = 120;
+
+	private final FluidSolver.Trajectory trajectory;
+	private final String[] placeNames;
+
+	TrajectoryPanel(final FluidSolver.Trajectory trajectory, final String[] placeNames) {
+		this.trajectory = trajectory;
+		this.placeNames = placeNames.clone();
+		setBackground(Color.WHITE);
+		setPreferredSize(new Dimension(640, 400));
+	}
+
+	private static Color colorOf(final int place) {
+		return Color.getHSBColor(place * 0.618034f % 1, 0.8f, 0.75f);
+	}
+
+	@Override
+	protected void paintComponent(final Graphics g) {
+		super.paintComponent(g);
+		final Graphics2D g2 = (Graphics2D) g;
+		g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		final int points = this.trajectory.getPointCount();
+		final int places = this.trajectory.getPlaceCount();
+		final double endTime = this.trajectory.getTime(points - 1);
+		double maxTokens = 0;
+		for (int i = 0; i < points; i++) {
+			for (int p = 0; p < places; p++) {
+				maxTokens = Math.max(maxTokens, this.trajectory.getTokens(i, p));
+			}
+		}
+		if (maxTokens == 0) {
+			maxTokens = 1;
+		}
+
+		final int width = getWidth() - 2 * MARGIN - LEGEND_WIDTH;
+		final int height = getHeight() - 2 * MARGIN;
+		final int left = MARGIN;
+		final int bottom = MARGIN + height;
+		final FontMetrics metrics = g2.getFontMetrics();
+
+		g2.setColor(Color.BLACK);
+		g2.drawLine(left, bottom, left + width, bottom);
+		g2.drawLine(left, bottom, left, MARGIN);
+		g2.drawString("0", left - metrics.stringWidth("0") - 4, bottom);
+		final String top = String.format("%.4g", maxTokens);
+		g2.drawString(top, Math.max(0, left - metrics.stringWidth(top) - 4), MARGIN + metrics.getAscent());
+		final String end = "t = " + String.format("%.4g", endTime);
+		g2.drawString(end, left + width - metrics.stringWidth(end), bottom + metrics.getHeight());
+
+		g2.setStroke(new BasicStroke(1.5f));
+		for (int p = 0; p < places; p++) {
+			final Path2D.Double line = new Path2D.Double();
+			for (int i = 0; i < points; i++) {
+				final double x = left + (endTime == 0 ? 0 : this.trajectory.getTime(i) / endTime * width);
+				final double y = bottom - this.trajectory.getTokens(i, p) / maxTokens * height;
+				if (i == 0) {
+					line.moveTo(x, y);
+				} else {
+					line.lineTo(x, y);
+				}
+			}
+			g2.setColor(colorOf(p));
+			g2.draw(line);
+
+			final int legendY = MARGIN + p * metrics.getHeight();
+			g2.fillRect(left + width + 16, legendY + 2, 10, 10);
+			g2.drawString(this.placeNames[p], left + width + 32, legendY + metrics.getAscent());
+		}
+	}
+}
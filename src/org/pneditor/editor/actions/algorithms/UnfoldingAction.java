@@ -0,0 +1,120 @@
+package org.pneditor.editor.actions.algorithms;
+
+import java.awt.Dimension;
+import java.awt.HeadlessException;
+import java.awt.event.ActionEvent;
+import javax.swing.AbstractAction;
+import javax.swing.JOptionPane;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import org.pneditor.editor.Root;
+import org.pneditor.petrinet.AbstractTransition;
+import org.pneditor.petrinet.ResetArcMultiplicityException;
+import org.pneditor.petrinet.algorithms.CompiledNet;
+import org.pneditor.petrinet.algorithms.CtlFormula;
+import org.pneditor.petrinet.algorithms.FormulaSyntaxException;
+import org.pneditor.petrinet.algorithms.Unfolding;
+import org.pneditor.petrinet.algorithms.UnsafeNetException;
+
+import logger.PNEditorLogger;
+
+/**
+ * Builds the complete finite prefix of the unfolding of a safe net and
+ * searches it for a deadlock or a marking.
+ */
+@SuppressWarnings("serial")
+public class UnfoldingAction extends AbstractAction {
+
+	private static final String HELP = "Marking to reach, e.g. p1 = 1 & p2 = 0 (leave empty to search a deadlock)";
+
+	private final Root root;
+	private String lastCondition = "";
+
+	public UnfoldingAction(final Root root) {
+		super();
+		this.root = root;
+		String name = "Unfolding";
+		putValue(NAME, name);
+		putValue(SHORT_DESCRIPTION, "Searches a safe net for a deadlock or a marking with its unfolding");
+		setEnabled(true);
+	}
+
+	@Override
+	public void actionPerformed(final ActionEvent e) {
+		try {
+			final String text = JOptionPane.showInputDialog(this.root.getParentFrame(), HELP, this.lastCondition);
+			if (text == null) {
+				return;
+			}
+			this.lastCondition = text;
+
+			final CompiledNet net = new CompiledNet(this.root.getPetriNet());
+			CtlFormula condition = null;
+			if (!text.trim().isEmpty()) {
+				try {
+					condition = CtlFormula.parse(text, net);
+					if (!condition.isStateFormula()) {
+						throw new FormulaSyntaxException("Temporal operators are not allowed here", 0);
+					}
+				} catch (FormulaSyntaxException exception) {
+					JOptionPane.showMessageDialog(this.root.getParentFrame(), exception.getMessage(),
+							"Invalid condition", JOptionPane.ERROR_MESSAGE);
+					return;
+				}
+			}
+
+			final Unfolding unfolding;
+			try {
+				unfolding = new Unfolding(net);
+			} catch (UnsafeNetException exception) {
+				JOptionPane.showMessageDialog(this.root.getParentFrame(),
+						"The net is not safe: " + exception.getMessage(), "Algorithm output",
+						JOptionPane.WARNING_MESSAGE);
+				return;
+			}
+			final Unfolding.Search search = condition == null
+					? unfolding.findDeadlock(Unfolding.DEFAULT_CONFIGURATION_LIMIT)
+					: unfolding.findMarking(condition::test, Unfolding.DEFAULT_CONFIGURATION_LIMIT);
+
+			final StringBuilder message = new StringBuilder();
+			message.append("Prefix: ").append(unfolding.getEventCount()).append(" events (")
+					.append(unfolding.getCutOffCount()).append(" cut-offs), ").append(unfolding.getConditionCount())
+					.append(" conditions\n");
+			if (!unfolding.isComplete()) {
+				message.append("WARNING: the construction stopped after ").append(unfolding.getEventCount())
+						.append(" events\n");
+			}
+			final String goal = condition == null ? "deadlock" : "marking satisfying " + text.trim();
+			if (search.found() == null) {
+				message.append("\nundecided: no ").append(goal).append(" found in ")
+						.append(search.getVisitedConfigurations()).append(" configurations\n");
+			} else if (search.found()) {
+				message.append("\nReachable ").append(goal).append(":\n");
+				final int[] marking = search.getMarking();
+				for (int p = 0; p < marking.length; p++) {
+					if (marking[p] > 0) {
+						message.append(net.getPlaceName(p)).append(' ');
+					}
+				}
+				message.append("\n\nFiring sequence:\n");
+				for (final AbstractTransition transition : search.getSequence()) {
+					message.append(net.getTransitionName(net.indexOf(transition))).append(' ');
+				}
+				message.append('\n');
+			} else {
+				message.append("\nNo reachable ").append(goal).append('\n');
+			}
+
+			final JTextArea area = new JTextArea(message.toString());
+			area.setEditable(false);
+			final JScrollPane scrollPane = new JScrollPane(area);
+			scrollPane.setPreferredSize(new Dimension(480, 300));
+			JOptionPane.showMessageDialog(this.root.getParentFrame(), scrollPane, "Algorithm output",
+					JOptionPane.INFORMATION_MESSAGE);
+		} catch (HeadlessException e1) {
+			PNEditorLogger.warningLogs(e1.getMessage());
+		} catch (ResetArcMultiplicityException e2) {
+			PNEditorLogger.severeLogs(e2.getMessage());
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package org.pneditor.editor.actions.element;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+
+import javax.swing.AbstractAction;
+
+import org.pneditor.editor.Root;
+import org.pneditor.editor.commands.SetArcReadCommand;
+import org.pneditor.editor.gpetrinet.GraphicArc;
+
+/**
+ * Turns the clicked arc into a read arc.
+ */
+@SuppressWarnings("serial")
+public class SetArcReadAction extends AbstractAction {
+
+	private final Root root;
+
+	public SetArcReadAction(final Root root) {
+		super();
+		this.root = root;
+		String name = "Set read arc type";
+		putValue(NAME, name);
+		putValue(SHORT_DESCRIPTION, name);
+		putValue(MNEMONIC_KEY, KeyEvent.VK_E);
+		setEnabled(false);
+	}
+
+	@Override
+	public void actionPerformed(final ActionEvent e) {
+		if (this.root.getClickedElement() != null && !this.root.getClickedElement().isNode()) {
+			final GraphicArc arc = (GraphicArc) this.root.getClickedElement();
+			this.root.getUndoManager().executeCommand(new SetArcReadCommand(arc, this.root.getGraphicPetriNet()));
+		}
+
+	}
+}
@@ -0,0 +1,67 @@
+package org.pneditor.editor.actions.element;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+
+import javax.swing.AbstractAction;
+import javax.swing.JOptionPane;
+
+import org.pneditor.editor.Root;
+import org.pneditor.editor.commands.SetCapacityCommand;
+import org.pneditor.editor.gpetrinet.GraphicPlace;
+import org.pneditor.util.GraphicsTools;
+import org.pneditor.PNEConstantsConfiguration;
+
+/**
+ * Sets the capacity of the clicked place. An empty answer removes the capacity.
+ */
+@SuppressWarnings("serial")
+public class SetCapacityAction extends AbstractAction {
+
+	private final Root root;
+
+	public SetCapacityAction(final Root root) {
+		super();
+		this.root = root;
+		String name = "Set capacity";
+		putValue(NAME, name);
+		putValue(SMALL_ICON, GraphicsTools.getIcon(PNEConstantsConfiguration.TOKENS));
+		putValue(SHORT_DESCRIPTION, name);
+		putValue(MNEMONIC_KEY, KeyEvent.VK_C);
+		setEnabled(false);
+	}
+
+	@Override
+	public void actionPerformed(final ActionEvent e) {
+		if (this.root.getClickedElement() != null && this.root.getClickedElement().isPlace()) {
+			final GraphicPlace place = (GraphicPlace) this.root.getClickedElement();
+			final int oldCapacity = place.getPlace().getCapacity();
+			int capacity = oldCapacity;
+
+			final String response = JOptionPane.showInputDialog(this.root.getParentFrame(), "Capacity:",
+					place.getPlace().hasCapacity() ? Integer.toString(oldCapacity) : "");
+			if (response != null) {
+				try {
+					capacity = response.trim().isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(response.trim());
+				} catch (NumberFormatException exception) {
+					JOptionPane.showMessageDialog(this.root.getParentFrame(),
+							exception.getMessage() + " is not a number");
+				}
+
+				if (capacity < 0) {
+					capacity = oldCapacity; // restore old value
+					JOptionPane.showMessageDialog(this.root.getParentFrame(), "Capacity must be non-negative");
+				} else if (capacity < place.getPlace().getTokens()) {
+					capacity = oldCapacity; // restore old value
+					JOptionPane.showMessageDialog(this.root.getParentFrame(),
+							"Capacity must not be below the number of tokens");
+				}
+			}
+
+			if (capacity != oldCapacity) {
+				this.root.getUndoManager().executeCommand(new SetCapacityCommand(place, capacity));
+			}
+
+		}
+	}
+}
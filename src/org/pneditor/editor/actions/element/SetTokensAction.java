@@ -66,6 +66,9 @@ public class SetTokensAction extends AbstractAction {
 					tokens = place.getPlace().getTokens(); // restore old value
 					JOptionPane.showMessageDialog(this.root.getParentFrame(), "Number of tokens must be non-negative");
 					// TODO : check with model?
+				} else if (tokens > place.getPlace().getCapacity()) {
+					tokens = place.getPlace().getTokens(); // restore old value
+					JOptionPane.showMessageDialog(this.root.getParentFrame(), "Number of tokens exceeds the capacity");
 				}
 			}
 
@@ -29,6 +29,9 @@ import java.util.List;
 import javax.swing.*;
 import org.pneditor.editor.Root;
 import org.pneditor.editor.gpetrinet.GraphicElement;
+import org.pneditor.metrics.Metrics;
+import org.pneditor.metrics.Timer;
+import org.pneditor.monitoring.FlightRecorderEvents;
 import org.pneditor.util.Point;
 
 /**
@@ -38,6 +41,8 @@ import org.pneditor.util.Point;
 @SuppressWarnings("serial")
 public class Canvas extends JPanel implements MouseListener, MouseMotionListener, MouseWheelListener {
 
+	private static final Timer PAINT = Metrics.timer("canvas.paint");
+
 	private final List<GraphicElement> highlightedElements = new ArrayList<>();
 	private Cursor alternativeCursor;
 	public Cursor activeCursor;
@@ -61,6 +66,7 @@ public class Canvas extends JPanel implements MouseListener, MouseMotionListener
 		this.features.add(new DraggingFeature(this));
 		this.features.add(new SelectionDrawingFeature(this));
 		this.features.add(new TokenFeature(this));
+		this.features.add(new PlaceBoundsFeature(this));
 		this.features.add(new EdgeZigzagFeature(this));
 		this.features.add(new PlaceTransitionMakerFeature(this));
 		this.features.add(new PopupMenuFeature(this));
@@ -96,19 +102,44 @@ public class Canvas extends JPanel implements MouseListener, MouseMotionListener
 			this.scrollingFeatureInstalled = true;
 		}
 
-		final Graphics2D g2 = (Graphics2D) g;
-		g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-		super.paintComponent(g);
-		g.translate(getTranslationX(), getTranslationY());
+		final FlightRecorderEvents.Timing frame = FlightRecorderEvents.beginCanvasPaint();
+		final long start = PAINT.start();
+		try {
+			final Graphics2D g2 = (Graphics2D) g;
+			g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			super.paintComponent(g);
+			g.translate(getTranslationX(), getTranslationY());
 
-		for (final Feature f : this.features) {
-			f.drawBackground(g);
-		}
-		for (final Feature f : this.features) {
-			f.drawMainLayer(g);
+			for (final Feature f : this.features) {
+				f.drawBackground(g);
+			}
+			for (final Feature f : this.features) {
+				f.drawMainLayer(g);
+			}
+			for (final Feature f : this.features) {
+				f.drawForeground(g);
+			}
+		} finally {
+			PAINT.stop(start);
+			commit(frame);
 		}
-		for (final Feature f : this.features) {
-			f.drawForeground(g);
+	}
+
+	private void commit(final FlightRecorderEvents.Timing frame) {
+		if (frame.end()) {
+			int places = 0;
+			int transitions = 0;
+			int arcs = 0;
+			for (final GraphicElement element : this.root.getGraphicPetriNet().getElements()) {
+				if (element.isPlace()) {
+					places++;
+				} else if (element.isNode()) {
+					transitions++;
+				} else {
+					arcs++;
+				}
+			}
+			FlightRecorderEvents.commitCanvasPaint(frame, places, transitions, arcs);
 		}
 	}
 
@@ -0,0 +1,83 @@
+package org.pneditor.editor.canvas;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.event.MouseEvent;
+import java.util.Map;
+
+import org.pneditor.editor.Root;
+import org.pneditor.editor.gpetrinet.GraphicElement;
+import org.pneditor.editor.gpetrinet.GraphicPlace;
+import org.pneditor.petrinet.AbstractPlace;
+import org.pneditor.petrinet.algorithms.CompiledNet;
+import org.pneditor.util.GraphicsTools;
+import org.pneditor.util.GraphicsTools.HorizontalAlignment;
+import org.pneditor.util.GraphicsTools.VerticalAlignment;
+
+/**
+ * Draws the bound computed by the place bounds algorithm above every place,
+ * until the net is modified.
+ */
+class PlaceBoundsFeature implements Feature {
+
+	private static final Color BOUND_COLOR = new Color(0, 0, 160);
+	private static final Color UNBOUNDED_COLOR = Color.RED;
+
+	private final Root root;
+
+	PlaceBoundsFeature(final Canvas canvas) {
+		this.root = canvas.getRoot();
+	}
+
+	@Override
+	public void drawForeground(final Graphics g) {
+		final Map<AbstractPlace, Integer> bounds = this.root.getPlaceBounds();
+		if (bounds == null) {
+			return;
+		}
+		for (final GraphicElement element : this.root.getGraphicPetriNet().getElements()) {
+			if (element.isPlace()) {
+				final GraphicPlace place = (GraphicPlace) element;
+				final Integer bound = bounds.get(place.getPlace());
+				if (bound != null) {
+					final boolean unbounded = bound == CompiledNet.OMEGA;
+					g.setColor(unbounded ? UNBOUNDED_COLOR : BOUND_COLOR);
+					GraphicsTools.drawString(g, unbounded ? "\u2264\u03C9" : "\u2264" + bound, place.getEnd().x,
+							place.getStart().y, HorizontalAlignment.LEFT, VerticalAlignment.BOTTOM);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void drawMainLayer(final Graphics g) {
+	}
+
+	@Override
+	public void drawBackground(final Graphics g) {
+	}
+
+	@Override
+	public void mousePressed(final MouseEvent event) {
+	}
+
+	@Override
+	public void mouseDragged(final int x, final int y) {
+	}
+
+	@Override
+	public void mouseReleased(final int x, final int y) {
+	}
+
+	@Override
+	public void mouseMoved(final int x, final int y) {
+	}
+
+	@Override
+	public void setHoverEffects(final int x, final int y) {
+	}
+
+	@Override
+	public void setCursor(final int x, final int y) {
+	}
+}
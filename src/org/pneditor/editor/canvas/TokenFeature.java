@@ -67,7 +67,8 @@ class TokenFeature implements Feature {
 
 			if (targetElement.isPlace()) {
 				final GraphicPlace place = (GraphicPlace) targetElement;
-				if (mouseButton == MouseEvent.BUTTON1) {
+				if (mouseButton == MouseEvent.BUTTON1
+						&& place.getPlace().getTokens() < place.getPlace().getCapacity()) {
 					this.root.getUndoManager().executeCommand(new AddTokenCommand(place));
 				} else if (mouseButton == MouseEvent.BUTTON3 && place.getPlace().getTokens() > 0) {
 					this.root.getUndoManager().executeCommand(new RemoveTokenCommand(place));
@@ -19,8 +19,11 @@ package org.pneditor.editor.commands;
 import org.pneditor.editor.gpetrinet.GraphicPetriNet;
 import org.pneditor.editor.gpetrinet.GraphicPlace;
 import org.pneditor.petrinet.AbstractPlace;
+import org.pneditor.petrinet.UnimplementedCaseException;
 import org.pneditor.util.Command;
 
+import logger.PNEditorLogger;
+
 /**
  *
  * @author Martin Riesz <riesz.martin at gmail.com>
@@ -55,6 +58,13 @@ public class AddPlaceCommand implements Command {
     	final AbstractPlace newPlace = this.gPetriNet.getPetriNet().addAbstractPlace();
     	newPlace.setLabel(this.createdPlace.getLabel()); // in case of a given name on construction, we put it back 
     	newPlace.setTokens(this.createdPlace.getTokens()); // same as before, except with tokens
+    	if (this.createdPlace.hasCapacity()) {
+    		try {
+    			newPlace.setCapacity(this.createdPlace.getCapacity());
+    		} catch (UnimplementedCaseException e) {
+    			PNEditorLogger.warningLogs(e.getMessage());
+    		}
+    	}
         this.representation.setPlace(newPlace);
         this.gPetriNet.addElement(this.representation);
     }
@@ -23,8 +23,11 @@ import org.pneditor.editor.gpetrinet.GraphicArc;
 import org.pneditor.editor.gpetrinet.GraphicPetriNet;
 import org.pneditor.editor.gpetrinet.GraphicPlace;
 import org.pneditor.petrinet.AbstractPlace;
+import org.pneditor.petrinet.UnimplementedCaseException;
 import org.pneditor.util.Command;
 
+import logger.PNEditorLogger;
+
 /**
  *
  * @author Martin Riesz <riesz.martin at gmail.com>
@@ -61,6 +64,13 @@ public class DeletePlaceCommand implements Command {
 		final AbstractPlace place = this.gPetriNet.getPetriNet().addAbstractPlace();
         place.setLabel(this.gPlace.getLabel());
         place.setTokens(this.gPlace.getPlace().getTokens());
+        if (this.gPlace.getPlace().hasCapacity()) {
+        	try {
+        		place.setCapacity(this.gPlace.getPlace().getCapacity());
+        	} catch (UnimplementedCaseException e) {
+        		PNEditorLogger.warningLogs(e.getMessage());
+        	}
+        }
         this.deleteAllArcEdges.clear();
         this.gPetriNet.addElement(this.gPlace);
         this.gPlace.setPlace(place);
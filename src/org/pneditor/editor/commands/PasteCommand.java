@@ -2,8 +2,10 @@ package org.pneditor.editor.commands;
 
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -14,6 +16,10 @@ import org.pneditor.editor.gpetrinet.GraphicNode;
 import org.pneditor.editor.gpetrinet.GraphicPetriNet;
 import org.pneditor.editor.gpetrinet.GraphicPlace;
 import org.pneditor.editor.gpetrinet.GraphicTransition;
+import org.pneditor.petrinet.AbstractNode;
+import org.pneditor.petrinet.AbstractPlace;
+import org.pneditor.petrinet.AbstractTransition;
+import org.pneditor.petrinet.NetBatch;
 import org.pneditor.petrinet.PetriNetInterface;
 import org.pneditor.util.Command;
 
@@ -75,28 +81,54 @@ public class PasteCommand implements Command {
 
 	private Set<GraphicElement> cloneElements(final Set<GraphicElement> copiedElements) {
 		final PetriNetInterface petriNet = this.gPetriNet.getPetriNet();
-		final Map<GraphicNode, GraphicNode> nodes = new HashMap<>();
-		final Set<GraphicElement> pastedElements = new HashSet<>();
-		
+		final NetBatch batch = petriNet.newBatch(copiedElements.size(), copiedElements.size());
+		final Map<GraphicNode, Integer> indexes = new HashMap<>();
+		final List<GraphicNode> copiedNodes = new ArrayList<>();
+		final List<GraphicArc> copiedArcs = new ArrayList<>();
+
 		for (final GraphicElement element : copiedElements) {
 			if (element.isNode()) {
-				GraphicNode gNodeClone;
 				final GraphicNode gNode = (GraphicNode) element;
 				if (gNode.isPlace()) {
-					gNodeClone = ((GraphicPlace) gNode).getClone(petriNet.clonePlace(((GraphicPlace) gNode).getPlace()));
+					// like clonePlace, the copy has the tokens but not the capacity
+					final int tokens = ((GraphicPlace) gNode).getPlace().getTokens();
+					indexes.put(gNode, batch.addPlace(0, tokens, NetBatch.NO_CAPACITY));
 				} else {
-					gNodeClone = ((GraphicTransition) gNode).getClone(petriNet.cloneTransition(((GraphicTransition) gNode).getTransition()));
+					indexes.put(gNode, batch.addTransition(0));
 				}
-				pastedElements.add(gNodeClone);
-				nodes.put(gNode, gNodeClone);
+				copiedNodes.add(gNode);
 			}
 		}
 		for (final GraphicElement element : copiedElements) {
 			if (!element.isNode()) {
 				final GraphicArc gArc = (GraphicArc) element;
-				final GraphicNode source = nodes.get(gArc.getSource());
-				final GraphicNode destination = nodes.get(gArc.getDestination());
-				pastedElements.add(gArc.getClone(petriNet.cloneArc(gArc.getArc(), source.getNode(), destination.getNode()),source,destination));
+				batch.addArcLike(gArc.getArc(), indexes.get(gArc.getSource()), indexes.get(gArc.getDestination()));
+				copiedArcs.add(gArc);
+			}
+		}
+		batch.commit();
+
+		final Map<GraphicNode, GraphicNode> nodes = new HashMap<>();
+		final Set<GraphicElement> pastedElements = new HashSet<>();
+		for (int i = 0; i < copiedNodes.size(); i++) {
+			final GraphicNode gNode = copiedNodes.get(i);
+			final AbstractNode node = batch.getNode(i);
+			node.setLabel(gNode.getNode().getLabel());
+			final GraphicNode gNodeClone;
+			if (gNode.isPlace()) {
+				gNodeClone = ((GraphicPlace) gNode).getClone((AbstractPlace) node);
+			} else {
+				gNodeClone = ((GraphicTransition) gNode).getClone((AbstractTransition) node);
+			}
+			pastedElements.add(gNodeClone);
+			nodes.put(gNode, gNodeClone);
+		}
+		for (int i = 0; i < copiedArcs.size(); i++) {
+			final GraphicArc gArc = copiedArcs.get(i);
+			// an arc the model does not support is logged by the batch
+			if (batch.getArc(i) != null) {
+				pastedElements.add(gArc.getClone(batch.getArc(i), nodes.get(gArc.getSource()),
+						nodes.get(gArc.getDestination())));
 			}
 		}
 		return pastedElements;
@@ -47,7 +47,7 @@ public class SetArcInhibitCommand implements Command {
 					this.newArc = this.petriNet.addInhibArc((AbstractPlace) this.oldArc.getSource(),
 							(AbstractTransition) this.oldArc.getDestination());
 				}
-				if (this.oldArc.isRegular()) {
+				if (this.oldArc.isRegular() || this.oldArc.isRead()) {
 					this.newArc = this.petriNet.addInhibArc((AbstractPlace) this.oldArc.getSource(),
 							(AbstractTransition) this.oldArc.getDestination());
 					this.newArc.setMultiplicity(this.oldArc.getMultiplicity());
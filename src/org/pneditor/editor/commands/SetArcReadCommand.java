@@ -0,0 +1,92 @@
+package org.pneditor.editor.commands;
+
+import org.pneditor.editor.gpetrinet.GraphicArc;
+import org.pneditor.editor.gpetrinet.GraphicPetriNet;
+import org.pneditor.petrinet.AbstractArc;
+import org.pneditor.petrinet.AbstractNode;
+import org.pneditor.petrinet.AbstractPlace;
+import org.pneditor.petrinet.AbstractTransition;
+import org.pneditor.petrinet.PetriNetInterface;
+import org.pneditor.petrinet.ResetArcMultiplicityException;
+import org.pneditor.petrinet.UnimplementedCaseException;
+import org.pneditor.util.Command;
+
+import logger.PNEditorLogger;
+
+/**
+ * Turns an input arc into a read arc, keeping its multiplicity. When the model
+ * has no read arcs, the arc is left unchanged.
+ */
+public class SetArcReadCommand implements Command {
+
+	private final GraphicArc gArc;
+	private AbstractArc oldArc;
+	private AbstractArc newArc;
+	private final boolean isNotRead;
+	private final GraphicPetriNet gPetriNet;
+	private PetriNetInterface petriNet;
+
+	public SetArcReadCommand(final GraphicArc gArc, final GraphicPetriNet gPetriNet) {
+		this.gArc = gArc;
+		this.oldArc = gArc.getArc();
+		this.gPetriNet = gPetriNet;
+		this.isNotRead = !this.oldArc.isRead();
+	}
+
+	@Override
+	public void execute() {
+		this.petriNet = this.gPetriNet.getPetriNet();
+		if (this.isNotRead && this.oldArc.isSourceAPlace()) {
+			this.petriNet.removeAbstractArc(this.oldArc);
+			try {
+				this.newArc = this.petriNet.addReadArc((AbstractPlace) this.oldArc.getSource(),
+						(AbstractTransition) this.oldArc.getDestination());
+				if (!this.oldArc.isReset()) {
+					this.newArc.setMultiplicity(this.oldArc.getMultiplicity());
+				}
+			} catch (ResetArcMultiplicityException e) {
+				// should not happen
+				PNEditorLogger.severeLogs(e.getMessage());
+			} catch (UnimplementedCaseException e) {
+				// the model has no read arcs: put the old arc back
+				PNEditorLogger.warningLogs(e.getMessage());
+				this.newArc = null;
+				this.oldArc = this.petriNet.addArcAgain(this.oldArc, this.oldArc.getSource(),
+						this.oldArc.getDestination());
+				this.gArc.setArc(this.oldArc);
+				return;
+			}
+			this.gArc.setArc(this.newArc);
+		}
+	}
+
+	@Override
+	public void undo() {
+		this.petriNet = this.gPetriNet.getPetriNet();
+		if (this.isNotRead && this.newArc != null) {
+			this.petriNet.removeAbstractArc(gArc.getArc());
+			final AbstractNode source = gArc.getSource().getNode();
+			final AbstractNode destination = gArc.getDestination().getNode();
+			oldArc = this.petriNet.addArcAgain(this.oldArc, source, destination);
+			this.gArc.setArc(this.oldArc);
+		}
+	}
+
+	@Override
+	public void redo() {
+		this.petriNet = this.gPetriNet.getPetriNet();
+		if (this.isNotRead && this.newArc != null) {
+			this.petriNet.removeAbstractArc(gArc.getArc());
+			final AbstractNode source = gArc.getSource().getNode();
+			final AbstractNode destination = gArc.getDestination().getNode();
+			newArc = this.petriNet.addArcAgain(this.newArc, source, destination);
+			this.gArc.setArc(this.newArc);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "Set arc type to read arc";
+	}
+
+}
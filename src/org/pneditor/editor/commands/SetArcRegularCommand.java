@@ -37,7 +37,7 @@ public class SetArcRegularCommand implements Command {
 					this.newArc = this.petriNet.addRegArc(this.oldArc.getSource(),
 							this.oldArc.getDestination());
 				}
-				if (this.oldArc.isInhibitory()) {
+				if (this.oldArc.isInhibitory() || this.oldArc.isRead()) {
 					this.newArc = this.petriNet.addRegArc(this.oldArc.getSource(),
 							this.oldArc.getDestination());
 					this.newArc.setMultiplicity(this.oldArc.getMultiplicity());
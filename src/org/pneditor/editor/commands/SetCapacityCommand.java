@@ -0,0 +1,53 @@
+package org.pneditor.editor.commands;
+
+import org.pneditor.editor.gpetrinet.GraphicPlace;
+import org.pneditor.petrinet.UnimplementedCaseException;
+import org.pneditor.util.Command;
+
+import logger.PNEditorLogger;
+
+/**
+ * Sets the capacity of the clicked place. When the model has no place capacities, the
+ * place is left unchanged.
+ */
+public class SetCapacityCommand implements Command {
+
+	private final GraphicPlace gPlace;
+
+	private final int newValue;
+	private final int oldValue;
+
+	public SetCapacityCommand(final GraphicPlace gPlace, final int capacity) {
+		this.gPlace = gPlace;
+		this.newValue = capacity;
+		this.oldValue = gPlace.getPlace().getCapacity();
+	}
+
+	@Override
+	public void execute() {
+		setCapacity(this.newValue);
+	}
+
+	@Override
+	public void undo() {
+		setCapacity(this.oldValue);
+	}
+
+	@Override
+	public void redo() {
+		setCapacity(this.newValue);
+	}
+
+	private void setCapacity(final int capacity) {
+		try {
+			this.gPlace.getPlace().setCapacity(capacity);
+		} catch (UnimplementedCaseException e) {
+			PNEditorLogger.warningLogs(e.getMessage());
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "Set capacity";
+	}
+}
@@ -16,9 +16,12 @@
  */
 package org.pneditor.editor.gpetrinet;
 
+import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Stroke;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -88,7 +91,11 @@ public class GraphicArc extends GraphicElement {
 	public void draw(final Graphics g) {
 		this.color = Color.BLACK;
 		g.setColor(this.color);
-		drawSegmentedLine(g);
+		if (this.arc.isRead()) {
+			drawDashedSegmentedLine(g);
+		} else {
+			drawSegmentedLine(g);
+		}
 		final Point arrowTip = computeArrowTipPoint();
 		if (this.arc.isReset()) {
 			drawArrowDouble(g, arrowTip);
@@ -150,6 +157,17 @@ public class GraphicArc extends GraphicElement {
 		g.drawLine(previous.x, previous.y, getEnd().x, getEnd().y);
 	}
 
+	/**
+	 * Read arcs are drawn dashed, as they do not move tokens.
+	 */
+	protected void drawDashedSegmentedLine(final Graphics g) {
+		final Graphics2D g2d = (Graphics2D) g;
+		final Stroke stroke = g2d.getStroke();
+		g2d.setStroke(new BasicStroke(1f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10f, new float[] { 5f, 4f }, 0f));
+		drawSegmentedLine(g);
+		g2d.setStroke(stroke);
+	}
+
 	protected final Point computeArrowTipPoint() {
 		Point arrowTip = new Point(getEnd());
 		if (getDestination() != null) { // Thanks to http://www.cs.unc.edu/~mcmillan/comp136/Lecture6/Lines.html
@@ -0,0 +1,43 @@
+package org.pneditor.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count of events, updated without contention from any number of threads.
+ *
+ * <p>The updates do nothing unless {@link Metrics#ENABLED}, so a counter can
+ * be left in a hot path.</p>
+ */
+public final class Counter {
+
+	private final String name;
+	private final LongAdder count = new LongAdder();
+
+	Counter(final String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public void increment() {
+		if (Metrics.ENABLED) {
+			this.count.increment();
+		}
+	}
+
+	public void add(final long amount) {
+		if (Metrics.ENABLED) {
+			this.count.add(amount);
+		}
+	}
+
+	public long getCount() {
+		return this.count.sum();
+	}
+
+	void reset() {
+		this.count.reset();
+	}
+}
@@ -0,0 +1,116 @@
+package org.pneditor.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The registry of the counters and timers of the application.
+ *
+ * <p>The metrics are off unless the JVM is started with
+ * {@code -Dpneditor.metrics=true}. The switch is a constant, so when it is off
+ * the JIT compiler removes the updates from the instrumented code and they cost
+ * nothing. Instruments are created once, usually in static fields, and looked
+ * up by name, the first part of the name telling the area ({@code adapter},
+ * {@code analysis}, {@code document}, {@code canvas}).</p>
+ */
+public final class Metrics {
+
+	/** Whether the counters and timers record anything. */
+	public static final boolean ENABLED = Boolean.getBoolean("pneditor.metrics");
+
+	private static final ConcurrentMap<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+	private static final ConcurrentMap<String, Timer> TIMERS = new ConcurrentHashMap<>();
+
+	private Metrics() {
+	}
+
+	/**
+	 * @return the counter of that name, created if needed
+	 */
+	public static Counter counter(final String name) {
+		return COUNTERS.computeIfAbsent(name, Counter::new);
+	}
+
+	/**
+	 * @return the timer of that name, created if needed
+	 */
+	public static Timer timer(final String name) {
+		return TIMERS.computeIfAbsent(name, Timer::new);
+	}
+
+	/**
+	 * @return the counters, sorted by name
+	 */
+	public static List<Counter> getCounters() {
+		final List<Counter> counters = new ArrayList<>(COUNTERS.values());
+		counters.sort(Comparator.comparing(Counter::getName));
+		return counters;
+	}
+
+	/**
+	 * @return the timers, sorted by name
+	 */
+	public static List<Timer> getTimers() {
+		final List<Timer> timers = new ArrayList<>(TIMERS.values());
+		timers.sort(Comparator.comparing(Timer::getName));
+		return timers;
+	}
+
+	/**
+	 * Sets all the counters and timers back to zero.
+	 */
+	public static void reset() {
+		for (final Counter counter : COUNTERS.values()) {
+			counter.reset();
+		}
+		for (final Timer timer : TIMERS.values()) {
+			timer.reset();
+		}
+	}
+
+	/**
+	 * @return a one-line summary of the busiest timers, for a status bar
+	 */
+	public static String getSummary() {
+		if (!ENABLED) {
+			return "Metrics off";
+		}
+		final List<Timer> timers = getTimers();
+		timers.sort(Comparator.comparingLong(Timer::getTotalNanos).reversed());
+		final StringBuilder summary = new StringBuilder();
+		for (final Timer timer : timers.subList(0, Math.min(3, timers.size()))) {
+			if (timer.getCount() == 0) {
+				break;
+			}
+			if (summary.length() > 0) {
+				summary.append("  |  ");
+			}
+			summary.append(String.format(Locale.ROOT, "%s %d x %.1f us, p99 %.1f us", timer.getName(),
+					timer.getCount(), timer.getMeanNanos() / 1e3, timer.getPercentileNanos(99) / 1e3));
+		}
+		return summary.length() == 0 ? "Metrics on, nothing recorded yet" : summary.toString();
+	}
+
+	/**
+	 * Writes every counter and timer as CSV, durations in microseconds.
+	 */
+	public static void dump(final Writer out) throws IOException {
+		out.write("name,type,count,total_us,mean_us,p50_us,p90_us,p99_us,max_us\n");
+		for (final Counter counter : getCounters()) {
+			out.write(String.format(Locale.ROOT, "%s,counter,%d,,,,,,\n", counter.getName(), counter.getCount()));
+		}
+		for (final Timer timer : getTimers()) {
+			out.write(String.format(Locale.ROOT, "%s,timer,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f\n", timer.getName(),
+					timer.getCount(), timer.getTotalNanos() / 1e3, timer.getMeanNanos() / 1e3,
+					timer.getPercentileNanos(50) / 1e3, timer.getPercentileNanos(90) / 1e3,
+					timer.getPercentileNanos(99) / 1e3, timer.getMaxNanos() / 1e3));
+		}
+		out.flush();
+	}
+}
@@ -0,0 +1,144 @@
+package org.pneditor.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Durations of an operation, kept in a histogram of logarithmic buckets that
+ * threads update without locks.
+ *
+ * <p>Every power of two of nanoseconds is split into {@value #SUB_BUCKETS}
+ * buckets, so the percentiles are within 25% of the exact values, and all the
+ * durations fit in a fixed array. Used as</p>
+ *
+ * <pre>
+ * final long start = TIMER.start();
+ * try {
+ * 	...
+ * } finally {
+ * 	TIMER.stop(start);
+ * }
+ * </pre>
+ *
+ * <p>and, unless {@link Metrics#ENABLED}, without even reading the clock.</p>
+ */
+public final class Timer {
+
+	private static final int SUB_BITS = 2;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	private static final int BUCKETS = bucketOf(Long.MAX_VALUE) + 1;
+
+	private final String name;
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+	Timer(final String name) {
+		this.name = name;
+	}
+
+	private static int bucketOf(final long nanos) {
+		if (nanos < 2 * SUB_BUCKETS) {
+			return (int) nanos;
+		}
+		final int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		return (exponent - SUB_BITS) * SUB_BUCKETS + (int) (nanos >>> (exponent - SUB_BITS));
+	}
+
+	private static long upperBoundOf(final int bucket) {
+		if (bucket < 2 * SUB_BUCKETS) {
+			return bucket;
+		}
+		final int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+		final long lower = (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << (exponent - SUB_BITS);
+		return lower + (1L << (exponent - SUB_BITS)) - 1;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * @return the start time to give to {@link #stop(long)}
+	 */
+	public long start() {
+		return Metrics.ENABLED ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Records the time elapsed since {@code start}.
+	 */
+	public void stop(final long start) {
+		if (Metrics.ENABLED) {
+			record(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Records a duration, whether the metrics are enabled or not.
+	 */
+	public void record(final long nanos) {
+		final long value = Math.max(0, nanos);
+		this.buckets.incrementAndGet(bucketOf(value));
+		this.count.increment();
+		this.totalNanos.add(value);
+		this.maxNanos.accumulate(value);
+	}
+
+	public long getCount() {
+		return this.count.sum();
+	}
+
+	public long getTotalNanos() {
+		return this.totalNanos.sum();
+	}
+
+	public long getMaxNanos() {
+		return this.maxNanos.get();
+	}
+
+	/**
+	 * @return the mean duration in nanoseconds, 0 if none was recorded
+	 */
+	public double getMeanNanos() {
+		final long n = getCount();
+		return n == 0 ? 0 : (double) getTotalNanos() / n;
+	}
+
+	/**
+	 * @param percentile in {@code [0, 100]}
+	 * @return an upper estimate of the percentile in nanoseconds, 0 if nothing
+	 *         was recorded
+	 */
+	public long getPercentileNanos(final double percentile) {
+		long total = 0;
+		final long[] counts = new long[BUCKETS];
+		for (int b = 0; b < BUCKETS; b++) {
+			counts[b] = this.buckets.get(b);
+			total += counts[b];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+		long seen = 0;
+		for (int b = 0; b < BUCKETS; b++) {
+			seen += counts[b];
+			if (seen >= rank) {
+				return Math.min(getMaxNanos(), upperBoundOf(b));
+			}
+		}
+		return getMaxNanos();
+	}
+
+	void reset() {
+		for (int b = 0; b < BUCKETS; b++) {
+			this.buckets.set(b, 0);
+		}
+		this.count.reset();
+		this.totalNanos.reset();
+		this.maxNanos.reset();
+	}
+}
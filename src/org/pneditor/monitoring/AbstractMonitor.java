@@ -0,0 +1,73 @@
+package org.pneditor.monitoring;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * The pause, resume and cancel operations shared by the monitors, checked by
+ * the monitored run between two of its steps.
+ */
+abstract class AbstractMonitor {
+
+	private final long startNanos = System.nanoTime();
+	private volatile boolean paused;
+	private volatile boolean cancelled;
+
+	public boolean isPaused() {
+		return this.paused;
+	}
+
+	public boolean isCancelled() {
+		return this.cancelled;
+	}
+
+	public long getElapsedMillis() {
+		return (System.nanoTime() - this.startNanos) / 1_000_000;
+	}
+
+	public void pause() {
+		this.paused = true;
+	}
+
+	public synchronized void resume() {
+		this.paused = false;
+		notifyAll();
+	}
+
+	public synchronized void cancel() {
+		this.cancelled = true;
+		notifyAll();
+	}
+
+	/**
+	 * @return {@code count} per second of {@link #getElapsedMillis()}
+	 */
+	double perSecond(final long count) {
+		final long nanos = System.nanoTime() - this.startNanos;
+		return nanos <= 0 ? 0 : count * 1e9 / nanos;
+	}
+
+	/**
+	 * Waits while the run is paused.
+	 *
+	 * @throws CancellationException if the run was cancelled, or interrupted
+	 *                               while paused
+	 */
+	void checkpoint() {
+		if (!this.paused && !this.cancelled) {
+			return;
+		}
+		synchronized (this) {
+			while (this.paused && !this.cancelled) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					this.cancelled = true;
+				}
+			}
+		}
+		if (this.cancelled) {
+			throw new CancellationException("Cancelled from the monitor");
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package org.pneditor.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A phase of a state space analysis, recorded by Java Flight Recorder through
+ * {@link AnalysisRecording}.
+ */
+@Name("org.pneditor.AnalysisPhase")
+@Label("Analysis Phase")
+@Category({ "PNEditor", "Analysis" })
+@Description("Time spent by a state space analysis in one of its phases. Every phase spans the "
+		+ "whole exploration, Phase Time is the part of it spent in that phase.")
+@StackTrace(false)
+public class AnalysisPhaseEvent extends Event {
+
+	@Label("Analysis")
+	public String analysis;
+
+	@Label("Phase")
+	@Description("explore, dedup (looking up known markings) or omega (checking and accelerating "
+			+ "covered markings)")
+	public String phase;
+
+	@Label("Phase Time")
+	@Timespan(Timespan.NANOSECONDS)
+	public long phaseTime;
+
+	@Label("Calls")
+	public long calls;
+
+	@Label("States")
+	@Description("Number of markings explored")
+	public long states;
+}
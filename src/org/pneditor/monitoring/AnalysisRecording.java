@@ -0,0 +1,118 @@
+package org.pneditor.monitoring;
+
+/**
+ * Records the phases of one run of a state space analysis as
+ * {@link AnalysisPhaseEvent}s. Used as
+ *
+ * <pre>
+ * final AnalysisRecording recording = new AnalysisRecording("PlaceBounds");
+ * ...
+ * final long start = recording.start();
+ * final int added = store.add(marking);
+ * recording.dedup(start);
+ * ...
+ * recording.commit(states);
+ * </pre>
+ *
+ * <p>The phases are only timed while a recording enables the events, and
+ * never read the clock otherwise. Like {@link FlightRecorderEvents}, it does
+ * nothing on a JVM without Flight Recorder.</p>
+ */
+public final class AnalysisRecording {
+
+	private final String analysis;
+	// null if the JVM has no Flight Recorder, see FlightRecorderEvents
+	private final AnalysisPhaseEvent explore;
+	private final AnalysisPhaseEvent dedup;
+	private final AnalysisPhaseEvent omega;
+	private final boolean enabled;
+	private final long startNanos;
+
+	/**
+	 * Starts the exploration.
+	 *
+	 * @param analysis the name of the analysis in the events
+	 */
+	public AnalysisRecording(final String analysis) {
+		this.analysis = analysis;
+		if (FlightRecorderEvents.AVAILABLE) {
+			this.explore = new AnalysisPhaseEvent();
+			this.dedup = new AnalysisPhaseEvent();
+			this.omega = new AnalysisPhaseEvent();
+			this.enabled = this.explore.isEnabled();
+		} else {
+			this.explore = null;
+			this.dedup = null;
+			this.omega = null;
+			this.enabled = false;
+		}
+		this.startNanos = start();
+		if (this.enabled) {
+			this.explore.begin();
+			this.dedup.begin();
+			this.omega.begin();
+		}
+	}
+
+	/**
+	 * @return the start time of a phase, to give to {@link #dedup(long)} or
+	 *         {@link #omega(long)}
+	 */
+	public long start() {
+		return this.enabled ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Adds the time since {@code start} to the lookups of known markings.
+	 */
+	public void dedup(final long start) {
+		if (this.enabled) {
+			this.dedup.phaseTime += System.nanoTime() - start;
+			this.dedup.calls++;
+		}
+	}
+
+	/**
+	 * Adds the time since {@code start} to the checks and accelerations of
+	 * covered markings.
+	 */
+	public void omega(final long start) {
+		if (this.enabled) {
+			this.omega.phaseTime += System.nanoTime() - start;
+			this.omega.calls++;
+		}
+	}
+
+	/**
+	 * Ends the exploration and commits its phases.
+	 *
+	 * @param states the number of markings explored
+	 */
+	public void commit(final long states) {
+		if (!this.enabled) {
+			return;
+		}
+		this.explore.end();
+		this.dedup.end();
+		this.omega.end();
+		if (!this.explore.shouldCommit()) {
+			return;
+		}
+		this.explore.phaseTime = System.nanoTime() - this.startNanos;
+		this.explore.calls = 1;
+		commit(this.explore, "explore", states);
+		if (this.dedup.calls > 0) {
+			commit(this.dedup, "dedup", states);
+		}
+		if (this.omega.calls > 0) {
+			commit(this.omega, "omega", states);
+		}
+	}
+
+	private void commit(final AnalysisPhaseEvent event, final String phase, final long states) {
+		event.analysis = this.analysis;
+		event.phase = phase;
+		event.states = states;
+		event.commit();
+	}
+}
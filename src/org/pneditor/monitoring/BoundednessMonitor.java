@@ -0,0 +1,63 @@
+package org.pneditor.monitoring;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.pneditor.petrinet.AbstractPlace;
+import org.pneditor.petrinet.Boundedness;
+
+/**
+ * Follows a running {@link Boundedness} check, which calls
+ * {@link #visit(Map, int)} for every marking it reaches.
+ */
+public class BoundednessMonitor extends AbstractMonitor implements BoundednessMonitorMBean {
+
+	/** Rough size of a marking of {@link Boundedness}: the map and its table. */
+	private static final long MARKING_BYTES = 64;
+	/** Rough size of an entry of such a marking: the node and its boxed count. */
+	private static final long ENTRY_BYTES = 48;
+
+	private volatile long exploredStates;
+	private volatile int frontierSize;
+	private volatile Map<AbstractPlace, Integer> currentMarking = Collections.emptyMap();
+
+	/**
+	 * Records a reached marking, then waits while the check is paused.
+	 *
+	 * @param marking  the marking, which must not change afterwards
+	 * @param stored   the number of markings kept by the check
+	 * @throws java.util.concurrent.CancellationException if the check was
+	 *                                                    cancelled
+	 */
+	public void visit(final Map<AbstractPlace, Integer> marking, final int stored) {
+		this.exploredStates++; // only the checking thread writes
+		this.frontierSize = stored;
+		this.currentMarking = marking;
+		checkpoint();
+	}
+
+	@Override
+	public long getExploredStates() {
+		return this.exploredStates;
+	}
+
+	@Override
+	public double getStatesPerSecond() {
+		return perSecond(this.exploredStates);
+	}
+
+	@Override
+	public int getFrontierSize() {
+		return this.frontierSize;
+	}
+
+	@Override
+	public long getStateStoreBytes() {
+		return this.frontierSize * (MARKING_BYTES + ENTRY_BYTES * this.currentMarking.size());
+	}
+
+	@Override
+	public String getCurrentMarking() {
+		return Monitoring.summarize(this.currentMarking);
+	}
+}
@@ -0,0 +1,33 @@
+package org.pneditor.monitoring;
+
+/**
+ * The management interface of {@link BoundednessMonitor}.
+ */
+public interface BoundednessMonitorMBean {
+
+	/** @return the number of markings explored so far */
+	long getExploredStates();
+
+	double getStatesPerSecond();
+
+	/** @return the number of markings of the path being explored */
+	int getFrontierSize();
+
+	/** @return an estimate of the memory taken by the stored markings */
+	long getStateStoreBytes();
+
+	/** @return the tokens of the last marking reached */
+	String getCurrentMarking();
+
+	long getElapsedMillis();
+
+	boolean isPaused();
+
+	boolean isCancelled();
+
+	void pause();
+
+	void resume();
+
+	void cancel();
+}
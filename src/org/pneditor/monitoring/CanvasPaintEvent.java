@@ -0,0 +1,29 @@
+package org.pneditor.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A frame painted by the canvas of the editor, recorded by Java Flight
+ * Recorder when it takes longer than the threshold.
+ */
+@Name("org.pneditor.CanvasPaint")
+@Label("Canvas Paint")
+@Category({ "PNEditor", "Editor" })
+@Threshold("10 ms")
+@StackTrace(false)
+public class CanvasPaintEvent extends Event {
+
+	@Label("Places")
+	public int places;
+
+	@Label("Transitions")
+	public int transitions;
+
+	@Label("Arcs")
+	public int arcs;
+}
@@ -0,0 +1,31 @@
+package org.pneditor.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The import or export of a {@code .pflow} document, recorded by Java Flight
+ * Recorder.
+ */
+@Name("org.pneditor.Document")
+@Label("Document")
+@Category({ "PNEditor", "File" })
+public class DocumentEvent extends Event {
+
+	@Label("Operation")
+	public String operation;
+
+	@Label("Path")
+	public String path;
+
+	@Label("Places")
+	public int places;
+
+	@Label("Transitions")
+	public int transitions;
+
+	@Label("Arcs")
+	public int arcs;
+}
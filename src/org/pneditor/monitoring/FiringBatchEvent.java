@@ -0,0 +1,33 @@
+package org.pneditor.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A batch of consecutive firings of a simulation, recorded by Java Flight
+ * Recorder.
+ */
+@Name("org.pneditor.FiringBatch")
+@Label("Firing Batch")
+@Category({ "PNEditor", "Simulation" })
+@Description("Consecutive firings of a simulation")
+@StackTrace(false)
+public class FiringBatchEvent extends Event {
+
+	/** The largest number of firings of a batch. */
+	public static final int SIZE = 1024;
+
+	@Label("Firings")
+	public long firings;
+
+	@Label("Enabled Transitions")
+	@Description("Number of transitions enabled at the last step of the batch")
+	public int enabledTransitions;
+
+	@Label("Deadlocked")
+	public boolean deadlocked;
+}
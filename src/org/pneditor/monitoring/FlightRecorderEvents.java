@@ -0,0 +1,197 @@
+package org.pneditor.monitoring;
+
+import java.io.File;
+import java.util.function.IntSupplier;
+
+import jdk.jfr.Event;
+
+/**
+ * Creates the Java Flight Recorder events of the editor, so that the rest of
+ * the editor never refers to {@code jdk.jfr}.
+ *
+ * <p>On a JVM without Flight Recorder (Java 8 before 8u262), the events are not
+ * created and every method does nothing, so no {@code jdk.jfr} class is ever
+ * loaded. The handles given to the callers hold their event as an
+ * {@code Object} for the same reason, and no event is ever passed where a
+ * {@code jdk.jfr.Event} is expected, which would make the verifier load
+ * it.</p>
+ */
+public final class FlightRecorderEvents {
+
+	/** Whether the running JVM has Flight Recorder. */
+	public static final boolean AVAILABLE = isAvailable();
+
+	private static final Timing NOT_RECORDED = new Timing(null);
+
+	private FlightRecorderEvents() {
+	}
+
+	private static boolean isAvailable() {
+		try {
+			Class.forName("jdk.jfr.Event", false, FlightRecorderEvents.class.getClassLoader());
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+
+	/**
+	 * An event being timed, committed with its fields once it ended.
+	 */
+	public static final class Timing {
+
+		// a started jdk.jfr.Event, null if the events are not available
+		private final Object event;
+
+		private Timing(final Object event) {
+			this.event = event;
+		}
+
+		/**
+		 * Ends the event.
+		 *
+		 * @return true if the event is to be committed, that is if it is
+		 *         recorded and lasted longer than its threshold
+		 */
+		public boolean end() {
+			if (this.event == null) {
+				return false;
+			}
+			final Event started = (Event) this.event;
+			started.end();
+			return started.shouldCommit();
+		}
+	}
+
+	/**
+	 * @return a frame of the canvas, to {@link Timing#end()} then commit with
+	 *         {@link #commitCanvasPaint(Timing, int, int, int)}
+	 */
+	public static Timing beginCanvasPaint() {
+		if (!AVAILABLE) {
+			return NOT_RECORDED;
+		}
+		final CanvasPaintEvent event = new CanvasPaintEvent();
+		event.begin();
+		return new Timing(event);
+	}
+
+	public static void commitCanvasPaint(final Timing frame, final int places, final int transitions,
+			final int arcs) {
+		if (frame.event != null) {
+			final CanvasPaintEvent event = (CanvasPaintEvent) frame.event;
+			event.places = places;
+			event.transitions = transitions;
+			event.arcs = arcs;
+			event.commit();
+		}
+	}
+
+	/**
+	 * @return the import or export of a document, to {@link Timing#end()} then
+	 *         commit with
+	 *         {@link #commitDocument(Timing, String, File, int, int, int)}
+	 */
+	public static Timing beginDocument() {
+		if (!AVAILABLE) {
+			return NOT_RECORDED;
+		}
+		final DocumentEvent event = new DocumentEvent();
+		event.begin();
+		return new Timing(event);
+	}
+
+	/**
+	 * @param operation {@code import} or {@code export}
+	 */
+	public static void commitDocument(final Timing document, final String operation, final File file,
+			final int places, final int transitions, final int arcs) {
+		if (document.event != null) {
+			final DocumentEvent event = (DocumentEvent) document.event;
+			event.operation = operation;
+			event.path = file.getPath();
+			event.places = places;
+			event.transitions = transitions;
+			event.arcs = arcs;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Records the firings of a simulation as {@link FiringBatchEvent}s of at
+	 * most {@link FiringBatchEvent#SIZE} firings.
+	 */
+	public static final class FiringBatches {
+
+		// the current jdk.jfr event, null if the events are not available
+		private Object batch;
+		private long firings;
+
+		public FiringBatches() {
+			this.batch = AVAILABLE ? begin() : null;
+		}
+
+		private static Object begin() {
+			final FiringBatchEvent event = new FiringBatchEvent();
+			event.begin();
+			return event;
+		}
+
+		/**
+		 * Counts a firing, committing the batch once it is full.
+		 *
+		 * @param enabledTransitions the number of transitions enabled when the
+		 *                           transition fired
+		 */
+		public void fired(final int enabledTransitions) {
+			if (this.batch == null) {
+				return;
+			}
+			if (++this.firings == FiringBatchEvent.SIZE) {
+				commit(enabledTransitions, false);
+				this.batch = begin();
+			}
+		}
+
+		/**
+		 * Counts a firing, committing the batch once it is full.
+		 *
+		 * @param enabledTransitions counts the enabled transitions, only when
+		 *                           the batch is committed
+		 */
+		public void fired(final IntSupplier enabledTransitions) {
+			if (this.batch == null) {
+				return;
+			}
+			if (++this.firings == FiringBatchEvent.SIZE) {
+				commit(enabledTransitions.getAsInt(), false);
+				this.batch = begin();
+			}
+		}
+
+		/**
+		 * Commits the last batch at the end of the simulation.
+		 *
+		 * @param enabledTransitions the number of transitions enabled at the end
+		 * @param deadlocked         whether the simulation ended in a deadlock
+		 */
+		public void end(final int enabledTransitions, final boolean deadlocked) {
+			if (this.batch != null) {
+				commit(enabledTransitions, deadlocked);
+				this.batch = null;
+			}
+		}
+
+		private void commit(final int enabledTransitions, final boolean deadlocked) {
+			final FiringBatchEvent event = (FiringBatchEvent) this.batch;
+			event.end();
+			if (this.firings > 0 && event.shouldCommit()) {
+				event.firings = this.firings;
+				event.enabledTransitions = enabledTransitions;
+				event.deadlocked = deadlocked;
+				event.commit();
+			}
+			this.firings = 0;
+		}
+	}
+}
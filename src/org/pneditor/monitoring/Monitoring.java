@@ -0,0 +1,118 @@
+package org.pneditor.monitoring;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntUnaryOperator;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.pneditor.petrinet.AbstractPlace;
+
+import logger.PNEditorLogger;
+
+/**
+ * Registers the monitors of the running simulations and analyses in the
+ * platform MBean server, where JConsole or VisualVM find them under
+ * {@code org.pneditor}.
+ *
+ * <p>The analyses register their monitors only when the JVM is started with
+ * {@code -Dpneditor.jmx=true}, so that they cost nothing otherwise. Monitoring
+ * never makes an analysis fail: a monitor that cannot be registered is only
+ * logged.</p>
+ *
+ * <p>The package also defines Java Flight Recorder events for firing batches,
+ * analysis phases, document import and export, and canvas frames. Their
+ * thresholds are set in {@code resources/pneditor/pneditor.jfc}. They are
+ * only created through {@link FlightRecorderEvents}, which does nothing on a
+ * JVM without Flight Recorder.</p>
+ */
+public final class Monitoring {
+
+	/** Whether the analyses register their monitors. */
+	public static final boolean ENABLED = Boolean.getBoolean("pneditor.jmx");
+
+	/** The largest number of places shown by {@link #summarize(Map)}. */
+	private static final int SUMMARY_PLACES = 16;
+
+	private static final AtomicLong IDS = new AtomicLong();
+
+	private Monitoring() {
+	}
+
+	/**
+	 * Registers a monitor under {@code org.pneditor:type=<type>,id=<n>}, with a
+	 * new {@code n} for every monitor.
+	 *
+	 * @return the name of the monitor, {@code null} if it could not be
+	 *         registered
+	 */
+	public static ObjectName register(final String type, final Object monitor) {
+		try {
+			final ObjectName name = new ObjectName("org.pneditor:type=" + type + ",id=" + IDS.incrementAndGet());
+			ManagementFactory.getPlatformMBeanServer().registerMBean(monitor, name);
+			return name;
+		} catch (JMException e) {
+			PNEditorLogger.warningLogs("Cannot register the " + type + " monitor: " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Removes a monitor given by {@link #register(String, Object)}, if any.
+	 */
+	public static void unregister(final ObjectName name) {
+		if (name == null) {
+			return;
+		}
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+		} catch (JMException e) {
+			PNEditorLogger.warningLogs("Cannot unregister " + name + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * @return the total number of tokens and the tokens of the first places by
+	 *         id, as {@code "12 tokens: p1=3, p2=0, ..."}
+	 */
+	static String summarize(final Map<AbstractPlace, Integer> marking) {
+		long total = 0;
+		for (final int tokens : marking.values()) {
+			total += tokens;
+		}
+		final StringJoiner places = new StringJoiner(", ", total + " tokens: ", "");
+		marking.keySet().stream().sorted((p, q) -> Integer.compare(p.getId(), q.getId())).limit(SUMMARY_PLACES)
+				.forEach(place -> places.add(name(place) + "=" + marking.get(place)));
+		if (marking.size() > SUMMARY_PLACES) {
+			places.add("...");
+		}
+		return places.toString();
+	}
+
+	/**
+	 * @return the total number of tokens and the tokens of the first places by
+	 *         index, as {@code "12 tokens: p0=3, p1=0, ..."}
+	 */
+	static String summarize(final int places, final IntUnaryOperator tokens) {
+		long total = 0;
+		for (int p = 0; p < places; p++) {
+			total += tokens.applyAsInt(p);
+		}
+		final StringJoiner summary = new StringJoiner(", ", total + " tokens: ", "");
+		for (int p = 0; p < Math.min(places, SUMMARY_PLACES); p++) {
+			summary.add("p" + p + "=" + tokens.applyAsInt(p));
+		}
+		if (places > SUMMARY_PLACES) {
+			summary.add("...");
+		}
+		return summary.toString();
+	}
+
+	private static String name(final AbstractPlace place) {
+		final String label = place.getLabel();
+		return label == null || label.isEmpty() ? "p" + place.getId() : label;
+	}
+}
@@ -0,0 +1,137 @@
+package org.pneditor.monitoring;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntSupplier;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+
+import javax.management.ObjectName;
+
+import org.pneditor.petrinet.AbstractPlace;
+import org.pneditor.petrinet.PetriNetInterface;
+import org.pneditor.petrinet.RandomSimulation;
+
+/**
+ * Follows a running simulation, which calls {@link #step(long, int)} or
+ * {@link #step(long)} at every firing: a {@link RandomSimulation}, or a
+ * simulation of the BEAUMONT_CHOUKI model followed by its
+ * {@link org.pneditor.petrinet.adapters.BEAUMONT_CHOUKI.SimulationObserver}.
+ */
+public class SimulationMonitor extends AbstractMonitor implements SimulationMonitorMBean {
+
+	private final Supplier<String> currentMarking;
+	private final IntSupplier enabledCount;
+	private volatile long steps;
+	private volatile int enabledTransitions;
+	private ObjectName name;
+
+	/**
+	 * @param petriNet the simulated net, whose tokens are read by
+	 *                 {@link #getCurrentMarking()}
+	 */
+	public SimulationMonitor(final PetriNetInterface petriNet) {
+		this(null, () -> {
+			final Map<AbstractPlace, Integer> marking = new HashMap<>();
+			for (final AbstractPlace place : petriNet.getPlaces()) {
+				marking.put(place, place.getTokens());
+			}
+			return Monitoring.summarize(marking);
+		});
+	}
+
+	/**
+	 * @param places       the number of places of the simulated net
+	 * @param tokens       gives the tokens of a place from its index, read by
+	 *                     {@link #getCurrentMarking()}
+	 * @param enabledCount counts the enabled transitions, read by
+	 *                     {@link #getEnabledTransitions()} instead of the
+	 *                     count given to {@link #step(long, int)}
+	 */
+	public SimulationMonitor(final int places, final IntUnaryOperator tokens, final IntSupplier enabledCount) {
+		this(enabledCount, () -> Monitoring.summarize(places, tokens));
+	}
+
+	private SimulationMonitor(final IntSupplier enabledCount, final Supplier<String> currentMarking) {
+		super();
+		this.enabledCount = enabledCount;
+		this.currentMarking = currentMarking;
+	}
+
+	/**
+	 * Registers a new monitor when {@link Monitoring#ENABLED}, for a
+	 * simulation that is not given one.
+	 *
+	 * @return the registered monitor, to {@link #unregister()} at the end of
+	 *         the run, {@code null} if monitoring is disabled
+	 * @see #SimulationMonitor(int, IntUnaryOperator, IntSupplier)
+	 */
+	public static SimulationMonitor registerIfEnabled(final int places, final IntUnaryOperator tokens,
+			final IntSupplier enabledCount) {
+		if (!Monitoring.ENABLED) {
+			return null;
+		}
+		final SimulationMonitor monitor = new SimulationMonitor(places, tokens, enabledCount);
+		monitor.name = Monitoring.register("Simulation", monitor);
+		return monitor;
+	}
+
+	/**
+	 * Removes the monitor registered by
+	 * {@link #registerIfEnabled(int, IntUnaryOperator, IntSupplier)}.
+	 */
+	public void unregister() {
+		Monitoring.unregister(this.name);
+		this.name = null;
+	}
+
+	/**
+	 * Records the progress of the simulation, then waits while it is paused.
+	 *
+	 * @param steps   the number of transitions fired so far
+	 * @param enabled the number of transitions enabled in the current marking
+	 * @throws java.util.concurrent.CancellationException if the simulation
+	 *                                                    was cancelled
+	 */
+	public void step(final long steps, final int enabled) {
+		this.enabledTransitions = enabled;
+		step(steps);
+	}
+
+	/**
+	 * Records the progress of a simulation whose enabled transitions are
+	 * counted when read, then waits while it is paused.
+	 *
+	 * @param steps the number of transitions fired so far
+	 * @throws java.util.concurrent.CancellationException if the simulation
+	 *                                                    was cancelled
+	 */
+	public void step(final long steps) {
+		this.steps = steps;
+		checkpoint();
+	}
+
+	@Override
+	public long getSteps() {
+		return this.steps;
+	}
+
+	@Override
+	public double getStepsPerSecond() {
+		return perSecond(this.steps);
+	}
+
+	@Override
+	public int getEnabledTransitions() {
+		return this.enabledCount == null ? this.enabledTransitions : this.enabledCount.getAsInt();
+	}
+
+	/**
+	 * Reads the tokens while the simulation runs, so the marking may mix two
+	 * consecutive steps.
+	 */
+	@Override
+	public String getCurrentMarking() {
+		return this.currentMarking.get();
+	}
+}
@@ -0,0 +1,30 @@
+package org.pneditor.monitoring;
+
+/**
+ * The management interface of {@link SimulationMonitor}.
+ */
+public interface SimulationMonitorMBean {
+
+	/** @return the number of transitions fired so far */
+	long getSteps();
+
+	double getStepsPerSecond();
+
+	/** @return the number of transitions enabled at the last step */
+	int getEnabledTransitions();
+
+	/** @return the tokens of the current marking */
+	String getCurrentMarking();
+
+	long getElapsedMillis();
+
+	boolean isPaused();
+
+	boolean isCancelled();
+
+	void pause();
+
+	void resume();
+
+	void cancel();
+}
@@ -35,6 +35,14 @@ public abstract class AbstractArc  {
 	public abstract boolean isRegular();
 
 	public abstract boolean isInhibitory();
+
+	/**
+	 * A read arc needs its multiplicity in the place, like a regular arc, but
+	 * does not consume it. Models without read arcs keep this default.
+	 */
+	public boolean isRead() {
+		return false;
+	}
 	
 	public abstract int getMultiplicity() throws ResetArcMultiplicityException;
 
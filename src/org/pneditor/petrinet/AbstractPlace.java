@@ -33,6 +33,27 @@ public abstract class AbstractPlace extends AbstractNode {
 	public abstract int getTokens();
 
 	public abstract void setTokens(int tokens);
+
+	/**
+	 * Optional: models supporting place capacities override this method.
+	 *
+	 * @return the largest number of tokens the place can hold
+	 */
+	public int getCapacity() {
+		return Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Optional: models supporting place capacities override this method.
+	 * {@link Integer#MAX_VALUE} removes the capacity.
+	 */
+	public void setCapacity(final int capacity) throws UnimplementedCaseException {
+		throw new UnimplementedCaseException("Place capacities are not supported by this model.");
+	}
+
+	public boolean hasCapacity() {
+		return getCapacity() != Integer.MAX_VALUE;
+	}
 	
 	@Override
 	public boolean isPlace() {
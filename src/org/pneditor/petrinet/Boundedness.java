@@ -23,24 +23,72 @@ import java.util.Stack;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import javax.management.ObjectName;
+
+import org.pneditor.metrics.Counter;
+import org.pneditor.metrics.Metrics;
+import org.pneditor.metrics.Timer;
+import org.pneditor.monitoring.AnalysisRecording;
+import org.pneditor.monitoring.BoundednessMonitor;
+import org.pneditor.monitoring.Monitoring;
+
 /**
  *
  * @author milka
  */
 public class Boundedness {
 
+	private static final Timer IS_BOUNDED = Metrics.timer("analysis.boundedness");
+	private static final Counter MARKINGS = Metrics.counter("analysis.boundedness.markings");
+
 	final private ReentrantReadWriteLock lock = new ReentrantReadWriteLock(true);
 	final private PetriNetInterface petriNet;
 	private Stack<Map<AbstractPlace, Integer>> markingsStack;
 	private boolean isUnboundedness;
+	private BoundednessMonitor monitor;
+	private AnalysisRecording recording;
+	private long exploredMarkings;
 
 	public Boundedness(final PetriNetInterface petriNet) {
 		this.petriNet = petriNet;
 	}
 
+	/**
+	 * Follows the check with {@code monitor}, which can pause and cancel it.
+	 * Without one, {@link #isBounded()} registers its own monitor when
+	 * {@link Monitoring#ENABLED}.
+	 */
+	public void setMonitor(final BoundednessMonitor monitor) {
+		this.monitor = monitor;
+	}
+
+	/**
+	 * @return true if no reachable marking strictly covers one of its ancestors
+	 * @throws java.util.concurrent.CancellationException if cancelled from the
+	 *                                                    monitor
+	 */
 	public boolean isBounded() throws ResetArcMultiplicityException {
+		final long start = IS_BOUNDED.start();
+		final BoundednessMonitor given = this.monitor;
+		ObjectName name = null;
+		if (given == null && Monitoring.ENABLED) {
+			this.monitor = new BoundednessMonitor();
+			name = Monitoring.register("Boundedness", this.monitor);
+		}
+		try {
+			return explore();
+		} finally {
+			Monitoring.unregister(name);
+			this.monitor = given;
+			IS_BOUNDED.stop(start);
+		}
+	}
+
+	private boolean explore() throws ResetArcMultiplicityException {
 
 		this.isUnboundedness = false;
+		this.recording = new AnalysisRecording("Boundedness");
+		this.exploredMarkings = 0;
 
 		final Map<AbstractPlace, Integer> initMap = initFill();
 		this.markingsStack = new Stack<>();
@@ -52,7 +100,8 @@ public class Boundedness {
 				this.markingsStack.pop();
 			}
 		}
-		return this.isUnboundedness;
+		this.recording.commit(this.exploredMarkings);
+		return !this.isUnboundedness;
 	}
 
 	private boolean checkBranchBoundedness(final Map<AbstractPlace, Integer> marking,
@@ -64,16 +113,27 @@ public class Boundedness {
 
 		final Map<AbstractPlace, Integer> newMarking = new ConcurrentHashMap<>(marking);
 		fire(newMarking, transition);
+		MARKINGS.increment();
+		this.exploredMarkings++;
 
+		long start = this.recording.start();
 		for (final Map<AbstractPlace, Integer> oldMarking : this.markingsStack) {
 			if (isOmega(newMarking, oldMarking)) {
 				this.isUnboundedness = true;
+				this.recording.omega(start);
 				return false;
 			}
 		}
+		this.recording.omega(start);
 
-		if (!this.markingsStack.contains(newMarking)) {
+		start = this.recording.start();
+		final boolean isKnown = this.markingsStack.contains(newMarking);
+		this.recording.dedup(start);
+		if (!isKnown) {
 			this.markingsStack.push(newMarking);
+			if (this.monitor != null) {
+				this.monitor.visit(newMarking, this.markingsStack.size());
+			}
 			final Set<AbstractTransition> executableTransitions = getAllEnabledTransitions(newMarking);
 			for (final AbstractTransition t : executableTransitions) {
 				if (checkBranchBoundedness(newMarking, t)) {
@@ -109,6 +169,10 @@ public class Boundedness {
 			if (newTokens < oldTokens) {
 				return false;
 			} else if (newTokens > oldTokens) {
+				if (newMarkingAbstractPlace.hasCapacity()) {
+					// a capped place cannot keep growing
+					return false;
+				}
 				isOneSharplyHigher = true;
 			}
 
@@ -168,8 +232,8 @@ public class Boundedness {
 					// reset arc is always fireable
 					// but can be blocked by other arcs
 
-					if (arc.isRegular()) { 
-						if (marking.get(arc.getSource()) < arc.getMultiplicity()) {// normal arc
+					if (arc.isRegular() || arc.isRead()) { 
+						if (marking.get(arc.getSource()) < arc.getMultiplicity()) {// normal or read arc
 							isEnabled = false;
 							break;
 						}
@@ -182,12 +246,51 @@ public class Boundedness {
 
 				}
 			}
+			if (isEnabled) {
+				isEnabled = fitsCapacities(marking, transition);
+			}
 		} finally {
 			this.lock.readLock().unlock();
 		}
 		return isEnabled;
 	}
 
+	/**
+	 * @return false if firing the transition puts more tokens than its capacity
+	 *         in an output place
+	 */
+	private boolean fitsCapacities(final Map<AbstractPlace, Integer> marking, final AbstractTransition transition)
+			throws ResetArcMultiplicityException {
+		final Set<AbstractArc> arcs = this.petriNet.getConnectedArcs(transition);
+		for (final AbstractArc output : arcs) {
+			if (output.isSourceAPlace() || !((AbstractPlace) output.getDestination()).hasCapacity()) {
+				continue;
+			}
+			final AbstractPlace place = (AbstractPlace) output.getDestination();
+			long tokens = marking.get(place);
+			for (final AbstractArc arc : arcs) {
+				if (arc.isSourceAPlace() && arc.getSource() == place) {
+					if (arc.isReset()) {
+						tokens = 0;
+						break;
+					}
+					if (arc.isRegular()) {
+						tokens -= arc.getMultiplicity();
+					}
+				}
+			}
+			for (final AbstractArc arc : arcs) {
+				if (!arc.isSourceAPlace() && arc.getDestination() == place) {
+					tokens += arc.getMultiplicity();
+				}
+			}
+			if (tokens > place.getCapacity()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	public Set<AbstractTransition> getAllEnabledTransitions(final Map<AbstractPlace, Integer> marking)
 			throws ResetArcMultiplicityException {
 		final Set<AbstractTransition> enabledTransitions = new HashSet<>();
@@ -0,0 +1,319 @@
+package org.pneditor.petrinet;
+
+import java.util.Arrays;
+
+/**
+ * Places, transitions and arcs added to a {@link PetriNetInterface} at once.
+ *
+ * <p>The elements are recorded in primitive arrays, reserved up front, then
+ * created by {@link #commit()} in a single pass, that models may override with
+ * {@link PetriNetInterface#addBatch(NetBatch, AbstractNode[], AbstractArc[])}.
+ * The nodes, places and transitions alike, are numbered in the order they are
+ * added, and the arcs refer to these indexes; the arcs are numbered
+ * separately.</p>
+ *
+ * <pre>
+ * final NetBatch batch = petriNet.newBatch(2, 1);
+ * final int place = batch.addPlace(0, 1, NetBatch.NO_CAPACITY);
+ * final int transition = batch.addTransition(0);
+ * batch.addArc(NetBatch.REGULAR, place, transition, 1);
+ * batch.commit();
+ * </pre>
+ */
+public final class NetBatch {
+
+	/** The kind of a regular arc, from a place to a transition or back. */
+	public static final int REGULAR = 0;
+	/** The kind of an inhibitory arc, from a place to a transition. */
+	public static final int INHIBITORY = 1;
+	/** The kind of a reset arc, from a place to a transition. */
+	public static final int RESET = 2;
+	/** The kind of a read arc, from a place to a transition. */
+	public static final int READ = 3;
+
+	/** The capacity of a place without capacity. */
+	public static final int NO_CAPACITY = Integer.MAX_VALUE;
+
+	private final PetriNetInterface petriNet;
+
+	private int nodeCount;
+	private boolean[] placeFlags;
+	private int[] ids;
+	private int[] tokens;
+	private int[] capacities;
+
+	private int arcCount;
+	private int[] kinds;
+	private int[] sources;
+	private int[] destinations;
+	private int[] multiplicities;
+
+	private AbstractNode[] nodes;
+	private AbstractArc[] arcs;
+
+	NetBatch(final PetriNetInterface petriNet, final int nodes, final int arcs) {
+		this.petriNet = petriNet;
+		final int nodeRoom = Math.max(nodes, 0);
+		this.placeFlags = new boolean[nodeRoom];
+		this.ids = new int[nodeRoom];
+		this.tokens = new int[nodeRoom];
+		this.capacities = new int[nodeRoom];
+		final int arcRoom = Math.max(arcs, 0);
+		this.kinds = new int[arcRoom];
+		this.sources = new int[arcRoom];
+		this.destinations = new int[arcRoom];
+		this.multiplicities = new int[arcRoom];
+	}
+
+	/**
+	 * @return the kind of the arc, {@link #REGULAR}, {@link #INHIBITORY},
+	 *         {@link #RESET} or {@link #READ}
+	 */
+	public static int kindOf(final AbstractArc arc) {
+		if (arc.isReset()) {
+			return RESET;
+		}
+		if (arc.isInhibitory()) {
+			return INHIBITORY;
+		}
+		return arc.isRead() ? READ : REGULAR;
+	}
+
+	/**
+	 * @param id       the id of the place, 0 for the next free id of the net
+	 * @param tokens   its tokens
+	 * @param capacity its capacity, {@link #NO_CAPACITY} for none
+	 * @return the index of the place among the nodes of the batch
+	 */
+	public int addPlace(final int id, final int tokens, final int capacity) {
+		final int index = addNode(true, id);
+		this.tokens[index] = tokens;
+		this.capacities[index] = capacity;
+		return index;
+	}
+
+	/**
+	 * Adds places given by parallel arrays.
+	 *
+	 * @param capacities the capacities, or {@code null} for places without
+	 *                   capacity
+	 * @return the index of the first place among the nodes of the batch, the
+	 *         next ones following
+	 */
+	public int addPlaces(final int[] ids, final int[] tokens, final int[] capacities) {
+		final int first = this.nodeCount;
+		reserveNodes(ids.length);
+		for (int i = 0; i < ids.length; i++) {
+			addPlace(ids[i], tokens[i], capacities == null ? NO_CAPACITY : capacities[i]);
+		}
+		return first;
+	}
+
+	/**
+	 * @param id the id of the transition, 0 for the next free id of the net
+	 * @return the index of the transition among the nodes of the batch
+	 */
+	public int addTransition(final int id) {
+		return addNode(false, id);
+	}
+
+	/**
+	 * @return the index of the first transition among the nodes of the batch,
+	 *         the next ones following
+	 */
+	public int addTransitions(final int[] ids) {
+		final int first = this.nodeCount;
+		reserveNodes(ids.length);
+		for (final int id : ids) {
+			addNode(false, id);
+		}
+		return first;
+	}
+
+	/**
+	 * @param kind         {@link #REGULAR}, {@link #INHIBITORY}, {@link #RESET}
+	 *                     or {@link #READ}
+	 * @param source       the index of the source node in the batch
+	 * @param destination  the index of the destination node in the batch
+	 * @param multiplicity the multiplicity, ignored for a reset arc
+	 * @return the index of the arc in the batch
+	 */
+	public int addArc(final int kind, final int source, final int destination, final int multiplicity) {
+		if (kind < REGULAR || kind > READ) {
+			throw new IllegalArgumentException("Unknown arc kind " + kind);
+		}
+		checkNode(source);
+		checkNode(destination);
+		if (kind != REGULAR && !(this.placeFlags[source] && !this.placeFlags[destination])) {
+			throw new IllegalArgumentException("Only a regular arc can go from a transition or to a place");
+		}
+		reserveArcs(1);
+		final int index = this.arcCount++;
+		this.kinds[index] = kind;
+		this.sources[index] = source;
+		this.destinations[index] = destination;
+		this.multiplicities[index] = kind == RESET ? 1 : multiplicity;
+		return index;
+	}
+
+	/**
+	 * Adds an arc of the same kind and multiplicity as another one.
+	 *
+	 * @return the index of the arc in the batch
+	 */
+	public int addArcLike(final AbstractArc arc, final int source, final int destination) {
+		try {
+			return addArc(kindOf(arc), source, destination, arc.isReset() ? 1 : arc.getMultiplicity());
+		} catch (ResetArcMultiplicityException e) {
+			// not a reset arc
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Adds arcs given by parallel arrays.
+	 *
+	 * @return the index of the first arc in the batch, the next ones following
+	 */
+	public int addArcs(final int[] kinds, final int[] sources, final int[] destinations,
+			final int[] multiplicities) {
+		final int first = this.arcCount;
+		reserveArcs(kinds.length);
+		for (int i = 0; i < kinds.length; i++) {
+			addArc(kinds[i], sources[i], destinations[i], multiplicities[i]);
+		}
+		return first;
+	}
+
+	/**
+	 * Creates the elements in the net, with their ids, tokens, capacities and
+	 * multiplicities. An arc the model does not support is reported in the logs
+	 * and left {@code null}.
+	 */
+	public void commit() {
+		if (isCommitted()) {
+			throw new IllegalStateException("The batch is already committed.");
+		}
+		final AbstractNode[] createdNodes = new AbstractNode[this.nodeCount];
+		final AbstractArc[] createdArcs = new AbstractArc[this.arcCount];
+		this.petriNet.commit(this, createdNodes, createdArcs);
+		this.nodes = createdNodes;
+		this.arcs = createdArcs;
+	}
+
+	public boolean isCommitted() {
+		return this.nodes != null;
+	}
+
+	/**
+	 * @return the node created for that index, once committed
+	 */
+	public AbstractNode getNode(final int index) {
+		checkCommitted();
+		return this.nodes[index];
+	}
+
+	/**
+	 * @return the arc created for that index, once committed, {@code null} if
+	 *         the model does not support it
+	 */
+	public AbstractArc getArc(final int index) {
+		checkCommitted();
+		return this.arcs[index];
+	}
+
+	public int getNodeCount() {
+		return this.nodeCount;
+	}
+
+	public boolean isPlace(final int node) {
+		return this.placeFlags[node];
+	}
+
+	/**
+	 * @return the id given to the node, 0 for the next free id of the net
+	 */
+	public int getId(final int node) {
+		return this.ids[node];
+	}
+
+	public int getTokens(final int node) {
+		return this.tokens[node];
+	}
+
+	/**
+	 * @return the capacity of the place, {@link #NO_CAPACITY} for none
+	 */
+	public int getCapacity(final int node) {
+		return this.capacities[node];
+	}
+
+	public int getArcCount() {
+		return this.arcCount;
+	}
+
+	public int getKind(final int arc) {
+		return this.kinds[arc];
+	}
+
+	public int getSource(final int arc) {
+		return this.sources[arc];
+	}
+
+	public int getDestination(final int arc) {
+		return this.destinations[arc];
+	}
+
+	public int getMultiplicity(final int arc) {
+		return this.multiplicities[arc];
+	}
+
+	private int addNode(final boolean place, final int id) {
+		reserveNodes(1);
+		final int index = this.nodeCount++;
+		this.placeFlags[index] = place;
+		this.ids[index] = id;
+		if (!place) {
+			this.capacities[index] = NO_CAPACITY;
+		}
+		return index;
+	}
+
+	private void reserveNodes(final int more) {
+		if (isCommitted()) {
+			throw new IllegalStateException("The batch is already committed.");
+		}
+		if (this.nodeCount + more > this.ids.length) {
+			final int room = Math.max(this.nodeCount + more, 2 * this.ids.length);
+			this.placeFlags = Arrays.copyOf(this.placeFlags, room);
+			this.ids = Arrays.copyOf(this.ids, room);
+			this.tokens = Arrays.copyOf(this.tokens, room);
+			this.capacities = Arrays.copyOf(this.capacities, room);
+		}
+	}
+
+	private void reserveArcs(final int more) {
+		if (isCommitted()) {
+			throw new IllegalStateException("The batch is already committed.");
+		}
+		if (this.arcCount + more > this.kinds.length) {
+			final int room = Math.max(this.arcCount + more, 2 * this.kinds.length);
+			this.kinds = Arrays.copyOf(this.kinds, room);
+			this.sources = Arrays.copyOf(this.sources, room);
+			this.destinations = Arrays.copyOf(this.destinations, room);
+			this.multiplicities = Arrays.copyOf(this.multiplicities, room);
+		}
+	}
+
+	private void checkNode(final int node) {
+		if (node < 0 || node >= this.nodeCount) {
+			throw new IndexOutOfBoundsException("No node " + node + " in the batch");
+		}
+	}
+
+	private void checkCommitted() {
+		if (!isCommitted()) {
+			throw new IllegalStateException("The batch is not committed yet.");
+		}
+	}
+}
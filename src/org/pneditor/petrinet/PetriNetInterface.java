@@ -1,8 +1,11 @@
 package org.pneditor.petrinet;
 
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
+import org.pneditor.petrinet.algorithms.PlaceBounds;
+
 import logger.PNEditorLogger;
 
 public abstract class PetriNetInterface {
@@ -33,6 +36,14 @@ public abstract class PetriNetInterface {
 	public abstract AbstractArc addResetArc(AbstractPlace place, AbstractTransition transition)
 			throws UnimplementedCaseException;
 
+	/**
+	 * Optional: models supporting read arcs override this method.
+	 */
+	public AbstractArc addReadingArc(final AbstractPlace place, final AbstractTransition transition)
+			throws UnimplementedCaseException {
+		throw new UnimplementedCaseException("Read arcs are not supported by this model.");
+	}
+
 	public abstract void removePlace(AbstractPlace place);
 
 	public abstract void removeTransition(AbstractTransition transition);
@@ -90,6 +101,8 @@ public abstract class PetriNetInterface {
 			} else {
 				if (arc.isInhibitory()) {
 					newArc = addInhibArc((AbstractPlace) source, (AbstractTransition) destination);
+				} else if (arc.isRead()) {
+					newArc = addReadArc((AbstractPlace) source, (AbstractTransition) destination);
 				} else {
 					newArc = addRegArc(source, destination);
 				}
@@ -128,6 +141,13 @@ public abstract class PetriNetInterface {
 		return arc;
 	}
 
+	public final AbstractArc addReadArc(final AbstractPlace place, final AbstractTransition transition)
+			throws UnimplementedCaseException {
+		final AbstractArc arc = addReadingArc(place, transition);
+		this.arcs.add(arc);
+		return arc;
+	}
+
 	public final void removeAbstractPlace(final AbstractPlace place) {
 		removePlace(place);
 		this.places.remove(place);
@@ -143,10 +163,112 @@ public abstract class PetriNetInterface {
 		this.arcs.remove(arc);
 	}
 
+	/**
+	 * @param nodes the number of places and transitions to make room for
+	 * @param arcs  the number of arcs to make room for
+	 * @return an empty batch of elements to add to this net at once
+	 */
+	public final NetBatch newBatch(final int nodes, final int arcs) {
+		return new NetBatch(this, nodes, arcs);
+	}
+
+	/**
+	 * Creates the elements of a committed batch, with their ids, and stores them.
+	 */
+	final void commit(final NetBatch batch, final AbstractNode[] nodes, final AbstractArc[] arcs) {
+		addBatch(batch, nodes, arcs);
+		for (int i = 0; i < nodes.length; i++) {
+			final int id = batch.getId(i);
+			if (id > 0) {
+				nodes[i].setId(id);
+				if (id >= this.nextId) {
+					this.nextId = id + 1;
+				}
+			} else {
+				nodes[i].setId(this.nextId++);
+			}
+			if (batch.isPlace(i)) {
+				this.places.add((AbstractPlace) nodes[i]);
+			} else {
+				this.transitions.add((AbstractTransition) nodes[i]);
+			}
+		}
+		for (final AbstractArc arc : arcs) {
+			if (arc != null) {
+				this.arcs.add(arc);
+			}
+		}
+	}
+
+	/**
+	 * Creates the model objects of a batch, in the order of the batch, with their
+	 * tokens, capacities and multiplicities but without ids. An arc the model
+	 * does not support is logged and left {@code null}. This implementation adds
+	 * the elements one by one; models override it to build them faster.
+	 *
+	 * @param nodes to fill with the places and transitions of the batch
+	 * @param arcs  to fill with the arcs of the batch
+	 */
+	protected void addBatch(final NetBatch batch, final AbstractNode[] nodes, final AbstractArc[] arcs) {
+		for (int i = 0; i < nodes.length; i++) {
+			if (batch.isPlace(i)) {
+				final AbstractPlace place = addPlace();
+				place.setTokens(batch.getTokens(i));
+				if (batch.getCapacity(i) != NetBatch.NO_CAPACITY) {
+					try {
+						place.setCapacity(batch.getCapacity(i));
+					} catch (IllegalArgumentException | UnimplementedCaseException e) {
+						// the place is kept without capacity
+						PNEditorLogger.warningLogs(e.getMessage());
+					}
+				}
+				nodes[i] = place;
+			} else {
+				nodes[i] = addTransition();
+			}
+		}
+		for (int i = 0; i < arcs.length; i++) {
+			final AbstractNode source = nodes[batch.getSource(i)];
+			final AbstractNode destination = nodes[batch.getDestination(i)];
+			try {
+				final AbstractArc arc;
+				switch (batch.getKind(i)) {
+				case NetBatch.INHIBITORY:
+					arc = addInhibitoryArc((AbstractPlace) source, (AbstractTransition) destination);
+					break;
+				case NetBatch.RESET:
+					arc = addResetArc((AbstractPlace) source, (AbstractTransition) destination);
+					break;
+				case NetBatch.READ:
+					arc = addReadingArc((AbstractPlace) source, (AbstractTransition) destination);
+					break;
+				default:
+					arc = addRegularArc(source, destination);
+				}
+				// set even to 1, the imta model does not behave the same otherwise
+				if (!arc.isReset()) {
+					arc.setMultiplicity(batch.getMultiplicity(i));
+				}
+				arcs[i] = arc;
+			} catch (UnimplementedCaseException | ResetArcMultiplicityException e) {
+				PNEditorLogger.warningLogs(e.getMessage());
+			}
+		}
+	}
+
 	public final boolean isBounded() throws ResetArcMultiplicityException {
 		return new Boundedness(this).isBounded();
 	}
 
+	/**
+	 * @return the maximum number of tokens of every place,
+	 *         {@link org.pneditor.petrinet.algorithms.CompiledNet#OMEGA} for the
+	 *         unbounded ones
+	 */
+	public final Map<AbstractPlace, Integer> getPlaceBounds() throws ResetArcMultiplicityException {
+		return new PlaceBounds(this).getBounds();
+	}
+
 	public final AbstractPlace clonePlace(final AbstractPlace place) {
 		final AbstractPlace placeClone = addAbstractPlace();
 		placeClone.setLabel(place.getLabel());
@@ -168,6 +290,8 @@ public abstract class PetriNetInterface {
 			} else {
 				if (arc.isInhibitory()) {
 					newArc = addInhibArc((AbstractPlace) source, (AbstractTransition) destination);
+				} else if (arc.isRead()) {
+					newArc = addReadArc((AbstractPlace) source, (AbstractTransition) destination);
 				} else {
 					newArc = addRegArc(source, destination);
 				}
@@ -194,6 +318,10 @@ public abstract class PetriNetInterface {
 		return this.transitions;
 	}
 
+	public Set<AbstractArc> getArcs() {
+		return this.arcs;
+	}
+
 	public Set<AbstractArc> getConnectedArcs(final AbstractTransition transition) {
 		final Set<AbstractArc> connectedArcs = new HashSet<>();
 		for (final AbstractArc arc : this.arcs) {
@@ -0,0 +1,106 @@
+package org.pneditor.petrinet;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import javax.management.ObjectName;
+
+import org.pneditor.monitoring.FlightRecorderEvents;
+import org.pneditor.monitoring.Monitoring;
+import org.pneditor.monitoring.SimulationMonitor;
+
+/**
+ * Fires transitions of a net, chosen uniformly among the enabled ones, through
+ * the model itself. The transitions are taken in the order of their ids, so a
+ * seed always gives the same run.
+ */
+public class RandomSimulation {
+
+	private final PetriNetInterface petriNet;
+	private final List<AbstractTransition> transitions;
+	private final SplittableRandom random;
+	private SimulationMonitor monitor;
+	private long steps;
+	private boolean deadlocked;
+
+	public RandomSimulation(final PetriNetInterface petriNet, final long seed) {
+		this.petriNet = petriNet;
+		this.transitions = new ArrayList<>(petriNet.getTransitions());
+		this.transitions.sort(Comparator.comparingInt(AbstractTransition::getId));
+		this.random = new SplittableRandom(seed);
+	}
+
+	/**
+	 * Follows the simulation with {@code monitor}, which can pause and cancel
+	 * it. Without one, {@link #run(long)} registers its own monitor when
+	 * {@link Monitoring#ENABLED}.
+	 */
+	public void setMonitor(final SimulationMonitor monitor) {
+		this.monitor = monitor;
+	}
+
+	/**
+	 * Fires up to {@code maxSteps} transitions, stopping early in a deadlock.
+	 *
+	 * @return the number of transitions fired by this call
+	 * @throws java.util.concurrent.CancellationException if cancelled from the
+	 *                                                    monitor
+	 */
+	public long run(final long maxSteps) throws ResetArcMultiplicityException {
+		SimulationMonitor active = this.monitor;
+		ObjectName name = null;
+		if (active == null && Monitoring.ENABLED) {
+			active = new SimulationMonitor(this.petriNet);
+			name = Monitoring.register("Simulation", active);
+		}
+		try {
+			return fire(maxSteps, active);
+		} finally {
+			Monitoring.unregister(name);
+		}
+	}
+
+	private long fire(final long maxSteps, final SimulationMonitor active) throws ResetArcMultiplicityException {
+		final List<AbstractTransition> enabled = new ArrayList<>();
+		final FlightRecorderEvents.FiringBatches batches = new FlightRecorderEvents.FiringBatches();
+		long fired = 0;
+		while (fired < maxSteps) {
+			enabled.clear();
+			for (final AbstractTransition transition : this.transitions) {
+				if (this.petriNet.isEnabled(transition)) {
+					enabled.add(transition);
+				}
+			}
+			if (active != null) {
+				active.step(this.steps, enabled.size());
+			}
+			if (enabled.isEmpty()) {
+				this.deadlocked = true;
+				break;
+			}
+			this.petriNet.fire(enabled.get(this.random.nextInt(enabled.size())));
+			this.steps++;
+			fired++;
+			batches.fired(enabled.size());
+		}
+		batches.end(enabled.size(), this.deadlocked);
+		return fired;
+	}
+
+	/**
+	 * @return the number of transitions fired since the simulation was created
+	 */
+	public long getSteps() {
+		return this.steps;
+	}
+
+	/**
+	 * @return true if the last run stopped in a marking where no transition is
+	 *         enabled
+	 */
+	public boolean isDeadlocked() {
+		return this.deadlocked;
+	}
+}
@@ -1,6 +1,5 @@
 package org.pneditor.petrinet.adapters.BEAUMONT_CHOUKI;
 
-import java.util.Map;
 import org.pneditor.petrinet.AbstractArc;
 import org.pneditor.petrinet.AbstractNode;
 import org.pneditor.petrinet.ResetArcMultiplicityException;
@@ -9,39 +8,50 @@ import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeIn;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeOut;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeEmpty;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeZero;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.ReadEdge;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.WeightedEdgeIn;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.WeightedEdgeOut;
 
 /**
  * This class adapts the specific `Edge` implementations to the generic `AbstractArc`
  * that the UI understands. It holds a reference to the internal edge and translates
- * the UI's requests into calls on that object.
+ * the UI's requests into calls on that object. Its endpoints are the adapters attached to
+ * the place and transition of the edge.
  */
 public class ArcAdapter extends AbstractArc {
 
     private final Edge internalEdge;
-    private final Map<Object, AbstractNode> internalToAdapterNodeMap;
+    private final EnablementCache enablement;
 
-    public ArcAdapter(Edge internalEdge, Map<Object, AbstractNode> internalToAdapterNodeMap) {
+    ArcAdapter(Edge internalEdge, EnablementCache enablement) {
         this.internalEdge = internalEdge;
-        this.internalToAdapterNodeMap = internalToAdapterNodeMap;
+        this.enablement = enablement;
+    }
+
+    /**
+     * Getter for the internal edge.
+     *
+     * @return the adapted edge
+     */
+    public Edge getInternalEdge() {
+        return internalEdge;
     }
 
     @Override
     public AbstractNode getSource() {
         if (internalEdge instanceof EdgeIn) {
-            return internalToAdapterNodeMap.get(((EdgeIn) internalEdge).getOrigin());
+            return (AbstractNode) ((EdgeIn) internalEdge).getOrigin().getAttachment();
         } else { // EdgeOut
-            return internalToAdapterNodeMap.get(((EdgeOut) internalEdge).getOrigin());
+            return (AbstractNode) ((EdgeOut) internalEdge).getOrigin().getAttachment();
         }
     }
 
     @Override
     public AbstractNode getDestination() {
         if (internalEdge instanceof EdgeIn) {
-            return internalToAdapterNodeMap.get(((EdgeIn) internalEdge).getArrival());
+            return (AbstractNode) ((EdgeIn) internalEdge).getArrival().getAttachment();
         } else { // EdgeOut
-            return internalToAdapterNodeMap.get(((EdgeOut) internalEdge).getArrival());
+            return (AbstractNode) ((EdgeOut) internalEdge).getArrival().getAttachment();
         }
     }
 
@@ -60,6 +70,11 @@ public class ArcAdapter extends AbstractArc {
         return this.internalEdge instanceof EdgeZero;
     }
 
+    @Override
+    public boolean isRead() {
+        return this.internalEdge instanceof ReadEdge;
+    }
+
     @Override
     public int getMultiplicity() throws ResetArcMultiplicityException {
         if (isReset()) {
@@ -71,6 +86,9 @@ public class ArcAdapter extends AbstractArc {
         if (this.internalEdge instanceof WeightedEdgeOut) {
             return ((WeightedEdgeOut) this.internalEdge).getWeight();
         }
+        if (this.internalEdge instanceof ReadEdge) {
+            return ((ReadEdge) this.internalEdge).getWeight();
+        }
         return 1; // Inhibitory and Reset arcs have an implicit weight of 1.
     }
 
@@ -83,7 +101,10 @@ public class ArcAdapter extends AbstractArc {
             ((WeightedEdgeIn) this.internalEdge).setWeight(multiplicity);
         } else if (this.internalEdge instanceof WeightedEdgeOut) {
             ((WeightedEdgeOut) this.internalEdge).setWeight(multiplicity);
+        } else if (this.internalEdge instanceof ReadEdge) {
+            ((ReadEdge) this.internalEdge).setWeight(multiplicity);
         }
+        enablement.edgeChanged(this.internalEdge);
         // For other arc types (inhibitory, reset), we do nothing as they don't have a settable weight in our model.
     }
 }
@@ -0,0 +1,151 @@
+package org.pneditor.petrinet.adapters.BEAUMONT_CHOUKI;
+
+import org.pneditor.metrics.Counter;
+import org.pneditor.metrics.Metrics;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.Edge;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeIn;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeOut;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Place;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Transition;
+
+/**
+ * Remembers whether the transitions of a net are enabled, so that asking again costs a
+ * comparison instead of a check of every arc.
+ * <p>
+ * The cache keeps the version of the marking and structure of the net, a number increased
+ * by every change made through the adapters: tokens or capacity of a place, arcs or
+ * multiplicities of a transition, and firings. A change stamps the transitions it can
+ * affect with the new version, that is the transition itself, or the transitions connected
+ * to the place (see {@link PlaceAdapter#getDependents()}). A transition is recomputed
+ * only if it was stamped after its enablement was last computed; the others are answered
+ * from the cache.
+ * </p>
+ * <p>
+ * Changes made to the model directly, without the adapters, are not seen by the cache.
+ * </p>
+ */
+final class EnablementCache {
+
+    // Counts the enablement checks that actually ran, the others being answered from the cache.
+    private static final Counter RECOMPUTED = Metrics.counter("adapter.isEnabled.recomputed");
+
+    // The version of the marking and structure of the net.
+    private long version;
+
+    /**
+     * Tells whether a transition is enabled, checking its arcs only if it was stamped since
+     * the last check.
+     *
+     * @param transition the adapter of the transition
+     * @return {@code true} if the transition can be fired
+     */
+    boolean isEnabled(TransitionAdapter transition) {
+        if (transition.computedAt < transition.changedAt) {
+            RECOMPUTED.increment();
+            transition.enabled = transition.getInternalTransition().isDrawable();
+            transition.computedAt = version;
+        }
+        return transition.enabled;
+    }
+
+    /**
+     * Records a change of the tokens or the capacity of a place.
+     *
+     * @param place the adapter of the place
+     */
+    void placeChanged(PlaceAdapter place) {
+        version++;
+        stampDependents(place);
+    }
+
+    /**
+     * Records a change of the arcs of a transition or of their multiplicities.
+     *
+     * @param transition the adapter of the transition
+     */
+    void transitionChanged(TransitionAdapter transition) {
+        version++;
+        transition.changedAt = version;
+    }
+
+    /**
+     * Records the firing of a transition, which changes the tokens of all its places.
+     *
+     * @param transition the transition fired
+     */
+    void transitionFired(Transition transition) {
+        version++;
+        for (EdgeIn edge : transition.getEdgesIn()) {
+            stampDependents(edge.getOrigin());
+        }
+        for (EdgeOut edge : transition.getEdgesOut()) {
+            stampDependents(edge.getArrival());
+        }
+    }
+
+    /**
+     * Records a new arc, so that the changes of its place stamp its transition.
+     *
+     * @param edge the edge, already connected to its place and transition
+     */
+    void edgeAdded(Edge edge) {
+        PlaceAdapter place = placeOf(edge);
+        TransitionAdapter transition = transitionOf(edge);
+        if (place != null && transition != null) {
+            place.getDependents().add(transition);
+            transitionChanged(transition);
+        }
+    }
+
+    /**
+     * Records the removal of an arc; its transition still depends on its place if other arcs
+     * connect them.
+     *
+     * @param edge the edge removed
+     */
+    void edgeRemoved(Edge edge) {
+        PlaceAdapter place = placeOf(edge);
+        TransitionAdapter transition = transitionOf(edge);
+        if (place != null && transition != null) {
+            place.getDependents().remove(transition);
+            transitionChanged(transition);
+        }
+    }
+
+    /**
+     * Records a change of the multiplicity of an arc.
+     *
+     * @param edge the edge changed
+     */
+    void edgeChanged(Edge edge) {
+        TransitionAdapter transition = transitionOf(edge);
+        if (transition != null) {
+            transitionChanged(transition);
+        }
+    }
+
+    private static PlaceAdapter placeOf(Edge edge) {
+        Place place = edge instanceof EdgeIn ? ((EdgeIn) edge).getOrigin() : ((EdgeOut) edge).getArrival();
+        Object adapter = place.getAttachment();
+        return adapter instanceof PlaceAdapter ? (PlaceAdapter) adapter : null;
+    }
+
+    private static TransitionAdapter transitionOf(Edge edge) {
+        Transition transition = edge instanceof EdgeIn ? ((EdgeIn) edge).getArrival() : ((EdgeOut) edge).getOrigin();
+        Object adapter = transition.getAttachment();
+        return adapter instanceof TransitionAdapter ? (TransitionAdapter) adapter : null;
+    }
+
+    private void stampDependents(Place place) {
+        Object adapter = place.getAttachment();
+        if (adapter instanceof PlaceAdapter) {
+            stampDependents((PlaceAdapter) adapter);
+        }
+    }
+
+    private void stampDependents(PlaceAdapter place) {
+        for (TransitionAdapter transition : place.getDependents()) {
+            transition.changedAt = version;
+        }
+    }
+}
@@ -1,37 +1,59 @@
 package org.pneditor.petrinet.adapters.BEAUMONT_CHOUKI;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import org.pneditor.metrics.Metrics;
+import org.pneditor.metrics.Timer;
 import org.pneditor.petrinet.AbstractArc;
 import org.pneditor.petrinet.AbstractNode;
 import org.pneditor.petrinet.AbstractPlace;
 import org.pneditor.petrinet.AbstractTransition;
+import org.pneditor.petrinet.NetBatch;
 import org.pneditor.petrinet.PetriNetInterface;
 import org.pneditor.petrinet.ResetArcMultiplicityException;
 import org.pneditor.petrinet.UnimplementedCaseException;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.PetriNET.PetriNet1;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Node;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Place;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Transition;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.Edge;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeEmpty;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeIn;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeOut;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeZero;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.ReadEdge;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.WeightedEdgeIn;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.WeightedEdgeOut;
 
+import logger.PNEditorLogger;
+
 /**
  * This class is the central adapter. It bridges the gap between the generic UI
  * (the "client") and the specific Petri Net implementation (the "adaptee").
  * It translates calls from the UI's `PetriNetInterface` into calls to the `PetriNet1` class.
+ * <p>
+ * Adapters and model objects reach each other directly: an adapter holds its model object,
+ * and a model node holds its adapter as its {@link Node#getAttachment() attachment}, which is
+ * cleared when the node is removed. The only map, from edges to their adapters, serves the
+ * removal of the arcs of a node.
+ * </p>
  */
 public class PetriNetAdapter extends PetriNetInterface {
 
+    // Timers of the firing path, which record nothing unless the metrics are enabled.
+    private static final Timer IS_ENABLED = Metrics.timer("adapter.isEnabled");
+    private static final Timer FIRE = Metrics.timer("adapter.fire");
+
     // A reference to the core Petri Net.
     private final PetriNet1 petriNet;
 
-    // Maps to keep track of the relationship between the UI's adapter objects and internal model objects.
-    private final Map<AbstractNode, Object> adapterToInternalNode = new HashMap<>();
-    private final Map<Object, AbstractNode> internalToAdapterNode = new HashMap<>();
-    private final Map<AbstractArc, Edge> adapterToInternalEdge = new HashMap<>();
+    // The adapters of the edges of the net, to find the arcs of a node when it is removed.
+    private Map<Edge, ArcAdapter> internalToAdapterEdge = new HashMap<>();
+
+    // The enablement of the transitions, recomputed only after a change that can affect it.
+    private final EnablementCache enablement = new EnablementCache();
 
     public PetriNetAdapter() {
         super();
@@ -45,11 +67,10 @@ public class PetriNetAdapter extends PetriNetInterface {
         petriNet.getPlaces().add(internalPlace);
 
         // Create an adapter for it.
-        PlaceAdapter placeAdapter = new PlaceAdapter("", internalPlace);
+        PlaceAdapter placeAdapter = new PlaceAdapter("", internalPlace, enablement);
 
-        // Map them together
-        adapterToInternalNode.put(placeAdapter, internalPlace);
-        internalToAdapterNode.put(internalPlace, placeAdapter);
+        // Link them together
+        internalPlace.setAttachment(placeAdapter);
 
         // Return the adapter
         return placeAdapter;
@@ -64,9 +85,8 @@ public class PetriNetAdapter extends PetriNetInterface {
         // Create an adapter
         TransitionAdapter transitionAdapter = new TransitionAdapter("", internalTransition);
 
-        // Map them together
-        adapterToInternalNode.put(transitionAdapter, internalTransition);
-        internalToAdapterNode.put(internalTransition, transitionAdapter);
+        // Link them together
+        internalTransition.setAttachment(transitionAdapter);
 
         // Return the adapter
         return transitionAdapter;
@@ -75,8 +95,8 @@ public class PetriNetAdapter extends PetriNetInterface {
     @Override
     public AbstractArc addRegularArc(AbstractNode source, AbstractNode destination) throws UnimplementedCaseException {
         // Get internal nodes.
-        Object internalSource = adapterToInternalNode.get(source);
-        Object internalDestination = adapterToInternalNode.get(destination);
+        Node internalSource = internalNode(source);
+        Node internalDestination = internalNode(destination);
 
         if (internalSource instanceof Place && internalDestination instanceof Transition) {
             // Create internal edge.
@@ -84,26 +104,14 @@ public class PetriNetAdapter extends PetriNetInterface {
             petriNet.getEdges().add(internalEdge);
 
             // Create the adapter.
-            ArcAdapter arcAdapter = new ArcAdapter(internalEdge, internalToAdapterNode);
-
-            // Map them together.
-            adapterToInternalEdge.put(arcAdapter, internalEdge);
-
-            // Return the adapter.
-            return arcAdapter;
+            return newArcAdapter(internalEdge);
         } else if (internalSource instanceof Transition && internalDestination instanceof Place) {
             // Create internal edge.
             WeightedEdgeOut internalEdge = new WeightedEdgeOut((Transition) internalSource, (Place) internalDestination, 1);
             petriNet.getEdges().add(internalEdge);
 
             // Create the adapter.
-            ArcAdapter arcAdapter = new ArcAdapter(internalEdge, internalToAdapterNode);
-
-            // Map them together.
-            adapterToInternalEdge.put(arcAdapter, internalEdge);
-
-            // Return the adapter.
-            return arcAdapter;
+            return newArcAdapter(internalEdge);
         }
         throw new UnimplementedCaseException("Regular arc must be between a place and a transition.");
     }
@@ -111,107 +119,242 @@ public class PetriNetAdapter extends PetriNetInterface {
     @Override
     public AbstractArc addInhibitoryArc(AbstractPlace place, AbstractTransition transition) {
         // Get internal place and transition.
-        Place internalPlace = (Place) adapterToInternalNode.get(place);
-        Transition internalTransition = (Transition) adapterToInternalNode.get(transition);
+        Place internalPlace = (Place) internalNode(place);
+        Transition internalTransition = (Transition) internalNode(transition);
 
         // Create internal edge.
         EdgeZero internalEdge = new EdgeZero(internalPlace, internalTransition);
 
         // Create an adapter.
-        ArcAdapter arcAdapter = new ArcAdapter(internalEdge, internalToAdapterNode);
-
-        // Map them together.
-        adapterToInternalEdge.put(arcAdapter, internalEdge);
-
-        // Return the adapter.
-        return arcAdapter;
+        return newArcAdapter(internalEdge);
     }
 
     @Override
     public AbstractArc addResetArc(AbstractPlace place, AbstractTransition transition) {
         // Get internal place and transition.
-        Place internalPlace = (Place) adapterToInternalNode.get(place);
-        Transition internalTransition = (Transition) adapterToInternalNode.get(transition);
+        Place internalPlace = (Place) internalNode(place);
+        Transition internalTransition = (Transition) internalNode(transition);
 
         // Create internal edge.
         EdgeEmpty internalEdge = new EdgeEmpty(internalPlace, internalTransition);
 
         // Create an adapter.
-        ArcAdapter arcAdapter = new ArcAdapter(internalEdge, internalToAdapterNode);
+        return newArcAdapter(internalEdge);
+    }
+
+    @Override
+    public AbstractArc addReadingArc(AbstractPlace place, AbstractTransition transition) {
+        // Get internal place and transition.
+        Place internalPlace = (Place) internalNode(place);
+        Transition internalTransition = (Transition) internalNode(transition);
+
+        // Create internal edge.
+        ReadEdge internalEdge = new ReadEdge(internalPlace, internalTransition, 1);
+        petriNet.getEdges().add(internalEdge);
+
+        // Create an adapter.
+        return newArcAdapter(internalEdge);
+    }
+
+    /**
+     * Creates the places, transitions and edges of a batch directly in the model, with their
+     * tokens, capacities and weights. The lists of the net, of the transitions and of the
+     * places are given the room they need up front, so that they are not copied as they grow.
+     */
+    @Override
+    protected void addBatch(NetBatch batch, AbstractNode[] nodes, AbstractArc[] arcs) {
+        int placeCount = 0;
+        for (int i = 0; i < nodes.length; i++) {
+            if (batch.isPlace(i)) {
+                placeCount++;
+            }
+        }
+        // The arcs from and to every node of the batch.
+        int[] arcsFrom = new int[nodes.length];
+        int[] arcsTo = new int[nodes.length];
+        for (int i = 0; i < arcs.length; i++) {
+            arcsFrom[batch.getSource(i)]++;
+            arcsTo[batch.getDestination(i)]++;
+        }
+        petriNet.ensureCapacity(placeCount, nodes.length - placeCount, arcs.length);
+        if (internalToAdapterEdge.isEmpty()) {
+            internalToAdapterEdge = new HashMap<>((int) (arcs.length / 0.75f) + 1);
+        }
 
-        // Map them together.
-        adapterToInternalEdge.put(arcAdapter, internalEdge);
+        // Create the nodes and link them to their adapters.
+        for (int i = 0; i < nodes.length; i++) {
+            if (batch.isPlace(i)) {
+                Place internalPlace = new Place(batch.getTokens(i));
+                if (batch.getCapacity(i) != NetBatch.NO_CAPACITY) {
+                    try {
+                        internalPlace.setCapacity(batch.getCapacity(i));
+                    } catch (IllegalArgumentException e) {
+                        // The place is kept without capacity.
+                        PNEditorLogger.warningLogs(e.getMessage());
+                    }
+                }
+                petriNet.getPlaces().add(internalPlace);
+                PlaceAdapter placeAdapter = new PlaceAdapter("", internalPlace, enablement);
+                placeAdapter.reserveDependents(arcsFrom[i] + arcsTo[i]);
+                internalPlace.setAttachment(placeAdapter);
+                nodes[i] = placeAdapter;
+            } else {
+                Transition internalTransition = new Transition();
+                internalTransition.setEdgesIn(new ArrayList<>(arcsTo[i]));
+                internalTransition.setEdgesOut(new ArrayList<>(arcsFrom[i]));
+                petriNet.getTransitions().add(internalTransition);
+                TransitionAdapter transitionAdapter = new TransitionAdapter("", internalTransition);
+                internalTransition.setAttachment(transitionAdapter);
+                nodes[i] = transitionAdapter;
+            }
+        }
+
+        // Create the edges with their weights.
+        for (int i = 0; i < arcs.length; i++) {
+            Node source = internalNode(nodes[batch.getSource(i)]);
+            Node destination = internalNode(nodes[batch.getDestination(i)]);
+            int weight = batch.getMultiplicity(i);
+            try {
+                Edge internalEdge;
+                switch (batch.getKind(i)) {
+                    case NetBatch.INHIBITORY:
+                        internalEdge = new EdgeZero((Place) source, (Transition) destination);
+                        break;
+                    case NetBatch.RESET:
+                        internalEdge = new EdgeEmpty((Place) source, (Transition) destination);
+                        break;
+                    case NetBatch.READ:
+                        internalEdge = new ReadEdge((Place) source, (Transition) destination, weight);
+                        petriNet.getEdges().add(internalEdge);
+                        break;
+                    default:
+                        if (source instanceof Place && destination instanceof Transition) {
+                            internalEdge = new WeightedEdgeIn((Place) source, (Transition) destination, weight);
+                        } else if (source instanceof Transition && destination instanceof Place) {
+                            internalEdge = new WeightedEdgeOut((Transition) source, (Place) destination, weight);
+                        } else {
+                            throw new IllegalArgumentException("Regular arc must be between a place and a transition.");
+                        }
+                        petriNet.getEdges().add(internalEdge);
+                }
+                arcs[i] = newArcAdapter(internalEdge);
+            } catch (IllegalArgumentException e) {
+                // The arc is left out, as the model refuses it.
+                PNEditorLogger.warningLogs(e.getMessage());
+            }
+        }
+    }
 
-        // Return the adapter.
+    /**
+     * Creates the adapter of a new internal edge and records it.
+     *
+     * @param internalEdge the edge, already connected to its place and transition
+     * @return the adapter of the edge
+     */
+    private ArcAdapter newArcAdapter(Edge internalEdge) {
+        ArcAdapter arcAdapter = new ArcAdapter(internalEdge, enablement);
+        internalToAdapterEdge.put(internalEdge, arcAdapter);
+        enablement.edgeAdded(internalEdge);
         return arcAdapter;
     }
 
+    /**
+     * Returns the internal node of an adapter of this net, without any lookup.
+     *
+     * @param node a node adapter
+     * @return the internal node, or {@code null} if the node is not part of the net (anymore)
+     */
+    private static Node internalNode(AbstractNode node) {
+        Node internalNode = null;
+        if (node instanceof PlaceAdapter) {
+            internalNode = ((PlaceAdapter) node).getAdaptee();
+        } else if (node instanceof TransitionAdapter) {
+            internalNode = ((TransitionAdapter) node).getInternalTransition();
+        }
+        // A removed node is detached from its adapter.
+        return internalNode != null && internalNode.getAttachment() == node ? internalNode : null;
+    }
+
     @Override
     public void removePlace(AbstractPlace place) {
         // Get internal place.
-        Place internalPlace = (Place) adapterToInternalNode.get(place);
+        Place internalPlace = (Place) internalNode(place);
 
         if (internalPlace != null) {
-            // Remove all connected arcs.
-            for (AbstractArc arc : adapterToInternalEdge.keySet().toArray(new AbstractArc[0])) {
-                if (arc.getSource().equals(place) || arc.getDestination().equals(place)) {
-                    removeArc(arc);
+            // Remove all connected arcs, which only their transitions know.
+            List<ArcAdapter> connectedArcs = new ArrayList<>();
+            for (ArcAdapter arc : internalToAdapterEdge.values()) {
+                if (arc.getSource() == place || arc.getDestination() == place) {
+                    connectedArcs.add(arc);
                 }
             }
+            for (ArcAdapter arc : connectedArcs) {
+                removeArc(arc);
+            }
 
             // Remove place from the internal model.
             petriNet.removePlace(internalPlace);
 
-            // Clean up the adapter's maps.
-            adapterToInternalNode.remove(place);
-            internalToAdapterNode.remove(internalPlace);
+            // Detach the adapter.
+            internalPlace.setAttachment(null);
         }
     }
 
     @Override
     public void removeTransition(AbstractTransition transition) {
         // Get internal transition.
-        Transition internalTransition = (Transition) adapterToInternalNode.get(transition);
+        Transition internalTransition = (Transition) internalNode(transition);
 
         if (internalTransition != null) {
-            // Remove all connected arcs.
-            for (AbstractArc arc : adapterToInternalEdge.keySet().toArray(new AbstractArc[0])) {
-                if (arc.getSource().equals(transition) || arc.getDestination().equals(transition)) {
-                    removeArc(arc);
-                }
+            // Remove all connected arcs, taken from the transition itself.
+            for (EdgeIn edge : new ArrayList<>(internalTransition.getEdgesIn())) {
+                removeEdge(edge);
+            }
+            for (EdgeOut edge : new ArrayList<>(internalTransition.getEdgesOut())) {
+                removeEdge(edge);
             }
 
             // Remove transition from internal model.
             petriNet.removeTransition(internalTransition);
 
-            // Clear mappings
-            adapterToInternalNode.remove(transition);
-            internalToAdapterNode.remove(internalTransition);
+            // Detach the adapter.
+            internalTransition.setAttachment(null);
         }
     }
 
     @Override
     public void removeArc(AbstractArc arc) {
-        // Get internal edge.
-        Edge internalEdge = adapterToInternalEdge.get(arc);
+        if (arc instanceof ArcAdapter) {
+            removeEdge(((ArcAdapter) arc).getInternalEdge());
+        }
+    }
 
-        if (internalEdge != null) {
-            // Remove edge from internal model.
+    /**
+     * Removes an edge of this net from the internal model, which also disconnects it from
+     * its transition, and forgets its adapter.
+     *
+     * @param internalEdge the edge to remove
+     */
+    private void removeEdge(Edge internalEdge) {
+        if (internalToAdapterEdge.remove(internalEdge) != null) {
             petriNet.removeEdge(internalEdge);
-
-            // Clean up the adapter's map.
-            adapterToInternalEdge.remove(arc);
+            enablement.edgeRemoved(internalEdge);
         }
     }
 
     @Override
     public boolean isEnabled(AbstractTransition transition) throws ResetArcMultiplicityException {
         // Get internal transition.
-        Transition internalTransition = (Transition) adapterToInternalNode.get(transition);
+        Transition internalTransition = (Transition) internalNode(transition);
 
         if (internalTransition != null) {
             // Call to internal logic.
-            return internalTransition.isDrawable();
+            long start = IS_ENABLED.start();
+            try {
+                return enablement.isEnabled((TransitionAdapter) transition);
+            } finally {
+                IS_ENABLED.stop(start);
+            }
         }
         return false; // If the transition doesn't exist, it can't be enabled.
     }
@@ -219,11 +362,18 @@ public class PetriNetAdapter extends PetriNetInterface {
     @Override
     public void fire(AbstractTransition transition) throws ResetArcMultiplicityException {
         // Get internal transition.
-        Transition internalTransition = (Transition) adapterToInternalNode.get(transition);
+        Transition internalTransition = (Transition) internalNode(transition);
 
         if (internalTransition != null) {
             // Call to internal logic.
-            petriNet.stepSimulation(internalTransition);
+            long start = FIRE.start();
+            try {
+                petriNet.stepSimulation(internalTransition);
+            } finally {
+                // Even a firing that failed halfway may have changed tokens.
+                enablement.transitionFired(internalTransition);
+                FIRE.stop(start);
+            }
         }
     }
 }
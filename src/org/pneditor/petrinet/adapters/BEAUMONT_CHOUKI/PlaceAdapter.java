@@ -1,5 +1,7 @@
 package org.pneditor.petrinet.adapters.BEAUMONT_CHOUKI;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.pneditor.petrinet.AbstractPlace;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Place;
 
@@ -19,15 +21,27 @@ public class PlaceAdapter extends AbstractPlace {
      */
     private final Place adaptee;
 
+    /**
+     * The enablement cache of the net, told about every change of the tokens or the capacity.
+     */
+    private final EnablementCache enablement;
+
+    /**
+     * The transitions connected to this place, once per arc.
+     */
+    private List<TransitionAdapter> dependents = new ArrayList<>();
+
     /**
      * Creates a new {@code PlaceAdapter}.
      *
-     * @param adaptee The place instance from the BEAUMONT_CHOUKI model to adapt.
-     * @param label   The label to be used by the PNEditor {@code AbstractPlace}.
+     * @param adaptee    The place instance from the BEAUMONT_CHOUKI model to adapt.
+     * @param label      The label to be used by the PNEditor {@code AbstractPlace}.
+     * @param enablement The enablement cache of the net.
      */
-    public PlaceAdapter(final String label, final Place adaptee) {
+    PlaceAdapter(final String label, final Place adaptee, final EnablementCache enablement) {
         super(label);
         this.adaptee = adaptee;
+        this.enablement = enablement;
     }
 
     /**
@@ -39,6 +53,28 @@ public class PlaceAdapter extends AbstractPlace {
         return adaptee;
     }
 
+    /**
+     * Returns the transitions whose enablement depends on this place, those connected to it
+     * by an arc, once per arc.
+     *
+     * @return The transitions connected to this place.
+     */
+    List<TransitionAdapter> getDependents() {
+        return dependents;
+    }
+
+    /**
+     * Makes room for exactly that many transitions connected to this place, before any is
+     * connected, instead of the default room of a list.
+     *
+     * @param count The number of arcs to come.
+     */
+    void reserveDependents(final int count) {
+        if (dependents.isEmpty()) {
+            dependents = new ArrayList<>(count);
+        }
+    }
+
     /**
      * Adds a single token to this place.
      * <p>
@@ -48,6 +84,7 @@ public class PlaceAdapter extends AbstractPlace {
     @Override
     public void addToken() {
         adaptee.addTokens(1);
+        enablement.placeChanged(this);
     }
 
     /**
@@ -62,6 +99,7 @@ public class PlaceAdapter extends AbstractPlace {
     @Override
     public void removeToken() {
         adaptee.removeTokens(1);
+        enablement.placeChanged(this);
     }
 
     /**
@@ -88,5 +126,28 @@ public class PlaceAdapter extends AbstractPlace {
             );
         }
         adaptee.setNbTokens(tokens);
+        enablement.placeChanged(this);
+    }
+
+    /**
+     * Returns the capacity of this place.
+     *
+     * @return The capacity of the underlying adaptee, {@link Integer#MAX_VALUE} if it has none.
+     */
+    @Override
+    public int getCapacity() {
+        return adaptee.getCapacity();
+    }
+
+    /**
+     * Sets the capacity of this place.
+     *
+     * @param capacity The new capacity, {@link Integer#MAX_VALUE} to remove it.
+     * @throws IllegalArgumentException if {@code capacity} is negative or below the current number of tokens.
+     */
+    @Override
+    public void setCapacity(final int capacity) {
+        adaptee.setCapacity(capacity);
+        enablement.placeChanged(this);
     }
 }
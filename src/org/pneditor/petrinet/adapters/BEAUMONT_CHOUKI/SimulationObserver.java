@@ -0,0 +1,113 @@
+package org.pneditor.petrinet.adapters.BEAUMONT_CHOUKI;
+
+import java.util.function.IntSupplier;
+
+import org.pneditor.monitoring.FlightRecorderEvents;
+import org.pneditor.monitoring.Monitoring;
+import org.pneditor.monitoring.SimulationMonitor;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Transition;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.PetriNET.IPretriNet;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Simulation.FiringObserver;
+
+/**
+ * Follows the simulations of a net of the model with a {@link SimulationMonitor}, so that
+ * they can be watched, paused and cancelled over JMX like a
+ * {@link org.pneditor.petrinet.RandomSimulation}, and records their firings as Flight
+ * Recorder firing batches (see {@link FlightRecorderEvents}).
+ * <p>
+ * The model knows nothing of the monitoring: the observer is attached to the net with
+ * {@link IPretriNet#setFiringObserver(FiringObserver)} and sees every
+ * {@link IPretriNet#stepSimulation(Transition)}, whichever simulation draws it:
+ * </p>
+ * <pre>
+ * try (SimulationObserver observer = SimulationObserver.attach(net)) {
+ *     net.launchSimulation(steps);
+ * }
+ * </pre>
+ * <p>
+ * A paused simulation waits in its next step. A cancelled one stops with a
+ * {@link java.util.concurrent.CancellationException} thrown out of
+ * {@link IPretriNet#stepSimulation(Transition)}, after the tokens of the last transition
+ * were moved. A {@code TimedSimulator} or a {@code TransitionSampler} then no longer matches
+ * the marking and must not be reused; a {@code CheckpointedSimulation} resumes from its last
+ * checkpoint.
+ * </p>
+ * <p>
+ * The observer chains to the observer the net had before, which it gives back when closed.
+ * Nothing is registered unless {@link Monitoring#ENABLED}. The last batch is committed on
+ * close, as a deadlock if no transition is drawable then.
+ * </p>
+ */
+public final class SimulationObserver implements FiringObserver, AutoCloseable {
+
+    // The net followed.
+    private final IPretriNet net;
+
+    // Counts the drawable transitions of the net, only when a batch or the monitor asks.
+    private final IntSupplier drawableCount;
+
+    // The observer the net had before, called first, null if none.
+    private final FiringObserver previous;
+
+    // The registered monitor, null if monitoring is disabled.
+    private final SimulationMonitor monitor;
+
+    // The firings, recorded as Flight Recorder events when they are available.
+    private final FlightRecorderEvents.FiringBatches batches = new FlightRecorderEvents.FiringBatches();
+
+    // The number of transitions fired since the observer was attached.
+    private long steps;
+
+    private SimulationObserver(IPretriNet net) {
+        this.net = net;
+        this.drawableCount = () -> net.drawable().size();
+        this.previous = net.getFiringObserver();
+        this.monitor = SimulationMonitor.registerIfEnabled(net.getPlaces().size(),
+                p -> net.getPlaces().get(p).getNbTokens(),
+                drawableCount);
+    }
+
+    /**
+     * Attaches a new observer to a net, until it is closed.
+     *
+     * @param net the net whose simulations are followed
+     * @return the observer, to close at the end of the simulation
+     */
+    public static SimulationObserver attach(IPretriNet net) {
+        SimulationObserver observer = new SimulationObserver(net);
+        net.setFiringObserver(observer);
+        return observer;
+    }
+
+    /**
+     * Records the step, then waits while the simulation is paused.
+     *
+     * @param transition the transition fired
+     * @throws java.util.concurrent.CancellationException if the simulation was cancelled
+     */
+    @Override
+    public void fired(Transition transition) {
+        if (previous != null) {
+            previous.fired(transition);
+        }
+        steps++;
+        batches.fired(drawableCount);
+        if (monitor != null) {
+            monitor.step(steps);
+        }
+    }
+
+    /**
+     * Commits the last firing batch, unregisters the monitor and gives the net back its
+     * previous observer.
+     */
+    @Override
+    public void close() {
+        int drawable = drawableCount.getAsInt();
+        batches.end(drawable, drawable == 0);
+        if (monitor != null) {
+            monitor.unregister();
+        }
+        net.setFiringObserver(previous);
+    }
+}
@@ -11,6 +11,12 @@ public class TransitionAdapter extends AbstractTransition {
 
     private final Transition internalTransition;
 
+    // The cached enablement, computed at version computedAt of the net, and the version of the
+    // last change that can affect it; see EnablementCache.
+    boolean enabled;
+    long computedAt = -1;
+    long changedAt;
+
     public TransitionAdapter(String label, Transition internalTransition) {
         super(label);
         this.internalTransition = internalTransition;
@@ -0,0 +1,270 @@
+package org.pneditor.petrinet.algorithms;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Büchi automaton accepting the runs of an {@link LtlFormula}, built with the
+ * tableau construction of Gerth, Peled, Vardi and Wolper and degeneralized
+ * with a counter.
+ *
+ * <p>A state of the automaton is a tableau node paired with the index of the
+ * acceptance set it waits for. Reading a marking in a state requires the
+ * marking to satisfy the literals of its node; the initial states are read on
+ * the initial marking. The automaton is small next to the state space, so it
+ * is built eagerly and the product with the net is explored on the fly by
+ * {@link LtlModelChecker}.</p>
+ */
+final class BuchiAutomaton {
+
+	private static final int INIT = -1;
+
+	/**
+	 * Tableau node: the formulas still to process, the ones processed, and the
+	 * obligations for the next position.
+	 */
+	private static final class Node {
+		final Set<Integer> incoming = new HashSet<>();
+		final Set<LtlFormula> pending = new LinkedHashSet<>();
+		final Set<LtlFormula> old = new HashSet<>();
+		final Set<LtlFormula> next = new HashSet<>();
+
+		Node copy() {
+			final Node copy = new Node();
+			copy.incoming.addAll(this.incoming);
+			copy.pending.addAll(this.pending);
+			copy.old.addAll(this.old);
+			copy.next.addAll(this.next);
+			return copy;
+		}
+	}
+
+	private final List<Node> nodes = new ArrayList<>();
+	private final LtlFormula[][] literals;
+	private final int[][] successors;
+	private final int[] initialNodes;
+	// acceptance sets, one flag per node for every until sub-formula
+	private final boolean[][] acceptance;
+	// nodes that can move to an accepting sink (no literal, a loop, in every
+	// acceptance set), so that any continuation is accepted
+	private final boolean[] universal;
+
+	BuchiAutomaton(final LtlFormula formula) {
+		final Node start = new Node();
+		start.incoming.add(INIT);
+		start.pending.add(formula);
+		expand(start);
+
+		final int count = this.nodes.size();
+		this.literals = new LtlFormula[count][];
+		final List<List<Integer>> successorLists = new ArrayList<>();
+		final List<Integer> initials = new ArrayList<>();
+		for (int n = 0; n < count; n++) {
+			final List<LtlFormula> nodeLiterals = new ArrayList<>();
+			for (final LtlFormula old : this.nodes.get(n).old) {
+				if (old.isLiteral() && old.getOperator() != LtlFormula.Operator.TRUE) {
+					nodeLiterals.add(old);
+				}
+			}
+			this.literals[n] = nodeLiterals.toArray(new LtlFormula[0]);
+			successorLists.add(new ArrayList<Integer>());
+		}
+		for (int n = 0; n < count; n++) {
+			for (final int from : this.nodes.get(n).incoming) {
+				if (from == INIT) {
+					initials.add(n);
+				} else {
+					successorLists.get(from).add(n);
+				}
+			}
+		}
+		this.successors = new int[count][];
+		for (int n = 0; n < count; n++) {
+			this.successors[n] = toArray(successorLists.get(n));
+		}
+		this.initialNodes = toArray(initials);
+
+		final List<LtlFormula> untils = new ArrayList<>();
+		collectUntils(formula, untils);
+		this.acceptance = new boolean[Math.max(1, untils.size())][count];
+		for (int n = 0; n < count; n++) {
+			final Node node = this.nodes.get(n);
+			if (untils.isEmpty()) {
+				this.acceptance[0][n] = true;
+			}
+			for (int i = 0; i < untils.size(); i++) {
+				final LtlFormula until = untils.get(i);
+				this.acceptance[i][n] = !node.old.contains(until) || node.old.contains(until.getRight());
+			}
+		}
+		final boolean[] sinks = new boolean[count];
+		for (int n = 0; n < count; n++) {
+			boolean sink = this.literals[n].length == 0 && successorLists.get(n).contains(n);
+			for (int i = 0; i < this.acceptance.length; i++) {
+				sink &= this.acceptance[i][n];
+			}
+			sinks[n] = sink;
+		}
+		this.universal = new boolean[count];
+		for (int n = 0; n < count; n++) {
+			for (final int successor : this.successors[n]) {
+				this.universal[n] |= sinks[successor];
+			}
+		}
+	}
+
+	private static int[] toArray(final List<Integer> list) {
+		final int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = list.get(i);
+		}
+		return array;
+	}
+
+	private static void collectUntils(final LtlFormula formula, final List<LtlFormula> untils) {
+		if (formula == null || formula.isLiteral()) {
+			return;
+		}
+		if (formula.getOperator() == LtlFormula.Operator.UNTIL && !untils.contains(formula)) {
+			untils.add(formula);
+		}
+		collectUntils(formula.getLeft(), untils);
+		collectUntils(formula.getRight(), untils);
+	}
+
+	private void expand(final Node node) {
+		if (node.pending.isEmpty()) {
+			for (int n = 0; n < this.nodes.size(); n++) {
+				final Node other = this.nodes.get(n);
+				if (other.old.equals(node.old) && other.next.equals(node.next)) {
+					other.incoming.addAll(node.incoming);
+					return;
+				}
+			}
+			this.nodes.add(node);
+			final Node successor = new Node();
+			successor.incoming.add(this.nodes.size() - 1);
+			successor.pending.addAll(node.next);
+			expand(successor);
+			return;
+		}
+
+		final LtlFormula formula = node.pending.iterator().next();
+		node.pending.remove(formula);
+		if (node.old.contains(formula)) {
+			expand(node);
+			return;
+		}
+		switch (formula.getOperator()) {
+		case FALSE:
+			return;
+		case TRUE:
+		case ATOM:
+		case NOT_ATOM:
+			if (node.old.contains(formula.negate())) {
+				return; // contradiction
+			}
+			node.old.add(formula);
+			expand(node);
+			return;
+		case AND:
+			node.old.add(formula);
+			addPending(node, formula.getLeft());
+			addPending(node, formula.getRight());
+			expand(node);
+			return;
+		case NEXT:
+			node.old.add(formula);
+			node.next.add(formula.getLeft());
+			expand(node);
+			return;
+		default:
+			final Node second = node.copy();
+			node.old.add(formula);
+			second.old.add(formula);
+			if (formula.getOperator() == LtlFormula.Operator.OR) {
+				addPending(node, formula.getLeft());
+				addPending(second, formula.getRight());
+			} else if (formula.getOperator() == LtlFormula.Operator.UNTIL) {
+				// f U g = g | (f & X(f U g))
+				addPending(node, formula.getLeft());
+				node.next.add(formula);
+				addPending(second, formula.getRight());
+			} else {
+				// f R g = (f & g) | (g & X(f R g))
+				addPending(node, formula.getLeft());
+				addPending(node, formula.getRight());
+				addPending(second, formula.getRight());
+				second.next.add(formula);
+			}
+			expand(node);
+			expand(second);
+		}
+	}
+
+	private static void addPending(final Node node, final LtlFormula formula) {
+		if (!node.old.contains(formula)) {
+			node.pending.add(formula);
+		}
+	}
+
+	/*
+	 * Degeneralized automaton: state = node * acceptanceSets + counter
+	 */
+
+	int getStateCount() {
+		return this.nodes.size() * this.acceptance.length;
+	}
+
+	int[] getInitialStates() {
+		final int[] states = new int[this.initialNodes.length];
+		for (int i = 0; i < states.length; i++) {
+			states[i] = this.initialNodes[i] * this.acceptance.length; // counter 0
+		}
+		return states;
+	}
+
+	/**
+	 * @return true if the marking satisfies the literals of the state
+	 */
+	boolean accepts(final int state, final int[] marking) {
+		for (final LtlFormula literal : this.literals[state / this.acceptance.length]) {
+			if (!literal.test(marking)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	boolean isAccepting(final int state) {
+		return state % this.acceptance.length == 0 && this.acceptance[0][state / this.acceptance.length];
+	}
+
+	/**
+	 * @return true if every infinite continuation after the marking read in
+	 *         the state is accepted, which ends the search of a safety
+	 *         violation right away
+	 */
+	boolean isUniversal(final int state) {
+		return this.universal[state / this.acceptance.length];
+	}
+
+	/**
+	 * @return the states following the given one, whatever the next marking
+	 */
+	int[] getSuccessors(final int state) {
+		final int sets = this.acceptance.length;
+		final int node = state / sets;
+		final int counter = state % sets;
+		final int nextCounter = this.acceptance[counter][node] ? (counter + 1) % sets : counter;
+		final int[] nodeSuccessors = this.successors[node];
+		final int[] result = new int[nodeSuccessors.length];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = nodeSuccessors[i] * sets + nextCounter;
+		}
+		return result;
+	}
+}
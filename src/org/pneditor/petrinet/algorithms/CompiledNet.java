@@ -0,0 +1,424 @@
+package org.pneditor.petrinet.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.pneditor.petrinet.AbstractArc;
+import org.pneditor.petrinet.AbstractNode;
+import org.pneditor.petrinet.AbstractPlace;
+import org.pneditor.petrinet.AbstractTransition;
+import org.pneditor.petrinet.PetriNetInterface;
+import org.pneditor.petrinet.ResetArcMultiplicityException;
+
+/**
+ * Immutable, index based snapshot of a {@link PetriNetInterface}, used by the
+ * analysis algorithms.
+ *
+ * <p>Places and transitions are numbered from 0 in increasing id order, and
+ * every transition keeps its arcs as primitive arrays, so that enabling and
+ * firing on an {@code int[]} marking never touch the adapter objects. The
+ * firing rule is the one of {@link org.pneditor.petrinet.Boundedness}: a
+ * regular arc needs and consumes its multiplicity, an inhibitory arc blocks
+ * once the place holds its multiplicity, a reset arc empties the place, and a
+ * read arc needs its multiplicity without consuming it, so that transitions
+ * reading the same place are never in conflict.</p>
+ *
+ * <p>A transition is also disabled when firing it would put more tokens in a
+ * place than its {@link AbstractPlace#getCapacity() capacity}. The check is
+ * compiled into one upper limit per capped output place, so places without
+ * capacity cost nothing.</p>
+ *
+ * <p>{@link #OMEGA} stands for an unbounded number of tokens; it is absorbing
+ * for both consumption and production. As the place may then hold any number
+ * of tokens, it never blocks an inhibitory arc.</p>
+ */
+public final class CompiledNet {
+
+	public static final int OMEGA = Integer.MAX_VALUE;
+
+	private static final int[] NONE = new int[0];
+
+	private final AbstractPlace[] places;
+	private final AbstractTransition[] transitions;
+	private final Map<AbstractNode, Integer> indexes = new HashMap<>();
+
+	private final int[][] inputPlaces;
+	private final int[][] inputWeights;
+	private final int[][] inhibitorPlaces;
+	private final int[][] inhibitorWeights;
+	private final int[][] resetPlaces;
+	private final int[][] readPlaces;
+	private final int[][] readWeights;
+	private final int[][] outputPlaces;
+	private final int[][] outputWeights;
+	private final int[][] limitedPlaces;
+	private final int[][] limits;
+	private final int[] capacities;
+	private final int[] initialMarking;
+
+	public CompiledNet(final PetriNetInterface petriNet) throws ResetArcMultiplicityException {
+		final Comparator<AbstractNode> byId = Comparator.comparingInt(AbstractNode::getId);
+		this.places = petriNet.getPlaces().toArray(new AbstractPlace[0]);
+		Arrays.sort(this.places, byId);
+		this.transitions = petriNet.getTransitions().toArray(new AbstractTransition[0]);
+		Arrays.sort(this.transitions, byId);
+
+		this.initialMarking = new int[this.places.length];
+		this.capacities = new int[this.places.length];
+		for (int p = 0; p < this.places.length; p++) {
+			this.indexes.put(this.places[p], p);
+			this.initialMarking[p] = this.places[p].getTokens();
+			this.capacities[p] = this.places[p].hasCapacity() ? this.places[p].getCapacity() : OMEGA;
+		}
+		for (int t = 0; t < this.transitions.length; t++) {
+			this.indexes.put(this.transitions[t], t);
+		}
+
+		final int count = this.transitions.length;
+		final List<List<int[]>> inputs = newBuckets(count);
+		final List<List<int[]>> inhibitors = newBuckets(count);
+		final List<List<int[]>> resets = newBuckets(count);
+		final List<List<int[]>> reads = newBuckets(count);
+		final List<List<int[]>> outputs = newBuckets(count);
+		for (final AbstractArc arc : petriNet.getArcs()) {
+			final Integer source = this.indexes.get(arc.getSource());
+			final Integer destination = this.indexes.get(arc.getDestination());
+			if (source == null || destination == null) {
+				continue; // dangling arc, not part of the net anymore
+			}
+			if (!arc.isSourceAPlace()) {
+				outputs.get(source).add(new int[] { destination, arc.getMultiplicity() });
+			} else if (arc.isReset()) {
+				resets.get(destination).add(new int[] { source, 0 });
+			} else if (arc.isInhibitory()) {
+				inhibitors.get(destination).add(new int[] { source, arc.getMultiplicity() });
+			} else if (arc.isRead()) {
+				reads.get(destination).add(new int[] { source, arc.getMultiplicity() });
+			} else {
+				inputs.get(destination).add(new int[] { source, arc.getMultiplicity() });
+			}
+		}
+
+		this.inputPlaces = new int[count][];
+		this.inputWeights = new int[count][];
+		this.inhibitorPlaces = new int[count][];
+		this.inhibitorWeights = new int[count][];
+		this.resetPlaces = new int[count][];
+		this.readPlaces = new int[count][];
+		this.readWeights = new int[count][];
+		this.outputPlaces = new int[count][];
+		this.outputWeights = new int[count][];
+		this.limitedPlaces = new int[count][];
+		this.limits = new int[count][];
+		final Comparator<int[]> byPlace = Comparator.comparingInt(row -> row[0]);
+		for (int t = 0; t < count; t++) {
+			// arcs come out of a HashSet, sorting keeps two snapshots comparable
+			inputs.get(t).sort(byPlace);
+			inhibitors.get(t).sort(byPlace);
+			resets.get(t).sort(byPlace);
+			reads.get(t).sort(byPlace);
+			outputs.get(t).sort(byPlace);
+			this.inputPlaces[t] = column(inputs.get(t), 0);
+			this.inputWeights[t] = column(inputs.get(t), 1);
+			this.inhibitorPlaces[t] = column(inhibitors.get(t), 0);
+			this.inhibitorWeights[t] = column(inhibitors.get(t), 1);
+			this.resetPlaces[t] = column(resets.get(t), 0);
+			this.readPlaces[t] = column(reads.get(t), 0);
+			this.readWeights[t] = column(reads.get(t), 1);
+			this.outputPlaces[t] = column(outputs.get(t), 0);
+			this.outputWeights[t] = column(outputs.get(t), 1);
+			final List<int[]> limited = compileLimits(t);
+			this.limitedPlaces[t] = column(limited, 0);
+			this.limits[t] = column(limited, 1);
+		}
+	}
+
+	/**
+	 * Turns the capacities of the output places of a transition into upper
+	 * limits on their marking before firing: capacity - produced + consumed,
+	 * or -1 when a reset place receives more than its capacity, so that the
+	 * transition is never enabled.
+	 */
+	private List<int[]> compileLimits(final int transition) {
+		final List<int[]> limited = new ArrayList<>(0);
+		final int[] out = this.outputPlaces[transition];
+		for (int i = 0; i < out.length; i++) {
+			final int place = out[i];
+			if (this.capacities[place] == OMEGA || (i > 0 && out[i - 1] == place)) {
+				continue;
+			}
+			final long produced = sum(out, this.outputWeights[transition], place);
+			final long limit;
+			if (contains(this.resetPlaces[transition], place)) {
+				if (produced <= this.capacities[place]) {
+					continue;
+				}
+				limit = -1;
+			} else {
+				limit = this.capacities[place] - produced
+						+ sum(this.inputPlaces[transition], this.inputWeights[transition], place);
+			}
+			limited.add(new int[] { place, (int) Math.max(-1, Math.min(limit, OMEGA - 1)) });
+		}
+		return limited;
+	}
+
+	private static long sum(final int[] places, final int[] weights, final int place) {
+		long total = 0;
+		for (int i = 0; i < places.length; i++) {
+			if (places[i] == place) {
+				total += weights[i];
+			}
+		}
+		return total;
+	}
+
+	private static boolean contains(final int[] places, final int place) {
+		for (final int p : places) {
+			if (p == place) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static List<List<int[]>> newBuckets(final int count) {
+		final List<List<int[]>> buckets = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			buckets.add(new ArrayList<int[]>(2));
+		}
+		return buckets;
+	}
+
+	private static int[] column(final List<int[]> rows, final int column) {
+		if (rows.isEmpty()) {
+			return NONE;
+		}
+		final int[] values = new int[rows.size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = rows.get(i)[column];
+		}
+		return values;
+	}
+
+	public int getPlaceCount() {
+		return this.places.length;
+	}
+
+	public int getTransitionCount() {
+		return this.transitions.length;
+	}
+
+	public AbstractPlace getPlace(final int index) {
+		return this.places[index];
+	}
+
+	public AbstractTransition getTransition(final int index) {
+		return this.transitions[index];
+	}
+
+	/**
+	 * @return the index of the given place or transition, -1 if it is not part
+	 *         of this snapshot
+	 */
+	public int indexOf(final AbstractNode node) {
+		final Integer index = this.indexes.get(node);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * @return the capacity of the place, {@link #OMEGA} when it has none
+	 */
+	public int getCapacity(final int place) {
+		return this.capacities[place];
+	}
+
+	public boolean hasCapacity(final int place) {
+		return this.capacities[place] != OMEGA;
+	}
+
+	/**
+	 * @return the largest token count a reachable marking can hold when every
+	 *         place has a capacity, 0 when some place has none
+	 */
+	public int getCapacityBound() {
+		int bound = 0;
+		for (final int capacity : this.capacities) {
+			if (capacity == OMEGA) {
+				return 0;
+			}
+			bound = Math.max(bound, capacity);
+		}
+		return bound;
+	}
+
+	/**
+	 * @return a fresh copy of the marking the net had when it was compiled
+	 */
+	public int[] getInitialMarking() {
+		return this.initialMarking.clone();
+	}
+
+	public int[] getInputPlaces(final int transition) {
+		return this.inputPlaces[transition];
+	}
+
+	public int[] getInputWeights(final int transition) {
+		return this.inputWeights[transition];
+	}
+
+	public int[] getInhibitorPlaces(final int transition) {
+		return this.inhibitorPlaces[transition];
+	}
+
+	public int[] getInhibitorWeights(final int transition) {
+		return this.inhibitorWeights[transition];
+	}
+
+	public int[] getResetPlaces(final int transition) {
+		return this.resetPlaces[transition];
+	}
+
+	/**
+	 * @return the places read by the transition, which must hold the
+	 *         {@link #getReadWeights(int) read weights} but are left unchanged
+	 */
+	public int[] getReadPlaces(final int transition) {
+		return this.readPlaces[transition];
+	}
+
+	public int[] getReadWeights(final int transition) {
+		return this.readWeights[transition];
+	}
+
+	public int[] getOutputPlaces(final int transition) {
+		return this.outputPlaces[transition];
+	}
+
+	public int[] getOutputWeights(final int transition) {
+		return this.outputWeights[transition];
+	}
+
+	/**
+	 * @return true if both snapshots have the same places and transitions, in
+	 *         the same order, so that indexes and markings can be shared
+	 */
+	public boolean hasSameNodes(final CompiledNet other) {
+		return Arrays.equals(this.places, other.places) && Arrays.equals(this.transitions, other.transitions);
+	}
+
+	/**
+	 * @return true if the transition has the same arcs, with the same
+	 *         multiplicities and output capacities, in both snapshots; only
+	 *         meaningful when {@link #hasSameNodes(CompiledNet)} holds
+	 */
+	public boolean hasSameArcs(final CompiledNet other, final int transition) {
+		return Arrays.equals(this.inputPlaces[transition], other.inputPlaces[transition])
+				&& Arrays.equals(this.inputWeights[transition], other.inputWeights[transition])
+				&& Arrays.equals(this.inhibitorPlaces[transition], other.inhibitorPlaces[transition])
+				&& Arrays.equals(this.inhibitorWeights[transition], other.inhibitorWeights[transition])
+				&& Arrays.equals(this.resetPlaces[transition], other.resetPlaces[transition])
+				&& Arrays.equals(this.readPlaces[transition], other.readPlaces[transition])
+				&& Arrays.equals(this.readWeights[transition], other.readWeights[transition])
+				&& Arrays.equals(this.outputPlaces[transition], other.outputPlaces[transition])
+				&& Arrays.equals(this.outputWeights[transition], other.outputWeights[transition])
+				&& Arrays.equals(this.limitedPlaces[transition], other.limitedPlaces[transition])
+				&& Arrays.equals(this.limits[transition], other.limits[transition]);
+	}
+
+	public boolean isEnabled(final int[] marking, final int transition) {
+		final int[] in = this.inputPlaces[transition];
+		final int[] inWeights = this.inputWeights[transition];
+		for (int i = 0; i < in.length; i++) {
+			if (marking[in[i]] < inWeights[i]) {
+				return false;
+			}
+		}
+		final int[] read = this.readPlaces[transition];
+		final int[] readWeights = this.readWeights[transition];
+		for (int i = 0; i < read.length; i++) {
+			if (marking[read[i]] < readWeights[i]) {
+				return false;
+			}
+		}
+		final int[] inhibitors = this.inhibitorPlaces[transition];
+		final int[] thresholds = this.inhibitorWeights[transition];
+		for (int i = 0; i < inhibitors.length; i++) {
+			if (marking[inhibitors[i]] >= thresholds[i] && marking[inhibitors[i]] != OMEGA) {
+				return false;
+			}
+		}
+		final int[] limited = this.limitedPlaces[transition];
+		final int[] limits = this.limits[transition];
+		for (int i = 0; i < limited.length; i++) {
+			if (marking[limited[i]] > limits[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Fires an enabled transition in place. The caller is responsible for
+	 * checking {@link #isEnabled(int[], int)} first.
+	 */
+	public void fire(final int[] marking, final int transition) {
+		final int[] in = this.inputPlaces[transition];
+		final int[] inWeights = this.inputWeights[transition];
+		for (int i = 0; i < in.length; i++) {
+			if (marking[in[i]] != OMEGA) {
+				marking[in[i]] -= inWeights[i];
+			}
+		}
+		for (final int place : this.resetPlaces[transition]) {
+			marking[place] = 0;
+		}
+		final int[] out = this.outputPlaces[transition];
+		final int[] outWeights = this.outputWeights[transition];
+		for (int i = 0; i < out.length; i++) {
+			if (marking[out[i]] != OMEGA) {
+				final long tokens = (long) marking[out[i]] + outWeights[i];
+				marking[out[i]] = tokens >= OMEGA ? OMEGA - 1 : (int) tokens;
+			}
+		}
+	}
+
+	/**
+	 * @return a new marking obtained by firing the transition from the given one
+	 */
+	public int[] successor(final int[] marking, final int transition) {
+		final int[] next = marking.clone();
+		fire(next, transition);
+		return next;
+	}
+
+	public boolean isDeadlock(final int[] marking) {
+		for (int t = 0; t < this.transitions.length; t++) {
+			if (isEnabled(marking, t)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return a printable name for the place: its label, or its id when the
+	 *         label is empty
+	 */
+	public String getPlaceName(final int index) {
+		return nameOf(this.places[index], "P");
+	}
+
+	public String getTransitionName(final int index) {
+		return nameOf(this.transitions[index], "T");
+	}
+
+	private static String nameOf(final AbstractNode node, final String prefix) {
+		final String label = node.getLabel();
+		return label == null || label.isEmpty() ? prefix + node.getId() : label;
+	}
+}
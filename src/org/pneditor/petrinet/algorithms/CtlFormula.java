@@ -0,0 +1,241 @@
+package org.pneditor.petrinet.algorithms;
+
+/**
+ * Immutable CTL formula over the markings of a {@link CompiledNet}.
+ *
+ * <p>Formulas are written with the usual operators:</p>
+ *
+ * <pre>
+ * AG !deadlock
+ * AG (p1 &gt; 0 -&gt; AF p2 &gt; 0)
+ * EF (p1 + p2 = 3 &amp; enabled(t1))
+ * A[p1 &gt; 0 U p2 &gt; 0]
+ * </pre>
+ *
+ * <p>See {@link FormulaParser} for the atomic propositions. The parser only
+ * keeps the existential operators {@code EX}, {@code EU} and {@code EG}; the
+ * other ones are rewritten with them.</p>
+ */
+public final class CtlFormula {
+
+	enum Operator {
+		ATOM, NOT, AND, OR, EX, EU, EG
+	}
+
+	private final Operator operator;
+	private final MarkingPredicate predicate;
+	private final CtlFormula left;
+	private final CtlFormula right;
+
+	private CtlFormula(final Operator operator, final MarkingPredicate predicate, final CtlFormula left,
+			final CtlFormula right) {
+		this.operator = operator;
+		this.predicate = predicate;
+		this.left = left;
+		this.right = right;
+	}
+
+	/**
+	 * @throws FormulaSyntaxException if the text is not a CTL formula or names
+	 *                                an unknown place or transition
+	 */
+	public static CtlFormula parse(final String text, final CompiledNet net) throws FormulaSyntaxException {
+		return new Parser(text, net).parse();
+	}
+
+	static CtlFormula atom(final MarkingPredicate predicate) {
+		return new CtlFormula(Operator.ATOM, predicate, null, null);
+	}
+
+	static CtlFormula not(final CtlFormula operand) {
+		if (operand.operator == Operator.NOT) {
+			return operand.left;
+		}
+		return new CtlFormula(Operator.NOT, null, operand, null);
+	}
+
+	static CtlFormula and(final CtlFormula left, final CtlFormula right) {
+		return new CtlFormula(Operator.AND, null, left, right);
+	}
+
+	static CtlFormula or(final CtlFormula left, final CtlFormula right) {
+		return new CtlFormula(Operator.OR, null, left, right);
+	}
+
+	static CtlFormula ex(final CtlFormula operand) {
+		return new CtlFormula(Operator.EX, null, operand, null);
+	}
+
+	static CtlFormula eu(final CtlFormula left, final CtlFormula right) {
+		return new CtlFormula(Operator.EU, null, left, right);
+	}
+
+	static CtlFormula eg(final CtlFormula operand) {
+		return new CtlFormula(Operator.EG, null, operand, null);
+	}
+
+	static CtlFormula ef(final CtlFormula operand) {
+		return eu(atom(MarkingPredicate.constant(true)), operand);
+	}
+
+	static CtlFormula ax(final CtlFormula operand) {
+		return not(ex(not(operand)));
+	}
+
+	static CtlFormula af(final CtlFormula operand) {
+		return not(eg(not(operand)));
+	}
+
+	static CtlFormula ag(final CtlFormula operand) {
+		return not(ef(not(operand)));
+	}
+
+	/**
+	 * A[f U g] = !(E[!g U (!f &amp; !g)] | EG !g)
+	 */
+	static CtlFormula au(final CtlFormula left, final CtlFormula right) {
+		return not(or(eu(not(right), and(not(left), not(right))), eg(not(right))));
+	}
+
+	/**
+	 * @return true if the formula has no temporal operator, so that it can be
+	 *         evaluated with {@link #test(int[])}
+	 */
+	public boolean isStateFormula() {
+		switch (this.operator) {
+		case ATOM:
+			return true;
+		case NOT:
+			return this.left.isStateFormula();
+		case AND:
+		case OR:
+			return this.left.isStateFormula() && this.right.isStateFormula();
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Evaluates a formula without temporal operator on a marking.
+	 *
+	 * @throws IllegalStateException if the formula has a temporal operator
+	 */
+	public boolean test(final int[] marking) {
+		switch (this.operator) {
+		case ATOM:
+			return this.predicate.test(marking);
+		case NOT:
+			return !this.left.test(marking);
+		case AND:
+			return this.left.test(marking) && this.right.test(marking);
+		case OR:
+			return this.left.test(marking) || this.right.test(marking);
+		default:
+			throw new IllegalStateException("Not a state formula: " + this);
+		}
+	}
+
+	Operator getOperator() {
+		return this.operator;
+	}
+
+	MarkingPredicate getPredicate() {
+		return this.predicate;
+	}
+
+	CtlFormula getLeft() {
+		return this.left;
+	}
+
+	CtlFormula getRight() {
+		return this.right;
+	}
+
+	@Override
+	public String toString() {
+		switch (this.operator) {
+		case ATOM:
+			return this.predicate.toString();
+		case NOT:
+			return "!" + this.left;
+		case AND:
+			return "(" + this.left + " & " + this.right + ")";
+		case OR:
+			return "(" + this.left + " | " + this.right + ")";
+		case EX:
+			return "EX " + this.left;
+		case EU:
+			return "E[" + this.left + " U " + this.right + "]";
+		default:
+			return "EG " + this.left;
+		}
+	}
+
+	private static final class Parser extends FormulaParser<CtlFormula> {
+
+		Parser(final String text, final CompiledNet net) throws FormulaSyntaxException {
+			super(text, net);
+		}
+
+		@Override
+		protected CtlFormula atom(final MarkingPredicate predicate) {
+			return CtlFormula.atom(predicate);
+		}
+
+		@Override
+		protected CtlFormula not(final CtlFormula operand) {
+			return CtlFormula.not(operand);
+		}
+
+		@Override
+		protected CtlFormula and(final CtlFormula left, final CtlFormula right) {
+			return CtlFormula.and(left, right);
+		}
+
+		@Override
+		protected CtlFormula or(final CtlFormula left, final CtlFormula right) {
+			return CtlFormula.or(left, right);
+		}
+
+		@Override
+		protected CtlFormula unary() throws FormulaSyntaxException {
+			if (accept("!") || accept("not")) {
+				return CtlFormula.not(unary());
+			}
+			if ((peek().is("A") || peek().is("E")) && peekSecond().is("[")) {
+				final boolean universal = next().is("A");
+				expect("[");
+				final CtlFormula left = formula();
+				expect("U");
+				final CtlFormula right = formula();
+				expect("]");
+				return universal ? au(left, right) : eu(left, right);
+			}
+			if (peek().is("EX")) {
+				next();
+				return ex(unary());
+			}
+			if (peek().is("EF")) {
+				next();
+				return ef(unary());
+			}
+			if (peek().is("EG")) {
+				next();
+				return eg(unary());
+			}
+			if (peek().is("AX")) {
+				next();
+				return ax(unary());
+			}
+			if (peek().is("AF")) {
+				next();
+				return af(unary());
+			}
+			if (peek().is("AG")) {
+				next();
+				return ag(unary());
+			}
+			return primary();
+		}
+	}
+}
@@ -0,0 +1,600 @@
+package org.pneditor.petrinet.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Labels the states of a {@link ReachabilityGraph} with the CTL formulas they
+ * satisfy.
+ *
+ * <p>Every sub-formula is turned into a bitset of states ({@code long} words).
+ * Atoms and {@code EX} are computed word by word in parallel; {@code EU} and
+ * {@code EG} are backward fixpoints over the predecessor arrays, processed
+ * level by level, a large level being split among threads with atomic
+ * bitsets. {@code EG} uses the counting algorithm: a state leaves the set
+ * when its last successor inside the set does, which keeps it linear.</p>
+ *
+ * <p>As usual for Petri nets, a dead marking is given itself as successor so
+ * that every path is infinite: {@code AG !deadlock} means no dead marking is
+ * reachable, and a dead marking satisfies {@code EG f} when it satisfies
+ * {@code f}.</p>
+ */
+public final class CtlModelChecker {
+
+	/** Stutter step of a dead marking, in witness paths. */
+	public static final int DEADLOCK_LOOP = -1;
+
+	private static final int PARALLEL_THRESHOLD = 2048;
+
+	private final CompiledNet net;
+	private final boolean complete;
+	private final int stateCount;
+	private final int words;
+	private final int placeCount;
+	private final int[] markings;
+	private final int[] successorOffsets;
+	private final int[] successorTargets;
+	private final int[] successorTransitions;
+	private final int[] predecessorOffsets;
+	private final int[] predecessorSources;
+
+	/**
+	 * @param graph an up to date reachability graph; it is copied, so it may be
+	 *              updated again afterwards
+	 */
+	public CtlModelChecker(final ReachabilityGraph graph) {
+		synchronized (graph) {
+			this.net = graph.getNet();
+			this.complete = graph.isComplete();
+			this.stateCount = graph.getStateCount();
+			this.markings = graph.getMarkings();
+			this.placeCount = this.net.getPlaceCount();
+			this.words = (this.stateCount + 63) / 64;
+
+			final int[] offsets = graph.getSuccessorOffsets();
+			final int[] targets = graph.getSuccessorTargets();
+			final int[] transitions = graph.getSuccessorTransitions();
+			int deadlocks = 0;
+			for (int s = 0; s < this.stateCount; s++) {
+				if (offsets[s] == offsets[s + 1] && this.net.isDeadlock(marking(s))) {
+					deadlocks++;
+				}
+			}
+			this.successorOffsets = new int[this.stateCount + 1];
+			this.successorTargets = new int[targets.length + deadlocks];
+			this.successorTransitions = new int[targets.length + deadlocks];
+			int position = 0;
+			for (int s = 0; s < this.stateCount; s++) {
+				this.successorOffsets[s] = position;
+				final int count = offsets[s + 1] - offsets[s];
+				System.arraycopy(targets, offsets[s], this.successorTargets, position, count);
+				System.arraycopy(transitions, offsets[s], this.successorTransitions, position, count);
+				position += count;
+				if (count == 0 && this.net.isDeadlock(marking(s))) {
+					this.successorTargets[position] = s;
+					this.successorTransitions[position] = DEADLOCK_LOOP;
+					position++;
+				}
+			}
+			this.successorOffsets[this.stateCount] = position;
+		}
+
+		// predecessors, as the transpose of the successor arrays
+		this.predecessorOffsets = new int[this.stateCount + 1];
+		for (final int target : this.successorTargets) {
+			this.predecessorOffsets[target + 1]++;
+		}
+		for (int s = 0; s < this.stateCount; s++) {
+			this.predecessorOffsets[s + 1] += this.predecessorOffsets[s];
+		}
+		this.predecessorSources = new int[this.successorTargets.length];
+		final int[] fill = Arrays.copyOf(this.predecessorOffsets, this.stateCount);
+		for (int s = 0; s < this.stateCount; s++) {
+			for (int e = this.successorOffsets[s]; e < this.successorOffsets[s + 1]; e++) {
+				this.predecessorSources[fill[this.successorTargets[e]]++] = s;
+			}
+		}
+	}
+
+	public int getStateCount() {
+		return this.stateCount;
+	}
+
+	public int[] marking(final int state) {
+		return Arrays.copyOfRange(this.markings, state * this.placeCount, (state + 1) * this.placeCount);
+	}
+
+	public Result check(final CtlFormula formula) {
+		final long[] satisfying = evaluate(formula);
+		final boolean holds = this.stateCount > 0 && get(satisfying, 0);
+		int count = 0;
+		for (final long word : satisfying) {
+			count += Long.bitCount(word);
+		}
+		return new Result(holds, count, this.complete, explain(formula, 0, holds));
+	}
+
+	/**
+	 * @return the bitset of the states satisfying the formula
+	 */
+	long[] evaluate(final CtlFormula formula) {
+		switch (formula.getOperator()) {
+		case ATOM:
+			return atom(formula.getPredicate());
+		case NOT: {
+			final long[] operand = evaluate(formula.getLeft());
+			for (int w = 0; w < this.words; w++) {
+				operand[w] = ~operand[w];
+			}
+			clearTail(operand);
+			return operand;
+		}
+		case AND: {
+			final long[] left = evaluate(formula.getLeft());
+			final long[] right = evaluate(formula.getRight());
+			for (int w = 0; w < this.words; w++) {
+				left[w] &= right[w];
+			}
+			return left;
+		}
+		case OR: {
+			final long[] left = evaluate(formula.getLeft());
+			final long[] right = evaluate(formula.getRight());
+			for (int w = 0; w < this.words; w++) {
+				left[w] |= right[w];
+			}
+			return left;
+		}
+		case EX:
+			return existsNext(evaluate(formula.getLeft()));
+		case EU:
+			return existsUntil(evaluate(formula.getLeft()), evaluate(formula.getRight()));
+		default:
+			return existsGlobally(evaluate(formula.getLeft()));
+		}
+	}
+
+	private long[] atom(final MarkingPredicate predicate) {
+		final long[] result = new long[this.words];
+		words().forEach(w -> {
+			long word = 0;
+			final int end = Math.min(this.stateCount, (w + 1) * 64);
+			for (int s = w * 64; s < end; s++) {
+				if (predicate.test(this.markings, s * this.placeCount)) {
+					word |= 1L << s;
+				}
+			}
+			result[w] = word;
+		});
+		return result;
+	}
+
+	private long[] existsNext(final long[] operand) {
+		final long[] result = new long[this.words];
+		words().forEach(w -> {
+			long word = 0;
+			final int end = Math.min(this.stateCount, (w + 1) * 64);
+			for (int s = w * 64; s < end; s++) {
+				for (int e = this.successorOffsets[s]; e < this.successorOffsets[s + 1]; e++) {
+					if (get(operand, this.successorTargets[e])) {
+						word |= 1L << s;
+						break;
+					}
+				}
+			}
+			result[w] = word;
+		});
+		return result;
+	}
+
+	/**
+	 * Least fixpoint: the states of right, and backwards the states of left
+	 * reaching one of them.
+	 */
+	private long[] existsUntil(final long[] left, final long[] right) {
+		final AtomicLongArray result = new AtomicLongArray(right);
+		final int[] queue = new int[this.stateCount];
+		final AtomicInteger tail = new AtomicInteger();
+		for (int s = 0; s < this.stateCount; s++) {
+			if (get(right, s)) {
+				queue[tail.getAndIncrement()] = s;
+			}
+		}
+		backwardLevels(queue, tail, state -> {
+			for (int e = this.predecessorOffsets[state]; e < this.predecessorOffsets[state + 1]; e++) {
+				final int predecessor = this.predecessorSources[e];
+				if (get(left, predecessor) && setAtomically(result, predecessor)) {
+					queue[tail.getAndIncrement()] = predecessor;
+				}
+			}
+		});
+		return toArray(result);
+	}
+
+	/**
+	 * Greatest fixpoint: the states of the operand keeping a successor inside
+	 * the set, computed by removing the states whose successors all left it.
+	 */
+	private long[] existsGlobally(final long[] operand) {
+		final AtomicLongArray result = new AtomicLongArray(operand);
+		final AtomicIntegerArray counts = new AtomicIntegerArray(this.stateCount);
+		final int[] queue = new int[this.stateCount];
+		final AtomicInteger tail = new AtomicInteger();
+		for (int s = 0; s < this.stateCount; s++) {
+			if (get(operand, s)) {
+				int count = 0;
+				for (int e = this.successorOffsets[s]; e < this.successorOffsets[s + 1]; e++) {
+					if (get(operand, this.successorTargets[e])) {
+						count++;
+					}
+				}
+				counts.set(s, count);
+				if (count == 0) {
+					clearAtomically(result, s);
+					queue[tail.getAndIncrement()] = s;
+				}
+			}
+		}
+		backwardLevels(queue, tail, state -> {
+			for (int e = this.predecessorOffsets[state]; e < this.predecessorOffsets[state + 1]; e++) {
+				final int predecessor = this.predecessorSources[e];
+				if (get(operand, predecessor) && counts.decrementAndGet(predecessor) == 0
+						&& clearAtomically(result, predecessor)) {
+					queue[tail.getAndIncrement()] = predecessor;
+				}
+			}
+		});
+		return toArray(result);
+	}
+
+	private interface StateVisitor {
+		void visit(int state);
+	}
+
+	/**
+	 * Visits the queue level by level; the visitor appends the next level. A
+	 * state is queued at most once, so the queue never needs more than one
+	 * slot per state.
+	 */
+	private static void backwardLevels(final int[] queue, final AtomicInteger tail, final StateVisitor visitor) {
+		int head = 0;
+		while (head < tail.get()) {
+			final int end = tail.get();
+			if (end - head >= PARALLEL_THRESHOLD) {
+				IntStream.range(head, end).parallel().forEach(i -> visitor.visit(queue[i]));
+			} else {
+				for (int i = head; i < end; i++) {
+					visitor.visit(queue[i]);
+				}
+			}
+			head = end;
+		}
+	}
+
+	private IntStream words() {
+		final IntStream range = IntStream.range(0, this.words);
+		return this.stateCount >= PARALLEL_THRESHOLD ? range.parallel() : range;
+	}
+
+	private static boolean get(final long[] bits, final int index) {
+		return (bits[index >>> 6] & (1L << index)) != 0;
+	}
+
+	private static boolean setAtomically(final AtomicLongArray bits, final int index) {
+		final long mask = 1L << index;
+		while (true) {
+			final long word = bits.get(index >>> 6);
+			if ((word & mask) != 0) {
+				return false;
+			}
+			if (bits.compareAndSet(index >>> 6, word, word | mask)) {
+				return true;
+			}
+		}
+	}
+
+	private static boolean clearAtomically(final AtomicLongArray bits, final int index) {
+		final long mask = 1L << index;
+		while (true) {
+			final long word = bits.get(index >>> 6);
+			if ((word & mask) == 0) {
+				return false;
+			}
+			if (bits.compareAndSet(index >>> 6, word, word & ~mask)) {
+				return true;
+			}
+		}
+	}
+
+	private static long[] toArray(final AtomicLongArray bits) {
+		final long[] result = new long[bits.length()];
+		for (int w = 0; w < result.length; w++) {
+			result[w] = bits.get(w);
+		}
+		return result;
+	}
+
+	private void clearTail(final long[] bits) {
+		if (this.stateCount % 64 != 0) {
+			bits[this.words - 1] &= (1L << this.stateCount) - 1;
+		}
+	}
+
+	/*
+	 * Witnesses
+	 */
+
+	/**
+	 * Builds a path showing why the formula has the given value in the state:
+	 * a witness for the existential operators that hold, and through
+	 * negation a counterexample for the universal ones that do not.
+	 *
+	 * @return the path, or null when no single path explains the value
+	 */
+	private Path explain(final CtlFormula formula, final int state, final boolean holds) {
+		if (this.stateCount == 0) {
+			return null;
+		}
+		switch (formula.getOperator()) {
+		case NOT:
+			return explain(formula.getLeft(), state, !holds);
+		case AND:
+			if (!holds) {
+				final CtlFormula left = formula.getLeft();
+				return explain(get(evaluate(left), state) ? formula.getRight() : left, state, false);
+			}
+			return null;
+		case OR:
+			if (holds) {
+				final CtlFormula left = formula.getLeft();
+				return explain(get(evaluate(left), state) ? left : formula.getRight(), state, true);
+			}
+			return null;
+		case EX:
+			if (holds) {
+				final long[] next = evaluate(formula.getLeft());
+				for (int e = this.successorOffsets[state]; e < this.successorOffsets[state + 1]; e++) {
+					if (get(next, this.successorTargets[e])) {
+						final Path path = new Path(state);
+						path.append(this.successorTransitions[e], this.successorTargets[e]);
+						return path.extend(explain(formula.getLeft(), this.successorTargets[e], true));
+					}
+				}
+			}
+			return null;
+		case EU:
+			if (holds) {
+				final Path path = shortestPath(state, evaluate(formula.getLeft()), evaluate(formula.getRight()));
+				return path.extend(explain(formula.getRight(), path.last(), true));
+			}
+			return null;
+		case EG:
+			if (holds) {
+				return lasso(state, evaluate(formula));
+			}
+			return null;
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Breadth-first search from the state, through states of {@code through},
+	 * to the closest state of {@code target}.
+	 */
+	private Path shortestPath(final int start, final long[] through, final long[] target) {
+		final int[] parentEdges = new int[this.stateCount];
+		Arrays.fill(parentEdges, -2);
+		final int[] queue = new int[this.stateCount];
+		int length = 0;
+		queue[length++] = start;
+		parentEdges[start] = -1;
+		int found = -1;
+		for (int head = 0; head < length && found < 0; head++) {
+			final int state = queue[head];
+			if (get(target, state)) {
+				found = state;
+			} else if (get(through, state)) {
+				for (int e = this.successorOffsets[state]; e < this.successorOffsets[state + 1]; e++) {
+					final int next = this.successorTargets[e];
+					if (parentEdges[next] == -2) {
+						parentEdges[next] = e;
+						queue[length++] = next;
+					}
+				}
+			}
+		}
+		final List<Integer> edges = new ArrayList<>();
+		for (int state = found; parentEdges[state] >= 0; state = sourceOf(parentEdges[state])) {
+			edges.add(0, parentEdges[state]);
+		}
+		final Path path = new Path(start);
+		for (final int e : edges) {
+			path.append(this.successorTransitions[e], this.successorTargets[e]);
+		}
+		return path;
+	}
+
+	private int sourceOf(final int edge) {
+		int low = 0;
+		int high = this.stateCount - 1;
+		while (low < high) { // last state whose offset is <= edge
+			final int middle = (low + high + 1) >>> 1;
+			if (this.successorOffsets[middle] <= edge) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Follows successors inside the set until a state repeats.
+	 */
+	private Path lasso(final int start, final long[] set) {
+		final int[] positions = new int[this.stateCount];
+		Arrays.fill(positions, -1);
+		final Path path = new Path(start);
+		positions[start] = 0;
+		int state = start;
+		while (true) {
+			int edge = -1;
+			for (int e = this.successorOffsets[state]; e < this.successorOffsets[state + 1] && edge < 0; e++) {
+				if (get(set, this.successorTargets[e])) {
+					edge = e;
+				}
+			}
+			state = this.successorTargets[edge];
+			path.append(this.successorTransitions[edge], state);
+			if (positions[state] >= 0) {
+				path.loopStart = positions[state];
+				return path;
+			}
+			positions[state] = path.states.size() - 1;
+		}
+	}
+
+	/**
+	 * Sequence of states and of the transitions fired between them, possibly
+	 * ending with a loop back to one of its states.
+	 */
+	private static final class Path {
+		final List<Integer> states = new ArrayList<>();
+		final List<Integer> transitions = new ArrayList<>();
+		int loopStart = -1;
+
+		Path(final int start) {
+			this.states.add(start);
+		}
+
+		void append(final int transition, final int state) {
+			this.transitions.add(transition);
+			this.states.add(state);
+		}
+
+		int last() {
+			return this.states.get(this.states.size() - 1);
+		}
+
+		Path extend(final Path continuation) {
+			if (continuation != null && this.loopStart < 0) {
+				for (int i = 0; i < continuation.transitions.size(); i++) {
+					append(continuation.transitions.get(i), continuation.states.get(i + 1));
+				}
+				if (continuation.loopStart >= 0) {
+					this.loopStart = this.states.size() - continuation.states.size() + continuation.loopStart;
+				}
+			}
+			return this;
+		}
+	}
+
+	/**
+	 * Outcome of a check in the initial marking.
+	 */
+	public final class Result {
+
+		private final boolean holds;
+		private final int satisfyingStates;
+		private final boolean complete;
+		private final Path path;
+
+		Result(final boolean holds, final int satisfyingStates, final boolean complete, final Path path) {
+			this.holds = holds;
+			this.satisfyingStates = satisfyingStates;
+			this.complete = complete;
+			this.path = path;
+		}
+
+		/**
+		 * @return true if the initial marking satisfies the formula
+		 */
+		public boolean holds() {
+			return this.holds;
+		}
+
+		public int getSatisfyingStates() {
+			return this.satisfyingStates;
+		}
+
+		/**
+		 * @return false if the reachability graph was cut by its state limit, in
+		 *         which case the answer is not reliable
+		 */
+		public boolean isComplete() {
+			return this.complete;
+		}
+
+		/**
+		 * @return the transitions fired along the witness (or counterexample)
+		 *         path, as indexes of the {@link CompiledNet} and
+		 *         {@link CtlModelChecker#DEADLOCK_LOOP} for a dead marking
+		 *         repeating; null if there is no path
+		 */
+		public int[] getPathTransitions() {
+			if (this.path == null) {
+				return null;
+			}
+			final int[] result = new int[this.path.transitions.size()];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = this.path.transitions.get(i);
+			}
+			return result;
+		}
+
+		/**
+		 * @return the step the path loops back to, -1 if the path is finite or
+		 *         there is none
+		 */
+		public int getPathLoopStart() {
+			return this.path == null ? -1 : this.path.loopStart;
+		}
+
+		/**
+		 * Witness path in the form {@code M0 --t1--> M1 ...}, with a note on the
+		 * state where the path loops back.
+		 */
+		public String describePath() {
+			if (this.path == null) {
+				return "";
+			}
+			final StringBuilder builder = new StringBuilder();
+			for (int i = 0; i < this.path.states.size(); i++) {
+				if (i > 0) {
+					final int transition = this.path.transitions.get(i - 1);
+					builder.append("  --").append(transition == DEADLOCK_LOOP ? "(dead)"
+							: CtlModelChecker.this.net.getTransitionName(transition)).append("-->\n");
+				}
+				builder.append(i == this.path.loopStart ? "* " : "  ")
+						.append(describeMarking(this.path.states.get(i))).append('\n');
+			}
+			if (this.path.loopStart >= 0) {
+				builder.append("(loops back to the marking marked with *)\n");
+			}
+			return builder.toString();
+		}
+	}
+
+	/**
+	 * @return the marking as {@code {p1=2, p3=1}}, empty places left out
+	 */
+	public String describeMarking(final int state) {
+		final StringBuilder builder = new StringBuilder("{");
+		for (int p = 0; p < this.placeCount; p++) {
+			final int tokens = this.markings[state * this.placeCount + p];
+			if (tokens != 0) {
+				if (builder.length() > 1) {
+					builder.append(", ");
+				}
+				builder.append(this.net.getPlaceName(p)).append('=').append(tokens);
+			}
+		}
+		return builder.append('}').toString();
+	}
+}
@@ -0,0 +1,172 @@
+package org.pneditor.petrinet.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Continuous (fluid) relaxation of a {@link CompiledNet}: token counts become
+ * real numbers and every transition fires continuously at a rate depending on
+ * the marking of its input places, which turns the net into a system of
+ * ordinary differential equations
+ *
+ * <pre>
+ * dm/dt = C . f(m)
+ * </pre>
+ *
+ * where {@code C} is the incidence matrix given by the arc multiplicities and
+ * {@code f} the flows of the transitions. It gives the average behaviour of
+ * nets holding many tokens, where a token-level simulation is too slow.
+ *
+ * <p>An inhibitor arc stops the flow of its transition while its place holds
+ * at least the multiplicity of the arc. A read arc counts in the flow of its
+ * transition like an input arc, but no fluid leaves its place. Reset arcs
+ * have no continuous counterpart and are ignored, see
+ * {@link #hasResetArcs()}.</p>
+ */
+public final class FluidNet {
+
+	/**
+	 * How the flow of a transition depends on its input places, {@code rate}
+	 * being the rate of the transition and {@code w(p)} the multiplicity of the
+	 * arc from {@code p}. A transition without input place flows at its rate.
+	 */
+	public enum Semantics {
+		/**
+		 * {@code rate * min(m(p) / w(p))}: every enabling of the transition is
+		 * served at once; the usual semantics of continuous Petri nets.
+		 */
+		INFINITE_SERVER,
+		/**
+		 * {@code rate * product(m(p) ^ w(p))}: the law of mass action, for
+		 * nets modelling reactions.
+		 */
+		MASS_ACTION
+	}
+
+	private final CompiledNet net;
+	private final double[] rates;
+	private final Semantics semantics;
+
+	/**
+	 * @param rates     rate of every transition, indexed like the net
+	 * @param semantics how the flows are computed
+	 * @throws IllegalArgumentException if there is not one non-negative rate
+	 *                                  per transition
+	 */
+	public FluidNet(final CompiledNet net, final double[] rates, final Semantics semantics) {
+		if (rates.length != net.getTransitionCount()) {
+			throw new IllegalArgumentException(
+					"Expected " + net.getTransitionCount() + " rates but got " + rates.length);
+		}
+		for (final double rate : rates) {
+			if (!(rate >= 0)) {
+				throw new IllegalArgumentException("Invalid rate " + rate);
+			}
+		}
+		this.net = net;
+		this.rates = rates.clone();
+		this.semantics = semantics;
+	}
+
+	/**
+	 * Fluid net where every transition has rate 1.
+	 */
+	public FluidNet(final CompiledNet net, final Semantics semantics) {
+		this(net, unitRates(net.getTransitionCount()), semantics);
+	}
+
+	private static double[] unitRates(final int count) {
+		final double[] rates = new double[count];
+		Arrays.fill(rates, 1);
+		return rates;
+	}
+
+	public CompiledNet getNet() {
+		return this.net;
+	}
+
+	public int getPlaceCount() {
+		return this.net.getPlaceCount();
+	}
+
+	/**
+	 * @return true if the net has reset arcs, which the fluid net ignores
+	 */
+	public boolean hasResetArcs() {
+		for (int t = 0; t < this.net.getTransitionCount(); t++) {
+			if (this.net.getResetPlaces(t).length > 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the initial marking of the net as real numbers
+	 */
+	public double[] getInitialState() {
+		final int[] marking = this.net.getInitialMarking();
+		final double[] state = new double[marking.length];
+		for (int p = 0; p < state.length; p++) {
+			state[p] = marking[p];
+		}
+		return state;
+	}
+
+	/**
+	 * Computes the flow of a transition in a state.
+	 */
+	public double flow(final double[] state, final int transition) {
+		final int[] inhibitors = this.net.getInhibitorPlaces(transition);
+		final int[] thresholds = this.net.getInhibitorWeights(transition);
+		for (int i = 0; i < inhibitors.length; i++) {
+			if (state[inhibitors[i]] >= thresholds[i]) {
+				return 0;
+			}
+		}
+		final int[] in = this.net.getInputPlaces(transition);
+		final int[] weights = this.net.getInputWeights(transition);
+		final int[] read = this.net.getReadPlaces(transition);
+		final int[] readWeights = this.net.getReadWeights(transition);
+		double flow = this.rates[transition];
+		if (this.semantics == Semantics.INFINITE_SERVER) {
+			double enabling = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < in.length; i++) {
+				enabling = Math.min(enabling, Math.max(0, state[in[i]]) / weights[i]);
+			}
+			for (int i = 0; i < read.length; i++) {
+				enabling = Math.min(enabling, Math.max(0, state[read[i]]) / readWeights[i]);
+			}
+			return in.length + read.length == 0 ? flow : flow * enabling;
+		}
+		for (int i = 0; i < in.length; i++) {
+			flow *= Math.pow(Math.max(0, state[in[i]]), weights[i]);
+		}
+		for (int i = 0; i < read.length; i++) {
+			flow *= Math.pow(Math.max(0, state[read[i]]), readWeights[i]);
+		}
+		return flow;
+	}
+
+	/**
+	 * Writes the derivative of the state in {@code derivative}.
+	 */
+	public void derivative(final double[] state, final double[] derivative) {
+		Arrays.fill(derivative, 0);
+		for (int t = 0; t < this.net.getTransitionCount(); t++) {
+			final double flow = flow(state, t);
+			if (flow == 0) {
+				continue;
+			}
+			final int[] in = this.net.getInputPlaces(t);
+			final int[] inWeights = this.net.getInputWeights(t);
+			for (int i = 0; i < in.length; i++) {
+				derivative[in[i]] -= inWeights[i] * flow;
+			}
+			final int[] out = this.net.getOutputPlaces(t);
+			final int[] outWeights = this.net.getOutputWeights(t);
+			for (int i = 0; i < out.length; i++) {
+				derivative[out[i]] += outWeights[i] * flow;
+			}
+		}
+	}
+}
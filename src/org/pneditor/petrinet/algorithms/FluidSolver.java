@@ -0,0 +1,208 @@
+package org.pneditor.petrinet.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Integrates the differential equations of a {@link FluidNet} with the
+ * adaptive Runge-Kutta method of Dormand and Prince (order 5 with an embedded
+ * order 4 error estimate).
+ *
+ * <p>The step size grows while the local error stays below the tolerance, so
+ * a net settling to its steady state is integrated over long horizons in few
+ * steps. All the work is done on preallocated {@code double[]} buffers.</p>
+ */
+public final class FluidSolver {
+
+	public static final double DEFAULT_RELATIVE_TOLERANCE = 1e-6;
+	public static final double DEFAULT_ABSOLUTE_TOLERANCE = 1e-9;
+	public static final int DEFAULT_STEP_LIMIT = 1_000_000;
+
+	// Dormand-Prince tableau
+	private static final double C2 = 1.0 / 5, C3 = 3.0 / 10, C4 = 4.0 / 5, C5 = 8.0 / 9;
+	private static final double A21 = 1.0 / 5;
+	private static final double A31 = 3.0 / 40, A32 = 9.0 / 40;
+	private static final double A41 = 44.0 / 45, A42 = -56.0 / 15, A43 = 32.0 / 9;
+	private static final double A51 = 19372.0 / 6561, A52 = -25360.0 / 2187, A53 = 64448.0 / 6561,
+			A54 = -212.0 / 729;
+	private static final double A61 = 9017.0 / 3168, A62 = -355.0 / 33, A63 = 46732.0 / 5247, A64 = 49.0 / 176,
+			A65 = -5103.0 / 18656;
+	private static final double B1 = 35.0 / 384, B3 = 500.0 / 1113, B4 = 125.0 / 192, B5 = -2187.0 / 6784,
+			B6 = 11.0 / 84;
+	// difference between the order 5 and order 4 weights
+	private static final double E1 = 71.0 / 57600, E3 = -71.0 / 16695, E4 = 71.0 / 1920, E5 = -17253.0 / 339200,
+			E6 = 22.0 / 525, E7 = -1.0 / 40;
+
+	private static final double SAFETY = 0.9;
+	private static final double MIN_FACTOR = 0.2;
+	private static final double MAX_FACTOR = 5;
+
+	private final FluidNet net;
+	private final double relativeTolerance;
+	private final double absoluteTolerance;
+
+	public FluidSolver(final FluidNet net) {
+		this(net, DEFAULT_RELATIVE_TOLERANCE, DEFAULT_ABSOLUTE_TOLERANCE);
+	}
+
+	public FluidSolver(final FluidNet net, final double relativeTolerance, final double absoluteTolerance) {
+		this.net = net;
+		this.relativeTolerance = relativeTolerance;
+		this.absoluteTolerance = absoluteTolerance;
+	}
+
+	/**
+	 * Integrates from the initial marking of the net.
+	 *
+	 * @param endTime   time at which the integration stops
+	 * @param stepLimit maximum number of accepted and rejected steps
+	 * @return the state after every accepted step
+	 */
+	public Trajectory solve(final double endTime, final int stepLimit) {
+		return solve(this.net.getInitialState(), endTime, stepLimit);
+	}
+
+	public Trajectory solve(final double[] initialState, final double endTime, final int stepLimit) {
+		final int n = initialState.length;
+		final double[] y = initialState.clone();
+		final double[] next = new double[n];
+		final double[] stage = new double[n];
+		final double[] k1 = new double[n];
+		final double[] k2 = new double[n];
+		final double[] k3 = new double[n];
+		final double[] k4 = new double[n];
+		final double[] k5 = new double[n];
+		final double[] k6 = new double[n];
+		final double[] k7 = new double[n];
+
+		final Trajectory trajectory = new Trajectory(n);
+		double time = 0;
+		trajectory.add(time, y);
+		this.net.derivative(y, k1);
+		double step = initialStep(y, k1, endTime);
+		int steps = 0;
+		while (time < endTime) {
+			if (steps++ >= stepLimit) {
+				return trajectory;
+			}
+			final double h = Math.min(step, endTime - time);
+			for (int i = 0; i < n; i++) {
+				stage[i] = y[i] + h * A21 * k1[i];
+			}
+			this.net.derivative(stage, k2);
+			for (int i = 0; i < n; i++) {
+				stage[i] = y[i] + h * (A31 * k1[i] + A32 * k2[i]);
+			}
+			this.net.derivative(stage, k3);
+			for (int i = 0; i < n; i++) {
+				stage[i] = y[i] + h * (A41 * k1[i] + A42 * k2[i] + A43 * k3[i]);
+			}
+			this.net.derivative(stage, k4);
+			for (int i = 0; i < n; i++) {
+				stage[i] = y[i] + h * (A51 * k1[i] + A52 * k2[i] + A53 * k3[i] + A54 * k4[i]);
+			}
+			this.net.derivative(stage, k5);
+			for (int i = 0; i < n; i++) {
+				stage[i] = y[i] + h * (A61 * k1[i] + A62 * k2[i] + A63 * k3[i] + A64 * k4[i] + A65 * k5[i]);
+			}
+			this.net.derivative(stage, k6);
+			for (int i = 0; i < n; i++) {
+				next[i] = y[i] + h * (B1 * k1[i] + B3 * k3[i] + B4 * k4[i] + B5 * k5[i] + B6 * k6[i]);
+			}
+			this.net.derivative(next, k7);
+
+			double error = 0;
+			for (int i = 0; i < n; i++) {
+				final double local = h * (E1 * k1[i] + E3 * k3[i] + E4 * k4[i] + E5 * k5[i] + E6 * k6[i]
+						+ E7 * k7[i]);
+				final double scale = this.absoluteTolerance
+						+ this.relativeTolerance * Math.max(Math.abs(y[i]), Math.abs(next[i]));
+				error += (local / scale) * (local / scale);
+			}
+			error = n == 0 ? 0 : Math.sqrt(error / n);
+
+			if (error <= 1) {
+				time = time + h >= endTime ? endTime : time + h;
+				System.arraycopy(next, 0, y, 0, n);
+				System.arraycopy(k7, 0, k1, 0, n); // first same as last
+				trajectory.add(time, y);
+			}
+			final double factor = error == 0 ? MAX_FACTOR : SAFETY * Math.pow(error, -0.2);
+			step = h * Math.max(MIN_FACTOR, Math.min(MAX_FACTOR, factor));
+			if (time + step == time) {
+				return trajectory; // step size underflow, the system is too stiff
+			}
+		}
+		trajectory.complete = true;
+		return trajectory;
+	}
+
+	/**
+	 * Chooses a first step so that the explicit Euler step changes the state by
+	 * about the tolerance.
+	 */
+	private double initialStep(final double[] y, final double[] derivative, final double endTime) {
+		double yNorm = 0;
+		double derivativeNorm = 0;
+		for (int i = 0; i < y.length; i++) {
+			final double scale = this.absoluteTolerance + this.relativeTolerance * Math.abs(y[i]);
+			yNorm = Math.max(yNorm, Math.abs(y[i]) / scale);
+			derivativeNorm = Math.max(derivativeNorm, Math.abs(derivative[i]) / scale);
+		}
+		final double step = yNorm < 1e-5 || derivativeNorm < 1e-5 ? 1e-6 : 0.01 * yNorm / derivativeNorm;
+		return Math.min(step, endTime);
+	}
+
+	/**
+	 * States of the fluid net at the end of every accepted step.
+	 */
+	public static final class Trajectory {
+		private final int placeCount;
+		private double[] times = new double[64];
+		private double[] states;
+		private int size;
+		private boolean complete;
+
+		private Trajectory(final int placeCount) {
+			this.placeCount = placeCount;
+			this.states = new double[64 * placeCount];
+		}
+
+		private void add(final double time, final double[] state) {
+			if (this.size == this.times.length) {
+				this.times = Arrays.copyOf(this.times, 2 * this.size);
+				this.states = Arrays.copyOf(this.states, 2 * this.size * this.placeCount);
+			}
+			this.times[this.size] = time;
+			System.arraycopy(state, 0, this.states, this.size * this.placeCount, this.placeCount);
+			this.size++;
+		}
+
+		/**
+		 * @return false if the step limit stopped the integration before the
+		 *         end time
+		 */
+		public boolean isComplete() {
+			return this.complete;
+		}
+
+		public int getPointCount() {
+			return this.size;
+		}
+
+		public int getPlaceCount() {
+			return this.placeCount;
+		}
+
+		public double getTime(final int point) {
+			return this.times[point];
+		}
+
+		public double getTokens(final int point, final int place) {
+			return this.states[point * this.placeCount + place];
+		}
+
+		public double[] getFinalState() {
+			return Arrays.copyOfRange(this.states, (this.size - 1) * this.placeCount, this.size * this.placeCount);
+		}
+	}
+}
@@ -0,0 +1,323 @@
+package org.pneditor.petrinet.algorithms;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.pneditor.petrinet.algorithms.FormulaTokenizer.Kind;
+import org.pneditor.petrinet.algorithms.FormulaTokenizer.Token;
+
+/**
+ * Recursive descent parser for temporal formulas over the markings of a
+ * {@link CompiledNet}. Subclasses give the temporal operators, this class
+ * handles the boolean connectives and the atomic propositions:
+ *
+ * <pre>
+ * atom := true | false | deadlock | enabled(transition)
+ *       | expression comparison expression
+ * expression := ['-'] term (('+' | '-') term)*
+ * term := number | number '*' place | place
+ * </pre>
+ *
+ * Places and transitions are named by their label, or by {@code P<id>} and
+ * {@code T<id>}; a label containing spaces can be written between double
+ * quotes.
+ */
+abstract class FormulaParser<F> {
+
+	protected final CompiledNet net;
+	private final String text;
+	private final List<Token> tokens;
+	private int position;
+
+	protected FormulaParser(final String text, final CompiledNet net) throws FormulaSyntaxException {
+		this.net = net;
+		this.text = text;
+		this.tokens = FormulaTokenizer.tokenize(text);
+	}
+
+	/*
+	 * Formula building blocks
+	 */
+
+	protected abstract F atom(MarkingPredicate predicate);
+
+	protected abstract F not(F operand);
+
+	protected abstract F and(F left, F right);
+
+	protected abstract F or(F left, F right);
+
+	/**
+	 * Parses the operators binding tighter than the boolean connectives, at
+	 * the current token.
+	 */
+	protected abstract F unary() throws FormulaSyntaxException;
+
+	/**
+	 * Hook for binary temporal operators binding looser than {@code &} and
+	 * {@code |} (LTL's {@code U}); returns its operand by default. The right
+	 * operand can be read with {@link #disjunction()}.
+	 */
+	protected F binaryTemporal(final F left) throws FormulaSyntaxException {
+		return left;
+	}
+
+	final F parse() throws FormulaSyntaxException {
+		final F formula = formula();
+		if (peek().kind != Kind.END) {
+			throw error("Unexpected " + peek());
+		}
+		return formula;
+	}
+
+	protected final F formula() throws FormulaSyntaxException {
+		F left = implication();
+		if (accept("<->")) {
+			final F right = formula();
+			left = or(and(left, right), and(not(left), not(right)));
+		}
+		return left;
+	}
+
+	private F implication() throws FormulaSyntaxException {
+		final F left = binaryTemporal(disjunction());
+		if (accept("->")) {
+			return or(not(left), implication());
+		}
+		return left;
+	}
+
+	protected final F disjunction() throws FormulaSyntaxException {
+		F left = conjunction();
+		while (accept("|") || accept("||") || accept("or")) {
+			left = or(left, conjunction());
+		}
+		return left;
+	}
+
+	private F conjunction() throws FormulaSyntaxException {
+		F left = negation();
+		while (accept("&") || accept("&&") || accept("and")) {
+			left = and(left, negation());
+		}
+		return left;
+	}
+
+	private F negation() throws FormulaSyntaxException {
+		if (accept("!") || accept("not")) {
+			return not(negation());
+		}
+		return unary();
+	}
+
+	/**
+	 * Parses a parenthesized formula or an atomic proposition.
+	 */
+	protected final F primary() throws FormulaSyntaxException {
+		if (peek().is("(") && !isParenthesizedExpression()) {
+			next();
+			final F inner = formula();
+			expect(")");
+			return inner;
+		}
+		return atom(predicate());
+	}
+
+	/**
+	 * @return true if the parenthesis at the current token opens an arithmetic
+	 *         expression, as in {@code (p1 + p2) > 3}
+	 */
+	private boolean isParenthesizedExpression() {
+		int depth = 0;
+		for (int i = this.position; i < this.tokens.size(); i++) {
+			final Token token = this.tokens.get(i);
+			if (token.is("(")) {
+				depth++;
+			} else if (token.is(")")) {
+				depth--;
+				if (depth == 0) {
+					return MarkingPredicate.Comparison.of(this.tokens.get(i + 1).text) != null
+							&& this.tokens.get(i + 1).kind == Kind.SYMBOL;
+				}
+			}
+		}
+		return false;
+	}
+
+	private MarkingPredicate predicate() throws FormulaSyntaxException {
+		final Token start = peek();
+		if (accept("true")) {
+			return MarkingPredicate.constant(true);
+		}
+		if (accept("false")) {
+			return MarkingPredicate.constant(false);
+		}
+		if (accept("deadlock")) {
+			return MarkingPredicate.deadlock(this.net);
+		}
+		if (accept("enabled")) {
+			expect("(");
+			final int transition = transition(next());
+			expect(")");
+			return MarkingPredicate.enabled(this.net, transition);
+		}
+
+		final Map<Integer, Integer> coefficients = new LinkedHashMap<>();
+		long constant = -expression(coefficients, 1);
+		final Token operator = next();
+		final MarkingPredicate.Comparison comparison = operator.kind == Kind.SYMBOL
+				? MarkingPredicate.Comparison.of(operator.text)
+				: null;
+		if (comparison == null) {
+			throw new FormulaSyntaxException("Expected a comparison but found " + operator, operator.position);
+		}
+		constant -= expression(coefficients, -1);
+
+		// sum(c * p) + left constant OP right: moved to sum(c * p) OP right - left
+		final int[] places = new int[coefficients.size()];
+		final int[] values = new int[coefficients.size()];
+		int i = 0;
+		for (final Map.Entry<Integer, Integer> entry : coefficients.entrySet()) {
+			places[i] = entry.getKey();
+			values[i] = entry.getValue();
+			i++;
+		}
+		final String source = this.text.substring(start.position, peek().position).trim();
+		return MarkingPredicate.linear(this.net, places, values, comparison, constant, source);
+	}
+
+	/**
+	 * Adds the place coefficients of an expression, multiplied by sign, to the
+	 * map.
+	 *
+	 * @return the constant part of the expression
+	 */
+	private long expression(final Map<Integer, Integer> coefficients, final int sign) throws FormulaSyntaxException {
+		if (accept("(")) {
+			final long constant = expression(coefficients, sign);
+			expect(")");
+			return constant;
+		}
+		long constant = 0;
+		int termSign = accept("-") ? -sign : sign;
+		while (true) {
+			final Token token = next();
+			if (token.kind == Kind.NUMBER) {
+				final long value = number(token);
+				if (accept("*")) {
+					coefficients.merge(place(next()), (int) (termSign * value), Integer::sum);
+				} else {
+					constant += termSign * value;
+				}
+			} else {
+				coefficients.merge(place(token), termSign, Integer::sum);
+			}
+			if (accept("+")) {
+				termSign = sign;
+			} else if (accept("-")) {
+				termSign = -sign;
+			} else {
+				return constant;
+			}
+		}
+	}
+
+	private static long number(final Token token) throws FormulaSyntaxException {
+		try {
+			return Integer.parseInt(token.text);
+		} catch (NumberFormatException e) {
+			throw new FormulaSyntaxException("Number too large: " + token.text, token.position);
+		}
+	}
+
+	private int place(final Token token) throws FormulaSyntaxException {
+		if (token.kind != Kind.IDENTIFIER && token.kind != Kind.QUOTED) {
+			throw new FormulaSyntaxException("Expected a place but found " + token, token.position);
+		}
+		int found = -1;
+		for (int p = 0; p < this.net.getPlaceCount(); p++) {
+			if (token.text.equals(this.net.getPlace(p).getLabel())) {
+				if (found >= 0) {
+					throw new FormulaSyntaxException("Several places are labelled " + token.text, token.position);
+				}
+				found = p;
+			}
+		}
+		for (int p = 0; found < 0 && p < this.net.getPlaceCount(); p++) {
+			if (token.text.equals("P" + this.net.getPlace(p).getId())) {
+				found = p;
+			}
+		}
+		if (found < 0) {
+			throw new FormulaSyntaxException("Unknown place " + token.text, token.position);
+		}
+		return found;
+	}
+
+	private int transition(final Token token) throws FormulaSyntaxException {
+		if (token.kind != Kind.IDENTIFIER && token.kind != Kind.QUOTED) {
+			throw new FormulaSyntaxException("Expected a transition but found " + token, token.position);
+		}
+		int found = -1;
+		for (int t = 0; t < this.net.getTransitionCount(); t++) {
+			if (token.text.equals(this.net.getTransition(t).getLabel())) {
+				if (found >= 0) {
+					throw new FormulaSyntaxException("Several transitions are labelled " + token.text,
+							token.position);
+				}
+				found = t;
+			}
+		}
+		for (int t = 0; found < 0 && t < this.net.getTransitionCount(); t++) {
+			if (token.text.equals("T" + this.net.getTransition(t).getId())) {
+				found = t;
+			}
+		}
+		if (found < 0) {
+			throw new FormulaSyntaxException("Unknown transition " + token.text, token.position);
+		}
+		return found;
+	}
+
+	/*
+	 * Token helpers
+	 */
+
+	protected final Token peek() {
+		return this.tokens.get(this.position);
+	}
+
+	/**
+	 * @return the token after the current one
+	 */
+	protected final Token peekSecond() {
+		return this.tokens.get(Math.min(this.position + 1, this.tokens.size() - 1));
+	}
+
+	protected final Token next() {
+		final Token token = this.tokens.get(this.position);
+		if (token.kind != Kind.END) {
+			this.position++;
+		}
+		return token;
+	}
+
+	protected final boolean accept(final String symbol) {
+		if (peek().is(symbol)) {
+			this.position++;
+			return true;
+		}
+		return false;
+	}
+
+	protected final void expect(final String symbol) throws FormulaSyntaxException {
+		if (!accept(symbol)) {
+			throw error("Expected '" + symbol + "' but found " + peek());
+		}
+	}
+
+	protected final FormulaSyntaxException error(final String message) {
+		return new FormulaSyntaxException(message, peek().position);
+	}
+}
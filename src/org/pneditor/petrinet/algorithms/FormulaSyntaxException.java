@@ -0,0 +1,9 @@
+package org.pneditor.petrinet.algorithms;
+
+@SuppressWarnings("serial")
+public class FormulaSyntaxException extends Exception {
+
+	public FormulaSyntaxException(final String msg, final int position) {
+		super(msg + " (at character " + (position + 1) + ")");
+	}
+}
@@ -0,0 +1,88 @@
+package org.pneditor.petrinet.algorithms;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a temporal logic formula into tokens: identifiers, integers, quoted
+ * names and operators. Shared by the CTL and LTL parsers.
+ */
+final class FormulaTokenizer {
+
+	enum Kind {
+		IDENTIFIER, NUMBER, QUOTED, SYMBOL, END
+	}
+
+	static final class Token {
+		final Kind kind;
+		final String text;
+		final int position;
+
+		Token(final Kind kind, final String text, final int position) {
+			this.kind = kind;
+			this.text = text;
+			this.position = position;
+		}
+
+		boolean is(final String symbol) {
+			return this.kind == Kind.SYMBOL && this.text.equals(symbol)
+					|| this.kind == Kind.IDENTIFIER && this.text.equals(symbol);
+		}
+
+		@Override
+		public String toString() {
+			return this.kind == Kind.END ? "end of formula" : "'" + this.text + "'";
+		}
+	}
+
+	// longest symbols first
+	private static final String[] SYMBOLS = { "<->", "->", "<=", ">=", "==", "!=", "&&", "||", "(", ")", "[", "]",
+			"!", "&", "|", "<", ">", "=", "+", "-", "*", "," };
+
+	private FormulaTokenizer() {
+	}
+
+	static List<Token> tokenize(final String text) throws FormulaSyntaxException {
+		final List<Token> tokens = new ArrayList<>();
+		int i = 0;
+		while (i < text.length()) {
+			final char c = text.charAt(i);
+			if (Character.isWhitespace(c)) {
+				i++;
+			} else if (Character.isLetter(c) || c == '_') {
+				final int start = i;
+				while (i < text.length() && (Character.isLetterOrDigit(text.charAt(i)) || text.charAt(i) == '_')) {
+					i++;
+				}
+				tokens.add(new Token(Kind.IDENTIFIER, text.substring(start, i), start));
+			} else if (Character.isDigit(c)) {
+				final int start = i;
+				while (i < text.length() && Character.isDigit(text.charAt(i))) {
+					i++;
+				}
+				tokens.add(new Token(Kind.NUMBER, text.substring(start, i), start));
+			} else if (c == '"') {
+				final int end = text.indexOf('"', i + 1);
+				if (end < 0) {
+					throw new FormulaSyntaxException("Unterminated quoted name", i);
+				}
+				tokens.add(new Token(Kind.QUOTED, text.substring(i + 1, end), i));
+				i = end + 1;
+			} else {
+				i = symbol(text, i, tokens);
+			}
+		}
+		tokens.add(new Token(Kind.END, "", text.length()));
+		return tokens;
+	}
+
+	private static int symbol(final String text, final int i, final List<Token> tokens) throws FormulaSyntaxException {
+		for (final String symbol : SYMBOLS) {
+			if (text.startsWith(symbol, i)) {
+				tokens.add(new Token(Kind.SYMBOL, symbol, i));
+				return i + symbol.length();
+			}
+		}
+		throw new FormulaSyntaxException("Unexpected character '" + text.charAt(i) + "'", i);
+	}
+}
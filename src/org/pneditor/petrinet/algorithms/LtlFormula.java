@@ -0,0 +1,253 @@
+package org.pneditor.petrinet.algorithms;
+
+/**
+ * Immutable LTL formula over the markings of a {@link CompiledNet}.
+ *
+ * <p>Temporal operators are {@code X}, {@code F}, {@code G} (prefix) and
+ * {@code U}, {@code R}, {@code W} (infix, right associative, binding looser
+ * than {@code &} and {@code |}):</p>
+ *
+ * <pre>
+ * G !deadlock
+ * G (p1 &gt; 0 -&gt; F p2 &gt; 0)
+ * G F enabled(t1)
+ * p1 &gt; 0 U p2 = 2
+ * </pre>
+ *
+ * <p>See {@link FormulaParser} for the atomic propositions. Formulas are kept
+ * in negation normal form: negations only apply to atoms, {@code F} and
+ * {@code G} are rewritten with {@code U} and {@code R}.</p>
+ */
+public final class LtlFormula {
+
+	enum Operator {
+		TRUE, FALSE, ATOM, NOT_ATOM, AND, OR, NEXT, UNTIL, RELEASE
+	}
+
+	static final LtlFormula TRUE = new LtlFormula(Operator.TRUE, null, null, null);
+	static final LtlFormula FALSE = new LtlFormula(Operator.FALSE, null, null, null);
+
+	private final Operator operator;
+	private final MarkingPredicate predicate;
+	private final LtlFormula left;
+	private final LtlFormula right;
+	private final String text;
+
+	private LtlFormula(final Operator operator, final MarkingPredicate predicate, final LtlFormula left,
+			final LtlFormula right) {
+		this.operator = operator;
+		this.predicate = predicate;
+		this.left = left;
+		this.right = right;
+		this.text = format();
+	}
+
+	/**
+	 * @throws FormulaSyntaxException if the text is not an LTL formula or names
+	 *                                an unknown place or transition
+	 */
+	public static LtlFormula parse(final String text, final CompiledNet net) throws FormulaSyntaxException {
+		return new Parser(text, net).parse();
+	}
+
+	static LtlFormula atom(final MarkingPredicate predicate) {
+		return new LtlFormula(Operator.ATOM, predicate, null, null);
+	}
+
+	static LtlFormula and(final LtlFormula left, final LtlFormula right) {
+		return new LtlFormula(Operator.AND, null, left, right);
+	}
+
+	static LtlFormula or(final LtlFormula left, final LtlFormula right) {
+		return new LtlFormula(Operator.OR, null, left, right);
+	}
+
+	static LtlFormula next(final LtlFormula operand) {
+		return new LtlFormula(Operator.NEXT, null, operand, null);
+	}
+
+	static LtlFormula until(final LtlFormula left, final LtlFormula right) {
+		return new LtlFormula(Operator.UNTIL, null, left, right);
+	}
+
+	static LtlFormula release(final LtlFormula left, final LtlFormula right) {
+		return new LtlFormula(Operator.RELEASE, null, left, right);
+	}
+
+	static LtlFormula eventually(final LtlFormula operand) {
+		return until(TRUE, operand);
+	}
+
+	static LtlFormula globally(final LtlFormula operand) {
+		return release(FALSE, operand);
+	}
+
+	/**
+	 * @return the negation of the formula, in negation normal form
+	 */
+	public LtlFormula negate() {
+		switch (this.operator) {
+		case TRUE:
+			return FALSE;
+		case FALSE:
+			return TRUE;
+		case ATOM:
+			return new LtlFormula(Operator.NOT_ATOM, this.predicate, null, null);
+		case NOT_ATOM:
+			return new LtlFormula(Operator.ATOM, this.predicate, null, null);
+		case AND:
+			return or(this.left.negate(), this.right.negate());
+		case OR:
+			return and(this.left.negate(), this.right.negate());
+		case NEXT:
+			return next(this.left.negate());
+		case UNTIL:
+			return release(this.left.negate(), this.right.negate());
+		default:
+			return until(this.left.negate(), this.right.negate());
+		}
+	}
+
+	Operator getOperator() {
+		return this.operator;
+	}
+
+	MarkingPredicate getPredicate() {
+		return this.predicate;
+	}
+
+	LtlFormula getLeft() {
+		return this.left;
+	}
+
+	LtlFormula getRight() {
+		return this.right;
+	}
+
+	/**
+	 * @return true for the formulas a Büchi automaton state can check on the
+	 *         current marking alone
+	 */
+	boolean isLiteral() {
+		return this.operator == Operator.TRUE || this.operator == Operator.FALSE || this.operator == Operator.ATOM
+				|| this.operator == Operator.NOT_ATOM;
+	}
+
+	/**
+	 * Evaluates a literal on a marking.
+	 */
+	boolean test(final int[] marking) {
+		switch (this.operator) {
+		case TRUE:
+			return true;
+		case ATOM:
+			return this.predicate.test(marking);
+		case NOT_ATOM:
+			return !this.predicate.test(marking);
+		default:
+			return false;
+		}
+	}
+
+	private String format() {
+		switch (this.operator) {
+		case TRUE:
+			return "true";
+		case FALSE:
+			return "false";
+		case ATOM:
+			return "(" + this.predicate + ")";
+		case NOT_ATOM:
+			return "!(" + this.predicate + ")";
+		case AND:
+			return "(" + this.left.text + " & " + this.right.text + ")";
+		case OR:
+			return "(" + this.left.text + " | " + this.right.text + ")";
+		case NEXT:
+			return "X " + this.left.text;
+		case UNTIL:
+			return "(" + this.left.text + " U " + this.right.text + ")";
+		default:
+			return "(" + this.left.text + " R " + this.right.text + ")";
+		}
+	}
+
+	/*
+	 * Structural equality, used to build the sets of formulas of the
+	 * tableau. Atoms with the same text are the same proposition.
+	 */
+
+	@Override
+	public boolean equals(final Object object) {
+		return object instanceof LtlFormula && ((LtlFormula) object).text.equals(this.text);
+	}
+
+	@Override
+	public int hashCode() {
+		return this.text.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return this.text;
+	}
+
+	private static final class Parser extends FormulaParser<LtlFormula> {
+
+		Parser(final String text, final CompiledNet net) throws FormulaSyntaxException {
+			super(text, net);
+		}
+
+		@Override
+		protected LtlFormula atom(final MarkingPredicate predicate) {
+			return LtlFormula.atom(predicate);
+		}
+
+		@Override
+		protected LtlFormula not(final LtlFormula operand) {
+			return operand.negate();
+		}
+
+		@Override
+		protected LtlFormula and(final LtlFormula left, final LtlFormula right) {
+			return LtlFormula.and(left, right);
+		}
+
+		@Override
+		protected LtlFormula or(final LtlFormula left, final LtlFormula right) {
+			return LtlFormula.or(left, right);
+		}
+
+		@Override
+		protected LtlFormula unary() throws FormulaSyntaxException {
+			if (accept("!") || accept("not")) {
+				return unary().negate();
+			}
+			if (accept("X")) {
+				return LtlFormula.next(unary());
+			}
+			if (accept("F")) {
+				return eventually(unary());
+			}
+			if (accept("G")) {
+				return globally(unary());
+			}
+			return primary();
+		}
+
+		@Override
+		protected LtlFormula binaryTemporal(final LtlFormula left) throws FormulaSyntaxException {
+			if (accept("U")) {
+				return until(left, binaryTemporal(disjunction()));
+			}
+			if (accept("R")) {
+				return release(left, binaryTemporal(disjunction()));
+			}
+			if (accept("W")) { // f W g = g R (f | g)
+				final LtlFormula right = binaryTemporal(disjunction());
+				return release(right, or(left, right));
+			}
+			return left;
+		}
+	}
+}
@@ -0,0 +1,475 @@
+package org.pneditor.petrinet.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.pneditor.petrinet.AbstractTransition;
+import org.pneditor.petrinet.PetriNetInterface;
+import org.pneditor.petrinet.ResetArcMultiplicityException;
+
+/**
+ * Checks an {@link LtlFormula} on all the runs of a net, without building the
+ * reachability graph first.
+ *
+ * <p>The negation of the formula is turned into a {@link BuchiAutomaton} and
+ * the product of the automaton with the net is explored on the fly by the
+ * nested depth-first search of Courcoubetis, Vardi, Wolper and Yannakakis:
+ * when the outer search leaves an accepting state, an inner search looks for a
+ * cycle back to it, and stops as soon as it meets a state of the outer stack.
+ * The first accepting lasso found is a run violating the formula and is
+ * returned as a firing sequence; a violation close to the initial marking is
+ * thus found without exploring the rest of the state space. When the
+ * automaton reaches a state accepting any continuation, as after the bad
+ * marking of a safety property, the search stops there and the counterexample
+ * is only a prefix: it works on unbounded nets as well.</p>
+ *
+ * <p>Firing follows the {@link PetriNetInterface} semantics through
+ * {@link CompiledNet}. A dead marking repeats forever, so finite runs are
+ * checked as if they stuttered in their last marking.</p>
+ */
+public final class LtlModelChecker {
+
+	public static final int DEFAULT_STATE_LIMIT = 2_000_000;
+
+	/** Stutter step of a dead marking in the firing sequences. */
+	public static final int DEADLOCK_LOOP = -1;
+
+	private final CompiledNet net;
+	private final int stateLimit;
+
+	public LtlModelChecker(final PetriNetInterface petriNet) throws ResetArcMultiplicityException {
+		this(new CompiledNet(petriNet), DEFAULT_STATE_LIMIT);
+	}
+
+	/**
+	 * @param stateLimit number of product states after which the search gives
+	 *                   up
+	 */
+	public LtlModelChecker(final CompiledNet net, final int stateLimit) {
+		this.net = net;
+		this.stateLimit = stateLimit;
+	}
+
+	public CompiledNet getNet() {
+		return this.net;
+	}
+
+	public Result check(final LtlFormula formula) {
+		return new Search(new BuchiAutomaton(formula.negate())).run();
+	}
+
+	/**
+	 * Product state on a DFS stack, with its successors computed when it is
+	 * pushed.
+	 */
+	private static final class Frame {
+		final long state;
+		final int transition; // fired to reach this state
+		long[] successors;
+		int[] successorTransitions;
+		int next;
+
+		Frame(final long state, final int transition) {
+			this.state = state;
+			this.transition = transition;
+		}
+	}
+
+	private final class Search {
+
+		private final BuchiAutomaton automaton;
+		private final int automatonStates;
+		private final MarkingStore store;
+		private final LongSet outerVisited = new LongSet();
+		private final LongSet innerVisited = new LongSet();
+		// outer stack positions, to close cycles early and rebuild the lasso
+		private final Map<Long, Integer> outerIndexes = new HashMap<>();
+		private final List<Frame> outer = new ArrayList<>();
+		private boolean complete = true;
+
+		Search(final BuchiAutomaton automaton) {
+			this.automaton = automaton;
+			this.automatonStates = automaton.getStateCount();
+			this.store = new MarkingStore(LtlModelChecker.this.net.getPlaceCount(),
+					LtlModelChecker.this.net.getCapacityBound());
+		}
+
+		Result run() {
+			final int[] initialMarking = LtlModelChecker.this.net.getInitialMarking();
+			final int initialId = this.store.add(initialMarking);
+			for (final int automatonState : this.automaton.getInitialStates()) {
+				if (!this.automaton.accepts(automatonState, initialMarking)) {
+					continue;
+				}
+				final long initial = encode(initialId, automatonState);
+				if (this.automaton.isUniversal(automatonState)) {
+					return new Result(Boolean.FALSE, 1, new int[0], new int[0]);
+				}
+				if (this.outerVisited.add(initial)) {
+					final Result result = outerSearch(initial);
+					if (result != null) {
+						return result;
+					}
+				}
+				if (!this.complete) {
+					break;
+				}
+			}
+			return new Result(!this.complete ? null : Boolean.TRUE, this.outerVisited.size(), null, null);
+		}
+
+		private long encode(final int markingId, final int automatonState) {
+			return (long) markingId * this.automatonStates + automatonState;
+		}
+
+		private Frame push(final List<Frame> stack, final long state, final int transition) {
+			final Frame frame = new Frame(state, transition);
+			final int markingId = (int) (state / this.automatonStates);
+			final int automatonState = (int) (state % this.automatonStates);
+			final int[] marking = this.store.get(markingId);
+			final int[] nextAutomaton = this.automaton.getSuccessors(automatonState);
+
+			long[] successors = new long[4];
+			int[] transitions = new int[4];
+			int count = 0;
+			boolean dead = true;
+			final int[] next = new int[marking.length];
+			for (int t = 0; t < LtlModelChecker.this.net.getTransitionCount(); t++) {
+				if (!LtlModelChecker.this.net.isEnabled(marking, t)) {
+					continue;
+				}
+				dead = false;
+				System.arraycopy(marking, 0, next, 0, marking.length);
+				LtlModelChecker.this.net.fire(next, t);
+				int nextId = -1;
+				for (final int a : nextAutomaton) {
+					if (this.automaton.accepts(a, next)) {
+						if (nextId < 0) {
+							final int added = this.store.add(next);
+							nextId = added >= 0 ? added : -(added + 1);
+						}
+						if (count == successors.length) {
+							successors = Arrays.copyOf(successors, count * 2);
+							transitions = Arrays.copyOf(transitions, count * 2);
+						}
+						successors[count] = encode(nextId, a);
+						transitions[count] = t;
+						count++;
+					}
+				}
+			}
+			if (dead) { // stutter
+				for (final int a : nextAutomaton) {
+					if (this.automaton.accepts(a, marking)) {
+						if (count == successors.length) {
+							successors = Arrays.copyOf(successors, count * 2);
+							transitions = Arrays.copyOf(transitions, count * 2);
+						}
+						successors[count] = encode(markingId, a);
+						transitions[count] = DEADLOCK_LOOP;
+						count++;
+					}
+				}
+			}
+			// successors accepting anything first, so that a safety violation
+			// ends the search before a deeper exploration
+			int front = 0;
+			for (int i = 0; i < count; i++) {
+				if (this.automaton.isUniversal((int) (successors[i] % this.automatonStates))) {
+					final long universal = successors[i];
+					final int t = transitions[i];
+					System.arraycopy(successors, front, successors, front + 1, i - front);
+					System.arraycopy(transitions, front, transitions, front + 1, i - front);
+					successors[front] = universal;
+					transitions[front] = t;
+					front++;
+				}
+			}
+			frame.successors = Arrays.copyOf(successors, count);
+			frame.successorTransitions = Arrays.copyOf(transitions, count);
+			stack.add(frame);
+			return frame;
+		}
+
+		private Result outerSearch(final long initial) {
+			push(this.outer, initial, DEADLOCK_LOOP);
+			this.outerIndexes.put(initial, 0);
+			while (!this.outer.isEmpty()) {
+				final Frame top = this.outer.get(this.outer.size() - 1);
+				if (top.next < top.successors.length) {
+					final long successor = top.successors[top.next];
+					final int transition = top.successorTransitions[top.next];
+					top.next++;
+					if (this.outerVisited.add(successor)) {
+						if (this.outerVisited.size() + this.innerVisited.size() > LtlModelChecker.this.stateLimit) {
+							this.complete = false;
+							return null;
+						}
+						push(this.outer, successor, transition);
+						this.outerIndexes.put(successor, this.outer.size() - 1);
+						if (this.automaton.isUniversal((int) (successor % this.automatonStates))) {
+							return badPrefix();
+						}
+					}
+					continue;
+				}
+				final int automatonState = (int) (top.state % this.automatonStates);
+				if (this.automaton.isAccepting(automatonState)) {
+					final Result result = innerSearch(top.state);
+					if (result != null || !this.complete) {
+						return result;
+					}
+				}
+				this.outer.remove(this.outer.size() - 1);
+				this.outerIndexes.remove(top.state);
+			}
+			return null;
+		}
+
+		/**
+		 * Looks for a cycle from the seed, the top of the outer stack, back to
+		 * any state of the outer stack.
+		 */
+		private Result innerSearch(final long seed) {
+			final List<Frame> inner = new ArrayList<>();
+			push(inner, seed, DEADLOCK_LOOP);
+			while (!inner.isEmpty()) {
+				final Frame top = inner.get(inner.size() - 1);
+				if (top.next < top.successors.length) {
+					final long successor = top.successors[top.next];
+					final int transition = top.successorTransitions[top.next];
+					top.next++;
+					final Integer onOuterStack = this.outerIndexes.get(successor);
+					if (onOuterStack != null) {
+						return lasso(onOuterStack, inner, transition);
+					}
+					if (this.innerVisited.add(successor)) {
+						if (this.outerVisited.size() + this.innerVisited.size() > LtlModelChecker.this.stateLimit) {
+							this.complete = false;
+							return null;
+						}
+						push(inner, successor, transition);
+					}
+					continue;
+				}
+				inner.remove(inner.size() - 1);
+			}
+			return null;
+		}
+
+		/**
+		 * Counterexample made of the outer stack only, any continuation being
+		 * accepted.
+		 */
+		private Result badPrefix() {
+			final int[] prefix = new int[this.outer.size() - 1];
+			for (int i = 1; i < this.outer.size(); i++) {
+				prefix[i - 1] = this.outer.get(i).transition;
+			}
+			return new Result(Boolean.FALSE, this.outerVisited.size(), prefix, new int[0]);
+		}
+
+		/**
+		 * The prefix goes along the outer stack to the state where the cycle
+		 * closes; the cycle goes on along the outer stack to the seed, then
+		 * along the inner stack back to that state.
+		 */
+		private Result lasso(final int loopIndex, final List<Frame> inner, final int closingTransition) {
+			final List<Integer> prefix = new ArrayList<>();
+			for (int i = 1; i <= loopIndex; i++) {
+				prefix.add(this.outer.get(i).transition);
+			}
+			final List<Integer> cycle = new ArrayList<>();
+			for (int i = loopIndex + 1; i < this.outer.size(); i++) {
+				cycle.add(this.outer.get(i).transition);
+			}
+			for (int i = 1; i < inner.size(); i++) {
+				cycle.add(inner.get(i).transition);
+			}
+			cycle.add(closingTransition);
+			return new Result(Boolean.FALSE, this.outerVisited.size() + this.innerVisited.size(), toArray(prefix),
+					toArray(cycle));
+		}
+	}
+
+	private static int[] toArray(final List<Integer> list) {
+		final int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = list.get(i);
+		}
+		return array;
+	}
+
+	/**
+	 * Add-only open addressing set of non-negative longs.
+	 */
+	private static final class LongSet {
+		private static final long EMPTY = -1L;
+
+		private long[] keys = newTable(1024);
+		private int size;
+
+		private static long[] newTable(final int capacity) {
+			final long[] table = new long[capacity];
+			Arrays.fill(table, EMPTY);
+			return table;
+		}
+
+		int size() {
+			return this.size;
+		}
+
+		/**
+		 * @return true if the key was not in the set
+		 */
+		boolean add(final long key) {
+			if (this.size * 2 >= this.keys.length) {
+				final long[] old = this.keys;
+				this.keys = newTable(old.length * 2);
+				for (final long value : old) {
+					if (value != EMPTY) {
+						insert(value);
+					}
+				}
+			}
+			if (insert(key)) {
+				this.size++;
+				return true;
+			}
+			return false;
+		}
+
+		private boolean insert(final long key) {
+			final int mask = this.keys.length - 1;
+			long h = key * 0x9E3779B97F4A7C15L;
+			int slot = (int) (h ^ (h >>> 32)) & mask;
+			while (this.keys[slot] != EMPTY) {
+				if (this.keys[slot] == key) {
+					return false;
+				}
+				slot = (slot + 1) & mask;
+			}
+			this.keys[slot] = key;
+			return true;
+		}
+	}
+
+	/**
+	 * Verdict of a check, with the violating run if one was found.
+	 */
+	public final class Result {
+
+		private final Boolean holds;
+		private final int exploredStates;
+		private final int[] prefix;
+		private final int[] cycle;
+
+		Result(final Boolean holds, final int exploredStates, final int[] prefix, final int[] cycle) {
+			this.holds = holds;
+			this.exploredStates = exploredStates;
+			this.prefix = prefix;
+			this.cycle = cycle;
+		}
+
+		/**
+		 * @return true if every run satisfies the formula, false if a violating
+		 *         run was found, null if the state limit was reached first
+		 */
+		public Boolean holds() {
+			return this.holds;
+		}
+
+		/**
+		 * @return number of product states visited by both searches
+		 */
+		public int getExploredStates() {
+			return this.exploredStates;
+		}
+
+		/**
+		 * @return the transitions fired from the initial marking to the start
+		 *         of the cycle of the counterexample, null if there is none;
+		 *         indexes are the ones of the {@link CompiledNet}
+		 */
+		public int[] getPrefixIndexes() {
+			return this.prefix == null ? null : this.prefix.clone();
+		}
+
+		/**
+		 * @return the transitions of the cycle repeated forever,
+		 *         {@link LtlModelChecker#DEADLOCK_LOOP} for a dead marking; empty
+		 *         when any continuation of the prefix violates the formula
+		 */
+		public int[] getCycleIndexes() {
+			return this.cycle == null ? null : this.cycle.clone();
+		}
+
+		/**
+		 * @return the prefix as transitions that can be fired one by one on the
+		 *         net, stutter steps left out
+		 */
+		public List<AbstractTransition> getPrefix() {
+			return transitions(this.prefix);
+		}
+
+		public List<AbstractTransition> getCycle() {
+			return transitions(this.cycle);
+		}
+
+		/**
+		 * @return true if the counterexample ends in a dead marking
+		 */
+		public boolean endsInDeadlock() {
+			return this.cycle != null && this.cycle.length > 0 && this.cycle[0] == DEADLOCK_LOOP;
+		}
+
+		private List<AbstractTransition> transitions(final int[] indexes) {
+			final List<AbstractTransition> transitions = new ArrayList<>();
+			if (indexes != null) {
+				for (final int index : indexes) {
+					if (index != DEADLOCK_LOOP) {
+						transitions.add(LtlModelChecker.this.net.getTransition(index));
+					}
+				}
+			}
+			return transitions;
+		}
+
+		/**
+		 * @return the counterexample as {@code t1 t2 (t3 t4)^ω}, empty if there
+		 *         is none
+		 */
+		public String describeCounterexample() {
+			if (this.prefix == null) {
+				return "";
+			}
+			final StringBuilder builder = new StringBuilder();
+			boolean dead = false;
+			for (final int t : this.prefix) {
+				if (t == DEADLOCK_LOOP) {
+					dead = true;
+				} else {
+					builder.append(name(t)).append(' ');
+				}
+			}
+			if (dead || endsInDeadlock()) {
+				return builder.append("then deadlock").toString().trim();
+			}
+			if (this.cycle.length == 0) {
+				return builder.append("then anything").toString().trim();
+			}
+			builder.append('(');
+			for (int i = 0; i < this.cycle.length; i++) {
+				builder.append(i > 0 ? " " : "").append(name(this.cycle[i]));
+			}
+			return builder.append(")^ω").toString();
+		}
+
+		private String name(final int transition) {
+			return transition == DEADLOCK_LOOP ? "(dead)" : LtlModelChecker.this.net.getTransitionName(transition);
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package org.pneditor.petrinet.algorithms;
+
+/**
+ * Atomic proposition of a temporal formula, evaluated on a marking of a
+ * {@link CompiledNet}: a constant, a linear constraint over token counts
+ * ({@code p1 + 2*p2 <= 3}), the enabling of a transition, or a deadlock.
+ */
+public final class MarkingPredicate {
+
+	enum Kind {
+		CONSTANT, LINEAR, ENABLED, DEADLOCK
+	}
+
+	enum Comparison {
+		LESS("<"), LESS_OR_EQUAL("<="), GREATER(">"), GREATER_OR_EQUAL(">="), EQUAL("="), NOT_EQUAL("!=");
+
+		private final String symbol;
+
+		Comparison(final String symbol) {
+			this.symbol = symbol;
+		}
+
+		/**
+		 * @return the comparison written with the given symbol, null if there is
+		 *         none ({@code ==} is accepted for {@code =})
+		 */
+		static Comparison of(final String symbol) {
+			for (final Comparison comparison : values()) {
+				if (comparison.symbol.equals(symbol) || "==".equals(symbol) && comparison == EQUAL) {
+					return comparison;
+				}
+			}
+			return null;
+		}
+
+		boolean holds(final long left, final long right) {
+			switch (this) {
+			case LESS:
+				return left < right;
+			case LESS_OR_EQUAL:
+				return left <= right;
+			case GREATER:
+				return left > right;
+			case GREATER_OR_EQUAL:
+				return left >= right;
+			case EQUAL:
+				return left == right;
+			default:
+				return left != right;
+			}
+		}
+	}
+
+	private final Kind kind;
+	private final CompiledNet net;
+	private final boolean value;
+	private final int[] places;
+	private final int[] coefficients;
+	private final Comparison comparison;
+	private final long constant;
+	private final int transition;
+	private final String text;
+
+	private MarkingPredicate(final Kind kind, final CompiledNet net, final boolean value, final int[] places,
+			final int[] coefficients, final Comparison comparison, final long constant, final int transition,
+			final String text) {
+		this.kind = kind;
+		this.net = net;
+		this.value = value;
+		this.places = places;
+		this.coefficients = coefficients;
+		this.comparison = comparison;
+		this.constant = constant;
+		this.transition = transition;
+		this.text = text;
+	}
+
+	static MarkingPredicate constant(final boolean value) {
+		return new MarkingPredicate(Kind.CONSTANT, null, value, null, null, null, 0, -1, String.valueOf(value));
+	}
+
+	static MarkingPredicate deadlock(final CompiledNet net) {
+		return new MarkingPredicate(Kind.DEADLOCK, net, false, null, null, null, 0, -1, "deadlock");
+	}
+
+	static MarkingPredicate enabled(final CompiledNet net, final int transition) {
+		return new MarkingPredicate(Kind.ENABLED, net, false, null, null, null, 0, transition,
+				"enabled(" + net.getTransitionName(transition) + ")");
+	}
+
+	/**
+	 * {@code sum(coefficients[i] * m[places[i]]) comparison constant}
+	 */
+	static MarkingPredicate linear(final CompiledNet net, final int[] places, final int[] coefficients,
+			final Comparison comparison, final long constant, final String text) {
+		return new MarkingPredicate(Kind.LINEAR, net, false, places, coefficients, comparison, constant, -1, text);
+	}
+
+	public boolean test(final int[] marking) {
+		switch (this.kind) {
+		case CONSTANT:
+			return this.value;
+		case DEADLOCK:
+			return this.net.isDeadlock(marking);
+		case ENABLED:
+			return this.net.isEnabled(marking, this.transition);
+		default:
+			long sum = 0;
+			for (int i = 0; i < this.places.length; i++) {
+				sum += (long) this.coefficients[i] * marking[this.places[i]];
+			}
+			return this.comparison.holds(sum, this.constant);
+		}
+	}
+
+	/**
+	 * Same as {@link #test(int[])} on the marking stored at {@code offset} in a
+	 * flat array of markings.
+	 */
+	boolean test(final int[] markings, final int offset) {
+		if (this.kind == Kind.LINEAR) {
+			long sum = 0;
+			for (int i = 0; i < this.places.length; i++) {
+				sum += (long) this.coefficients[i] * markings[offset + this.places[i]];
+			}
+			return this.comparison.holds(sum, this.constant);
+		}
+		if (this.kind == Kind.CONSTANT) {
+			return this.value;
+		}
+		final int[] marking = new int[this.net.getPlaceCount()];
+		System.arraycopy(markings, offset, marking, 0, marking.length);
+		return test(marking);
+	}
+
+	@Override
+	public String toString() {
+		return this.text;
+	}
+}
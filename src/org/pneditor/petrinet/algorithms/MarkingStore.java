@@ -0,0 +1,240 @@
+package org.pneditor.petrinet.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Set of markings numbered in insertion order, stored packed in one
+ * {@code long[]} arena instead of one object per marking.
+ *
+ * <p>Every place takes the same number of bits (a power of two, so that no
+ * value straddles two words); the all-ones value stands for
+ * {@link CompiledNet#OMEGA}. When a marking with a larger token count is
+ * added, the whole arena is repacked with twice as many bits. Lookups go
+ * through an open addressing table of marking ids.</p>
+ *
+ * <p>This class is not thread-safe.</p>
+ */
+public final class MarkingStore {
+
+	private static final int MIN_BITS = 2;
+	private static final int DEFAULT_BITS = 4;
+	private static final int MAX_BITS = 32;
+	private static final float LOAD_FACTOR = 0.6f;
+
+	private final int placeCount;
+	private int bits;
+	private int valuesPerWord;
+	private int wordsPerMarking;
+	private long valueMask;
+	private long[] arena;
+	private int[] table; // marking id + 1, 0 for an empty slot
+	private int size;
+	private final long[] scratch;
+
+	public MarkingStore(final int placeCount) {
+		this(placeCount, 0);
+	}
+
+	/**
+	 * @param placeCount number of places of every marking
+	 * @param maxTokens  expected largest token count, used to choose the initial
+	 *                   packing (the store grows anyway if it is exceeded); 0
+	 *                   when unknown. A known bound of at most 2, such as the
+	 *                   capacities of a safe net, packs places on 2 bits
+	 */
+	public MarkingStore(final int placeCount, final int maxTokens) {
+		this.placeCount = placeCount;
+		int initialBits = maxTokens > 0 ? MIN_BITS : DEFAULT_BITS;
+		while (initialBits < MAX_BITS && maxTokens > maxValue(initialBits)) {
+			initialBits *= 2;
+		}
+		setBits(initialBits);
+		this.arena = new long[Math.max(1, this.wordsPerMarking) * 64];
+		this.table = new int[128];
+		this.scratch = new long[(placeCount * MAX_BITS + 63) / 64];
+	}
+
+	private void setBits(final int newBits) {
+		this.bits = newBits;
+		this.valuesPerWord = 64 / newBits;
+		this.wordsPerMarking = (this.placeCount + this.valuesPerWord - 1) / this.valuesPerWord;
+		this.valueMask = newBits == 64 ? -1L : (1L << newBits) - 1;
+	}
+
+	private static long maxValue(final int bits) {
+		return (1L << bits) - 2; // all ones is OMEGA
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public int getPlaceCount() {
+		return this.placeCount;
+	}
+
+	/**
+	 * @return the number of bits currently used for every place
+	 */
+	public int getBitsPerPlace() {
+		return this.bits;
+	}
+
+	/**
+	 * @return approximate number of bytes held by the arena and the hash table
+	 */
+	public long getMemoryFootprint() {
+		return 8L * this.arena.length + 4L * this.table.length;
+	}
+
+	/**
+	 * Adds a marking if it is not already in the store.
+	 *
+	 * @return the id of the marking if it was added, {@code -(id + 1)} if it was
+	 *         already present
+	 */
+	public int add(final int[] marking) {
+		ensureBits(marking);
+		pack(marking, this.scratch);
+		final int existing = lookup(this.scratch);
+		if (existing >= 0) {
+			return -(existing + 1);
+		}
+		if (this.size + 1 > this.table.length * LOAD_FACTOR) {
+			rehash(this.table.length * 2);
+		}
+		final int id = this.size++;
+		final int offset = id * this.wordsPerMarking;
+		if (offset + this.wordsPerMarking > this.arena.length) {
+			this.arena = Arrays.copyOf(this.arena, Math.max(this.arena.length * 2, offset + this.wordsPerMarking));
+		}
+		System.arraycopy(this.scratch, 0, this.arena, offset, this.wordsPerMarking);
+		insert(id);
+		return id;
+	}
+
+	/**
+	 * @return the id of the marking, -1 if it is not in the store
+	 */
+	public int find(final int[] marking) {
+		for (final int tokens : marking) {
+			if (tokens != CompiledNet.OMEGA && tokens > maxValue(this.bits)) {
+				return -1; // cannot be stored with the current packing
+			}
+		}
+		pack(marking, this.scratch);
+		return lookup(this.scratch);
+	}
+
+	public int[] get(final int id) {
+		final int[] marking = new int[this.placeCount];
+		get(id, marking);
+		return marking;
+	}
+
+	public void get(final int id, final int[] marking) {
+		final int offset = id * this.wordsPerMarking;
+		for (int p = 0; p < this.placeCount; p++) {
+			marking[p] = unpack(this.arena, offset, p);
+		}
+	}
+
+	public int getTokens(final int id, final int place) {
+		return unpack(this.arena, id * this.wordsPerMarking, place);
+	}
+
+	private int unpack(final long[] words, final int offset, final int place) {
+		final long word = words[offset + place / this.valuesPerWord];
+		final long value = (word >>> ((place % this.valuesPerWord) * this.bits)) & this.valueMask;
+		return value == this.valueMask ? CompiledNet.OMEGA : (int) value;
+	}
+
+	private void pack(final int[] marking, final long[] into) {
+		Arrays.fill(into, 0, this.wordsPerMarking, 0L);
+		for (int p = 0; p < this.placeCount; p++) {
+			final long value = marking[p] == CompiledNet.OMEGA ? this.valueMask : marking[p];
+			into[p / this.valuesPerWord] |= value << ((p % this.valuesPerWord) * this.bits);
+		}
+	}
+
+	private void ensureBits(final int[] marking) {
+		int largest = 0;
+		for (final int tokens : marking) {
+			if (tokens != CompiledNet.OMEGA && tokens > largest) {
+				largest = tokens;
+			}
+		}
+		if (largest <= maxValue(this.bits)) {
+			return;
+		}
+		int newBits = this.bits;
+		while (newBits < MAX_BITS && largest > maxValue(newBits)) {
+			newBits *= 2;
+		}
+		final int[] buffer = new int[this.placeCount];
+		final long[] oldArena = this.arena;
+		final int oldWords = this.wordsPerMarking;
+		final int oldBits = this.bits;
+		final long[] newArena = new long[Math.max(1, this.size) * ((this.placeCount * newBits + 63) / 64) + 1];
+		for (int id = 0; id < this.size; id++) {
+			setBits(oldBits);
+			for (int p = 0; p < this.placeCount; p++) {
+				buffer[p] = unpack(oldArena, id * oldWords, p);
+			}
+			setBits(newBits);
+			pack(buffer, this.scratch);
+			System.arraycopy(this.scratch, 0, newArena, id * this.wordsPerMarking, this.wordsPerMarking);
+		}
+		setBits(newBits);
+		this.arena = newArena;
+		rehash(this.table.length);
+	}
+
+	private int lookup(final long[] packed) {
+		final int mask = this.table.length - 1;
+		int slot = hash(packed, 0) & mask;
+		while (this.table[slot] != 0) {
+			final int id = this.table[slot] - 1;
+			if (equalsAt(packed, id)) {
+				return id;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	private boolean equalsAt(final long[] packed, final int id) {
+		final int offset = id * this.wordsPerMarking;
+		for (int w = 0; w < this.wordsPerMarking; w++) {
+			if (this.arena[offset + w] != packed[w]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void insert(final int id) {
+		final int mask = this.table.length - 1;
+		int slot = hash(this.arena, id * this.wordsPerMarking) & mask;
+		while (this.table[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		this.table[slot] = id + 1;
+	}
+
+	private void rehash(final int capacity) {
+		this.table = new int[capacity];
+		for (int id = 0; id < this.size; id++) {
+			insert(id);
+		}
+	}
+
+	private int hash(final long[] words, final int offset) {
+		long h = 0x9E3779B97F4A7C15L;
+		for (int w = 0; w < this.wordsPerMarking; w++) {
+			h = (h ^ words[offset + w]) * 0xBF58476D1CE4E5B9L;
+			h ^= h >>> 31;
+		}
+		return (int) (h ^ (h >>> 32));
+	}
+}
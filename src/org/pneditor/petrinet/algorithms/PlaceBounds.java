@@ -0,0 +1,186 @@
+package org.pneditor.petrinet.algorithms;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.pneditor.monitoring.AnalysisRecording;
+import org.pneditor.petrinet.AbstractPlace;
+import org.pneditor.petrinet.PetriNetInterface;
+import org.pneditor.petrinet.ResetArcMultiplicityException;
+
+/**
+ * Computes, for every place, the largest number of tokens it can hold, or
+ * {@link CompiledNet#OMEGA} when it is unbounded.
+ *
+ * <p>The net is explored once with the Karp-Miller construction: a marking
+ * strictly covering one of its ancestors on the current path gets the growing
+ * places accelerated to omega. Markings are kept packed in a
+ * {@link MarkingStore} and a running maximum is updated for every new one, so
+ * the bounds are available as soon as the exploration ends.</p>
+ *
+ * <p>A place with a capacity is never accelerated: a marking only covers an
+ * ancestor if it has the same tokens in every such place, as if the capacity
+ * were a complementary place that must be covered too.</p>
+ *
+ * <p>For regular arcs the result is exact. With inhibitor or reset arcs the
+ * bounds are upper bounds, which may be too high ({@link #isExact()}): an
+ * omega place stands for any number of tokens, so it passes every inhibitor
+ * test, as the net may empty it below the inhibitor weight, and a reset arc
+ * empties it although the net may not have grown it that far. A bound is
+ * therefore never below the tokens a reachable marking puts in the place, but
+ * a place may be reported unbounded, or a transition fireable, when it is
+ * not.</p>
+ */
+public class PlaceBounds {
+
+	private final CompiledNet net;
+	private int[] bounds;
+	private int exploredMarkings;
+
+	public PlaceBounds(final PetriNetInterface petriNet) throws ResetArcMultiplicityException {
+		this(new CompiledNet(petriNet));
+	}
+
+	public PlaceBounds(final CompiledNet net) {
+		this.net = net;
+	}
+
+	public CompiledNet getNet() {
+		return this.net;
+	}
+
+	/**
+	 * @return the bound of every place, indexed like the places of the
+	 *         {@link CompiledNet}
+	 */
+	public synchronized int[] getBoundIndexes() {
+		if (this.bounds == null) {
+			this.bounds = explore();
+		}
+		return this.bounds.clone();
+	}
+
+	/**
+	 * @return the bound of every place, {@link CompiledNet#OMEGA} for unbounded
+	 *         places
+	 */
+	public Map<AbstractPlace, Integer> getBounds() {
+		final int[] values = getBoundIndexes();
+		final Map<AbstractPlace, Integer> result = new HashMap<>();
+		for (int p = 0; p < values.length; p++) {
+			result.put(this.net.getPlace(p), values[p]);
+		}
+		return result;
+	}
+
+	/**
+	 * @return true if the net has neither inhibitor nor reset arcs, so that the
+	 *         bounds are the exact maximums
+	 */
+	public boolean isExact() {
+		for (int t = 0; t < this.net.getTransitionCount(); t++) {
+			if (this.net.getInhibitorPlaces(t).length > 0 || this.net.getResetPlaces(t).length > 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public boolean isBounded() {
+		for (final int bound : getBoundIndexes()) {
+			if (bound == CompiledNet.OMEGA) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return number of distinct markings of the coverability graph
+	 */
+	public synchronized int getExploredMarkings() {
+		getBoundIndexes();
+		return this.exploredMarkings;
+	}
+
+	private int[] explore() {
+		final int placeCount = this.net.getPlaceCount();
+		final int transitionCount = this.net.getTransitionCount();
+		final int[] max = this.net.getInitialMarking();
+		final MarkingStore store = new MarkingStore(placeCount, this.net.getCapacityBound());
+		final AnalysisRecording recording = new AnalysisRecording("PlaceBounds");
+
+		// the DFS path: marking ids and the next transition to try for each of them
+		final List<Integer> path = new ArrayList<>();
+		final List<Integer> nextTransition = new ArrayList<>();
+		store.add(this.net.getInitialMarking());
+		path.add(0);
+		nextTransition.add(0);
+
+		final int[] current = new int[placeCount];
+		final int[] ancestor = new int[placeCount];
+		while (!path.isEmpty()) {
+			final int top = path.size() - 1;
+			final int id = path.get(top);
+			int t = nextTransition.get(top);
+			store.get(id, current);
+			while (t < transitionCount && !this.net.isEnabled(current, t)) {
+				t++;
+			}
+			if (t == transitionCount) {
+				path.remove(top);
+				nextTransition.remove(top);
+				continue;
+			}
+			nextTransition.set(top, t + 1);
+
+			this.net.fire(current, t);
+			long start = recording.start();
+			accelerate(current, path, store, ancestor);
+			recording.omega(start);
+			start = recording.start();
+			final int added = store.add(current);
+			recording.dedup(start);
+			if (added >= 0) {
+				for (int p = 0; p < placeCount; p++) {
+					if (current[p] > max[p]) {
+						max[p] = current[p];
+					}
+				}
+				path.add(added);
+				nextTransition.add(0);
+			}
+		}
+		this.exploredMarkings = store.size();
+		recording.commit(this.exploredMarkings);
+		return max;
+	}
+
+	/**
+	 * Sets to omega every place growing from an ancestor the marking covers.
+	 */
+	private void accelerate(final int[] marking, final List<Integer> path, final MarkingStore store,
+			final int[] ancestor) {
+		for (int i = path.size() - 1; i >= 0; i--) {
+			store.get(path.get(i), ancestor);
+			if (covers(marking, ancestor)) {
+				for (int p = 0; p < marking.length; p++) {
+					if (marking[p] > ancestor[p]) {
+						marking[p] = CompiledNet.OMEGA;
+					}
+				}
+			}
+		}
+	}
+
+	private boolean covers(final int[] marking, final int[] other) {
+		for (int p = 0; p < marking.length; p++) {
+			if (marking[p] < other[p] || (marking[p] != other[p] && this.net.hasCapacity(p))) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,320 @@
+package org.pneditor.petrinet.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.pneditor.monitoring.AnalysisRecording;
+
+/**
+ * Explicit reachability graph of a {@link CompiledNet}, kept from one
+ * {@link #update(CompiledNet)} to the next so that a small edit only costs the
+ * part of the graph it affects.
+ *
+ * <p>Markings are never forgotten between updates: the successors of a marking
+ * through a transition only depend on the arcs of that transition, so when a
+ * new snapshot has the same places and transitions as the previous one, only
+ * the transitions whose arcs changed are invalidated, and only in the markings
+ * that are reached again. A change of the initial marking alone reuses every
+ * marking already expanded and explores the new ones only. Adding or removing
+ * a place or a transition starts from scratch.</p>
+ *
+ * <p>After an update, the reachable markings are numbered densely from 0 (the
+ * initial marking) and their successors are available as compressed arrays.
+ * The exploration stops after {@code stateLimit} markings, in which case the
+ * graph is a prefix of the real one and {@link #isComplete()} returns
+ * false.</p>
+ */
+public final class ReachabilityGraph {
+
+	public static final int DEFAULT_STATE_LIMIT = 100_000;
+
+	private static final int[] NO_EDGES = new int[0];
+
+	private final int stateLimit;
+
+	private CompiledNet net;
+	private MarkingStore store;
+	// per marking id: (transition, target id) pairs sorted by transition, null if not expanded
+	private int[][] edges;
+	// per marking id: epoch of the last expansion
+	private int[] validEpochs;
+	// transitions whose arcs changed at every epoch, index 0 is the initial build
+	private final List<BitSet> changesByEpoch = new ArrayList<>();
+
+	private int[] states;
+	private int[] successorOffsets;
+	private int[] successorTargets;
+	private int[] successorTransitions;
+	private boolean complete;
+	private int expandedStates;
+
+	public ReachabilityGraph() {
+		this(DEFAULT_STATE_LIMIT);
+	}
+
+	public ReachabilityGraph(final int stateLimit) {
+		this.stateLimit = stateLimit;
+	}
+
+	/**
+	 * Brings the graph up to date with a new snapshot of the net.
+	 *
+	 * @return true if every reachable marking has been explored
+	 */
+	public synchronized boolean update(final CompiledNet newNet) {
+		if (this.net == null || !this.net.hasSameNodes(newNet) || this.store.size() > 4 * this.states.length + 4096) {
+			reset(newNet);
+		} else {
+			final BitSet changed = new BitSet();
+			for (int t = 0; t < newNet.getTransitionCount(); t++) {
+				if (!newNet.hasSameArcs(this.net, t)) {
+					changed.set(t);
+				}
+			}
+			if (!changed.isEmpty()) {
+				this.changesByEpoch.add(changed);
+			}
+		}
+		this.net = newNet;
+		explore();
+		return this.complete;
+	}
+
+	private void reset(final CompiledNet newNet) {
+		this.store = new MarkingStore(newNet.getPlaceCount(), newNet.getCapacityBound());
+		this.edges = new int[1024][];
+		this.validEpochs = new int[1024];
+		this.changesByEpoch.clear();
+		this.changesByEpoch.add(new BitSet());
+	}
+
+	private void explore() {
+		final AnalysisRecording recording = new AnalysisRecording("ReachabilityGraph");
+		final int[] initial = this.net.getInitialMarking();
+		final int added = this.store.add(initial);
+		final int initialId = added >= 0 ? added : -(added + 1);
+
+		final BitSet visited = new BitSet();
+		int[] queue = new int[1024];
+		int length = 0;
+		queue[length++] = initialId;
+		visited.set(initialId);
+		this.expandedStates = 0;
+		this.complete = true;
+		int edgeCount = 0;
+		for (int head = 0; head < length; head++) {
+			final int[] pairs = expand(queue[head], recording);
+			edgeCount += pairs.length / 2;
+			for (int i = 1; i < pairs.length; i += 2) {
+				final int target = pairs[i];
+				if (!visited.get(target)) {
+					if (length == this.stateLimit) {
+						this.complete = false;
+						continue;
+					}
+					visited.set(target);
+					if (length == queue.length) {
+						queue = Arrays.copyOf(queue, length * 2);
+					}
+					queue[length++] = target;
+				}
+			}
+		}
+		this.states = Arrays.copyOf(queue, length);
+		compress(edgeCount);
+		recording.commit(length);
+	}
+
+	/**
+	 * @return the successor pairs of the marking, computing the ones that are
+	 *         missing or invalidated since its last expansion
+	 */
+	private int[] expand(final int id, final AnalysisRecording recording) {
+		ensureCapacity(id);
+		final int epoch = this.changesByEpoch.size() - 1;
+		final int[] cached = this.edges[id];
+		if (cached != null && this.validEpochs[id] == epoch) {
+			return cached;
+		}
+		BitSet stale = null;
+		if (cached != null) {
+			stale = new BitSet();
+			for (int e = this.validEpochs[id] + 1; e <= epoch; e++) {
+				stale.or(this.changesByEpoch.get(e));
+			}
+		}
+		this.expandedStates++;
+
+		final int[] marking = this.store.get(id);
+		final int[] next = new int[marking.length];
+		final int transitionCount = this.net.getTransitionCount();
+		int[] pairs = new int[8];
+		int length = 0;
+		int kept = 0;
+		for (int t = 0; t < transitionCount; t++) {
+			if (stale != null && !stale.get(t)) {
+				// unchanged transition: its successor, if any, is still valid
+				if (kept < cached.length && cached[kept] == t) {
+					pairs = append(pairs, length, t, cached[kept + 1]);
+					length += 2;
+					kept += 2;
+				}
+				continue;
+			}
+			if (stale != null && kept < cached.length && cached[kept] == t) {
+				kept += 2;
+			}
+			if (this.net.isEnabled(marking, t)) {
+				System.arraycopy(marking, 0, next, 0, marking.length);
+				this.net.fire(next, t);
+				final long start = recording.start();
+				final int added = this.store.add(next);
+				recording.dedup(start);
+				pairs = append(pairs, length, t, added >= 0 ? added : -(added + 1));
+				length += 2;
+			}
+		}
+		final int[] result = length == 0 ? NO_EDGES : Arrays.copyOf(pairs, length);
+		this.edges[id] = result;
+		this.validEpochs[id] = epoch;
+		return result;
+	}
+
+	private static int[] append(final int[] pairs, final int length, final int transition, final int target) {
+		final int[] result = length + 2 > pairs.length ? Arrays.copyOf(pairs, pairs.length * 2) : pairs;
+		result[length] = transition;
+		result[length + 1] = target;
+		return result;
+	}
+
+	private void ensureCapacity(final int id) {
+		if (id >= this.edges.length) {
+			final int capacity = Math.max(this.edges.length * 2, id + 1);
+			this.edges = Arrays.copyOf(this.edges, capacity);
+			this.validEpochs = Arrays.copyOf(this.validEpochs, capacity);
+		}
+	}
+
+	/**
+	 * Renumbers the reachable markings densely and lays their successors out
+	 * in flat arrays.
+	 */
+	private void compress(final int edgeCount) {
+		final int[] denseIds = new int[this.store.size()];
+		Arrays.fill(denseIds, -1);
+		for (int s = 0; s < this.states.length; s++) {
+			denseIds[this.states[s]] = s;
+		}
+		this.successorOffsets = new int[this.states.length + 1];
+		this.successorTargets = new int[edgeCount];
+		this.successorTransitions = new int[edgeCount];
+		int position = 0;
+		for (int s = 0; s < this.states.length; s++) {
+			this.successorOffsets[s] = position;
+			final int[] pairs = this.edges[this.states[s]];
+			for (int i = 0; i < pairs.length; i += 2) {
+				final int target = denseIds[pairs[i + 1]];
+				if (target >= 0) { // may be cut by the state limit
+					this.successorTransitions[position] = pairs[i];
+					this.successorTargets[position] = target;
+					position++;
+				}
+			}
+		}
+		this.successorOffsets[this.states.length] = position;
+		if (position < edgeCount) {
+			this.successorTargets = Arrays.copyOf(this.successorTargets, position);
+			this.successorTransitions = Arrays.copyOf(this.successorTransitions, position);
+		}
+	}
+
+	public synchronized CompiledNet getNet() {
+		return this.net;
+	}
+
+	/**
+	 * @return false if the exploration was stopped by the state limit
+	 */
+	public synchronized boolean isComplete() {
+		return this.complete;
+	}
+
+	/**
+	 * @return the number of markings whose successors had to be computed during
+	 *         the last update
+	 */
+	public synchronized int getExpandedStates() {
+		return this.expandedStates;
+	}
+
+	/**
+	 * @return the number of reachable markings, the initial one being state 0
+	 */
+	public synchronized int getStateCount() {
+		return this.states.length;
+	}
+
+	public synchronized int getEdgeCount() {
+		return this.successorTargets.length;
+	}
+
+	public synchronized int[] getMarking(final int state) {
+		return this.store.get(this.states[state]);
+	}
+
+	/**
+	 * @return the markings of all states in one array, the marking of state
+	 *         {@code s} starting at {@code s * placeCount}
+	 */
+	public synchronized int[] getMarkings() {
+		final int placeCount = this.net.getPlaceCount();
+		final int[] markings = new int[this.states.length * placeCount];
+		final int[] buffer = new int[placeCount];
+		for (int s = 0; s < this.states.length; s++) {
+			this.store.get(this.states[s], buffer);
+			System.arraycopy(buffer, 0, markings, s * placeCount, placeCount);
+		}
+		return markings;
+	}
+
+	public synchronized int getTokens(final int state, final int place) {
+		return this.store.getTokens(this.states[state], place);
+	}
+
+	/**
+	 * @return offsets into {@link #getSuccessorTargets()}: the successors of
+	 *         state {@code s} are between {@code offsets[s]} and
+	 *         {@code offsets[s + 1]}
+	 */
+	public synchronized int[] getSuccessorOffsets() {
+		return this.successorOffsets;
+	}
+
+	public synchronized int[] getSuccessorTargets() {
+		return this.successorTargets;
+	}
+
+	/**
+	 * @return the transition fired along every edge of
+	 *         {@link #getSuccessorTargets()}
+	 */
+	public synchronized int[] getSuccessorTransitions() {
+		return this.successorTransitions;
+	}
+
+	/**
+	 * @return the largest number of tokens of every place over the explored
+	 *         markings, which are the bounds when the graph is complete
+	 */
+	public synchronized int[] getBounds() {
+		final int[] bounds = new int[this.net.getPlaceCount()];
+		for (final int id : this.states) {
+			for (int p = 0; p < bounds.length; p++) {
+				bounds[p] = Math.max(bounds[p], this.store.getTokens(id, p));
+			}
+		}
+		return bounds;
+	}
+}
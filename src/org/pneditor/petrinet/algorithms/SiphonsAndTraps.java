@@ -0,0 +1,306 @@
+package org.pneditor.petrinet.algorithms;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+import org.pneditor.petrinet.AbstractPlace;
+import org.pneditor.petrinet.PetriNetInterface;
+import org.pneditor.petrinet.ResetArcMultiplicityException;
+
+/**
+ * Enumerates the minimal siphons and minimal traps of a Petri net and checks
+ * Commoner's property (every siphon contains an initially marked trap).
+ *
+ * <p>A siphon is a set of places S such that every transition putting tokens
+ * into S also takes tokens from S; a trap is the dual notion. Only regular and
+ * read arcs are considered, multiplicities are ignored: a read arc counts as a
+ * loop taking the token and putting it back, while inhibitor and reset arcs
+ * have no meaning for these structural properties of ordinary nets.</p>
+ *
+ * <p>Place sets are {@link BitSet}s over the place indexes of a
+ * {@link CompiledNet}. The minimal siphons containing a start place p and no
+ * place of lower index are searched by branch and bound: while some
+ * transition feeds the current set without consuming from it, one of its input
+ * places has to be added, each branch forbidding the candidates tried before
+ * it. Branches containing an already found siphon are cut. Every minimal siphon
+ * is found exactly once, from its lowest place, so the start places are
+ * searched in parallel.</p>
+ */
+public class SiphonsAndTraps {
+
+	private final CompiledNet net;
+
+	/** For every place, the transitions having an output arc to it */
+	private final int[][] producers;
+	/** For every place, the transitions having a regular or read input arc from it */
+	private final int[][] consumers;
+	private final BitSet[] preSets;
+	private final BitSet[] postSets;
+
+	private List<BitSet> minimalSiphons;
+	private List<BitSet> minimalTraps;
+
+	public SiphonsAndTraps(final PetriNetInterface petriNet) throws ResetArcMultiplicityException {
+		this(new CompiledNet(petriNet));
+	}
+
+	public SiphonsAndTraps(final CompiledNet net) {
+		this.net = net;
+		final int placeCount = net.getPlaceCount();
+		final int transitionCount = net.getTransitionCount();
+		this.preSets = new BitSet[transitionCount];
+		this.postSets = new BitSet[transitionCount];
+		final List<List<Integer>> producing = new ArrayList<>(placeCount);
+		final List<List<Integer>> consuming = new ArrayList<>(placeCount);
+		for (int p = 0; p < placeCount; p++) {
+			producing.add(new ArrayList<Integer>());
+			consuming.add(new ArrayList<Integer>());
+		}
+		for (int t = 0; t < transitionCount; t++) {
+			this.preSets[t] = toBitSet(net.getInputPlaces(t));
+			this.postSets[t] = toBitSet(net.getOutputPlaces(t));
+			final BitSet read = toBitSet(net.getReadPlaces(t));
+			this.preSets[t].or(read);
+			this.postSets[t].or(read);
+			for (int p = this.preSets[t].nextSetBit(0); p >= 0; p = this.preSets[t].nextSetBit(p + 1)) {
+				consuming.get(p).add(t);
+			}
+			for (int p = this.postSets[t].nextSetBit(0); p >= 0; p = this.postSets[t].nextSetBit(p + 1)) {
+				producing.get(p).add(t);
+			}
+		}
+		this.producers = toArrays(producing);
+		this.consumers = toArrays(consuming);
+	}
+
+	private static BitSet toBitSet(final int[] indexes) {
+		final BitSet set = new BitSet();
+		for (final int index : indexes) {
+			set.set(index);
+		}
+		return set;
+	}
+
+	private static int[][] toArrays(final List<List<Integer>> lists) {
+		final int[][] arrays = new int[lists.size()][];
+		for (int i = 0; i < arrays.length; i++) {
+			arrays[i] = lists.get(i).stream().mapToInt(Integer::intValue).toArray();
+		}
+		return arrays;
+	}
+
+	public CompiledNet getNet() {
+		return this.net;
+	}
+
+	/**
+	 * @return the minimal siphons, as sets of place indexes
+	 */
+	public synchronized List<BitSet> getMinimalSiphonIndexes() {
+		if (this.minimalSiphons == null) {
+			this.minimalSiphons = enumerate(this.producers, this.preSets);
+		}
+		return this.minimalSiphons;
+	}
+
+	/**
+	 * @return the minimal traps, as sets of place indexes
+	 */
+	public synchronized List<BitSet> getMinimalTrapIndexes() {
+		if (this.minimalTraps == null) {
+			this.minimalTraps = enumerate(this.consumers, this.postSets);
+		}
+		return this.minimalTraps;
+	}
+
+	public List<Set<AbstractPlace>> getMinimalSiphons() {
+		return toPlaces(getMinimalSiphonIndexes());
+	}
+
+	public List<Set<AbstractPlace>> getMinimalTraps() {
+		return toPlaces(getMinimalTrapIndexes());
+	}
+
+	/**
+	 * @return the minimal siphons that do not contain any initially marked trap
+	 */
+	public List<BitSet> getUncoveredSiphonIndexes() {
+		final int[] marking = this.net.getInitialMarking();
+		final List<BitSet> uncovered = new ArrayList<>();
+		for (final BitSet siphon : getMinimalSiphonIndexes()) {
+			if (!isMarked(getMaximalTrap(siphon), marking)) {
+				uncovered.add(siphon);
+			}
+		}
+		return uncovered;
+	}
+
+	/**
+	 * Commoner's property: every siphon contains an initially marked trap. It is
+	 * enough to check the minimal siphons. For free-choice nets it is equivalent
+	 * to liveness, and it implies deadlock-freedom for ordinary nets.
+	 */
+	public boolean hasCommonerProperty() {
+		return getUncoveredSiphonIndexes().isEmpty();
+	}
+
+	/**
+	 * @return the largest trap included in the given set of places (possibly empty)
+	 */
+	public BitSet getMaximalTrap(final BitSet places) {
+		final BitSet trap = (BitSet) places.clone();
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int p = trap.nextSetBit(0); p >= 0; p = trap.nextSetBit(p + 1)) {
+				for (final int t : this.consumers[p]) {
+					if (!this.postSets[t].intersects(trap)) {
+						trap.clear(p);
+						changed = true;
+						break;
+					}
+				}
+			}
+		}
+		return trap;
+	}
+
+	private static boolean isMarked(final BitSet places, final int[] marking) {
+		for (int p = places.nextSetBit(0); p >= 0; p = places.nextSetBit(p + 1)) {
+			if (marking[p] > 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private List<Set<AbstractPlace>> toPlaces(final List<BitSet> sets) {
+		final List<Set<AbstractPlace>> result = new ArrayList<>(sets.size());
+		for (final BitSet set : sets) {
+			final Set<AbstractPlace> places = new LinkedHashSet<>();
+			for (int p = set.nextSetBit(0); p >= 0; p = set.nextSetBit(p + 1)) {
+				places.add(this.net.getPlace(p));
+			}
+			result.add(places);
+		}
+		return result;
+	}
+
+	/**
+	 * Enumerates the minimal sets S such that every transition of
+	 * {@code feeders[p]} for p in S has its {@code guards} intersecting S.
+	 * Siphons are obtained with (producers, pre-sets), traps with (consumers,
+	 * post-sets).
+	 */
+	private List<BitSet> enumerate(final int[][] feeders, final BitSet[] guards) {
+		final ConcurrentLinkedQueue<BitSet> found = new ConcurrentLinkedQueue<>();
+		IntStream.range(0, this.net.getPlaceCount()).parallel()
+				.forEach(start -> searchFrom(start, feeders, guards, found));
+		return keepMinimal(found);
+	}
+
+	private void searchFrom(final int start, final int[][] feeders, final BitSet[] guards,
+			final Collection<BitSet> found) {
+		final Deque<BitSet[]> stack = new ArrayDeque<>();
+		final BitSet first = new BitSet();
+		first.set(start);
+		final BitSet forbidden = new BitSet();
+		forbidden.set(0, start);
+		stack.push(new BitSet[] { first, forbidden });
+
+		while (!stack.isEmpty()) {
+			final BitSet[] frame = stack.pop();
+			final BitSet set = frame[0];
+			if (containsFound(set, found)) {
+				continue; // bound: anything grown from here is not minimal
+			}
+			final int violating = findViolating(set, feeders, guards);
+			if (violating < 0) {
+				found.add(set);
+				continue;
+			}
+			final BitSet candidates = (BitSet) guards[violating].clone();
+			candidates.andNot(frame[1]);
+			// children are pushed in reverse so that they are popped in index order
+			final List<BitSet[]> children = new ArrayList<>(candidates.cardinality());
+			final BitSet childForbidden = (BitSet) frame[1].clone();
+			for (int q = candidates.nextSetBit(0); q >= 0; q = candidates.nextSetBit(q + 1)) {
+				final BitSet child = (BitSet) set.clone();
+				child.set(q);
+				children.add(new BitSet[] { child, (BitSet) childForbidden.clone() });
+				childForbidden.set(q);
+			}
+			for (int i = children.size() - 1; i >= 0; i--) {
+				stack.push(children.get(i));
+			}
+		}
+	}
+
+	private static boolean containsFound(final BitSet set, final Collection<BitSet> found) {
+		for (final BitSet other : found) {
+			if (isSubset(other, set)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int findViolating(final BitSet set, final int[][] feeders, final BitSet[] guards) {
+		for (int p = set.nextSetBit(0); p >= 0; p = set.nextSetBit(p + 1)) {
+			for (final int t : feeders[p]) {
+				if (!guards[t].intersects(set)) {
+					return t;
+				}
+			}
+		}
+		return -1;
+	}
+
+	private static boolean isSubset(final BitSet subset, final BitSet set) {
+		final BitSet rest = (BitSet) subset.clone();
+		rest.andNot(set);
+		return rest.isEmpty();
+	}
+
+	private static List<BitSet> keepMinimal(final Collection<BitSet> sets) {
+		final List<BitSet> candidates = new ArrayList<>(sets);
+		candidates.sort(SiphonsAndTraps::compare);
+		final List<BitSet> minimal = new ArrayList<>();
+		for (final BitSet candidate : candidates) {
+			boolean isMinimal = true;
+			for (final BitSet smaller : minimal) {
+				if (isSubset(smaller, candidate)) {
+					isMinimal = false;
+					break;
+				}
+			}
+			if (isMinimal) {
+				minimal.add(candidate);
+			}
+		}
+		return minimal;
+	}
+
+	/**
+	 * Orders place sets by size, then by their lowest differing place, so that
+	 * results do not depend on the scheduling of the parallel search.
+	 */
+	private static int compare(final BitSet a, final BitSet b) {
+		final int bySize = Integer.compare(a.cardinality(), b.cardinality());
+		if (bySize != 0) {
+			return bySize;
+		}
+		final BitSet difference = (BitSet) a.clone();
+		difference.xor(b);
+		final int first = difference.nextSetBit(0);
+		return first < 0 ? 0 : (a.get(first) ? -1 : 1);
+	}
+}
@@ -0,0 +1,844 @@
+package org.pneditor.petrinet.algorithms;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+import org.pneditor.petrinet.AbstractTransition;
+
+/**
+ * Complete finite prefix of the unfolding of a safe {@link CompiledNet}, built
+ * with McMillan's algorithm and the adequate order of Esparza, Römer and
+ * Vogler.
+ *
+ * <p>The unfolding represents runs as partial orders: events of concurrent
+ * transitions are not interleaved, so the prefix of a highly concurrent net
+ * is usually exponentially smaller than its reachability graph. Possible
+ * extensions wait in a priority queue ordered by the size, the Parikh vector
+ * and the Foata normal form of their local configuration; an event is a
+ * cut-off when an earlier event reached the same marking, and nothing is
+ * built after it. The co-relation (conditions that can hold together) is kept
+ * as one {@link BitSet} per condition, so that the presets of new events are
+ * found by intersecting bitsets.</p>
+ *
+ * <p>Every place must hold at most one token in every reachable marking; an
+ * {@link UnsafeNetException} is thrown as soon as a second token is found.
+ * Inhibitor and reset arcs are supported by adding a complement place to the
+ * places they test: an inhibitor arc of multiplicity 1 reads the complement
+ * place, and a reset arc is split into two events, one for the marked place
+ * and one for the empty place. Inhibitor arcs of larger multiplicity always
+ * hold on a safe net and are ignored. A read arc is unfolded as a loop
+ * taking the token and putting it back: the prefix stays exact for markings
+ * and deadlocks, but events reading the same condition are ordered instead
+ * of concurrent.</p>
+ *
+ * <p>Place capacities are honoured as in {@link CompiledNet}: a transition
+ * putting more tokens in a place than its capacity is dropped, and a place
+ * of capacity 1 gets a complement place, so that a transition filling it
+ * without consuming it needs it empty instead of making the net
+ * unsafe.</p>
+ *
+ * <p>Deadlocks and reachable markings are found by searching the
+ * configurations of the prefix that contain no cut-off event, adding events
+ * in the order they were created, which extends causality, so that every
+ * configuration is visited once. The prefix contains every reachable marking
+ * as such a configuration, but the search is exponential in the worst case
+ * and takes a limit.</p>
+ */
+public final class Unfolding {
+
+	public static final int DEFAULT_EVENT_LIMIT = 100_000;
+	public static final int DEFAULT_CONFIGURATION_LIMIT = 1_000_000;
+
+	private static final int[] NONE = new int[0];
+
+	private final CompiledNet net;
+
+	/*
+	 * Safe net with complement places: places [0, placeCount) of the net,
+	 * then one complement place for every place tested by an inhibitor or a
+	 * reset arc. A transition of the net can give several transitions here.
+	 */
+	private final int expandedPlaceCount;
+	private final int[] initialMarking;
+	private final int[] origin;
+	private final int[][] pre;
+	private final int[][] post;
+	private final boolean[] overflows;
+	private final int[][] consumers;
+
+	/*
+	 * Prefix
+	 */
+	private final List<Condition> conditions = new ArrayList<>();
+	private final List<Event> events = new ArrayList<>();
+	private final BitSet[] conditionsByPlace;
+	private final PriorityQueue<Extension> extensions = new PriorityQueue<>(Unfolding::compare);
+	private final MarkingStore markings;
+	private final boolean complete;
+	private boolean alwaysEnabled;
+	private int cutOffs;
+	private long sequence;
+
+	private int[] visited = new int[64];
+	private int stamp;
+
+	private static final class Condition {
+		final int place;
+		final int preEvent;
+		BitSet co; // null for the postset of a cut-off
+		int[] consumers = NONE;
+		int consumerCount;
+
+		Condition(final int place, final int preEvent) {
+			this.place = place;
+			this.preEvent = preEvent;
+		}
+
+		void addConsumer(final int event) {
+			if (this.consumerCount == this.consumers.length) {
+				this.consumers = Arrays.copyOf(this.consumers, Math.max(4, 2 * this.consumerCount));
+			}
+			this.consumers[this.consumerCount++] = event;
+		}
+	}
+
+	private static final class Event {
+		final int transition;
+		final int[] preset;
+		final int[] postset;
+		final int depth;
+		final boolean cutOff;
+
+		Event(final int transition, final int[] preset, final int[] postset, final int depth, final boolean cutOff) {
+			this.transition = transition;
+			this.preset = preset;
+			this.postset = postset;
+			this.depth = depth;
+			this.cutOff = cutOff;
+		}
+	}
+
+	/**
+	 * Possible extension of the prefix, with the data of its local
+	 * configuration needed by the adequate order.
+	 */
+	private static final class Extension {
+		final int transition;
+		final int[] preset;
+		final int size;
+		final int[] word; // sorted transitions of the local configuration
+		final int[][] foata; // sorted transitions of every Foata level
+		final int depth;
+		final int[] marking;
+		final long sequence;
+
+		Extension(final int transition, final int[] preset, final int size, final int[] word, final int[][] foata,
+				final int depth, final int[] marking, final long sequence) {
+			this.transition = transition;
+			this.preset = preset;
+			this.size = size;
+			this.word = word;
+			this.foata = foata;
+			this.depth = depth;
+			this.marking = marking;
+			this.sequence = sequence;
+		}
+	}
+
+	public Unfolding(final CompiledNet net) throws UnsafeNetException {
+		this(net, DEFAULT_EVENT_LIMIT);
+	}
+
+	/**
+	 * Builds the prefix, stopping after {@code eventLimit} events.
+	 *
+	 * @throws UnsafeNetException if a reachable marking has two tokens in a
+	 *                            place
+	 */
+	public Unfolding(final CompiledNet net, final int eventLimit) throws UnsafeNetException {
+		this.net = net;
+		final int placeCount = net.getPlaceCount();
+		final int[] netMarking = net.getInitialMarking();
+		for (int p = 0; p < placeCount; p++) {
+			if (netMarking[p] > 1) {
+				throw new UnsafeNetException(net.getPlaceName(p) + " has more than one token initially");
+			}
+		}
+
+		// places needing a complement
+		final int[] complement = new int[placeCount];
+		Arrays.fill(complement, -1);
+		int expanded = placeCount;
+		for (int t = 0; t < net.getTransitionCount(); t++) {
+			for (final int place : net.getOutputPlaces(t)) {
+				if (net.getCapacity(place) == 1 && complement[place] < 0) {
+					complement[place] = expanded++;
+				}
+			}
+			final int[] inhibitors = net.getInhibitorPlaces(t);
+			final int[] thresholds = net.getInhibitorWeights(t);
+			for (int i = 0; i < inhibitors.length; i++) {
+				if (thresholds[i] == 1 && complement[inhibitors[i]] < 0) {
+					complement[inhibitors[i]] = expanded++;
+				}
+			}
+			for (final int place : net.getResetPlaces(t)) {
+				if (complement[place] < 0) {
+					complement[place] = expanded++;
+				}
+			}
+		}
+		this.expandedPlaceCount = expanded;
+		this.initialMarking = new int[expanded];
+		for (int p = 0; p < placeCount; p++) {
+			this.initialMarking[p] = netMarking[p];
+			if (complement[p] >= 0) {
+				this.initialMarking[complement[p]] = 1 - netMarking[p];
+			}
+		}
+
+		final List<int[]> pres = new ArrayList<>();
+		final List<int[]> posts = new ArrayList<>();
+		final List<Integer> origins = new ArrayList<>();
+		final List<Boolean> overflowing = new ArrayList<>();
+		for (int t = 0; t < net.getTransitionCount(); t++) {
+			expand(t, complement, pres, posts, origins, overflowing);
+		}
+		final int transitionCount = pres.size();
+		this.pre = pres.toArray(new int[0][]);
+		this.post = posts.toArray(new int[0][]);
+		this.origin = new int[transitionCount];
+		this.overflows = new boolean[transitionCount];
+		for (int t = 0; t < transitionCount; t++) {
+			this.origin[t] = origins.get(t);
+			this.overflows[t] = overflowing.get(t);
+		}
+		final List<List<Integer>> consumerLists = new ArrayList<>();
+		for (int p = 0; p < expanded; p++) {
+			consumerLists.add(new ArrayList<Integer>());
+		}
+		for (int t = 0; t < transitionCount; t++) {
+			for (final int place : this.pre[t]) {
+				consumerLists.get(place).add(t);
+			}
+		}
+		this.consumers = new int[expanded][];
+		this.conditionsByPlace = new BitSet[expanded];
+		for (int p = 0; p < expanded; p++) {
+			final List<Integer> list = consumerLists.get(p);
+			this.consumers[p] = new int[list.size()];
+			for (int i = 0; i < list.size(); i++) {
+				this.consumers[p][i] = list.get(i);
+			}
+			this.conditionsByPlace[p] = new BitSet();
+		}
+
+		this.markings = new MarkingStore(expanded, 1);
+		this.markings.add(this.initialMarking);
+		this.complete = build(eventLimit);
+	}
+
+	/**
+	 * Adds the transitions of the safe net standing for transition {@code t}
+	 * of the net: one for every way of reading the places it resets or fills
+	 * without consuming them, when these places have a complement, except the
+	 * ones overflowing a capacity.
+	 */
+	private void expand(final int t, final int[] complement, final List<int[]> pres, final List<int[]> posts,
+			final List<Integer> origins, final List<Boolean> overflowing) throws UnsafeNetException {
+		final int placeCount = this.net.getPlaceCount();
+		final int[] consumed = new int[placeCount];
+		final int[] produced = new int[placeCount];
+		final boolean[] tested = new boolean[placeCount];
+		final boolean[] reset = new boolean[placeCount];
+		final int[] in = this.net.getInputPlaces(t);
+		final int[] inWeights = this.net.getInputWeights(t);
+		for (int i = 0; i < in.length; i++) {
+			consumed[in[i]] += inWeights[i];
+		}
+		final int[] out = this.net.getOutputPlaces(t);
+		final int[] outWeights = this.net.getOutputWeights(t);
+		for (int i = 0; i < out.length; i++) {
+			produced[out[i]] += outWeights[i];
+		}
+		final int[] inhibitors = this.net.getInhibitorPlaces(t);
+		final int[] thresholds = this.net.getInhibitorWeights(t);
+		for (int i = 0; i < inhibitors.length; i++) {
+			if (thresholds[i] <= 0) {
+				return; // never enabled
+			}
+			tested[inhibitors[i]] |= thresholds[i] == 1;
+		}
+		for (final int place : this.net.getResetPlaces(t)) {
+			reset[place] = true;
+		}
+		final int[] read = this.net.getReadPlaces(t);
+		final int[] readWeights = this.net.getReadWeights(t);
+		for (int i = 0; i < read.length; i++) {
+			if (readWeights[i] > 1) {
+				return; // never enabled on a safe net
+			}
+			if (readWeights[i] == 1 && consumed[read[i]] == 0) {
+				consumed[read[i]] = 1;
+				if (!reset[read[i]]) {
+					produced[read[i]] += 1;
+				}
+			}
+		}
+
+		boolean overflow = false;
+		final List<Integer> choices = new ArrayList<>();
+		for (int p = 0; p < placeCount; p++) {
+			if (consumed[p] > 1 || consumed[p] == 1 && tested[p]) {
+				return; // never enabled on a safe net
+			}
+			if (produced[p] > this.net.getCapacity(p)) {
+				return; // always overflows the capacity
+			}
+			overflow |= produced[p] > 1;
+			if (complement[p] >= 0 && consumed[p] == 0 && !tested[p] && (reset[p] || produced[p] > 0)) {
+				choices.add(p);
+			}
+		}
+
+		final boolean[] marked = new boolean[placeCount];
+		for (long variant = 0; variant < 1L << choices.size(); variant++) {
+			for (int i = 0; i < choices.size(); i++) {
+				marked[choices.get(i)] = (variant >> i & 1) != 0;
+			}
+			boolean variantOverflow = overflow;
+			boolean overCapacity = false;
+			final List<Integer> preList = new ArrayList<>();
+			final List<Integer> postList = new ArrayList<>();
+			for (int p = 0; p < placeCount; p++) {
+				if (complement[p] < 0) {
+					if (consumed[p] > 0) {
+						preList.add(p);
+					}
+					if (produced[p] > 0) {
+						postList.add(p);
+					}
+					continue;
+				}
+				final boolean touched = consumed[p] > 0 || produced[p] > 0 || tested[p] || reset[p];
+				if (!touched) {
+					continue;
+				}
+				final boolean before = consumed[p] > 0 || !tested[p] && marked[p];
+				final boolean after = produced[p] > 0 || (consumed[p] == 0 && !reset[p] && before);
+				final boolean refilled = before && produced[p] > 0 && consumed[p] == 0 && !reset[p];
+				if (refilled && this.net.getCapacity(p) == 1) {
+					overCapacity = true;
+				}
+				variantOverflow |= refilled;
+				preList.add(before ? p : complement[p]);
+				postList.add(after ? p : complement[p]);
+			}
+			if (overCapacity) {
+				continue; // disabled by the capacity when the place is marked
+			}
+			final int[] preset = toSortedArray(preList);
+			final int[] postset = toSortedArray(postList);
+			if (preset.length == 0 && postset.length > 0) {
+				throw new UnsafeNetException(this.net.getTransitionName(t)
+						+ " has no input place and can fill its output places without limit");
+			}
+			pres.add(preset);
+			posts.add(postset);
+			origins.add(t);
+			overflowing.add(variantOverflow);
+		}
+	}
+
+	private static int[] toSortedArray(final List<Integer> list) {
+		final int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = list.get(i);
+		}
+		Arrays.sort(array);
+		return array;
+	}
+
+	/**
+	 * @return true if the prefix is complete, false if the event limit was
+	 *         reached
+	 */
+	private boolean build(final int eventLimit) throws UnsafeNetException {
+		final List<Integer> initial = new ArrayList<>();
+		for (int p = 0; p < this.expandedPlaceCount; p++) {
+			if (this.initialMarking[p] > 0) {
+				initial.add(this.conditions.size());
+				this.conditions.add(new Condition(p, -1));
+			}
+		}
+		for (final int c : initial) {
+			final BitSet co = new BitSet();
+			for (final int other : initial) {
+				if (other != c) {
+					co.set(other);
+				}
+			}
+			this.conditions.get(c).co = co;
+			this.conditionsByPlace[this.conditions.get(c).place].set(c);
+		}
+		for (int t = 0; t < this.pre.length; t++) {
+			if (this.pre[t].length == 0) {
+				this.alwaysEnabled = true;
+				addExtension(t, NONE);
+			}
+		}
+		for (final int c : initial) {
+			addExtensions(c);
+		}
+
+		while (!this.extensions.isEmpty()) {
+			if (this.events.size() >= eventLimit) {
+				return false;
+			}
+			addEvent(this.extensions.poll());
+		}
+		return true;
+	}
+
+	private void addEvent(final Extension extension) throws UnsafeNetException {
+		final int id = this.events.size();
+		final boolean cutOff = this.markings.add(extension.marking) < 0;
+		final int[] postPlaces = this.post[extension.transition];
+		final int[] postset = new int[postPlaces.length];
+		for (int i = 0; i < postset.length; i++) {
+			postset[i] = this.conditions.size();
+			this.conditions.add(new Condition(postPlaces[i], id));
+		}
+		this.events.add(new Event(extension.transition, extension.preset, postset, extension.depth, cutOff));
+		for (final int b : extension.preset) {
+			this.conditions.get(b).addConsumer(id);
+		}
+		if (cutOff) {
+			this.cutOffs++;
+			return;
+		}
+
+		// co(c) for c in the postset: conditions concurrent with the whole
+		// preset, and the other conditions of the postset
+		final BitSet common = new BitSet();
+		if (extension.preset.length > 0) {
+			common.or(this.conditions.get(extension.preset[0]).co);
+			for (int i = 1; i < extension.preset.length; i++) {
+				common.and(this.conditions.get(extension.preset[i]).co);
+			}
+		}
+		for (final int c : postset) {
+			final Condition condition = this.conditions.get(c);
+			if (common.intersects(this.conditionsByPlace[condition.place])) {
+				throw new UnsafeNetException(placeName(condition.place) + " can hold two tokens after "
+						+ this.net.getTransitionName(this.origin[extension.transition]));
+			}
+			final BitSet co = (BitSet) common.clone();
+			for (final int sibling : postset) {
+				if (sibling != c) {
+					co.set(sibling);
+				}
+			}
+			condition.co = co;
+		}
+		for (int d = common.nextSetBit(0); d >= 0; d = common.nextSetBit(d + 1)) {
+			final BitSet co = this.conditions.get(d).co;
+			for (final int c : postset) {
+				co.set(c);
+			}
+		}
+		for (final int c : postset) {
+			this.conditionsByPlace[this.conditions.get(c).place].set(c);
+		}
+		for (final int c : postset) {
+			addExtensions(c);
+		}
+	}
+
+	/**
+	 * Queues the possible extensions whose preset contains condition
+	 * {@code c} and otherwise only older conditions, so that every extension
+	 * is found once.
+	 */
+	private void addExtensions(final int c) throws UnsafeNetException {
+		final Condition condition = this.conditions.get(c);
+		for (final int t : this.consumers[condition.place]) {
+			combine(t, 0, new int[this.pre[t].length], condition.co, c);
+		}
+	}
+
+	private void combine(final int t, final int index, final int[] chosen, final BitSet candidates, final int newest)
+			throws UnsafeNetException {
+		final int[] places = this.pre[t];
+		if (index == places.length) {
+			addExtension(t, chosen.clone());
+			return;
+		}
+		if (places[index] == this.conditions.get(newest).place) {
+			chosen[index] = newest;
+			combine(t, index + 1, chosen, candidates, newest);
+			return;
+		}
+		final BitSet available = this.conditionsByPlace[places[index]];
+		for (int d = available.nextSetBit(0); d >= 0 && d < newest; d = available.nextSetBit(d + 1)) {
+			if (candidates.get(d)) {
+				chosen[index] = d;
+				final BitSet next = (BitSet) candidates.clone();
+				next.and(this.conditions.get(d).co);
+				combine(t, index + 1, chosen, next, newest);
+			}
+		}
+	}
+
+	private void addExtension(final int t, final int[] preset) throws UnsafeNetException {
+		if (this.overflows[t]) {
+			throw new UnsafeNetException(this.net.getTransitionName(this.origin[t])
+					+ " can put a second token in one of its output places");
+		}
+		final int[] history = localConfiguration(preset);
+		final int size = history.length + 1;
+
+		final int[] word = new int[size];
+		int depth = 1;
+		for (final int b : preset) {
+			final int preEvent = this.conditions.get(b).preEvent;
+			if (preEvent >= 0) {
+				depth = Math.max(depth, this.events.get(preEvent).depth + 1);
+			}
+		}
+		final int[] levelSizes = new int[depth];
+		final int[] marking = this.initialMarking.clone();
+		for (int i = 0; i < history.length; i++) {
+			final Event event = this.events.get(history[i]);
+			word[i] = event.transition;
+			levelSizes[event.depth - 1]++;
+			fire(marking, event.transition);
+		}
+		word[history.length] = t;
+		levelSizes[depth - 1]++;
+		fire(marking, t);
+		Arrays.sort(word);
+
+		final int[][] foata = new int[depth][];
+		for (int level = 0; level < depth; level++) {
+			foata[level] = new int[levelSizes[level]];
+			levelSizes[level] = 0;
+		}
+		for (final int e : history) {
+			final Event event = this.events.get(e);
+			foata[event.depth - 1][levelSizes[event.depth - 1]++] = event.transition;
+		}
+		foata[depth - 1][levelSizes[depth - 1]] = t;
+		for (final int[] level : foata) {
+			Arrays.sort(level);
+		}
+		this.extensions.add(new Extension(t, preset, size, word, foata, depth, marking, this.sequence++));
+	}
+
+	private void fire(final int[] marking, final int t) {
+		for (final int place : this.pre[t]) {
+			marking[place]--;
+		}
+		for (final int place : this.post[t]) {
+			marking[place]++;
+		}
+	}
+
+	/**
+	 * @return the events causally before a new event with the given preset
+	 */
+	private int[] localConfiguration(final int[] preset) {
+		if (this.visited.length < this.events.size()) {
+			this.visited = Arrays.copyOf(this.visited, Math.max(this.events.size(), 2 * this.visited.length));
+		}
+		this.stamp++;
+		final Deque<Integer> stack = new ArrayDeque<>();
+		for (final int b : preset) {
+			push(stack, this.conditions.get(b).preEvent);
+		}
+		final int[] result = new int[this.events.size()];
+		int count = 0;
+		while (!stack.isEmpty()) {
+			final int e = stack.pop();
+			result[count++] = e;
+			for (final int b : this.events.get(e).preset) {
+				push(stack, this.conditions.get(b).preEvent);
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	private void push(final Deque<Integer> stack, final int event) {
+		if (event >= 0 && this.visited[event] != this.stamp) {
+			this.visited[event] = this.stamp;
+			stack.push(event);
+		}
+	}
+
+	/**
+	 * Adequate order of Esparza, Römer and Vogler on local configurations:
+	 * size, then Parikh vector, then Foata normal form.
+	 */
+	private static int compare(final Extension a, final Extension b) {
+		if (a.size != b.size) {
+			return Integer.compare(a.size, b.size);
+		}
+		int result = compareWords(a.word, b.word);
+		for (int level = 0; result == 0 && level < Math.min(a.foata.length, b.foata.length); level++) {
+			result = compareWords(a.foata[level], b.foata[level]);
+		}
+		if (result == 0) {
+			result = Integer.compare(a.foata.length, b.foata.length);
+		}
+		return result != 0 ? result : Long.compare(a.sequence, b.sequence);
+	}
+
+	private static int compareWords(final int[] a, final int[] b) {
+		for (int i = 0; i < Math.min(a.length, b.length); i++) {
+			if (a[i] != b[i]) {
+				return Integer.compare(a[i], b[i]);
+			}
+		}
+		return Integer.compare(a.length, b.length);
+	}
+
+	private String placeName(final int place) {
+		return place < this.net.getPlaceCount() ? this.net.getPlaceName(place) : "a place";
+	}
+
+	public CompiledNet getNet() {
+		return this.net;
+	}
+
+	/**
+	 * @return false if the event limit stopped the construction
+	 */
+	public boolean isComplete() {
+		return this.complete;
+	}
+
+	public int getEventCount() {
+		return this.events.size();
+	}
+
+	public int getConditionCount() {
+		return this.conditions.size();
+	}
+
+	public int getCutOffCount() {
+		return this.cutOffs;
+	}
+
+	/*
+	 * Checks on the prefix
+	 */
+
+	/**
+	 * Searches a reachable marking where no transition is enabled.
+	 */
+	public Search findDeadlock(final int configurationLimit) {
+		if (this.alwaysEnabled && this.complete) {
+			return new Search(false, null, null, 0);
+		}
+		return search(this.net::isDeadlock, true, configurationLimit);
+	}
+
+	/**
+	 * Searches a reachable marking satisfying the target, given the token
+	 * count of every place of the net.
+	 */
+	public Search findMarking(final Predicate<int[]> target, final int configurationLimit) {
+		return search(target, false, configurationLimit);
+	}
+
+	private static final class Frame {
+		final BitSet cut;
+		final int event;
+		final int[] children;
+		int next;
+
+		Frame(final BitSet cut, final int event, final int[] children) {
+			this.cut = cut;
+			this.event = event;
+			this.children = children;
+		}
+	}
+
+	private Search search(final Predicate<int[]> target, final boolean deadlock, final int configurationLimit) {
+		final BitSet initialCut = new BitSet();
+		for (int c = 0; c < this.conditions.size() && this.conditions.get(c).preEvent < 0; c++) {
+			initialCut.set(c);
+		}
+		final Deque<Frame> stack = new ArrayDeque<>();
+		int visitedConfigurations = 0;
+		BitSet cut = initialCut;
+		int event = -1;
+		while (true) {
+			visitedConfigurations++;
+			final int[] marking = markingOf(cut);
+			if (target.test(marking)) {
+				final List<AbstractTransition> sequence = new ArrayList<>();
+				final Frame[] frames = stack.toArray(new Frame[0]);
+				for (int i = frames.length - 1; i >= 0; i--) {
+					if (frames[i].event >= 0) {
+						sequence.add(this.net.getTransition(this.origin[this.events.get(frames[i].event).transition]));
+					}
+				}
+				if (event >= 0) {
+					sequence.add(this.net.getTransition(this.origin[this.events.get(event).transition]));
+				}
+				return new Search(true, marking, sequence, visitedConfigurations);
+			}
+			if (visitedConfigurations >= configurationLimit) {
+				return new Search(null, null, null, visitedConfigurations);
+			}
+			final boolean pruned = deadlock && isPersistentlyEnabled(cut, event);
+			stack.push(new Frame(cut, event, pruned ? NONE : children(cut, event)));
+
+			// next configuration: first unexplored child of the deepest frame
+			Frame top = stack.peek();
+			while (top != null && top.next == top.children.length) {
+				stack.pop();
+				top = stack.peek();
+			}
+			if (top == null) {
+				return new Search(this.complete ? Boolean.FALSE : null, null, null, visitedConfigurations);
+			}
+			event = top.children[top.next++];
+			cut = (BitSet) top.cut.clone();
+			for (final int b : this.events.get(event).preset) {
+				cut.clear(b);
+			}
+			for (final int c : this.events.get(event).postset) {
+				cut.set(c);
+			}
+		}
+	}
+
+	private int[] markingOf(final BitSet cut) {
+		final int[] marking = new int[this.net.getPlaceCount()];
+		for (int c = cut.nextSetBit(0); c >= 0; c = cut.nextSetBit(c + 1)) {
+			final int place = this.conditions.get(c).place;
+			if (place < marking.length) {
+				marking[place]++;
+			}
+		}
+		return marking;
+	}
+
+	/**
+	 * @return the events created after {@code last} that are not cut-offs and
+	 *         whose preset is in the cut, in increasing order
+	 */
+	private int[] children(final BitSet cut, final int last) {
+		final List<Integer> children = new ArrayList<>();
+		for (int c = cut.nextSetBit(0); c >= 0; c = cut.nextSetBit(c + 1)) {
+			final Condition condition = this.conditions.get(c);
+			for (int i = 0; i < condition.consumerCount; i++) {
+				final int e = condition.consumers[i];
+				final Event event = this.events.get(e);
+				if (e > last && !event.cutOff && !children.contains(e) && isEnabled(cut, event)) {
+					children.add(e);
+				}
+			}
+		}
+		Collections.sort(children);
+		final int[] result = new int[children.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = children.get(i);
+		}
+		return result;
+	}
+
+	private static boolean isEnabled(final BitSet cut, final Event event) {
+		for (final int b : event.preset) {
+			if (!cut.get(b)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return true if an event is enabled after the cut and none of the events
+	 *         that could still be added consumes its preset: then no
+	 *         configuration reached from this one is a deadlock
+	 */
+	private boolean isPersistentlyEnabled(final BitSet cut, final int last) {
+		for (int c = cut.nextSetBit(0); c >= 0; c = cut.nextSetBit(c + 1)) {
+			final Condition condition = this.conditions.get(c);
+			for (int i = 0; i < condition.consumerCount; i++) {
+				final Event event = this.events.get(condition.consumers[i]);
+				if (isEnabled(cut, event) && !canBeDisabled(event, last)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private boolean canBeDisabled(final Event event, final int last) {
+		for (final int b : event.preset) {
+			final Condition condition = this.conditions.get(b);
+			for (int i = 0; i < condition.consumerCount; i++) {
+				final int consumer = condition.consumers[i];
+				if (consumer > last && !this.events.get(consumer).cutOff) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Result of a search on the prefix.
+	 */
+	public static final class Search {
+		private final Boolean found;
+		private final int[] marking;
+		private final List<AbstractTransition> sequence;
+		private final int visitedConfigurations;
+
+		private Search(final Boolean found, final int[] marking, final List<AbstractTransition> sequence,
+				final int visitedConfigurations) {
+			this.found = found;
+			this.marking = marking;
+			this.sequence = sequence;
+			this.visitedConfigurations = visitedConfigurations;
+		}
+
+		/**
+		 * @return true if a marking was found, false if there is none, null if
+		 *         a limit was reached first
+		 */
+		public Boolean found() {
+			return this.found;
+		}
+
+		/**
+		 * @return the marking found, indexed like the places of the net
+		 */
+		public int[] getMarking() {
+			return this.marking;
+		}
+
+		/**
+		 * @return a firing sequence from the initial marking to the marking
+		 *         found
+		 */
+		public List<AbstractTransition> getSequence() {
+			return this.sequence;
+		}
+
+		public int getVisitedConfigurations() {
+			return this.visitedConfigurations;
+		}
+	}
+}
@@ -0,0 +1,9 @@
+package org.pneditor.petrinet.algorithms;
+
+@SuppressWarnings("serial")
+public class UnsafeNetException extends Exception {
+
+	public UnsafeNetException(final String msg) {
+		super(msg);
+	}
+}
@@ -0,0 +1,95 @@
+package org.pneditor.petrinet.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.pneditor.petrinet.AbstractArc;
+import org.pneditor.petrinet.AbstractNode;
+import org.pneditor.petrinet.AbstractPlace;
+import org.pneditor.petrinet.AbstractTransition;
+import org.pneditor.petrinet.PetriNetInterface;
+import org.pneditor.petrinet.ResetArcMultiplicityException;
+import org.pneditor.petrinet.UnimplementedCaseException;
+
+/**
+ * Builds the generated net through a {@link PetriNetInterface}, so with any
+ * model.
+ */
+public class InterfaceNetBuilder implements NetBuilder {
+
+	private final PetriNetInterface petriNet;
+	private final List<AbstractPlace> places = new ArrayList<>();
+	private final List<AbstractTransition> transitions = new ArrayList<>();
+
+	public InterfaceNetBuilder(final PetriNetInterface petriNet) {
+		this.petriNet = petriNet;
+	}
+
+	public PetriNetInterface getPetriNet() {
+		return this.petriNet;
+	}
+
+	/**
+	 * @return the places, in the order of their indexes
+	 */
+	public List<AbstractPlace> getPlaces() {
+		return this.places;
+	}
+
+	/**
+	 * @return the transitions, in the order of their indexes
+	 */
+	public List<AbstractTransition> getTransitions() {
+		return this.transitions;
+	}
+
+	@Override
+	public int addPlace(final int tokens, final int row, final int column) {
+		final AbstractPlace place = this.petriNet.addAbstractPlace();
+		place.setTokens(tokens);
+		this.places.add(place);
+		return this.places.size() - 1;
+	}
+
+	@Override
+	public int addTransition(final int row, final int column) {
+		this.transitions.add(this.petriNet.addAbstractTransition());
+		return this.transitions.size() - 1;
+	}
+
+	@Override
+	public void addInputArc(final int place, final int transition, final int weight) {
+		connect(this.places.get(place), this.transitions.get(transition), weight);
+	}
+
+	@Override
+	public void addOutputArc(final int transition, final int place, final int weight) {
+		connect(this.transitions.get(transition), this.places.get(place), weight);
+	}
+
+	/**
+	 * Adds a regular arc of the given weight.
+	 *
+	 * @return the new arc
+	 */
+	protected AbstractArc connect(final AbstractNode source, final AbstractNode destination, final int weight) {
+		try {
+			final AbstractArc arc = this.petriNet.addRegArc(source, destination);
+			setWeight(arc, weight);
+			return arc;
+		} catch (UnimplementedCaseException e) {
+			throw new IllegalStateException(e.getMessage(), e);
+		}
+	}
+
+	private static void setWeight(final AbstractArc arc, final int weight) {
+		if (weight != 1) {
+			try {
+				arc.setMultiplicity(weight);
+			} catch (ResetArcMultiplicityException e) {
+				// a regular arc is never a reset arc
+				throw new IllegalStateException(e.getMessage(), e);
+			}
+		}
+	}
+}
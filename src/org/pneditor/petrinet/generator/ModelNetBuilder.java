@@ -0,0 +1,54 @@
+package org.pneditor.petrinet.generator;
+
+import java.util.List;
+
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Place;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Transition;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.PetriNET.IPretriNet;
+
+/**
+ * Builds the generated net directly in a model implementing {@link IPretriNet},
+ * without the adapters.
+ */
+public class ModelNetBuilder implements NetBuilder {
+
+	private final IPretriNet petriNet;
+	private final List<Place> places;
+	private final List<Transition> transitions;
+
+	/**
+	 * @param petriNet a net; the generated nodes get indexes following its
+	 *                 existing ones
+	 */
+	public ModelNetBuilder(final IPretriNet petriNet) {
+		this.petriNet = petriNet;
+		this.places = petriNet.getPlaces();
+		this.transitions = petriNet.getTransitions();
+	}
+
+	public IPretriNet getPetriNet() {
+		return this.petriNet;
+	}
+
+	@Override
+	public int addPlace(final int tokens, final int row, final int column) {
+		this.petriNet.addPlace(tokens);
+		return this.places.size() - 1;
+	}
+
+	@Override
+	public int addTransition(final int row, final int column) {
+		this.petriNet.addTransition();
+		return this.transitions.size() - 1;
+	}
+
+	@Override
+	public void addInputArc(final int place, final int transition, final int weight) {
+		this.petriNet.addEdge(weight, this.places.get(place), this.transitions.get(transition));
+	}
+
+	@Override
+	public void addOutputArc(final int transition, final int place, final int weight) {
+		this.petriNet.addEdge(weight, this.transitions.get(transition), this.places.get(place));
+	}
+}
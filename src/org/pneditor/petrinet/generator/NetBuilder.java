@@ -0,0 +1,33 @@
+package org.pneditor.petrinet.generator;
+
+/**
+ * Receives the nodes and arcs produced by a {@link NetGenerator}.
+ *
+ * <p>Nodes are referred to by their index, in the order of creation, places and
+ * transitions being counted separately. Every node comes with a cell of a grid
+ * suited to its shape, which builders without a layout ignore. Implementations
+ * must add a node or an arc in constant time, so that generating a net stays
+ * linear in its size.</p>
+ */
+public interface NetBuilder {
+
+	/**
+	 * @return the index of the new place
+	 */
+	int addPlace(int tokens, int row, int column);
+
+	/**
+	 * @return the index of the new transition
+	 */
+	int addTransition(int row, int column);
+
+	/**
+	 * Adds a regular arc from a place to a transition.
+	 */
+	void addInputArc(int place, int transition, int weight);
+
+	/**
+	 * Adds a regular arc from a transition to a place.
+	 */
+	void addOutputArc(int transition, int place, int weight);
+}
@@ -0,0 +1,338 @@
+package org.pneditor.petrinet.generator;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic Petri nets of a given shape and size, to benchmark and
+ * load-test the models and the analyses.
+ *
+ * <p>The nets are reproducible: the same seed, shape and parameters always give
+ * the same nodes and arcs in the same order. Generation is linear in the size
+ * of the net and keeps no more than a few integers per node besides what the
+ * {@link NetBuilder} stores, so nets of millions of nodes can be produced.</p>
+ *
+ * <p>Every node is given a cell of a grid following the shape of the net; long
+ * sequences are folded in bands of {@value #WIDTH} cells, every other band
+ * running backwards, so that consecutive nodes stay next to each other.</p>
+ */
+public class NetGenerator {
+
+	/** The number of cells of a band of the layout. */
+	public static final int WIDTH = 64;
+
+	/**
+	 * The shapes of net the generator knows.
+	 */
+	public enum Shape {
+		/** A sequence of transitions, {@link NetGenerator#pipeline}. */
+		PIPELINE,
+		/** Parallel branches, {@link NetGenerator#forkJoin}. */
+		FORK_JOIN,
+		/** One token moving between states, {@link NetGenerator#stateMachine}. */
+		STATE_MACHINE,
+		/** A strongly connected marked graph, {@link NetGenerator#markedGraph}. */
+		MARKED_GRAPH,
+		/** A random net with preferential attachment, {@link NetGenerator#scaleFree}. */
+		SCALE_FREE,
+		/** Processes sharing resources, {@link NetGenerator#resourceSharing}. */
+		MUTEX
+	}
+
+	private final SplittableRandom random;
+
+	public NetGenerator(final long seed) {
+		this.random = new SplittableRandom(seed);
+	}
+
+	/**
+	 * Generates a net of the given shape with about {@code size} transitions,
+	 * the other parameters of the shape having typical values.
+	 */
+	public void generate(final Shape shape, final NetBuilder builder, final int size) {
+		requirePositive("size", size);
+		switch (shape) {
+		case PIPELINE:
+			pipeline(builder, size, 1);
+			break;
+		case FORK_JOIN:
+			forkJoin(builder, Math.max(1, size / 18), 4, 4, 1);
+			break;
+		case STATE_MACHINE:
+			stateMachine(builder, Math.max(1, size / 3), 3, 1);
+			break;
+		case MARKED_GRAPH:
+			markedGraph(builder, size, 2);
+			break;
+		case SCALE_FREE:
+			scaleFree(builder, size, size, 2, 2);
+			break;
+		case MUTEX:
+			resourceSharing(builder, Math.max(1, size / 2), 1, 1);
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown shape " + shape);
+		}
+	}
+
+	/**
+	 * A sequence {@code p0 -> t0 -> p1 -> ... -> t(n-1) -> pn}, with the tokens
+	 * in {@code p0}.
+	 */
+	public void pipeline(final NetBuilder builder, final int stages, final int tokens) {
+		requirePositive("stages", stages);
+		requireNonNegative("tokens", tokens);
+		int previous = builder.addPlace(tokens, row(0, 1), column(0));
+		for (int i = 0; i < stages; i++) {
+			final int transition = builder.addTransition(row(2 * i + 1, 1), column(2 * i + 1));
+			final int next = builder.addPlace(0, row(2 * i + 2, 1), column(2 * i + 2));
+			builder.addInputArc(previous, transition, 1);
+			builder.addOutputArc(transition, next, 1);
+			previous = next;
+		}
+	}
+
+	/**
+	 * A workflow of {@code blocks} consecutive fork/join blocks: a fork
+	 * transition starts {@code branches} parallel sequences of {@code depth}
+	 * transitions, which a join transition waits for. The tokens are in the
+	 * first place; every block has {@code branches * (depth + 1) + 1} places and
+	 * {@code branches * depth + 2} transitions.
+	 */
+	public void forkJoin(final NetBuilder builder, final int blocks, final int branches, final int depth,
+			final int tokens) {
+		requirePositive("blocks", blocks);
+		requirePositive("branches", branches);
+		requirePositive("depth", depth);
+		requireNonNegative("tokens", tokens);
+		final int blockWidth = 2 * depth + 4;
+		final int blocksPerBand = Math.max(1, WIDTH / blockWidth);
+		final int center = branches / 2;
+		int previous = builder.addPlace(tokens, center, 0);
+		final int[] ends = new int[branches];
+		for (int b = 0; b < blocks; b++) {
+			final int top = b / blocksPerBand * (branches + 1);
+			final int left = b % blocksPerBand * blockWidth + 1;
+			final int fork = builder.addTransition(top + center, left);
+			builder.addInputArc(previous, fork, 1);
+			for (int branch = 0; branch < branches; branch++) {
+				int place = builder.addPlace(0, top + branch, left + 1);
+				builder.addOutputArc(fork, place, 1);
+				for (int d = 0; d < depth; d++) {
+					final int transition = builder.addTransition(top + branch, left + 2 + 2 * d);
+					final int next = builder.addPlace(0, top + branch, left + 3 + 2 * d);
+					builder.addInputArc(place, transition, 1);
+					builder.addOutputArc(transition, next, 1);
+					place = next;
+				}
+				ends[branch] = place;
+			}
+			final int join = builder.addTransition(top + center, left + blockWidth - 2);
+			for (final int end : ends) {
+				builder.addInputArc(end, join, 1);
+			}
+			previous = builder.addPlace(0, top + center, left + blockWidth - 1);
+			builder.addOutputArc(join, previous, 1);
+		}
+	}
+
+	/**
+	 * A state machine: every transition has one input and one output place.
+	 * Every state has {@code transitionsPerState} outgoing transitions, the first
+	 * one to the next state so that all the states are reachable, the others to
+	 * random states. The tokens are in the first state.
+	 */
+	public void stateMachine(final NetBuilder builder, final int states, final int transitionsPerState,
+			final int tokens) {
+		requirePositive("states", states);
+		requirePositive("transitionsPerState", transitionsPerState);
+		requireNonNegative("tokens", tokens);
+		final int statesPerBand = Math.max(1, WIDTH / transitionsPerState);
+		final int[] places = new int[states];
+		for (int s = 0; s < states; s++) {
+			places[s] = builder.addPlace(s == 0 ? tokens : 0, s / statesPerBand * 2,
+					s % statesPerBand * transitionsPerState);
+		}
+		for (int s = 0; s < states; s++) {
+			for (int j = 0; j < transitionsPerState; j++) {
+				final int transition = builder.addTransition(s / statesPerBand * 2 + 1,
+						s % statesPerBand * transitionsPerState + j);
+				final int target = j == 0 ? (s + 1) % states : this.random.nextInt(states);
+				builder.addInputArc(places[s], transition, 1);
+				builder.addOutputArc(transition, places[target], 1);
+			}
+		}
+	}
+
+	/**
+	 * A marked graph: every place has one input and one output transition. The
+	 * transitions form a ring, so the net is strongly connected, hence bounded,
+	 * and {@code chords} more places go from every transition to random ones.
+	 * Every cycle holds a token, so the net is live: the places going backwards
+	 * in the ring order have one, the others one or none at random.
+	 */
+	public void markedGraph(final NetBuilder builder, final int transitions, final int chords) {
+		requirePositive("transitions", transitions);
+		requireNonNegative("chords", chords);
+		final int height = chords + 2;
+		final int[] nodes = new int[transitions];
+		for (int i = 0; i < transitions; i++) {
+			nodes[i] = builder.addTransition(row(2 * i, height), column(2 * i));
+		}
+		for (int i = 0; i < transitions; i++) {
+			final int next = (i + 1) % transitions;
+			final int ring = builder.addPlace(next <= i || this.random.nextBoolean() ? 1 : 0,
+					row(2 * i + 1, height), column(2 * i + 1));
+			builder.addOutputArc(nodes[i], ring, 1);
+			builder.addInputArc(ring, nodes[next], 1);
+			for (int c = 0; c < chords; c++) {
+				final int target = this.random.nextInt(transitions);
+				final int chord = builder.addPlace(target <= i || this.random.nextBoolean() ? 1 : 0,
+						row(2 * i, height) + 1 + c, column(2 * i));
+				builder.addOutputArc(nodes[i], chord, 1);
+				builder.addInputArc(chord, nodes[target], 1);
+			}
+		}
+	}
+
+	/**
+	 * A random net whose degrees follow a power law, built by preferential
+	 * attachment: every transition gets {@code arcsPerTransition} input and as
+	 * many output places, each chosen with a probability proportional to the
+	 * number of arcs it already has, plus one. A place is connected at most once
+	 * in each direction to a transition. The places hold from {@code 0} to
+	 * {@code maxTokens} tokens.
+	 */
+	public void scaleFree(final NetBuilder builder, final int places, final int transitions,
+			final int arcsPerTransition, final int maxTokens) {
+		requirePositive("places", places);
+		requirePositive("transitions", transitions);
+		requirePositive("arcsPerTransition", arcsPerTransition);
+		requireNonNegative("maxTokens", maxTokens);
+		final int arcs = Math.min(arcsPerTransition, places);
+		final int[] nodes = new int[places];
+		// every place once, then once more for each of its arcs
+		final int[] endpoints = new int[places + 2 * arcs * transitions];
+		int size = 0;
+		for (int p = 0; p < places; p++) {
+			nodes[p] = builder.addPlace(this.random.nextInt(maxTokens + 1), row(p, 1), column(p));
+			endpoints[size++] = p;
+		}
+		final int bandsOfPlaces = (places + WIDTH - 1) / WIDTH;
+		final int[] chosen = new int[arcs];
+		for (int t = 0; t < transitions; t++) {
+			final int transition = builder.addTransition(row(t, 1) + bandsOfPlaces, column(t));
+			final int available = size;
+			for (int direction = 0; direction < 2; direction++) {
+				for (int a = 0; a < arcs; a++) {
+					final int place = pickDistinct(endpoints, available, places, chosen, a);
+					chosen[a] = place;
+					endpoints[size++] = place;
+					if (direction == 0) {
+						builder.addInputArc(nodes[place], transition, 1);
+					} else {
+						builder.addOutputArc(transition, nodes[place], 1);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * {@code processes} cyclic processes sharing {@code resourceTypes} resource
+	 * places of {@code resourcesPerType} tokens each. A process goes from idle to
+	 * critical by taking a resource of type {@code i mod resourceTypes}, and of
+	 * the next type too when there are several, all at once, and gives them
+	 * back. One resource type with one token is a mutual exclusion; as many
+	 * types as processes are the dining philosophers.
+	 */
+	public void resourceSharing(final NetBuilder builder, final int processes, final int resourceTypes,
+			final int resourcesPerType) {
+		requirePositive("processes", processes);
+		requirePositive("resourceTypes", resourceTypes);
+		requireNonNegative("resourcesPerType", resourcesPerType);
+		final int[] resources = new int[resourceTypes];
+		for (int r = 0; r < resourceTypes; r++) {
+			resources[r] = builder.addPlace(resourcesPerType, r / WIDTH, r % WIDTH);
+		}
+		final int top = (resourceTypes + WIDTH - 1) / WIDTH;
+		for (int i = 0; i < processes; i++) {
+			final int first = top + i / WIDTH * 5;
+			final int column = i % WIDTH;
+			final int idle = builder.addPlace(1, first, column);
+			final int acquire = builder.addTransition(first + 1, column);
+			final int critical = builder.addPlace(0, first + 2, column);
+			final int release = builder.addTransition(first + 3, column);
+			builder.addInputArc(idle, acquire, 1);
+			builder.addOutputArc(acquire, critical, 1);
+			builder.addInputArc(critical, release, 1);
+			builder.addOutputArc(release, idle, 1);
+			final int resource = resources[i % resourceTypes];
+			builder.addInputArc(resource, acquire, 1);
+			builder.addOutputArc(release, resource, 1);
+			if (resourceTypes > 1) {
+				final int other = resources[(i + 1) % resourceTypes];
+				builder.addInputArc(other, acquire, 1);
+				builder.addOutputArc(release, other, 1);
+			}
+		}
+	}
+
+	/**
+	 * Picks a place from the first {@code size} endpoints, not among the
+	 * {@code count} first chosen ones. After a few collisions the place is picked
+	 * uniformly instead, then the next free one is taken, so the cost stays
+	 * bounded by the number of arcs per transition.
+	 */
+	private int pickDistinct(final int[] endpoints, final int size, final int places, final int[] chosen,
+			final int count) {
+		for (int attempt = 0; attempt < 8; attempt++) {
+			final int place = endpoints[this.random.nextInt(size)];
+			if (!contains(chosen, count, place)) {
+				return place;
+			}
+		}
+		int place = this.random.nextInt(places);
+		while (contains(chosen, count, place)) {
+			place = place + 1 == places ? 0 : place + 1;
+		}
+		return place;
+	}
+
+	private static boolean contains(final int[] values, final int count, final int value) {
+		for (int i = 0; i < count; i++) {
+			if (values[i] == value) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the row of the {@code k}-th cell of a sequence folded in bands of
+	 *         {@code height} rows
+	 */
+	private static int row(final int k, final int height) {
+		return k / WIDTH * height;
+	}
+
+	/**
+	 * @return the column of the {@code k}-th cell of a sequence, every other
+	 *         band running backwards
+	 */
+	private static int column(final int k) {
+		final int offset = k % WIDTH;
+		return k / WIDTH % 2 == 0 ? offset : WIDTH - 1 - offset;
+	}
+
+	private static void requirePositive(final String name, final int value) {
+		if (value < 1) {
+			throw new IllegalArgumentException("Invalid " + name + " " + value + ", must be positive");
+		}
+	}
+
+	private static void requireNonNegative(final String name, final int value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("Invalid " + name + " " + value + ", must not be negative");
+		}
+	}
+}
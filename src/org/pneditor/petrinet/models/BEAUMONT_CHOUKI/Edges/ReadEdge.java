@@ -0,0 +1,94 @@
+package org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges;
+
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Place;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Transition;
+
+/**
+ * Represents a read (test) edge: an incoming edge that requires tokens in its origin
+ * {@link Place} without consuming them.
+ * <p>
+ * {@code ReadEdge} extends {@link EdgeIn} and can only be activated if its origin place
+ * contains at least as many tokens as its weight, like a {@link WeightedEdgeIn}, but its
+ * activation leaves the place unchanged. Several transitions reading the same place are
+ * therefore not in conflict: drawing one of them never disables the others.
+ * </p>
+ */
+public class ReadEdge extends EdgeIn {
+
+    private int weight;
+
+    /**
+     * Creates a new {@code ReadEdge} connecting a {@link Place} to a {@link Transition}
+     * with the specified weight.
+     *
+     * @param origin  the origin {@link Place} of the edge
+     * @param arrival the arrival {@link Transition} of the edge
+     * @param weight  the number of tokens required (must be non-negative)
+     * @throws IllegalArgumentException if {@code weight} is negative
+     */
+    public ReadEdge(Place origin, Transition arrival, int weight) throws IllegalArgumentException {
+        super(origin, arrival);
+        if (weight < 0) {
+            throw new IllegalArgumentException(String.format(
+                "ReadEdge(%d) -- The argument weight (%d) can't be negative", weight, weight));
+        }
+        this.setWeight(weight);
+    }
+
+    /**
+     * Creates a new unconnected {@code ReadEdge} with the specified weight.
+     *
+     * @param weight the number of tokens required (must be non-negative)
+     * @throws IllegalArgumentException if {@code weight} is negative
+     */
+    public ReadEdge(int weight) throws IllegalArgumentException {
+        super();
+        if (weight < 0) {
+            throw new IllegalArgumentException(String.format(
+                "ReadEdge(%d) -- The argument weight (%d) can't be negative", weight, weight));
+        }
+        this.setWeight(weight);
+    }
+
+    /**
+     * Determines whether this edge can be activated.
+     * <p>
+     * A {@code ReadEdge} is activable if its origin {@link Place} contains at least as
+     * many tokens as its weight.
+     * </p>
+     *
+     * @return {@code true} if the edge can be activated; {@code false} otherwise
+     */
+    public boolean isActivable() {
+        Place originPlace = this.getOrigin();
+        return originPlace.getNbTokens() >= this.getWeight();
+    }
+
+    /**
+     * Activates this edge.
+     * <p>
+     * For {@code ReadEdge}, this method performs no operation: the tokens are only read.
+     * </p>
+     */
+    public void activate() {
+        // No action required
+    }
+
+    /**
+     * Returns the weight of this edge.
+     *
+     * @return the weight
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * Sets the weight of this edge.
+     *
+     * @param weight the weight to set
+     */
+    public void setWeight(int weight) {
+        this.weight = weight;
+    }
+}
@@ -14,4 +14,25 @@ public class Node {
  * must provide specific implementations.
  * </p>
  */
+
+    private Object attachment;
+
+    /**
+     * Returns the object attached to this node.
+     *
+     * @return the attached object, or {@code null} if there is none
+     */
+    public Object getAttachment() {
+        return this.attachment;
+    }
+
+    /**
+     * Attaches an object to this node, such as the object representing it outside of
+     * the model, so that it can be found from the node without a lookup.
+     *
+     * @param attachment the object to attach, or {@code null} to detach the current one
+     */
+    public void setAttachment(Object attachment) {
+        this.attachment = attachment;
+    }
 }
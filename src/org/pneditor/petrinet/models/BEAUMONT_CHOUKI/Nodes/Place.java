@@ -4,12 +4,19 @@ package org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes;
  * Represents a place in a Petri net, used to store and manage tokens.
  * <p>
  * A {@code Place} holds a non-negative number of tokens and provides
- * methods to add or remove tokens safely.
+ * methods to add or remove tokens safely. A place may have a capacity, the
+ * largest number of tokens it can hold; by default it is {@link #UNLIMITED}.
  * </p>
  */
 public class Place extends Node {
 
+    /**
+     * The capacity of a place without capacity.
+     */
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
     private int nbTokens;
+    private int capacity = UNLIMITED;
 
     /**
      * Creates a new {@code Place} with zero tokens.
@@ -62,13 +69,18 @@ public class Place extends Node {
      * Adds a specified number of tokens to this place.
      *
      * @param amount the number of tokens to add
-     * @throws IllegalArgumentException if {@code amount} is negative
+     * @throws IllegalArgumentException if {@code amount} is negative or would exceed the capacity
      */
     public void addTokens(int amount) {
         if (amount < 0) {
             throw new IllegalArgumentException(String.format(
                 "Place.addTokens(%d) -- The argument amount (%d) is negative", amount, amount));
         }
+        if (amount > this.capacity - this.nbTokens) {
+            throw new IllegalArgumentException(String.format(
+                "Place.addTokens(%d) -- Adding %d tokens to %d exceeds the capacity (%d)",
+                amount, amount, this.nbTokens, this.capacity));
+        }
 
         this.nbTokens += amount;
     }
@@ -86,8 +98,47 @@ public class Place extends Node {
      * Sets the number of tokens in this place.
      *
      * @param nbTokens the number of tokens to set
+     * @throws IllegalArgumentException if {@code nbTokens} exceeds the capacity
      */
-    public void setNbTokens(int nbTokens) {
+    public void setNbTokens(int nbTokens) throws IllegalArgumentException {
+        if (nbTokens > this.capacity) {
+            throw new IllegalArgumentException(String.format(
+                "Place.setNbTokens(%d) -- The argument nbTokens (%d) exceeds the capacity (%d)",
+                nbTokens, nbTokens, this.capacity));
+        }
         this.nbTokens = nbTokens;
     }
+
+    /**
+     * Returns the capacity of this place, the largest number of tokens it can hold.
+     *
+     * @return the capacity, {@link #UNLIMITED} by default
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Tells whether this place has a capacity.
+     *
+     * @return {@code false} if the capacity is {@link #UNLIMITED}
+     */
+    public boolean isBounded() {
+        return capacity != UNLIMITED;
+    }
+
+    /**
+     * Sets the capacity of this place.
+     *
+     * @param capacity the capacity to set, {@link #UNLIMITED} to remove it
+     * @throws IllegalArgumentException if {@code capacity} is negative or below the current number of tokens
+     */
+    public void setCapacity(int capacity) throws IllegalArgumentException {
+        if (capacity < 0 || capacity < this.nbTokens) {
+            throw new IllegalArgumentException(String.format(
+                "Place.setCapacity(%d) -- The argument capacity (%d) can't be negative or below nbTokens (%d)",
+                capacity, capacity, this.nbTokens));
+        }
+        this.capacity = capacity;
+    }
 }
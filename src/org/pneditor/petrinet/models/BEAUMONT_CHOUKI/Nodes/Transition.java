@@ -5,8 +5,11 @@ import java.util.Iterator;
 import java.util.List;
 
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.Edge;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeEmpty;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeIn;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeOut;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.WeightedEdgeIn;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.WeightedEdgeOut;
 
 /**
  * Represents a transition in a Petri net, responsible for moving tokens
@@ -16,6 +19,10 @@ public class Transition extends Node {
 
     private List<EdgeIn> edgesIn;
     private List<EdgeOut> edgesOut;
+    private double weight = 1.0;
+    private int priority = 0;
+    private long minDelay = 0;
+    private long maxDelay = 0;
 
     /**
      * Creates a new {@code Transition} with empty input and output edge lists.
@@ -29,7 +36,8 @@ public class Transition extends Node {
     /**
      * Determines whether this transition can be drawn (activated).
      * <p>
-     * A transition can be drawn if all its incoming edges are activable.
+     * A transition can be drawn if all its incoming edges are activable and drawing it
+     * leaves every output place within its capacity ({@link Place#getCapacity()}).
      * </p>
      *
      * @return {@code true} if the transition can be drawn; {@code false} otherwise
@@ -46,9 +54,48 @@ public class Transition extends Node {
                 return false;
             }
         }
+
+        // An output place without capacity costs a single comparison
+        for (EdgeOut edge : this.getEdgesOut()) {
+            Place arrival = edge.getArrival();
+            if (arrival.isBounded() && this.tokensAfterDraw(arrival) > arrival.getCapacity()) {
+                return false;
+            }
+        }
         return true;
     }
 
+    /**
+     * Computes the number of tokens a place would hold after this transition is drawn,
+     * assuming its incoming edges are activable. The incoming edges are activated before
+     * the outgoing ones, so a place emptied by an {@link EdgeEmpty} still receives the
+     * tokens produced.
+     *
+     * @param place the place
+     * @return the number of tokens after drawing
+     */
+    private long tokensAfterDraw(Place place) {
+        long tokens = place.getNbTokens();
+        for (EdgeIn edge : this.getEdgesIn()) {
+            if (edge.getOrigin() != place) {
+                continue;
+            }
+            if (edge instanceof EdgeEmpty) {
+                tokens = 0;
+                break;
+            }
+            if (edge instanceof WeightedEdgeIn) {
+                tokens -= ((WeightedEdgeIn) edge).getWeight();
+            }
+        }
+        for (EdgeOut edge : this.getEdgesOut()) {
+            if (edge.getArrival() == place) {
+                tokens += ((WeightedEdgeOut) edge).getWeight();
+            }
+        }
+        return tokens;
+    }
+
     /**
      * Draws (activates) the transition.
      * <p>
@@ -143,4 +190,101 @@ public class Transition extends Node {
     public void setEdgesOut(List<EdgeOut> edgesOut) {
         this.edgesOut = edgesOut;
     }
+
+    /**
+     * Returns the selection weight of this transition.
+     * <p>
+     * During a simulation, a transition is drawn among the drawable transitions of the
+     * highest priority with a probability proportional to its weight.
+     * </p>
+     *
+     * @return the weight, {@code 1.0} by default
+     */
+    public double getWeight() {
+        return weight;
+    }
+
+    /**
+     * Sets the selection weight of this transition.
+     *
+     * @param weight the weight to set (must be positive and finite)
+     * @throws IllegalArgumentException if {@code weight} is not positive and finite
+     */
+    public void setWeight(double weight) throws IllegalArgumentException {
+        if (!(weight > 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException(String.format(
+                "Transition.setWeight(%s) -- The argument weight (%s) must be positive and finite", weight, weight));
+        }
+        this.weight = weight;
+    }
+
+    /**
+     * Returns the priority of this transition.
+     * <p>
+     * During a simulation, a transition is only drawn if no drawable transition has a
+     * higher priority.
+     * </p>
+     *
+     * @return the priority, {@code 0} by default
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Sets the priority of this transition.
+     *
+     * @param priority the priority to set
+     */
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Returns the smallest firing delay of this transition.
+     * <p>
+     * In a timed simulation, a transition fires once it has been drawable for a delay
+     * drawn uniformly between {@link #getMinDelay()} and {@link #getMaxDelay()}.
+     * </p>
+     *
+     * @return the smallest delay, {@code 0} by default
+     */
+    public long getMinDelay() {
+        return minDelay;
+    }
+
+    /**
+     * Returns the largest firing delay of this transition.
+     *
+     * @return the largest delay, {@code 0} by default
+     */
+    public long getMaxDelay() {
+        return maxDelay;
+    }
+
+    /**
+     * Sets a deterministic firing delay.
+     *
+     * @param delay the delay (must be non-negative)
+     * @throws IllegalArgumentException if {@code delay} is negative
+     */
+    public void setDelay(long delay) throws IllegalArgumentException {
+        this.setDelay(delay, delay);
+    }
+
+    /**
+     * Sets an interval of firing delays.
+     *
+     * @param minDelay the smallest delay (must be non-negative)
+     * @param maxDelay the largest delay (must be at least {@code minDelay})
+     * @throws IllegalArgumentException if the interval is empty or negative
+     */
+    public void setDelay(long minDelay, long maxDelay) throws IllegalArgumentException {
+        if (minDelay < 0 || maxDelay < minDelay || maxDelay == Long.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format(
+                "Transition.setDelay(%d, %d) -- The interval of delays is invalid", minDelay, maxDelay));
+        }
+        this.minDelay = minDelay;
+        this.maxDelay = maxDelay;
+    }
 }
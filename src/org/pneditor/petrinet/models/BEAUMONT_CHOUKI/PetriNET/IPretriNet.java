@@ -5,6 +5,7 @@ import java.util.List;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.Edge;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Place;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Transition;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Simulation.FiringObserver;
 
 /**
  * Defines the contract for a Petri net simulation.
@@ -64,6 +65,16 @@ public interface IPretriNet {
      */
     void addEdgeZero(Place origin, Transition arrival);
 
+    /**
+     * Adds a read (test) edge from a place to a transition, requiring tokens without
+     * consuming them.
+     *
+     * @param weight  the number of tokens required
+     * @param origin  the origin place
+     * @param arrival the destination transition
+     */
+    void addReadEdge(int weight, Place origin, Transition arrival);
+
     /**
      * Adds a new {@link Transition} to the Petri net.
      */
@@ -77,7 +88,7 @@ public interface IPretriNet {
     void removePlace(Place place);
 
     /**
-     * Removes an {@link Edge} from the Petri net.
+     * Removes an {@link Edge} from the Petri net and from its transition.
      *
      * @param edge the edge to remove.
      */
@@ -106,6 +117,20 @@ public interface IPretriNet {
      */
     void setWeight(Edge edge, int weight);
 
+    /**
+     * Returns the {@link Place}s of the Petri net, in the order they were added.
+     *
+     * @return the list of places.
+     */
+    List<Place> getPlaces();
+
+    /**
+     * Returns the {@link Transition}s of the Petri net, in the order they were added.
+     *
+     * @return the list of transitions.
+     */
+    List<Transition> getTransitions();
+
     /**
      * Returns the list of {@link Transition}s that can currently fire.
      *
@@ -119,4 +144,18 @@ public interface IPretriNet {
      * @param steps the number of simulation steps to execute.
      */
     void launchSimulation(int steps);
+
+    /**
+     * Attaches an observer called after every {@link #stepSimulation(Transition)}.
+     *
+     * @param observer the observer, or {@code null} to detach the current one
+     */
+    void setFiringObserver(FiringObserver observer);
+
+    /**
+     * Returns the observer attached to this net.
+     *
+     * @return the observer, or {@code null} if none is attached
+     */
+    FiringObserver getFiringObserver();
 }
@@ -1,5 +1,8 @@
 package org.pneditor.petrinet.models.BEAUMONT_CHOUKI.PetriNET;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -11,11 +14,16 @@ import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeEmpty;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeIn;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeOut;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeZero;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.ReadEdge;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.WeightedEdgeIn;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.WeightedEdgeOut;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Node;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Place;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Transition;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Simulation.CheckpointedSimulation;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Simulation.FiringObserver;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Simulation.SimulationStatistics;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Simulation.TransitionSampler;
 
 
 /**
@@ -42,6 +50,7 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
     private List<Edge> edges;
     private List<Place> places;
     private List<Transition> transitions;
+    private FiringObserver firingObserver;
 
     /**
      * Constructs an empty Petri net.
@@ -67,12 +76,54 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
     public void stepSimulation(Transition transition) throws IllegalArgumentException {
         if (transition.isDrawable()) {
             transition.draw();
+            if (this.firingObserver != null) {
+                this.firingObserver.fired(transition);
+            }
         } else {
             throw new IllegalArgumentException(
                 "PetriNet.stepSimulation(transition) -- The argument transition can't be drawn.");
         }
     }
 
+    /**
+     * Attaches an observer called after every {@link #stepSimulation(Transition)}, such as
+     * a {@link SimulationStatistics}. Copies of the net do not share it.
+     *
+     * @param observer the observer, or {@code null} to detach the current one
+     */
+    public void setFiringObserver(FiringObserver observer) {
+        this.firingObserver = observer;
+    }
+
+    /**
+     * Returns the observer attached to this net.
+     *
+     * @return the observer, or {@code null} if none is attached
+     */
+    public FiringObserver getFiringObserver() {
+        return this.firingObserver;
+    }
+
+    /**
+     * Makes room for that many more places, transitions and edges, when the lists of the net
+     * can grow in advance, so that adding many elements does not copy the lists again and again.
+     *
+     * @param places the number of places to be added
+     * @param transitions the number of transitions to be added
+     * @param edges the number of edges to be added
+     */
+    public void ensureCapacity(int places, int transitions, int edges) {
+        if (this.places instanceof ArrayList) {
+            ((ArrayList<Place>) this.places).ensureCapacity(this.places.size() + places);
+        }
+        if (this.transitions instanceof ArrayList) {
+            ((ArrayList<Transition>) this.transitions).ensureCapacity(this.transitions.size() + transitions);
+        }
+        if (this.edges instanceof ArrayList) {
+            ((ArrayList<Edge>) this.edges).ensureCapacity(this.edges.size() + edges);
+        }
+    }
+
     /**
      * Adds a new place with the specified number of tokens.
      *
@@ -165,6 +216,19 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
         this.edges.add(edge);
     }
 
+    /**
+     * Adds a read (test) edge from a place to a transition, requiring {@code weight}
+     * tokens without consuming them.
+     *
+     * @param weight  the number of tokens required
+     * @param origin  the origin place
+     * @param arrival the destination transition
+     */
+    public void addReadEdge(int weight, Place origin, Transition arrival) {
+        ReadEdge edge = new ReadEdge(origin, arrival, weight);
+        this.edges.add(edge);
+    }
+
     /**
      * Adds a new transition to the Petri net.
      */
@@ -183,12 +247,18 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
     }
 
     /**
-     * Removes the specified edge from the Petri net.
+     * Removes the specified edge from the Petri net, and from the edges of its transition
+     * so that it no longer takes part in the simulation.
      *
      * @param edge the edge to remove
      */
     public void removeEdge(Edge edge) {
         this.edges.remove(edge);
+        if (edge instanceof EdgeIn) {
+            ((EdgeIn) edge).getArrival().removeEdgeIn((EdgeIn) edge);
+        } else if (edge instanceof EdgeOut) {
+            ((EdgeOut) edge).getOrigin().removeEdgeOut((EdgeOut) edge);
+        }
     }
 
     /**
@@ -215,7 +285,8 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
      *
      * @param edge   the edge to modify
      * @param weight the new weight
-     * @throws IllegalArgumentException if the edge is not a {@link WeightedEdgeIn} or {@link WeightedEdgeOut}
+     * @throws IllegalArgumentException if the edge is not a {@link WeightedEdgeIn}, {@link WeightedEdgeOut}
+     *                                  or {@link ReadEdge}
      */
     public void setWeight(Edge edge, int weight) throws IllegalArgumentException {
         if (edge instanceof WeightedEdgeIn) {
@@ -224,6 +295,8 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
         } else if (edge instanceof WeightedEdgeOut) {
             WeightedEdgeOut weightedEdge = (WeightedEdgeOut) edge;
             this.setWeight(weightedEdge, weight);
+        } else if (edge instanceof ReadEdge) {
+            ((ReadEdge) edge).setWeight(weight);
         } else {
             throw new IllegalArgumentException(String.format(
                 "PetriNet.setWeight(edge, %d) -- The argument edge (%s) is not a weighted edge.",
@@ -329,7 +402,9 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
 
     /**
      * Executes a simulation for a specified number of steps.
-     * <p>At each step, a random drawable transition is selected and drawn.</p>
+     * <p>At each step, a drawable transition is selected at random and drawn. Only the
+     * transitions of the highest priority among the drawable ones can be selected, with a
+     * probability proportional to their weight (see {@link TransitionSampler}).</p>
      *
      * @param steps the number of steps to simulate
      */
@@ -337,23 +412,108 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
         if (!isValid()) {
             throw new IllegalStateException("PetriNet.launchSimulation(steps) -- The Petri net is not valid.");
         }
+        TransitionSampler sampler = new TransitionSampler(this.transitions);
+        Random random = new Random();
         for (int i = 0; i < steps; ++i) {
-            // Get every drawable transition
-            List<Transition> drawable = this.drawable();
+            // Select a drawable transition at random, following priorities and weights
+            Transition randomTransition = sampler.sample(random.nextDouble());
 
             // If no transition can be fired, stop the simulation
-            if (drawable.isEmpty()) {
+            if (randomTransition == null) {
                 System.out.println("No drawable transitions available. Stopping simulation.");
                 return;
             }
 
-            // Select a drawable transition at random
-            Random random = new Random();
-            Transition randomTransition = drawable.get(random.nextInt(drawable.size()));
-
-            // Step the simulation
+            // Step the simulation, then re-test only the transitions it may have changed
             this.stepSimulation(randomTransition);
+            sampler.update(randomTransition);
+        }
+    }
+
+    /**
+     * Executes a simulation of {@code steps} steps that can survive a stop of the JVM.
+     * <p>Transitions are drawn as in {@link #launchSimulation(int)}, and the state of the
+     * simulation is saved to {@code checkpoint} every {@code checkpointInterval} steps and at
+     * the end (see {@link CheckpointedSimulation}). If {@code checkpoint} already exists, the
+     * simulation resumes from it instead of starting from the current marking, and ends at
+     * the same marking as an uninterrupted run with the same seed and interval.</p>
+     *
+     * @param steps              the total number of steps to simulate
+     * @param seed               the seed of the simulation, ignored when resuming
+     * @param checkpoint         the checkpoint file
+     * @param checkpointInterval the number of steps between two checkpoints
+     * @return the simulation, holding the statistics of the run; if no transition was
+     *         drawable before the end, its {@link CheckpointedSimulation#getStep()} is below
+     *         {@code steps} and {@link CheckpointedSimulation#hasDrawable()} is {@code false}
+     * @throws IOException if the checkpoint cannot be read or written
+     */
+    public CheckpointedSimulation launchSimulation(long steps, long seed, Path checkpoint, long checkpointInterval)
+            throws IOException {
+        if (!isValid()) {
+            throw new IllegalStateException("PetriNet.launchSimulation(steps, seed, checkpoint, checkpointInterval) -- The Petri net is not valid.");
+        }
+        CheckpointedSimulation simulation = Files.exists(checkpoint)
+            ? CheckpointedSimulation.resume(this, checkpoint)
+            : new CheckpointedSimulation(this, seed);
+        simulation.run(steps, checkpoint, checkpointInterval);
+        return simulation;
+    }
+
+    /**
+     * Creates an independent copy of this Petri net, with the same token counts.
+     * <p>Places and transitions keep their positions in {@link #getPlaces()} and
+     * {@link #getTransitions()}, so an index valid for this net is valid for the copy.
+     * Edges are rebuilt from the edges attached to each transition, which are the ones
+     * {@link Transition#isDrawable()} and {@link Transition#draw()} actually use.</p>
+     *
+     * <p>Copies are meant to be simulated concurrently, one per thread, since the
+     * token counts live in the {@link Place} objects.</p>
+     *
+     * @return a new Petri net behaving like this one
+     * @throws IllegalStateException if an edge is connected to a place that is not part of the net
+     */
+    public PetriNet1 copy() throws IllegalStateException {
+        PetriNet1 copy = new PetriNet1();
+        java.util.Map<Place, Place> placeCopies = new java.util.HashMap<>();
+        for (Place place : this.places) {
+            copy.addPlace(place.getNbTokens());
+            Place placeCopy = copy.places.get(copy.places.size() - 1);
+            placeCopy.setCapacity(place.getCapacity());
+            placeCopies.put(place, placeCopy);
+        }
+        for (Transition transition : this.transitions) {
+            copy.addTransition();
+            Transition transitionCopy = copy.transitions.get(copy.transitions.size() - 1);
+            transitionCopy.setWeight(transition.getWeight());
+            transitionCopy.setPriority(transition.getPriority());
+            transitionCopy.setDelay(transition.getMinDelay(), transition.getMaxDelay());
+
+            for (EdgeIn edge : transition.getEdgesIn()) {
+                Place origin = placeCopies.get(edge.getOrigin());
+                if (origin == null) {
+                    throw new IllegalStateException(
+                        "PetriNet.copy() -- An edge comes from a place that is not in the Petri net.");
+                }
+                if (edge instanceof WeightedEdgeIn) {
+                    copy.addEdge(((WeightedEdgeIn) edge).getWeight(), origin, transitionCopy);
+                } else if (edge instanceof ReadEdge) {
+                    copy.addReadEdge(((ReadEdge) edge).getWeight(), origin, transitionCopy);
+                } else if (edge instanceof EdgeEmpty) {
+                    copy.addEdgeEmpty(origin, transitionCopy);
+                } else {
+                    copy.addEdgeZero(origin, transitionCopy);
+                }
+            }
+            for (EdgeOut edge : transition.getEdgesOut()) {
+                Place arrival = placeCopies.get(edge.getArrival());
+                if (arrival == null) {
+                    throw new IllegalStateException(
+                        "PetriNet.copy() -- An edge goes to a place that is not in the Petri net.");
+                }
+                copy.addEdge(((WeightedEdgeOut) edge).getWeight(), transitionCopy, arrival);
+            }
         }
+        return copy;
     }
 
     /**
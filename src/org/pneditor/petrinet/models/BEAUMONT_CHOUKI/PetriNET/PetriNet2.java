@@ -10,10 +10,14 @@ import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeEmpty;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeIn;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeOut;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeZero;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.ReadEdge;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.WeightedEdgeIn;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.WeightedEdgeOut;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Place;
 import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Transition;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Simulation.FiringObserver;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Simulation.SimulationStatistics;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Simulation.TransitionSampler;
 
 /**
  * Represents a Petri net system composed of places, transitions, and edges.
@@ -39,6 +43,7 @@ public class PetriNet2 implements IPretriNet { //This version prevent users to a
     private List<Edge> edges;
     private List<Place> places;
     private List<Transition> transitions;
+    private FiringObserver firingObserver;
 
     /**
      * Constructs an empty Petri net.
@@ -64,12 +69,34 @@ public class PetriNet2 implements IPretriNet { //This version prevent users to a
     public void stepSimulation(Transition transition) throws IllegalArgumentException {
         if (transition.isDrawable()) {
             transition.draw();
+            if (this.firingObserver != null) {
+                this.firingObserver.fired(transition);
+            }
         } else {
             throw new IllegalArgumentException(
                 "PetriNet.stepSimulation(transition) -- The argument transition can't be drawn.");
         }
     }
 
+    /**
+     * Attaches an observer called after every {@link #stepSimulation(Transition)}, such as
+     * a {@link SimulationStatistics}. Copies of the net do not share it.
+     *
+     * @param observer the observer, or {@code null} to detach the current one
+     */
+    public void setFiringObserver(FiringObserver observer) {
+        this.firingObserver = observer;
+    }
+
+    /**
+     * Returns the observer attached to this net.
+     *
+     * @return the observer, or {@code null} if none is attached
+     */
+    public FiringObserver getFiringObserver() {
+        return this.firingObserver;
+    }
+
     /**
      * Adds a new place with the specified number of tokens.
      *
@@ -198,6 +225,26 @@ public class PetriNet2 implements IPretriNet { //This version prevent users to a
         this.edges.add(edge);
     }
 
+    /**
+     * Adds a read (test) edge from a place to a transition, requiring {@code weight}
+     * tokens without consuming them.
+     *
+     * @param weight  the number of tokens required
+     * @param origin  the origin place
+     * @param arrival the destination transition
+     */
+    public void addReadEdge(int weight, Place origin, Transition arrival) {
+
+        if (this.edgeInExists(origin, arrival)) {
+            throw new IllegalArgumentException(
+                "An input edge from this place to this transition already exists."
+            );
+        }
+
+        ReadEdge edge = new ReadEdge(origin, arrival, weight);
+        this.edges.add(edge);
+    }
+
         /**
      * Removes the specified place from the Petri net.
      *
@@ -208,12 +255,18 @@ public class PetriNet2 implements IPretriNet { //This version prevent users to a
     }
 
     /**
-     * Removes the specified edge from the Petri net.
+     * Removes the specified edge from the Petri net, and from the edges of its transition
+     * so that it no longer takes part in the simulation.
      *
      * @param edge the edge to remove
      */
     public void removeEdge(Edge edge) {
         this.edges.remove(edge);
+        if (edge instanceof EdgeIn) {
+            ((EdgeIn) edge).getArrival().removeEdgeIn((EdgeIn) edge);
+        } else if (edge instanceof EdgeOut) {
+            ((EdgeOut) edge).getOrigin().removeEdgeOut((EdgeOut) edge);
+        }
     }
 
     /**
@@ -240,7 +293,8 @@ public class PetriNet2 implements IPretriNet { //This version prevent users to a
      *
      * @param edge   the edge to modify
      * @param weight the new weight
-     * @throws IllegalArgumentException if the edge is not a {@link WeightedEdgeIn} or {@link WeightedEdgeOut}
+     * @throws IllegalArgumentException if the edge is not a {@link WeightedEdgeIn}, {@link WeightedEdgeOut}
+     *                                  or {@link ReadEdge}
      */
     public void setWeight(Edge edge, int weight) throws IllegalArgumentException {
         if (edge instanceof WeightedEdgeIn) {
@@ -249,6 +303,8 @@ public class PetriNet2 implements IPretriNet { //This version prevent users to a
         } else if (edge instanceof WeightedEdgeOut) {
             WeightedEdgeOut weightedEdge = (WeightedEdgeOut) edge;
             this.setWeight(weightedEdge, weight);
+        } else if (edge instanceof ReadEdge) {
+            ((ReadEdge) edge).setWeight(weight);
         } else {
             throw new IllegalArgumentException(String.format(
                 "PetriNet.setWeight(edge, %d) -- The argument edge (%s) is not a weighted edge.",
@@ -349,7 +405,9 @@ public class PetriNet2 implements IPretriNet { //This version prevent users to a
 
     /**
      * Executes a simulation for a specified number of steps.
-     * <p>At each step, a random drawable transition is selected and drawn.</p>
+     * <p>At each step, a drawable transition is selected at random and drawn. Only the
+     * transitions of the highest priority among the drawable ones can be selected, with a
+     * probability proportional to their weight (see {@link TransitionSampler}).</p>
      *
      * @param steps the number of steps to simulate
      */
@@ -357,22 +415,21 @@ public class PetriNet2 implements IPretriNet { //This version prevent users to a
         if (!isValid()) {
             throw new IllegalStateException("PetriNet.launchSimulation(steps) -- The Petri net is not valid.");
         }
+        TransitionSampler sampler = new TransitionSampler(this.transitions);
+        Random random = new Random();
         for (int i = 0; i < steps; ++i) {
-            // Get every drawable transition
-            List<Transition> drawable = this.drawable();
+            // Select a drawable transition at random, following priorities and weights
+            Transition randomTransition = sampler.sample(random.nextDouble());
 
             // If no transition can be fired, stop the simulation
-            if (drawable.isEmpty()) {
+            if (randomTransition == null) {
                 System.out.println("No drawable transitions available. Stopping simulation.");
                 return;
             }
 
-            // Select a drawable transition at random
-            Random random = new Random();
-            Transition randomTransition = drawable.get(random.nextInt(drawable.size()));
-
-            // Step the simulation
+            // Step the simulation, then re-test only the transitions it may have changed
             this.stepSimulation(randomTransition);
+            sampler.update(randomTransition);
         }
     }
 
@@ -382,6 +439,15 @@ public class PetriNet2 implements IPretriNet { //This version prevent users to a
      * @return true if an edge exists, false otherwise
      */
     private boolean edgeInExists(Place origin, Transition arrival) {
+        if (arrival != null) {
+            // The transition knows its edges: no need to scan the whole net
+            for (EdgeIn edgeIn : arrival.getEdgesIn()) {
+                if (edgeIn.getOrigin() == origin) {
+                    return true;
+                }
+            }
+            return false;
+        }
         for (Edge e : this.edges) {
             if (e instanceof EdgeIn) {
                 EdgeIn edgeIn = (EdgeIn) e;  
@@ -399,6 +465,14 @@ public class PetriNet2 implements IPretriNet { //This version prevent users to a
      * @return true if an edge exists, false otherwise
      */
     private boolean edgeOutExists(Transition origin, Place arrival) {
+        if (origin != null) {
+            for (EdgeOut edgeOut : origin.getEdgesOut()) {
+                if (edgeOut.getArrival() == arrival) {
+                    return true;
+                }
+            }
+            return false;
+        }
         for (Edge e : this.edges) {
             if (e instanceof EdgeOut) {
                 EdgeOut edgeOut = (EdgeOut) e;  
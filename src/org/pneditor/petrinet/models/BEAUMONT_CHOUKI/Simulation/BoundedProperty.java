@@ -0,0 +1,155 @@
+package org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Simulation;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Predicate;
+
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Place;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Transition;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.PetriNET.PetriNet1;
+
+/**
+ * A property of the runs of a Petri net limited to a number of steps, decided by
+ * simulating a single run.
+ * <p>
+ * The condition is evaluated on the token counts of the places, indexed like
+ * {@link PetriNet1#getPlaces()}, after every step (and on the initial marking).
+ * A run ends early when no transition can be drawn: the marking then stays the same
+ * for the remaining steps.
+ * </p>
+ */
+public final class BoundedProperty {
+
+    /**
+     * The temporal operator applied to the condition.
+     */
+    public enum Kind {
+        /** The condition holds in at least one of the markings of the run. */
+        EVENTUALLY,
+        /** The condition holds in every marking of the run. */
+        ALWAYS
+    }
+
+    private final Kind kind;
+    private final int steps;
+    private final Predicate<int[]> condition;
+
+    /**
+     * Creates a bounded property.
+     *
+     * @param kind      the temporal operator
+     * @param steps     the maximum number of transitions drawn by a run
+     * @param condition the condition on the token counts
+     * @throws IllegalArgumentException if {@code steps} is negative
+     */
+    public BoundedProperty(Kind kind, int steps, Predicate<int[]> condition) throws IllegalArgumentException {
+        if (steps < 0) {
+            throw new IllegalArgumentException(String.format(
+                "BoundedProperty(%s, %d, condition) -- The argument steps (%d) is negative", kind, steps, steps));
+        }
+        this.kind = kind;
+        this.steps = steps;
+        this.condition = condition;
+    }
+
+    /**
+     * Shortcut for a property {@code F<=steps condition}.
+     *
+     * @param steps     the maximum number of transitions drawn by a run
+     * @param condition the condition on the token counts
+     * @return the property
+     */
+    public static BoundedProperty eventually(int steps, Predicate<int[]> condition) {
+        return new BoundedProperty(Kind.EVENTUALLY, steps, condition);
+    }
+
+    /**
+     * Shortcut for a property {@code G<=steps condition}.
+     *
+     * @param steps     the maximum number of transitions drawn by a run
+     * @param condition the condition on the token counts
+     * @return the property
+     */
+    public static BoundedProperty always(int steps, Predicate<int[]> condition) {
+        return new BoundedProperty(Kind.ALWAYS, steps, condition);
+    }
+
+    /**
+     * Simulates one run from the current marking of the net and decides the property.
+     * <p>The net is modified by the run: callers restore the initial marking between runs.
+     * Transitions are drawn as in {@link PetriNet1#launchSimulation(int)}, following their
+     * priorities and weights.</p>
+     *
+     * @param petriNet the net to simulate, not shared with other threads
+     * @param random   the random stream of the calling thread
+     * @return {@code true} if the run satisfies the property
+     */
+    public boolean sample(PetriNet1 petriNet, SplittableRandom random) {
+        return this.sample(petriNet, new TransitionSampler(petriNet.getTransitions()), random);
+    }
+
+    /**
+     * Same as {@link #sample(PetriNet1, SplittableRandom)}, reusing a sampler built for the
+     * transitions of the net. The sampler is refreshed first, so the tokens may have been
+     * reset since its last use.
+     *
+     * @param petriNet the net to simulate, not shared with other threads
+     * @param sampler  a sampler over the transitions of {@code petriNet}
+     * @param random   the random stream of the calling thread
+     * @return {@code true} if the run satisfies the property
+     */
+    public boolean sample(PetriNet1 petriNet, TransitionSampler sampler, SplittableRandom random) {
+        List<Place> places = petriNet.getPlaces();
+        int[] tokens = new int[places.size()];
+        boolean holds = this.holds(places, tokens);
+        if (this.isDecided(holds)) {
+            return holds;
+        }
+        sampler.refresh();
+        for (int i = 0; i < this.steps; ++i) {
+            Transition transition = sampler.sample(random.nextDouble());
+            if (transition == null) {
+                break; // the marking won't change anymore
+            }
+            petriNet.stepSimulation(transition);
+            sampler.update(transition);
+            holds = this.holds(places, tokens);
+            if (this.isDecided(holds)) {
+                return holds;
+            }
+        }
+        // EVENTUALLY never met, or ALWAYS never violated
+        return this.kind == Kind.ALWAYS;
+    }
+
+    /**
+     * Evaluates the condition on the current token counts.
+     */
+    private boolean holds(List<Place> places, int[] tokens) {
+        for (int p = 0; p < tokens.length; ++p) {
+            tokens[p] = places.get(p).getNbTokens();
+        }
+        return this.condition.test(tokens);
+    }
+
+    /**
+     * Tells whether the value of the condition in one marking decides the run.
+     */
+    private boolean isDecided(boolean holds) {
+        return this.kind == Kind.EVENTUALLY ? holds : !holds;
+    }
+
+    /**
+     * @return the temporal operator
+     */
+    public Kind getKind() {
+        return this.kind;
+    }
+
+    /**
+     * @return the maximum number of steps of a run
+     */
+    public int getSteps() {
+        return this.steps;
+    }
+}
@@ -0,0 +1,388 @@
+package org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Simulation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeEmpty;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeIn;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeOut;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeZero;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.ReadEdge;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.WeightedEdgeIn;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.WeightedEdgeOut;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Place;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Transition;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.PetriNET.PetriNet1;
+
+/**
+ * A step simulation, as {@link PetriNet1#launchSimulation(int)}, whose state can be saved
+ * to a checkpoint file and resumed after the JVM stopped.
+ * <p>
+ * The state is the marking, the state of the {@link SplitMix64} generator, the step counter
+ * and the statistics collected so far: the number of firings of every transition, and the
+ * mean (over the steps) and maximum number of tokens of every place. A checkpoint is a
+ * compact binary file, written to a temporary file of the same directory which is then
+ * renamed over the previous checkpoint, so that a stop during the write never leaves a
+ * truncated checkpoint. It ends with a CRC-32 of its content and records a fingerprint of
+ * the structure of the net, so a damaged checkpoint or one written for another net is
+ * rejected by {@link #resume(PetriNet1, Path)}.
+ * </p>
+ * <p>
+ * A resumed run draws exactly the transitions the interrupted run would have drawn: writing
+ * a checkpoint rebuilds the weight sums of the {@link TransitionSampler} and folds the token
+ * statistics, so the floating-point state after a checkpoint only depends on the marking.
+ * This holds as long as the checkpoints are taken at the same steps, which
+ * {@link #run(long, Path, long)} does by checkpointing at the multiples of its interval.
+ * </p>
+ * <p>
+ * The simulation works on the net itself, whose tokens it changes. The structure of the
+ * net must not change while the simulation is used.
+ * </p>
+ */
+public final class CheckpointedSimulation {
+
+    private static final int MAGIC = 0x504E434B; // "PNCK"
+    private static final int VERSION = 1;
+
+    private final PetriNet1 petriNet;
+    private final List<Place> places;
+    private final List<Transition> transitions;
+    private final Map<Transition, Integer> transitionIndices = new HashMap<Transition, Integer>();
+    private final int[][] changedPlaces;
+    private final TransitionSampler sampler;
+    private final SplitMix64 random;
+    private long step;
+
+    // Statistics
+    private final long[] firings;
+    private final double[] tokenAreas;
+    private final long[] lastChanges;
+    private final int[] maxTokens;
+
+    /**
+     * Creates a simulation at step 0 in the current marking of the net.
+     *
+     * @param petriNet the net to simulate, whose tokens are changed by the simulation
+     * @param seed     the seed of the transition draws
+     */
+    public CheckpointedSimulation(PetriNet1 petriNet, long seed) {
+        this.petriNet = petriNet;
+        this.places = new ArrayList<Place>(petriNet.getPlaces());
+        this.transitions = new ArrayList<Transition>(petriNet.getTransitions());
+        this.random = new SplitMix64(seed);
+
+        Map<Place, Integer> placeIndices = new HashMap<Place, Integer>();
+        for (int p = 0; p < this.places.size(); ++p) {
+            placeIndices.put(this.places.get(p), p);
+        }
+        this.changedPlaces = new int[this.transitions.size()][];
+        for (int t = 0; t < this.transitions.size(); ++t) {
+            Transition transition = this.transitions.get(t);
+            this.transitionIndices.put(transition, t);
+            TreeSet<Integer> changed = new TreeSet<Integer>();
+            for (EdgeIn edge : transition.getEdgesIn()) {
+                if (!(edge instanceof ReadEdge || edge instanceof EdgeZero)) {
+                    changed.add(placeIndices.get(edge.getOrigin()));
+                }
+            }
+            for (EdgeOut edge : transition.getEdgesOut()) {
+                changed.add(placeIndices.get(edge.getArrival()));
+            }
+            this.changedPlaces[t] = new int[changed.size()];
+            int i = 0;
+            for (int p : changed) {
+                this.changedPlaces[t][i++] = p;
+            }
+        }
+
+        this.firings = new long[this.transitions.size()];
+        this.tokenAreas = new double[this.places.size()];
+        this.lastChanges = new long[this.places.size()];
+        this.maxTokens = new int[this.places.size()];
+        for (int p = 0; p < this.places.size(); ++p) {
+            this.maxTokens[p] = this.places.get(p).getNbTokens();
+        }
+        this.sampler = new TransitionSampler(this.transitions);
+    }
+
+    /**
+     * Restores a simulation from a checkpoint, setting the tokens of the net to the saved
+     * marking.
+     *
+     * @param petriNet   the net the checkpoint was written for
+     * @param checkpoint the checkpoint file
+     * @return the simulation, at the step of the checkpoint
+     * @throws IOException if the file cannot be read, is damaged, or was written for a net
+     *                     with another structure
+     */
+    public static CheckpointedSimulation resume(PetriNet1 petriNet, Path checkpoint) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream file = Files.newInputStream(checkpoint)) {
+            CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(file), crc);
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException(String.format(
+                    "CheckpointedSimulation.resume(petriNet, %s) -- Not a simulation checkpoint", checkpoint));
+            }
+            int placeCount = in.readInt();
+            int transitionCount = in.readInt();
+            long fingerprint = in.readLong();
+            if (placeCount != petriNet.getPlaces().size() || transitionCount != petriNet.getTransitions().size()
+                || fingerprint != fingerprint(petriNet)) {
+                throw new IOException(String.format(
+                    "CheckpointedSimulation.resume(petriNet, %s) -- The checkpoint was written for another net",
+                    checkpoint));
+            }
+            long seedState = in.readLong();
+            long step = in.readLong();
+            int[] marking = new int[placeCount];
+            double[] tokenAreas = new double[placeCount];
+            int[] maxTokens = new int[placeCount];
+            long[] firings = new long[transitionCount];
+            for (int p = 0; p < placeCount; ++p) {
+                marking[p] = in.readInt();
+                tokenAreas[p] = in.readDouble();
+                maxTokens[p] = in.readInt();
+            }
+            for (int t = 0; t < transitionCount; ++t) {
+                firings[t] = in.readLong();
+            }
+            long expected = crc.getValue();
+            if (in.readInt() != (int) expected) {
+                throw new IOException(String.format(
+                    "CheckpointedSimulation.resume(petriNet, %s) -- The checkpoint is damaged", checkpoint));
+            }
+
+            for (int p = 0; p < placeCount; ++p) {
+                petriNet.getPlaces().get(p).setNbTokens(marking[p]);
+            }
+            CheckpointedSimulation simulation = new CheckpointedSimulation(petriNet, seedState);
+            simulation.step = step;
+            for (int p = 0; p < placeCount; ++p) {
+                simulation.tokenAreas[p] = tokenAreas[p];
+                simulation.lastChanges[p] = step;
+                simulation.maxTokens[p] = maxTokens[p];
+            }
+            System.arraycopy(firings, 0, simulation.firings, 0, transitionCount);
+            return simulation;
+        } catch (IllegalArgumentException e) {
+            // A marking above a capacity
+            throw new IOException(String.format(
+                "CheckpointedSimulation.resume(petriNet, %s) -- %s", checkpoint, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Draws transitions until the step counter reaches {@code steps} or no transition can
+     * be drawn, writing a checkpoint every {@code interval} steps and at the end.
+     *
+     * @param steps      the step counter at which the run stops
+     * @param checkpoint the checkpoint file, or {@code null} for no checkpoints
+     * @param interval   the number of steps between two checkpoints
+     * @return the number of steps done by this call
+     * @throws IOException              if a checkpoint cannot be written
+     * @throws IllegalArgumentException if {@code interval} is not positive
+     */
+    public long run(long steps, Path checkpoint, long interval) throws IOException, IllegalArgumentException {
+        if (interval <= 0) {
+            throw new IllegalArgumentException(String.format(
+                "CheckpointedSimulation.run(%d, checkpoint, %d) -- The argument interval (%d) must be positive",
+                steps, interval, interval));
+        }
+        long start = this.step;
+        while (this.step < steps) {
+            Transition transition = this.sampler.sample(this.random.nextDouble());
+            if (transition == null) {
+                break; // Deadlock
+            }
+            this.fire(transition);
+            if (checkpoint != null && this.step % interval == 0) {
+                this.writeCheckpoint(checkpoint);
+            }
+        }
+        if (checkpoint != null && this.step % interval != 0) {
+            this.writeCheckpoint(checkpoint);
+        }
+        return this.step - start;
+    }
+
+    private void fire(Transition transition) {
+        int t = this.transitionIndices.get(transition);
+        ++this.step;
+        for (int p : this.changedPlaces[t]) {
+            this.accumulate(p, this.step);
+        }
+        this.petriNet.stepSimulation(transition);
+        this.sampler.update(transition);
+        ++this.firings[t];
+        for (int p : this.changedPlaces[t]) {
+            int tokens = this.places.get(p).getNbTokens();
+            if (tokens > this.maxTokens[p]) {
+                this.maxTokens[p] = tokens;
+            }
+        }
+    }
+
+    /**
+     * Adds the tokens of a place for the steps from its last change to {@code until}
+     * (excluded), during which it did not change.
+     */
+    private void accumulate(int p, long until) {
+        this.tokenAreas[p] += (double) this.places.get(p).getNbTokens() * (until - this.lastChanges[p]);
+        this.lastChanges[p] = until;
+    }
+
+    /**
+     * Writes the state of the simulation to a checkpoint file, replacing it atomically.
+     *
+     * @param checkpoint the checkpoint file
+     * @throws IOException if the file cannot be written
+     */
+    public void writeCheckpoint(Path checkpoint) throws IOException {
+        // Same floating-point state as a resumed simulation
+        for (int p = 0; p < this.places.size(); ++p) {
+            this.accumulate(p, this.step);
+        }
+        this.sampler.refresh();
+
+        Path directory = checkpoint.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, checkpoint.getFileName().toString(), ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            try (FileOutputStream file = new FileOutputStream(temporary.toFile())) {
+                DataOutputStream out = new DataOutputStream(
+                    new CheckedOutputStream(new BufferedOutputStream(file), crc));
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(this.places.size());
+                out.writeInt(this.transitions.size());
+                out.writeLong(fingerprint(this.petriNet));
+                out.writeLong(this.random.getState());
+                out.writeLong(this.step);
+                for (int p = 0; p < this.places.size(); ++p) {
+                    out.writeInt(this.places.get(p).getNbTokens());
+                    out.writeDouble(this.tokenAreas[p]);
+                    out.writeInt(this.maxTokens[p]);
+                }
+                for (long count : this.firings) {
+                    out.writeLong(count);
+                }
+                out.writeInt((int) crc.getValue());
+                out.flush();
+                file.getFD().sync();
+            }
+            try {
+                Files.move(temporary, checkpoint, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Hashes what the draws depend on: the places and their capacities, the transitions
+     * with their weights and priorities, and their edges.
+     */
+    private static long fingerprint(PetriNet1 petriNet) {
+        Map<Place, Integer> placeIndices = new HashMap<Place, Integer>();
+        long hash = 17;
+        for (Place place : petriNet.getPlaces()) {
+            placeIndices.put(place, placeIndices.size());
+            hash = mix(hash, place.getCapacity());
+        }
+        for (Transition transition : petriNet.getTransitions()) {
+            hash = mix(hash, Double.doubleToLongBits(transition.getWeight()));
+            hash = mix(hash, transition.getPriority());
+            for (EdgeIn edge : transition.getEdgesIn()) {
+                Integer origin = placeIndices.get(edge.getOrigin());
+                hash = mix(hash, origin == null ? -1 : origin);
+                if (edge instanceof WeightedEdgeIn) {
+                    hash = mix(hash, ((WeightedEdgeIn) edge).getWeight());
+                } else if (edge instanceof ReadEdge) {
+                    hash = mix(hash, -2L - ((ReadEdge) edge).getWeight());
+                } else {
+                    hash = mix(hash, edge instanceof EdgeEmpty ? Long.MIN_VALUE : Long.MAX_VALUE);
+                }
+            }
+            for (EdgeOut edge : transition.getEdgesOut()) {
+                Integer arrival = placeIndices.get(edge.getArrival());
+                hash = mix(hash, arrival == null ? -1 : arrival);
+                hash = mix(hash, ((WeightedEdgeOut) edge).getWeight());
+            }
+            hash = mix(hash, 0x5EED);
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        long z = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return z ^ (z >>> 29);
+    }
+
+    /**
+     * @return the number of steps simulated since step 0
+     */
+    public long getStep() {
+        return this.step;
+    }
+
+    /**
+     * Tells whether a transition can be drawn.
+     *
+     * @return {@code false} if the net is in a deadlock
+     */
+    public boolean hasDrawable() {
+        return this.sampler.hasDrawable();
+    }
+
+    /**
+     * @param transition the index of the transition in {@link PetriNet1#getTransitions()}
+     * @return the number of firings of the transition since step 0
+     */
+    public long getFirings(int transition) {
+        return this.firings[transition];
+    }
+
+    /**
+     * Returns the mean number of tokens of a place over the markings reached at steps
+     * {@code 0} to {@code getStep() - 1}, each counted once.
+     *
+     * @param place the index of the place in {@link PetriNet1#getPlaces()}
+     * @return the mean, or the current number of tokens at step 0
+     */
+    public double getMeanTokens(int place) {
+        int tokens = this.places.get(place).getNbTokens();
+        if (this.step == 0) {
+            return tokens;
+        }
+        double area = this.tokenAreas[place] + (double) tokens * (this.step - this.lastChanges[place]);
+        return area / this.step;
+    }
+
+    /**
+     * @param place the index of the place in {@link PetriNet1#getPlaces()}
+     * @return the largest number of tokens of the place since step 0
+     */
+    public int getMaxTokens(int place) {
+        return this.maxTokens[place];
+    }
+}
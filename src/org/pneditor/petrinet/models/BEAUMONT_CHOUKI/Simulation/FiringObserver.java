@@ -0,0 +1,26 @@
+package org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Simulation;
+
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Transition;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.PetriNET.IPretriNet;
+
+/**
+ * Receives the transitions drawn by {@link IPretriNet#stepSimulation(Transition)}, and thus
+ * by every simulation built on it.
+ * <p>
+ * An observer is attached with {@link IPretriNet#setFiringObserver(FiringObserver)}. It is
+ * called on the firing path, after the tokens were moved, so it should be cheap; a net
+ * without observer only pays a {@code null} check per step. An exception thrown by the
+ * observer propagates out of {@link IPretriNet#stepSimulation(Transition)} and stops the
+ * simulation that drew the transition.
+ * </p>
+ */
+@FunctionalInterface
+public interface FiringObserver {
+
+    /**
+     * Called after a transition was drawn.
+     *
+     * @param transition the transition, whose places already hold their new tokens
+     */
+    void fired(Transition transition);
+}
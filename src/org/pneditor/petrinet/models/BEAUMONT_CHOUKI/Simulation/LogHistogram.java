@@ -0,0 +1,148 @@
+package org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Simulation;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of non-negative {@code long} values in logarithmic buckets, in the manner of
+ * HdrHistogram.
+ * <p>
+ * Values below 16 have a bucket each. Above, every power of two is split into 8 buckets
+ * of equal width, so a bucket is never wider than an eighth of its lower bound and the
+ * percentiles are within 12.5% of the exact values. All the {@code long} values fit in
+ * 488 buckets; the array of counts only grows up to the largest bucket used, so the memory
+ * does not depend on the number of values recorded.
+ * </p>
+ */
+public final class LogHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int EXACT_LIMIT = 2 * SUB_BUCKETS;
+    private static final int MAX_BUCKETS = bucketOf(Long.MAX_VALUE) + 1;
+
+    private long[] counts = new long[EXACT_LIMIT];
+    private long count;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+    private double sum;
+
+    private static int bucketOf(long value) {
+        if (value < EXACT_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        return (exponent - SUB_BITS) * SUB_BUCKETS + (int) (value >>> (exponent - SUB_BITS));
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value the value (must be non-negative)
+     * @throws IllegalArgumentException if {@code value} is negative
+     */
+    public void record(long value) throws IllegalArgumentException {
+        if (value < 0) {
+            throw new IllegalArgumentException(String.format(
+                "LogHistogram.record(%d) -- The argument value (%d) is negative", value, value));
+        }
+        int bucket = bucketOf(value);
+        if (bucket >= this.counts.length) {
+            this.counts = Arrays.copyOf(this.counts, Math.min(MAX_BUCKETS, Math.max(bucket + 1, 2 * this.counts.length)));
+        }
+        ++this.counts[bucket];
+        ++this.count;
+        this.sum += value;
+        this.min = Math.min(this.min, value);
+        this.max = Math.max(this.max, value);
+    }
+
+    /**
+     * @return the number of values recorded
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * @return the smallest value recorded, {@code 0} if there is none
+     */
+    public long getMin() {
+        return this.count == 0 ? 0 : this.min;
+    }
+
+    /**
+     * @return the largest value recorded, {@code 0} if there is none
+     */
+    public long getMax() {
+        return this.count == 0 ? 0 : this.max;
+    }
+
+    /**
+     * @return the exact mean of the values recorded, {@code 0} if there is none
+     */
+    public double getMean() {
+        return this.count == 0 ? 0 : this.sum / this.count;
+    }
+
+    /**
+     * Returns an upper estimate of a percentile: the upper bound of the bucket holding it,
+     * or the largest value if it is smaller.
+     *
+     * @param percentile the percentile, in {@code [0, 100]}
+     * @return the estimate, {@code 0} if no value was recorded
+     */
+    public long getPercentile(double percentile) {
+        if (this.count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * this.count));
+        long seen = 0;
+        for (int bucket = 0; bucket < this.counts.length; ++bucket) {
+            seen += this.counts[bucket];
+            if (seen >= rank) {
+                return Math.min(this.max, getBucketUpperBound(bucket));
+            }
+        }
+        return this.max;
+    }
+
+    /**
+     * @return the number of buckets, some of which may be empty
+     */
+    public int getBucketCount() {
+        return this.counts.length;
+    }
+
+    /**
+     * @param bucket the index of the bucket
+     * @return the number of values recorded in the bucket
+     */
+    public long getCount(int bucket) {
+        return this.counts[bucket];
+    }
+
+    /**
+     * @param bucket the index of the bucket
+     * @return the smallest value of the bucket
+     */
+    public static long getBucketLowerBound(int bucket) {
+        if (bucket < EXACT_LIMIT) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long mantissa = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return mantissa << (exponent - SUB_BITS);
+    }
+
+    /**
+     * @param bucket the index of the bucket
+     * @return the largest value of the bucket
+     */
+    public static long getBucketUpperBound(int bucket) {
+        if (bucket < EXACT_LIMIT) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        return getBucketLowerBound(bucket) + (1L << (exponent - SUB_BITS)) - 1;
+    }
+}
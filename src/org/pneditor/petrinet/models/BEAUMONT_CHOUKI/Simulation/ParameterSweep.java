@@ -0,0 +1,299 @@
+package org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Simulation;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Place;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Transition;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.PetriNET.PetriNet1;
+
+/**
+ * Batch simulation of a Petri net over a grid of parameters (initial tokens and edge
+ * weights, see {@link SweepParameter}).
+ * <p>
+ * The points of the grid are either the cartesian product of the parameter values or a
+ * Latin hypercube sample of it. Every point is simulated several times, on a fixed number
+ * of threads each owning a copy of the net ({@link PetriNet1#copy()}). At most a few points
+ * per thread are queued at any time, so large grids do not pile up in memory, and each
+ * point is written as a CSV row as soon as it completes:
+ * </p>
+ * <pre>
+ * point,&lt;parameters&gt;,runs,deadlocks,mean_steps,mean_p0,mean_p1,...
+ * </pre>
+ * <p>
+ * where {@code mean_pi} is the mean number of tokens in the i-th place at the end of the
+ * runs, {@code mean_steps} the mean number of transitions drawn and {@code deadlocks} the
+ * number of runs stopped because no transition could be drawn. Rows come in completion
+ * order; the {@code point} column gives the position in the grid. Each point draws from its
+ * own random stream, split from the seed in grid order, so the values do not depend on the
+ * scheduling of the threads.
+ * </p>
+ */
+public final class ParameterSweep {
+
+    private static final int POINTS_PER_THREAD = 2;
+
+    private final PetriNet1 petriNet;
+    private final List<SweepParameter> parameters;
+    private final int threads;
+
+    /**
+     * Creates a sweep using one thread per available core.
+     *
+     * @param petriNet   the net to simulate, left unchanged
+     * @param parameters the parameters to vary
+     */
+    public ParameterSweep(PetriNet1 petriNet, List<SweepParameter> parameters) {
+        this(petriNet, parameters, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a sweep.
+     *
+     * @param petriNet   the net to simulate, left unchanged
+     * @param parameters the parameters to vary
+     * @param threads    the number of simulation threads
+     * @throws IllegalArgumentException if {@code threads} is not positive
+     */
+    public ParameterSweep(PetriNet1 petriNet, List<SweepParameter> parameters, int threads)
+            throws IllegalArgumentException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException(String.format(
+                "ParameterSweep(petriNet, parameters, %d) -- The argument threads (%d) must be positive",
+                threads, threads));
+        }
+        this.petriNet = petriNet;
+        this.parameters = new ArrayList<SweepParameter>(parameters);
+        this.threads = threads;
+    }
+
+    /**
+     * Returns every combination of the parameter values, the last parameter varying
+     * fastest.
+     *
+     * @return the points, one value per parameter
+     */
+    public List<int[]> cartesianGrid() {
+        List<int[]> points = new ArrayList<int[]>();
+        int[] indices = new int[this.parameters.size()];
+        while (true) {
+            int[] point = new int[indices.length];
+            for (int d = 0; d < point.length; ++d) {
+                point[d] = this.parameters.get(d).getValue(indices[d]);
+            }
+            points.add(point);
+
+            // Next combination, like an odometer
+            int d = indices.length - 1;
+            while (d >= 0 && ++indices[d] == this.parameters.get(d).getValueCount()) {
+                indices[d] = 0;
+                --d;
+            }
+            if (d < 0) {
+                return points;
+            }
+        }
+    }
+
+    /**
+     * Returns a Latin hypercube sample of the grid: the values of every parameter are cut
+     * into {@code count} strata of equal width, and each stratum is used by exactly one
+     * point, the strata of the parameters being paired at random.
+     *
+     * @param count the number of points
+     * @param seed  the seed of the random pairing
+     * @return the points, one value per parameter
+     * @throws IllegalArgumentException if {@code count} is not positive
+     */
+    public List<int[]> latinHypercube(int count, long seed) throws IllegalArgumentException {
+        if (count <= 0) {
+            throw new IllegalArgumentException(String.format(
+                "ParameterSweep.latinHypercube(%d, seed) -- The argument count (%d) must be positive",
+                count, count));
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        int[][] points = new int[count][this.parameters.size()];
+        int[] strata = new int[count];
+        for (int d = 0; d < this.parameters.size(); ++d) {
+            SweepParameter parameter = this.parameters.get(d);
+            for (int i = 0; i < count; ++i) {
+                strata[i] = i;
+            }
+            for (int i = count - 1; i > 0; --i) { // Fisher-Yates shuffle
+                int j = random.nextInt(i + 1);
+                int swap = strata[i];
+                strata[i] = strata[j];
+                strata[j] = swap;
+            }
+            for (int i = 0; i < count; ++i) {
+                double position = (strata[i] + random.nextDouble()) / count;
+                int index = (int) (position * parameter.getValueCount());
+                points[i][d] = parameter.getValue(Math.min(index, parameter.getValueCount() - 1));
+            }
+        }
+        List<int[]> list = new ArrayList<int[]>(count);
+        for (int[] point : points) {
+            list.add(point);
+        }
+        return list;
+    }
+
+    /**
+     * Simulates every point and writes one CSV row per point, header first.
+     *
+     * @param points the points to simulate, one value per parameter
+     * @param steps  the maximum number of transitions drawn by a run
+     * @param runs   the number of runs per point
+     * @param seed   the seed of the random streams
+     * @param out    where the rows are written, flushed after each row
+     * @throws IllegalArgumentException if a point has the wrong number of values, a parameter
+     *                                  is not in the net, {@code steps} is negative or
+     *                                  {@code runs} not positive
+     * @throws IOException              if the output fails
+     */
+    public void run(List<int[]> points, int steps, int runs, long seed, Writer out)
+            throws IllegalArgumentException, IOException {
+        if (steps < 0 || runs <= 0) {
+            throw new IllegalArgumentException(String.format(
+                "ParameterSweep.run(points, %d, %d, seed, out) -- Invalid number of steps or runs", steps, runs));
+        }
+        final int[][] locations = new int[this.parameters.size()][];
+        for (int d = 0; d < locations.length; ++d) {
+            locations[d] = this.parameters.get(d).locate(this.petriNet);
+        }
+        for (int[] point : points) {
+            if (point.length != locations.length) {
+                throw new IllegalArgumentException(String.format(
+                    "ParameterSweep.run(points, %d, %d, seed, out) -- A point has %d values instead of %d",
+                    steps, runs, point.length, locations.length));
+            }
+        }
+        final int[] initialTokens = new int[this.petriNet.getPlaces().size()];
+        for (int p = 0; p < initialTokens.length; ++p) {
+            initialTokens[p] = this.petriNet.getPlaces().get(p).getNbTokens();
+        }
+
+        this.writeHeader(out, initialTokens.length);
+        final BlockingQueue<PetriNet1> copies = new ArrayBlockingQueue<PetriNet1>(this.threads);
+        for (int i = 0; i < this.threads; ++i) {
+            copies.add(this.petriNet.copy());
+        }
+        SplittableRandom master = new SplittableRandom(seed);
+        ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+        CompletionService<String> completion = new ExecutorCompletionService<String>(executor);
+        int pending = 0;
+        try {
+            for (int i = 0; i < points.size(); ++i) {
+                final int index = i;
+                final int[] point = points.get(i);
+                final SplittableRandom random = master.split();
+                completion.submit(() -> {
+                    PetriNet1 copy = copies.take();
+                    try {
+                        return this.simulate(copy, index, point, locations, initialTokens, steps, runs, random);
+                    } finally {
+                        copies.put(copy);
+                    }
+                });
+                // Keep the queue bounded: write a finished point before submitting more
+                if (++pending >= POINTS_PER_THREAD * this.threads) {
+                    this.writeRow(out, completion.take().get());
+                    --pending;
+                }
+            }
+            for (; pending > 0; --pending) {
+                this.writeRow(out, completion.take().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("ParameterSweep.run() -- Interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("ParameterSweep.run() -- A simulation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs one point on a copy of the net and formats its row.
+     */
+    private String simulate(PetriNet1 copy, int index, int[] point, int[][] locations, int[] initialTokens,
+            int steps, int runs, SplittableRandom random) {
+        List<Place> places = copy.getPlaces();
+        int[] startTokens = initialTokens.clone();
+        for (int d = 0; d < point.length; ++d) {
+            SweepParameter parameter = this.parameters.get(d);
+            if (parameter.isTokens()) {
+                startTokens[locations[d][0]] = point[d];
+            } else {
+                parameter.apply(copy, locations[d], point[d]);
+            }
+        }
+
+        TransitionSampler sampler = new TransitionSampler(copy.getTransitions());
+        long[] tokenSums = new long[places.size()];
+        long stepSum = 0;
+        int deadlocks = 0;
+        for (int r = 0; r < runs; ++r) {
+            for (int p = 0; p < startTokens.length; ++p) {
+                places.get(p).setNbTokens(startTokens[p]);
+            }
+            sampler.refresh();
+            int drawn = 0;
+            while (drawn < steps) {
+                Transition transition = sampler.sample(random.nextDouble());
+                if (transition == null) {
+                    ++deadlocks;
+                    break;
+                }
+                copy.stepSimulation(transition);
+                sampler.update(transition);
+                ++drawn;
+            }
+            stepSum += drawn;
+            for (int p = 0; p < tokenSums.length; ++p) {
+                tokenSums[p] += places.get(p).getNbTokens();
+            }
+        }
+
+        StringBuilder row = new StringBuilder().append(index);
+        for (int value : point) {
+            row.append(',').append(value);
+        }
+        row.append(',').append(runs).append(',').append(deadlocks);
+        row.append(',').append(String.format(Locale.ROOT, "%.4f", (double) stepSum / runs));
+        for (long sum : tokenSums) {
+            row.append(',').append(String.format(Locale.ROOT, "%.4f", (double) sum / runs));
+        }
+        return row.toString();
+    }
+
+    private void writeHeader(Writer out, int placeCount) throws IOException {
+        StringBuilder header = new StringBuilder("point");
+        for (SweepParameter parameter : this.parameters) {
+            header.append(',').append(parameter.getName());
+        }
+        header.append(",runs,deadlocks,mean_steps");
+        for (int p = 0; p < placeCount; ++p) {
+            header.append(",mean_p").append(p);
+        }
+        this.writeRow(out, header.toString());
+    }
+
+    private void writeRow(Writer out, String row) throws IOException {
+        out.write(row);
+        out.write('\n');
+        out.flush();
+    }
+}
@@ -0,0 +1,361 @@
+package org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Simulation;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.LongSupplier;
+
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeIn;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeOut;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeZero;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.ReadEdge;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Place;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Transition;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.PetriNET.PetriNet1;
+
+/**
+ * A {@link FiringObserver} collecting statistics of a simulation as it runs, in memory that
+ * does not depend on the length of the run.
+ * <p>
+ * For every transition: the number of firings, the firing rate and a {@link LogHistogram}
+ * of the times between two consecutive firings. For every place: the minimum, maximum,
+ * mean and variance of its number of tokens, weighted by the time the place held them.
+ * Means and variances are updated with the weighted form of Welford's algorithm when a
+ * place changes, so that only the places changed by a firing are touched.
+ * </p>
+ * <p>
+ * Time is given by a clock read at each firing. By default it counts the firings, which
+ * suits {@link PetriNet1#launchSimulation(int)}; a {@link TimedSimulator} passes its own
+ * time ({@code simulator::getTime}). Attach the statistics to the net with
+ * {@link PetriNet1#setFiringObserver(FiringObserver)}; they start at time 0 in the marking
+ * the net has when they are created.
+ * </p>
+ */
+public final class SimulationStatistics implements FiringObserver {
+
+    private final List<Place> places;
+    private final List<Transition> transitions;
+    private final Map<Transition, Integer> transitionIndices = new HashMap<Transition, Integer>();
+    private final int[][] changedPlaces;
+    private final LongSupplier clock;
+    private long firingCount;
+
+    // Places: time-weighted Welford accumulators
+    private final int[] tokens;
+    private final int[] minTokens;
+    private final int[] maxTokens;
+    private final long[] lastChanges;
+    private final long[] weights;
+    private final double[] means;
+    private final double[] squares;
+
+    // Transitions
+    private final long[] firings;
+    private final long[] lastFirings;
+    private final LogHistogram[] gaps;
+
+    /**
+     * Creates statistics counting time in firings.
+     *
+     * @param petriNet the net whose simulation is observed
+     */
+    public SimulationStatistics(PetriNet1 petriNet) {
+        this(petriNet.getPlaces(), petriNet.getTransitions(), null);
+    }
+
+    /**
+     * Creates statistics reading the time from a clock.
+     *
+     * @param petriNet the net whose simulation is observed
+     * @param clock    the current time, non-decreasing and {@code 0} at creation
+     */
+    public SimulationStatistics(PetriNet1 petriNet, LongSupplier clock) {
+        this(petriNet.getPlaces(), petriNet.getTransitions(), clock);
+    }
+
+    /**
+     * Creates statistics for the places and transitions of any net.
+     *
+     * @param places      the places of the net
+     * @param transitions the transitions of the net
+     * @param clock       the current time, or {@code null} to count the firings
+     */
+    public SimulationStatistics(List<Place> places, List<Transition> transitions, LongSupplier clock) {
+        this.places = new ArrayList<Place>(places);
+        this.transitions = new ArrayList<Transition>(transitions);
+        this.clock = clock;
+        int placeCount = this.places.size();
+        int transitionCount = this.transitions.size();
+
+        Map<Place, Integer> placeIndices = new HashMap<Place, Integer>();
+        for (int p = 0; p < placeCount; ++p) {
+            placeIndices.put(this.places.get(p), p);
+        }
+        this.changedPlaces = new int[transitionCount][];
+        for (int t = 0; t < transitionCount; ++t) {
+            Transition transition = this.transitions.get(t);
+            this.transitionIndices.put(transition, t);
+            TreeSet<Integer> changed = new TreeSet<Integer>();
+            for (EdgeIn edge : transition.getEdgesIn()) {
+                if (!(edge instanceof ReadEdge || edge instanceof EdgeZero)) {
+                    changed.add(placeIndices.get(edge.getOrigin()));
+                }
+            }
+            for (EdgeOut edge : transition.getEdgesOut()) {
+                changed.add(placeIndices.get(edge.getArrival()));
+            }
+            this.changedPlaces[t] = new int[changed.size()];
+            int i = 0;
+            for (int p : changed) {
+                this.changedPlaces[t][i++] = p;
+            }
+        }
+
+        this.tokens = new int[placeCount];
+        this.minTokens = new int[placeCount];
+        this.maxTokens = new int[placeCount];
+        this.lastChanges = new long[placeCount];
+        this.weights = new long[placeCount];
+        this.means = new double[placeCount];
+        this.squares = new double[placeCount];
+        for (int p = 0; p < placeCount; ++p) {
+            int count = this.places.get(p).getNbTokens();
+            this.tokens[p] = count;
+            this.minTokens[p] = count;
+            this.maxTokens[p] = count;
+        }
+        this.firings = new long[transitionCount];
+        this.lastFirings = new long[transitionCount];
+        this.gaps = new LogHistogram[transitionCount];
+    }
+
+    /**
+     * Records a firing.
+     *
+     * @param transition the transition drawn
+     * @throws IllegalArgumentException if the transition is not part of the observed net
+     */
+    @Override
+    public void fired(Transition transition) throws IllegalArgumentException {
+        Integer index = this.transitionIndices.get(transition);
+        if (index == null) {
+            throw new IllegalArgumentException(
+                "SimulationStatistics.fired(transition) -- The argument transition is unknown.");
+        }
+        int t = index;
+        ++this.firingCount;
+        long now = this.now();
+
+        for (int p : this.changedPlaces[t]) {
+            int count = this.places.get(p).getNbTokens();
+            if (count == this.tokens[p]) {
+                continue;
+            }
+            this.accumulate(p, now);
+            this.tokens[p] = count;
+            if (count < this.minTokens[p]) {
+                this.minTokens[p] = count;
+            } else if (count > this.maxTokens[p]) {
+                this.maxTokens[p] = count;
+            }
+        }
+
+        if (this.firings[t] > 0) {
+            if (this.gaps[t] == null) {
+                this.gaps[t] = new LogHistogram();
+            }
+            this.gaps[t].record(now - this.lastFirings[t]);
+        }
+        ++this.firings[t];
+        this.lastFirings[t] = now;
+    }
+
+    private long now() {
+        return this.clock == null ? this.firingCount : this.clock.getAsLong();
+    }
+
+    /**
+     * Weighted Welford update with the tokens held by place {@code p} since its last change.
+     */
+    private void accumulate(int p, long now) {
+        long weight = now - this.lastChanges[p];
+        this.lastChanges[p] = now;
+        if (weight <= 0) {
+            return;
+        }
+        this.weights[p] += weight;
+        double delta = this.tokens[p] - this.means[p];
+        this.means[p] += delta * weight / this.weights[p];
+        this.squares[p] += weight * delta * (this.tokens[p] - this.means[p]);
+    }
+
+    /**
+     * @return the current time: the number of firings, or the time of the clock
+     */
+    public long getTime() {
+        return this.now();
+    }
+
+    /**
+     * @return the number of firings observed
+     */
+    public long getFiringCount() {
+        return this.firingCount;
+    }
+
+    /**
+     * @param transition the index of the transition in the list of the net
+     * @return the number of firings of the transition
+     */
+    public long getFirings(int transition) {
+        return this.firings[transition];
+    }
+
+    /**
+     * @param transition the index of the transition in the list of the net
+     * @return the number of firings of the transition per unit of time, {@code 0} at time 0
+     */
+    public double getRate(int transition) {
+        long time = this.getTime();
+        return time == 0 ? 0 : (double) this.firings[transition] / time;
+    }
+
+    /**
+     * @param transition the index of the transition in the list of the net
+     * @return the times between consecutive firings of the transition, {@code null} if it
+     *         fired less than twice
+     */
+    public LogHistogram getInterFiringTimes(int transition) {
+        return this.gaps[transition];
+    }
+
+    /**
+     * @param place the index of the place in the list of the net
+     * @return the smallest number of tokens of the place
+     */
+    public int getMinTokens(int place) {
+        return this.minTokens[place];
+    }
+
+    /**
+     * @param place the index of the place in the list of the net
+     * @return the largest number of tokens of the place
+     */
+    public int getMaxTokens(int place) {
+        return this.maxTokens[place];
+    }
+
+    /**
+     * @param place the index of the place in the list of the net
+     * @return the time-weighted mean number of tokens, the current one at time 0
+     */
+    public double getMeanTokens(int place) {
+        return this.moments(place)[0];
+    }
+
+    /**
+     * @param place the index of the place in the list of the net
+     * @return the time-weighted variance of the number of tokens, {@code 0} at time 0
+     */
+    public double getTokenVariance(int place) {
+        return this.moments(place)[1];
+    }
+
+    /**
+     * Mean and variance including the tokens held since the last change, without
+     * changing the accumulators.
+     */
+    private double[] moments(int p) {
+        long weight = this.weights[p];
+        double mean = this.means[p];
+        double squares = this.squares[p];
+        long pending = this.getTime() - this.lastChanges[p];
+        if (pending > 0) {
+            weight += pending;
+            double delta = this.tokens[p] - mean;
+            mean += delta * pending / weight;
+            squares += pending * delta * (this.tokens[p] - mean);
+        }
+        if (weight == 0) {
+            return new double[] { this.tokens[p], 0 };
+        }
+        return new double[] { mean, squares / weight };
+    }
+
+    /**
+     * Writes the statistics as CSV, one row per place and per transition after a header:
+     * <pre>
+     * kind,index,firings,rate,min,max,mean,variance,gap_count,gap_mean,gap_p50,gap_p90,gap_p99,gap_max
+     * </pre>
+     * The columns that do not apply to the kind of the row are left empty.
+     *
+     * @param out where the rows are written
+     * @throws IOException if the output fails
+     */
+    public void writeCsv(Writer out) throws IOException {
+        out.write("kind,index,firings,rate,min,max,mean,variance,gap_count,gap_mean,gap_p50,gap_p90,gap_p99,gap_max\n");
+        for (int p = 0; p < this.places.size(); ++p) {
+            double[] moments = this.moments(p);
+            out.write(String.format(Locale.ROOT, "place,%d,,,%d,%d,%.6f,%.6f,,,,,,\n",
+                p, this.minTokens[p], this.maxTokens[p], moments[0], moments[1]));
+        }
+        for (int t = 0; t < this.transitions.size(); ++t) {
+            out.write(String.format(Locale.ROOT, "transition,%d,%d,%.6f,,,,,", t, this.firings[t], this.getRate(t)));
+            LogHistogram histogram = this.gaps[t];
+            if (histogram == null) {
+                out.write(",,,,,\n");
+            } else {
+                out.write(String.format(Locale.ROOT, "%d,%.6f,%d,%d,%d,%d\n", histogram.getCount(),
+                    histogram.getMean(), histogram.getPercentile(50), histogram.getPercentile(90),
+                    histogram.getPercentile(99), histogram.getMax()));
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes the statistics as a JSON object, with the non-empty buckets of the
+     * inter-firing histograms as {@code [lower, upper, count]} triples.
+     *
+     * @param out where the object is written
+     * @throws IOException if the output fails
+     */
+    public void writeJson(Writer out) throws IOException {
+        out.write(String.format(Locale.ROOT, "{\"time\":%d,\"firings\":%d,\"places\":[", this.getTime(), this.firingCount));
+        for (int p = 0; p < this.places.size(); ++p) {
+            double[] moments = this.moments(p);
+            out.write(String.format(Locale.ROOT, "%s{\"index\":%d,\"min\":%d,\"max\":%d,\"mean\":%s,\"variance\":%s}",
+                p == 0 ? "" : ",", p, this.minTokens[p], this.maxTokens[p], moments[0], moments[1]));
+        }
+        out.write("],\"transitions\":[");
+        for (int t = 0; t < this.transitions.size(); ++t) {
+            out.write(String.format(Locale.ROOT, "%s{\"index\":%d,\"firings\":%d,\"rate\":%s",
+                t == 0 ? "" : ",", t, this.firings[t], this.getRate(t)));
+            LogHistogram histogram = this.gaps[t];
+            if (histogram != null) {
+                out.write(String.format(Locale.ROOT,
+                    ",\"gaps\":{\"count\":%d,\"mean\":%s,\"p50\":%d,\"p90\":%d,\"p99\":%d,\"max\":%d,\"buckets\":[",
+                    histogram.getCount(), histogram.getMean(), histogram.getPercentile(50),
+                    histogram.getPercentile(90), histogram.getPercentile(99), histogram.getMax()));
+                boolean first = true;
+                for (int b = 0; b < histogram.getBucketCount(); ++b) {
+                    if (histogram.getCount(b) > 0) {
+                        out.write(String.format(Locale.ROOT, "%s[%d,%d,%d]", first ? "" : ",",
+                            LogHistogram.getBucketLowerBound(b), LogHistogram.getBucketUpperBound(b),
+                            histogram.getCount(b)));
+                        first = false;
+                    }
+                }
+                out.write("]}");
+            }
+            out.write("}");
+        }
+        out.write("]}\n");
+        out.flush();
+    }
+}
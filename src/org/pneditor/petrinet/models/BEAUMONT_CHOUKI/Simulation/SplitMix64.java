@@ -0,0 +1,71 @@
+package org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Simulation;
+
+/**
+ * A small pseudo-random generator whose whole state is one {@code long}, so that it can be
+ * saved and restored exactly.
+ * <p>
+ * This is the SplitMix64 generator, the one behind {@link java.util.SplittableRandom}: the
+ * state advances by a fixed odd constant and every output is a mix of the state. Unlike
+ * {@link java.util.Random} and {@code SplittableRandom}, it exposes its state
+ * ({@link #getState()}), which {@link CheckpointedSimulation} writes to its checkpoints.
+ * </p>
+ */
+public final class SplitMix64 {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private long state;
+
+    /**
+     * Creates a generator in the given state. Two generators in the same state produce the
+     * same numbers.
+     *
+     * @param state the seed, or a state returned by {@link #getState()}
+     */
+    public SplitMix64(long state) {
+        this.state = state;
+    }
+
+    /**
+     * Returns the current state of the generator.
+     *
+     * @return the state, to be passed to {@link #SplitMix64(long)}
+     */
+    public long getState() {
+        return this.state;
+    }
+
+    /**
+     * Returns the number of rank {@code index} of a generator created with {@code seed},
+     * without generating the ones before it.
+     *
+     * @param seed  the seed of the generator
+     * @param index the rank of the number, 0 for the first one
+     * @return the number {@code new SplitMix64(seed)} would return after {@code index} others
+     */
+    public static long nth(long seed, long index) {
+        return new SplitMix64(seed + index * GOLDEN_GAMMA).nextLong();
+    }
+
+    /**
+     * Returns the next pseudo-random {@code long}.
+     *
+     * @return a number uniformly distributed over all the {@code long} values
+     */
+    public long nextLong() {
+        long z = (this.state += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns the next pseudo-random {@code double}.
+     *
+     * @return a number uniformly distributed in {@code [0, 1)}
+     */
+    public double nextDouble() {
+        return (this.nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+}
@@ -0,0 +1,392 @@
+package org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Place;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.PetriNET.PetriNet1;
+
+/**
+ * Statistical model checker for the Petri net model: estimates the probability that a
+ * random run satisfies a {@link BoundedProperty} by simulating many independent runs.
+ * <p>
+ * The runs are spread over one thread per core. Every thread simulates its own copy of the
+ * net ({@link PetriNet1#copy()}) and takes the next run number from a shared counter. The
+ * random stream of a run is seeded from the master seed and the run number only
+ * ({@link SplitMix64#nth(long, long)}), and the outcomes are added to the counts in run
+ * order without a lock, the stopping rule being evaluated after each of them. The result
+ * therefore depends on the seed alone, not on the number of threads nor on the order in
+ * which they finish their runs; the threads only stop once the runs before the decision
+ * are known.
+ * </p>
+ * <p>
+ * Two questions can be asked:
+ * </p>
+ * <ul>
+ *     <li>{@link #test}: is the probability above or below a threshold? Decided with Wald's
+ *     sequential probability ratio test, which usually needs far fewer runs than a fixed
+ *     sample size, and capped by the Chernoff-Hoeffding sample size.</li>
+ *     <li>{@link #estimate}: what is the probability, within a given error? Uses the fixed
+ *     Chernoff-Hoeffding sample size {@code N = ceil(ln(2 / delta) / (2 * epsilon^2))}.</li>
+ * </ul>
+ */
+public final class StatisticalModelChecker {
+
+    private final PetriNet1 petriNet;
+    private final long seed;
+    private final int threads;
+
+    /**
+     * Creates a checker using one thread per available core.
+     *
+     * @param petriNet the net to simulate, left unchanged
+     * @param seed     the seed of the random streams of the runs, for reproducible results
+     */
+    public StatisticalModelChecker(PetriNet1 petriNet, long seed) {
+        this(petriNet, seed, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a checker.
+     *
+     * @param petriNet the net to simulate, left unchanged
+     * @param seed     the seed of the random streams of the runs
+     * @param threads  the number of simulation threads
+     * @throws IllegalArgumentException if {@code threads} is not positive
+     */
+    public StatisticalModelChecker(PetriNet1 petriNet, long seed, int threads) throws IllegalArgumentException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException(String.format(
+                "StatisticalModelChecker(petriNet, seed, %d) -- The argument threads (%d) must be positive",
+                threads, threads));
+        }
+        this.petriNet = petriNet;
+        this.seed = seed;
+        this.threads = threads;
+    }
+
+    /**
+     * Returns the number of runs after which the observed frequency is within
+     * {@code epsilon} of the probability with confidence {@code 1 - delta}
+     * (Chernoff-Hoeffding bound).
+     *
+     * @param epsilon the absolute error, in (0, 1)
+     * @param delta   the probability of a larger error, in (0, 1)
+     * @return the number of runs
+     * @throws IllegalArgumentException if an argument is out of range or the number of runs
+     *                                  does not fit in an {@code int}
+     */
+    public static int chernoffSampleSize(double epsilon, double delta) throws IllegalArgumentException {
+        checkProbability("chernoffSampleSize", "epsilon", epsilon);
+        checkProbability("chernoffSampleSize", "delta", delta);
+        double size = Math.ceil(Math.log(2 / delta) / (2 * epsilon * epsilon));
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format(
+                "StatisticalModelChecker.chernoffSampleSize(%s, %s) -- Too many runs needed", epsilon, delta));
+        }
+        return (int) size;
+    }
+
+    /**
+     * Tells whether the probability of the property is at least {@code theta}, with
+     * Wald's sequential probability ratio test.
+     * <p>
+     * The test compares {@code H0: p >= theta + indifference} with
+     * {@code H1: p <= theta - indifference}; inside the indifference region either answer
+     * is acceptable. It stops when the log-likelihood ratio leaves
+     * {@code (ln(beta / (1 - alpha)), ln((1 - beta) / alpha))}, or at the Chernoff sample
+     * size for {@code epsilon = indifference} and {@code delta = alpha}, where the observed
+     * frequency decides.
+     * </p>
+     *
+     * @param property     the property of the runs
+     * @param theta        the probability threshold
+     * @param indifference the half-width of the indifference region
+     * @param alpha        the probability of wrongly rejecting H0
+     * @param beta         the probability of wrongly rejecting H1
+     * @return the result, whose {@link Result#isAboveThreshold()} gives the answer
+     * @throws IllegalArgumentException if an argument is out of range
+     */
+    public Result test(BoundedProperty property, double theta, double indifference, double alpha, double beta)
+            throws IllegalArgumentException {
+        checkProbability("test", "alpha", alpha);
+        checkProbability("test", "beta", beta);
+        final double p0 = theta + indifference;
+        final double p1 = theta - indifference;
+        if (indifference <= 0 || p1 <= 0 || p0 >= 1) {
+            throw new IllegalArgumentException(String.format(
+                "StatisticalModelChecker.test(property, %s, %s, %s, %s) -- The indifference region must be "
+                    + "non-empty and inside (0, 1)", theta, indifference, alpha, beta));
+        }
+        final int cap = chernoffSampleSize(indifference, alpha);
+        final double successStep = Math.log(p1 / p0);
+        final double failureStep = Math.log((1 - p1) / (1 - p0));
+        final double acceptH1 = Math.log((1 - beta) / alpha);
+        final double acceptH0 = Math.log(beta / (1 - alpha));
+        return this.run(property, cap, (samples, successes) -> {
+            double ratio = successes * successStep + (samples - successes) * failureStep;
+            if (ratio >= acceptH1) {
+                return Boolean.FALSE;
+            }
+            if (ratio <= acceptH0) {
+                return Boolean.TRUE;
+            }
+            if (samples >= cap) {
+                return (double) successes / samples >= theta;
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Estimates the probability of the property within {@code epsilon} with confidence
+     * {@code 1 - delta}, from the Chernoff-Hoeffding number of runs.
+     *
+     * @param property the property of the runs
+     * @param epsilon  the absolute error
+     * @param delta    the probability of a larger error
+     * @return the result, whose {@link Result#getEstimate()} gives the answer
+     * @throws IllegalArgumentException if an argument is out of range
+     */
+    public Result estimate(BoundedProperty property, double epsilon, double delta) throws IllegalArgumentException {
+        final int size = chernoffSampleSize(epsilon, delta);
+        Result result = this.run(property, size, (samples, successes) -> samples >= size ? Boolean.TRUE : null);
+        return new Result(null, result.samples, result.successes, size);
+    }
+
+    /**
+     * Decides, from the counts after a run, whether the sampling can stop.
+     */
+    @FunctionalInterface
+    private interface StoppingRule {
+        /**
+         * @return the answer, or {@code null} to keep sampling
+         */
+        Boolean decide(int samples, int successes);
+    }
+
+    /**
+     * Samples runs on every thread until the stopping rule gives an answer. The rules of
+     * this class always answer at {@code fixedSampleSize} runs at the latest.
+     */
+    private Result run(BoundedProperty property, int fixedSampleSize, StoppingRule rule) {
+        final OrderedCounts counts = new OrderedCounts(rule, fixedSampleSize);
+        final AtomicInteger nextRun = new AtomicInteger();
+        final int[] initialTokens = new int[this.petriNet.getPlaces().size()];
+        for (int p = 0; p < initialTokens.length; ++p) {
+            initialTokens[p] = this.petriNet.getPlaces().get(p).getNbTokens();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+        try {
+            List<Future<?>> workers = new ArrayList<Future<?>>();
+            for (int i = 0; i < this.threads; ++i) {
+                // Copies are made here, the original net is not thread-safe
+                final PetriNet1 copy = this.petriNet.copy();
+                workers.add(executor.submit(() -> {
+                    List<Place> places = copy.getPlaces();
+                    TransitionSampler sampler = new TransitionSampler(copy.getTransitions());
+                    while (counts.getDecision() == null) {
+                        int run = nextRun.getAndIncrement();
+                        if (run >= fixedSampleSize) {
+                            break;
+                        }
+                        for (int p = 0; p < initialTokens.length; ++p) {
+                            places.get(p).setNbTokens(initialTokens[p]);
+                        }
+                        SplittableRandom random = new SplittableRandom(SplitMix64.nth(this.seed, run));
+                        counts.record(run, property.sample(copy, sampler, random));
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("StatisticalModelChecker.run() -- Interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("StatisticalModelChecker.run() -- A simulation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return counts.getDecision();
+    }
+
+    /**
+     * Adds the outcomes of the runs to the counts in run order, whatever the order in which
+     * the threads finish them, and keeps the first answer of the stopping rule.
+     * <p>
+     * It takes no lock. A thread publishes the outcome of its run in a slot of its own, then
+     * helps advance the counted prefix: whichever thread moves the counts past a run with a
+     * compare-and-set is the only one to evaluate the stopping rule for it. A run is thus
+     * counted once and in order, and every prefix up to the last one counted is evaluated, so
+     * the answer kept, the one for the fewest runs, does not depend on the threads.
+     * </p>
+     */
+    private static final class OrderedCounts {
+
+        private static final int PENDING = 0;
+        private static final int FAILURE = 1;
+        private static final int SUCCESS = 2;
+
+        private final StoppingRule rule;
+        private final int fixedSampleSize;
+        // The outcome of every run, by run number, up to the fixed sample size
+        private final AtomicIntegerArray outcomes;
+        // The counts of the first runs, all finished: samples in the high half, successes in
+        // the low half, so that both move together
+        private final AtomicLong counts = new AtomicLong();
+        private final AtomicReference<Result> decision = new AtomicReference<Result>();
+
+        OrderedCounts(StoppingRule rule, int fixedSampleSize) {
+            this.rule = rule;
+            this.fixedSampleSize = fixedSampleSize;
+            this.outcomes = new AtomicIntegerArray(fixedSampleSize);
+        }
+
+        /**
+         * Records the outcome of a run, then counts the runs that now follow the counted
+         * ones without a gap.
+         */
+        void record(int run, boolean success) {
+            this.outcomes.set(run, success ? SUCCESS : FAILURE);
+            while (this.decision.get() == null) {
+                long current = this.counts.get();
+                int samples = (int) (current >>> 32);
+                int successes = (int) current;
+                if (samples >= this.fixedSampleSize) {
+                    return;
+                }
+                int outcome = this.outcomes.get(samples);
+                if (outcome == PENDING) {
+                    // The thread finishing that run will carry on
+                    return;
+                }
+                if (outcome == SUCCESS) {
+                    ++successes;
+                }
+                ++samples;
+                if (this.counts.compareAndSet(current, ((long) samples << 32) | successes)) {
+                    Boolean answer = this.rule.decide(samples, successes);
+                    if (answer != null) {
+                        this.answer(new Result(answer, samples, successes, this.fixedSampleSize));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Keeps an answer of the stopping rule, unless one was given for fewer runs.
+         */
+        private void answer(Result result) {
+            Result kept = this.decision.get();
+            while (kept == null || kept.samples > result.samples) {
+                if (this.decision.compareAndSet(kept, result)) {
+                    return;
+                }
+                kept = this.decision.get();
+            }
+        }
+
+        /**
+         * @return the result, or {@code null} while the stopping rule has not answered
+         */
+        Result getDecision() {
+            return this.decision.get();
+        }
+    }
+
+    /**
+     * Checks that a parameter is a probability strictly between 0 and 1.
+     */
+    private static void checkProbability(String method, String name, double value) {
+        if (!(value > 0 && value < 1)) {
+            throw new IllegalArgumentException(String.format(
+                "StatisticalModelChecker.%s() -- The argument %s (%s) must be in (0, 1)", method, name, value));
+        }
+    }
+
+    /**
+     * Outcome of a statistical check. The counts are the ones of the first runs, up to the
+     * one that concluded; threads still running at that time may have simulated a few more
+     * runs, which are not used.
+     */
+    public static final class Result {
+
+        private final Boolean aboveThreshold;
+        private final int samples;
+        private final int successes;
+        private final int fixedSampleSize;
+
+        private Result(Boolean aboveThreshold, int samples, int successes, int fixedSampleSize) {
+            this.aboveThreshold = aboveThreshold;
+            this.samples = samples;
+            this.successes = successes;
+            this.fixedSampleSize = fixedSampleSize;
+        }
+
+        /**
+         * @return the answer of {@link StatisticalModelChecker#test}, or {@code null} for an
+         *         estimation
+         */
+        public Boolean isAboveThreshold() {
+            return this.aboveThreshold;
+        }
+
+        /**
+         * @return the number of runs used
+         */
+        public int getSamples() {
+            return this.samples;
+        }
+
+        /**
+         * @return the number of runs satisfying the property
+         */
+        public int getSuccesses() {
+            return this.successes;
+        }
+
+        /**
+         * @return the observed frequency of the property
+         */
+        public double getEstimate() {
+            return (double) this.successes / this.samples;
+        }
+
+        /**
+         * Returns the Hoeffding error bound of the estimate for the runs used.
+         *
+         * @param delta the probability of a larger error
+         * @return the error {@code sqrt(ln(2 / delta) / (2 * samples))}
+         */
+        public double getErrorBound(double delta) {
+            return Math.sqrt(Math.log(2 / delta) / (2.0 * this.samples));
+        }
+
+        /**
+         * @return the number of runs a fixed sample size (Chernoff-Hoeffding) would use
+         */
+        public int getFixedSampleSize() {
+            return this.fixedSampleSize;
+        }
+
+        @Override
+        public String toString() {
+            String answer = this.aboveThreshold == null ? ""
+                : (this.aboveThreshold ? "above threshold, " : "below threshold, ");
+            return String.format("%sp = %.4f (%d/%d runs, fixed sample size %d)", answer, this.getEstimate(),
+                this.successes, this.samples, this.fixedSampleSize);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Simulation;
+
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.Edge;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.WeightedEdgeIn;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.WeightedEdgeOut;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Place;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Transition;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.PetriNET.PetriNet1;
+
+/**
+ * A parameter of a {@link ParameterSweep}: the initial number of tokens of a place, or the
+ * weight of a weighted edge, with the values it takes.
+ * <p>
+ * Parameters name the places and edges of the original net. Since the sweep simulates
+ * copies of it ({@link PetriNet1#copy()}), a parameter is first located by position in the
+ * original net, then applied at the same position in every copy.
+ * </p>
+ */
+public final class SweepParameter {
+
+    private enum Kind {
+        TOKENS, WEIGHT_IN, WEIGHT_OUT
+    }
+
+    private final Kind kind;
+    private final String name;
+    private final Object target;
+    private final int[] values;
+
+    private SweepParameter(Kind kind, String name, Object target, int[] values) {
+        this.kind = kind;
+        this.name = name;
+        this.target = target;
+        this.values = values;
+    }
+
+    /**
+     * Sweeps the initial number of tokens of a place from {@code min} to {@code max}.
+     *
+     * @param name  the column name of the parameter in the output
+     * @param place the place of the original net
+     * @param min   the first value
+     * @param max   the last value, included
+     * @param step  the gap between two values
+     * @return the parameter
+     * @throws IllegalArgumentException if the range is empty or {@code min} is negative
+     */
+    public static SweepParameter tokens(String name, Place place, int min, int max, int step)
+            throws IllegalArgumentException {
+        return new SweepParameter(Kind.TOKENS, name, place, range(name, min, max, step));
+    }
+
+    /**
+     * Sweeps the weight of an input edge from {@code min} to {@code max}.
+     *
+     * @param name the column name of the parameter in the output
+     * @param edge the edge of the original net
+     * @param min  the first value
+     * @param max  the last value, included
+     * @param step the gap between two values
+     * @return the parameter
+     * @throws IllegalArgumentException if the range is empty or {@code min} is negative
+     */
+    public static SweepParameter weight(String name, WeightedEdgeIn edge, int min, int max, int step)
+            throws IllegalArgumentException {
+        return new SweepParameter(Kind.WEIGHT_IN, name, edge, range(name, min, max, step));
+    }
+
+    /**
+     * Sweeps the weight of an output edge from {@code min} to {@code max}.
+     *
+     * @param name the column name of the parameter in the output
+     * @param edge the edge of the original net
+     * @param min  the first value
+     * @param max  the last value, included
+     * @param step the gap between two values
+     * @return the parameter
+     * @throws IllegalArgumentException if the range is empty or {@code min} is negative
+     */
+    public static SweepParameter weight(String name, WeightedEdgeOut edge, int min, int max, int step)
+            throws IllegalArgumentException {
+        return new SweepParameter(Kind.WEIGHT_OUT, name, edge, range(name, min, max, step));
+    }
+
+    private static int[] range(String name, int min, int max, int step) throws IllegalArgumentException {
+        if (min < 0 || max < min || step <= 0) {
+            throw new IllegalArgumentException(String.format(
+                "SweepParameter(%s, %d, %d, %d) -- The range must be non-empty, non-negative, with a positive step",
+                name, min, max, step));
+        }
+        int[] values = new int[(max - min) / step + 1];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = min + i * step;
+        }
+        return values;
+    }
+
+    /**
+     * @return the column name of the parameter
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return the values of the parameter, in increasing order
+     */
+    public int[] getValues() {
+        return this.values.clone();
+    }
+
+    int getValueCount() {
+        return this.values.length;
+    }
+
+    int getValue(int index) {
+        return this.values[index];
+    }
+
+    /**
+     * Finds the position of the target in the net: the index of the place, or the indices
+     * of the transition and of the edge in its input or output edges.
+     *
+     * @throws IllegalArgumentException if the target is not part of the net
+     */
+    int[] locate(PetriNet1 petriNet) throws IllegalArgumentException {
+        if (this.kind == Kind.TOKENS) {
+            int index = petriNet.getPlaces().indexOf(this.target);
+            if (index >= 0) {
+                return new int[] {index};
+            }
+        } else {
+            for (int t = 0; t < petriNet.getTransitions().size(); ++t) {
+                Transition transition = petriNet.getTransitions().get(t);
+                int index = this.kind == Kind.WEIGHT_IN
+                    ? transition.getEdgesIn().indexOf(this.target)
+                    : transition.getEdgesOut().indexOf(this.target);
+                if (index >= 0) {
+                    return new int[] {t, index};
+                }
+            }
+        }
+        throw new IllegalArgumentException(String.format(
+            "SweepParameter.locate(petriNet) -- The target of %s is not in the Petri net.", this.name));
+    }
+
+    /**
+     * Sets the parameter in a copy of the net.
+     *
+     * @param petriNet a copy of the net the location was computed on
+     * @param location the result of {@link #locate(PetriNet1)}
+     * @param value    the value to set
+     */
+    void apply(PetriNet1 petriNet, int[] location, int value) {
+        if (this.kind == Kind.TOKENS) {
+            petriNet.setTokens(petriNet.getPlaces().get(location[0]), value);
+            return;
+        }
+        Transition transition = petriNet.getTransitions().get(location[0]);
+        Edge edge = this.kind == Kind.WEIGHT_IN
+            ? transition.getEdgesIn().get(location[1])
+            : transition.getEdgesOut().get(location[1]);
+        petriNet.setWeight(edge, value);
+    }
+
+    /**
+     * Tells whether the parameter sets an initial number of tokens.
+     */
+    boolean isTokens() {
+        return this.kind == Kind.TOKENS;
+    }
+}
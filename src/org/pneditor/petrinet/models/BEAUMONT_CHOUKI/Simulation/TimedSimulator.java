@@ -0,0 +1,331 @@
+package org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Simulation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeIn;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeOut;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeZero;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.ReadEdge;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Place;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Transition;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.PetriNET.PetriNet1;
+
+/**
+ * Discrete-event simulation of a Petri net whose transitions have firing delays
+ * ({@link Transition#getMinDelay()}, {@link Transition#getMaxDelay()}).
+ * <p>
+ * The transitions race: when a transition becomes drawable, a delay is drawn uniformly in
+ * its interval and its firing is scheduled after that delay. It fires at that time unless
+ * it was disabled in the meantime, in which case the firing is cancelled and a new delay
+ * is drawn the next time it becomes drawable (race policy with enabling memory). A
+ * transition still drawable after it fired is scheduled again with a new delay, so each
+ * transition has at most one pending firing. Firings of the same time happen in the order
+ * they were scheduled; weights and priorities are not used.
+ * </p>
+ * <p>
+ * Pending firings are kept in a {@link TimingWheel}. A cancelled firing is not removed from
+ * the wheel: the transition's generation is incremented and the stale entry is skipped when
+ * it comes out. After a firing, only the transitions having an input edge from a place the
+ * fired transition changed, or an output edge to such a place with a capacity, are
+ * re-tested, as in {@link TransitionSampler}; a place that is only read by a
+ * {@link ReadEdge} is not changed, so its readers never race for it.
+ * </p>
+ * <p>
+ * The simulator works on the net itself, whose tokens it changes, and collects
+ * time-weighted statistics: the mean and maximum number of tokens of every place, and the
+ * number of firings and the fraction of time drawable of every transition. The structure
+ * of the net, capacities included, must not change while the simulator is used.
+ * </p>
+ */
+public final class TimedSimulator {
+
+    private final PetriNet1 petriNet;
+    private final List<Place> places;
+    private final List<Transition> transitions;
+    private final SplittableRandom random;
+    private final TimingWheel wheel = new TimingWheel();
+
+    // Structure: places changed by a firing, transitions to re-test after it
+    private final int[][] changedPlaces;
+    private final int[][] retested;
+
+    // Race state
+    private final int[] generations;
+    private final boolean[] enabled;
+    private long time;
+    private long firingCount;
+
+    // Statistics
+    private final double[] tokenAreas;
+    private final long[] lastChanges;
+    private final int[] maxTokens;
+    private final long[] firings;
+    private final long[] enabledSince;
+    private final long[] enabledTimes;
+
+    /**
+     * Creates a simulator at time 0 in the current marking of the net, scheduling the
+     * drawable transitions.
+     *
+     * @param petriNet the net to simulate, whose tokens are changed by the simulation
+     * @param seed     the seed of the delays
+     */
+    public TimedSimulator(PetriNet1 petriNet, long seed) {
+        this.petriNet = petriNet;
+        this.places = new ArrayList<Place>(petriNet.getPlaces());
+        this.transitions = new ArrayList<Transition>(petriNet.getTransitions());
+        this.random = new SplittableRandom(seed);
+        int placeCount = this.places.size();
+        int transitionCount = this.transitions.size();
+
+        Map<Place, Integer> placeIndices = new HashMap<Place, Integer>();
+        for (int p = 0; p < placeCount; ++p) {
+            placeIndices.put(this.places.get(p), p);
+        }
+        List<List<Integer>> dependents = new ArrayList<List<Integer>>();
+        for (int p = 0; p < placeCount; ++p) {
+            dependents.add(new ArrayList<Integer>());
+        }
+        this.changedPlaces = new int[transitionCount][];
+        for (int t = 0; t < transitionCount; ++t) {
+            Transition transition = this.transitions.get(t);
+            TreeSet<Integer> changed = new TreeSet<Integer>();
+            for (EdgeIn edge : transition.getEdgesIn()) {
+                int p = placeIndices.get(edge.getOrigin());
+                if (!(edge instanceof ReadEdge || edge instanceof EdgeZero)) {
+                    changed.add(p);
+                }
+                List<Integer> list = dependents.get(p);
+                if (list.isEmpty() || list.get(list.size() - 1) != t) {
+                    list.add(t);
+                }
+            }
+            for (EdgeOut edge : transition.getEdgesOut()) {
+                int p = placeIndices.get(edge.getArrival());
+                changed.add(p);
+                // A full place with a capacity blocks the transitions putting into it
+                List<Integer> list = dependents.get(p);
+                if (edge.getArrival().isBounded() && (list.isEmpty() || list.get(list.size() - 1) != t)) {
+                    list.add(t);
+                }
+            }
+            this.changedPlaces[t] = toArray(changed);
+        }
+        this.retested = new int[transitionCount][];
+        for (int t = 0; t < transitionCount; ++t) {
+            TreeSet<Integer> affected = new TreeSet<Integer>();
+            affected.add(t);
+            for (int p : this.changedPlaces[t]) {
+                affected.addAll(dependents.get(p));
+            }
+            this.retested[t] = toArray(affected);
+        }
+
+        this.generations = new int[transitionCount];
+        this.enabled = new boolean[transitionCount];
+        this.tokenAreas = new double[placeCount];
+        this.lastChanges = new long[placeCount];
+        this.maxTokens = new int[placeCount];
+        this.firings = new long[transitionCount];
+        this.enabledSince = new long[transitionCount];
+        this.enabledTimes = new long[transitionCount];
+        for (int p = 0; p < placeCount; ++p) {
+            this.maxTokens[p] = this.places.get(p).getNbTokens();
+        }
+        for (int t = 0; t < transitionCount; ++t) {
+            if (this.transitions.get(t).isDrawable()) {
+                this.enable(t);
+            }
+        }
+    }
+
+    private static int[] toArray(TreeSet<Integer> set) {
+        int[] array = new int[set.size()];
+        int i = 0;
+        for (int value : set) {
+            array[i++] = value;
+        }
+        return array;
+    }
+
+    /**
+     * Runs the simulation up to time {@code until}.
+     *
+     * @param until the time at which the simulation stops
+     * @return the number of firings
+     * @throws IllegalArgumentException if {@code until} is before the current time
+     */
+    public long run(long until) throws IllegalArgumentException {
+        return this.run(until, Long.MAX_VALUE);
+    }
+
+    /**
+     * Runs the simulation up to time {@code until}, or until {@code maxFirings} transitions
+     * fired. The limit stops nets that fire forever without time passing, because of
+     * transitions with a zero delay.
+     *
+     * @param until      the time at which the simulation stops
+     * @param maxFirings the maximum number of firings
+     * @return the number of firings
+     * @throws IllegalArgumentException if {@code until} is before the current time
+     */
+    public long run(long until, long maxFirings) throws IllegalArgumentException {
+        if (until < this.time) {
+            throw new IllegalArgumentException(String.format(
+                "TimedSimulator.run(%d, %d) -- The simulation is already at time %d", until, maxFirings, this.time));
+        }
+        long count = 0;
+        while (count < maxFirings && this.wheel.peekTime() <= until) {
+            long event = this.wheel.poll();
+            int t = (int) (event >>> 32);
+            if ((int) event != this.generations[t]) {
+                continue; // Cancelled
+            }
+            this.time = this.wheel.getNow();
+            this.fire(t);
+            ++count;
+        }
+        if (count < maxFirings) {
+            this.time = until;
+        }
+        this.firingCount += count;
+        return count;
+    }
+
+    private void fire(int t) {
+        for (int p : this.changedPlaces[t]) {
+            this.accumulate(p);
+        }
+        this.disable(t);
+        this.petriNet.stepSimulation(this.transitions.get(t));
+        ++this.firings[t];
+        for (int p : this.changedPlaces[t]) {
+            int tokens = this.places.get(p).getNbTokens();
+            if (tokens > this.maxTokens[p]) {
+                this.maxTokens[p] = tokens;
+            }
+        }
+        for (int u : this.retested[t]) {
+            boolean isDrawable = this.transitions.get(u).isDrawable();
+            if (isDrawable && !this.enabled[u]) {
+                this.enable(u);
+            } else if (!isDrawable && this.enabled[u]) {
+                this.disable(u);
+            }
+        }
+    }
+
+    private void enable(int t) {
+        Transition transition = this.transitions.get(t);
+        long delay = transition.getMinDelay();
+        if (transition.getMaxDelay() > delay) {
+            delay += this.random.nextLong(transition.getMaxDelay() - delay + 1);
+        }
+        this.enabled[t] = true;
+        this.enabledSince[t] = this.time;
+        this.wheel.schedule(this.time + delay, ((long) t << 32) | (this.generations[t] & 0xFFFFFFFFL));
+    }
+
+    private void disable(int t) {
+        ++this.generations[t];
+        this.enabled[t] = false;
+        this.enabledTimes[t] += this.time - this.enabledSince[t];
+    }
+
+    private void accumulate(int p) {
+        this.tokenAreas[p] += (double) this.places.get(p).getNbTokens() * (this.time - this.lastChanges[p]);
+        this.lastChanges[p] = this.time;
+    }
+
+    /**
+     * @return the current time of the simulation
+     */
+    public long getTime() {
+        return this.time;
+    }
+
+    /**
+     * @return the number of firings since the simulator was created
+     */
+    public long getFiringCount() {
+        return this.firingCount;
+    }
+
+    /**
+     * Tells whether a firing is pending, i.e. whether a transition is drawable.
+     *
+     * @return {@code false} if the net is in a deadlock
+     */
+    public boolean hasPendingFiring() {
+        for (boolean isEnabled : this.enabled) {
+            if (isEnabled) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the time-weighted mean number of tokens of a place since time 0.
+     *
+     * @param place the index of the place in {@link PetriNet1#getPlaces()}
+     * @return the mean, or the current number of tokens at time 0
+     */
+    public double getMeanTokens(int place) {
+        int tokens = this.places.get(place).getNbTokens();
+        if (this.time == 0) {
+            return tokens;
+        }
+        double area = this.tokenAreas[place] + (double) tokens * (this.time - this.lastChanges[place]);
+        return area / this.time;
+    }
+
+    /**
+     * @param place the index of the place in {@link PetriNet1#getPlaces()}
+     * @return the largest number of tokens of the place since time 0
+     */
+    public int getMaxTokens(int place) {
+        return this.maxTokens[place];
+    }
+
+    /**
+     * @param transition the index of the transition in {@link PetriNet1#getTransitions()}
+     * @return the number of firings of the transition
+     */
+    public long getFirings(int transition) {
+        return this.firings[transition];
+    }
+
+    /**
+     * Returns the number of firings of a transition per unit of time.
+     *
+     * @param transition the index of the transition in {@link PetriNet1#getTransitions()}
+     * @return the throughput, {@code 0} at time 0
+     */
+    public double getThroughput(int transition) {
+        return this.time == 0 ? 0 : (double) this.firings[transition] / this.time;
+    }
+
+    /**
+     * Returns the fraction of the time during which a transition was drawable, its
+     * utilization when it models a server.
+     *
+     * @param transition the index of the transition in {@link PetriNet1#getTransitions()}
+     * @return the fraction, in {@code [0, 1]}, {@code 0} at time 0
+     */
+    public double getEnabledFraction(int transition) {
+        if (this.time == 0) {
+            return 0;
+        }
+        long enabledTime = this.enabledTimes[transition];
+        if (this.enabled[transition]) {
+            enabledTime += this.time - this.enabledSince[transition];
+        }
+        return (double) enabledTime / this.time;
+    }
+}
@@ -0,0 +1,229 @@
+package org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Simulation;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical timing wheel: a priority queue of events keyed by a {@code long} time, for
+ * discrete-event simulation.
+ * <p>
+ * The wheel has 8 levels of 256 slots, one level per byte of the time. An event goes to the
+ * level of the highest byte in which its time differs from the current time, in the slot
+ * given by that byte, so scheduling is {@code O(1)}. When the lowest level is exhausted, the
+ * next non-empty slot of the lowest level that has one is emptied and its events are moved
+ * down; every event moves at most 7 times. A bitmap of the non-empty slots of each level
+ * finds the next slot without scanning empty ones.
+ * </p>
+ * <p>
+ * Events of the same time come out in the order they were scheduled. The events are kept in
+ * parallel arrays linked by index, so the wheel allocates nothing once it has grown to the
+ * number of pending events. This class is not thread-safe.
+ * </p>
+ */
+public final class TimingWheel {
+
+    private static final int BITS = 8;
+    private static final int SLOTS = 1 << BITS;
+    private static final int LEVELS = Long.SIZE / BITS;
+    private static final int NONE = -1;
+
+    private long now;
+    private int size;
+
+    // First-in first-out lists of events, one per slot of every level
+    private final int[] heads = new int[LEVELS * SLOTS];
+    private final int[] tails = new int[LEVELS * SLOTS];
+    private final long[] occupied = new long[LEVELS * SLOTS / Long.SIZE];
+
+    // Event pool
+    private long[] times = new long[256];
+    private long[] payloads = new long[256];
+    private int[] next = new int[256];
+    private int used;
+    private int free = NONE;
+
+    /**
+     * Creates an empty wheel at time 0.
+     */
+    public TimingWheel() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty wheel.
+     *
+     * @param start the current time
+     */
+    public TimingWheel(long start) {
+        this.now = start;
+        Arrays.fill(this.heads, NONE);
+        Arrays.fill(this.tails, NONE);
+    }
+
+    /**
+     * Returns the current time: the time of the last event polled, or of the next event
+     * after {@link #peekTime()}.
+     *
+     * @return the current time
+     */
+    public long getNow() {
+        return this.now;
+    }
+
+    /**
+     * @return the number of pending events
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return {@code true} if no event is pending
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Schedules an event.
+     *
+     * @param time    the time of the event
+     * @param payload the value returned by {@link #poll()} for this event
+     * @throws IllegalArgumentException if {@code time} is before the current time
+     */
+    public void schedule(long time, long payload) throws IllegalArgumentException {
+        if (time < this.now) {
+            throw new IllegalArgumentException(String.format(
+                "TimingWheel.schedule(%d, payload) -- The time is before the current time (%d)", time, this.now));
+        }
+        int event = this.allocate();
+        this.times[event] = time;
+        this.payloads[event] = payload;
+        this.insert(event);
+        ++this.size;
+    }
+
+    /**
+     * Returns the time of the next event, moving the current time to it.
+     *
+     * @return the time of the next event, or {@link Long#MAX_VALUE} if there is none
+     */
+    public long peekTime() {
+        return this.advance() ? this.now : Long.MAX_VALUE;
+    }
+
+    /**
+     * Removes the next event and moves the current time to its time.
+     *
+     * @return the payload of the event
+     * @throws IllegalStateException if no event is pending
+     */
+    public long poll() throws IllegalStateException {
+        if (!this.advance()) {
+            throw new IllegalStateException("TimingWheel.poll() -- No event is pending");
+        }
+        int index = (int) (this.now & (SLOTS - 1));
+        int event = this.heads[index];
+        this.heads[index] = this.next[event];
+        if (this.heads[index] == NONE) {
+            this.tails[index] = NONE;
+            this.occupied[index >>> 6] &= ~(1L << index);
+        }
+        long payload = this.payloads[event];
+        this.next[event] = this.free;
+        this.free = event;
+        --this.size;
+        return payload;
+    }
+
+    /**
+     * Moves the current time to the next event, cascading events down the levels.
+     *
+     * @return {@code false} if no event is pending
+     */
+    private boolean advance() {
+        while (this.size > 0) {
+            int slot = this.nextOccupied(0, (int) (this.now & (SLOTS - 1)));
+            if (slot >= 0) {
+                this.now = (this.now & ~(long) (SLOTS - 1)) | slot;
+                return true;
+            }
+            for (int level = 1; level < LEVELS; ++level) {
+                int shift = level * BITS;
+                int current = (int) (this.now >>> shift) & (SLOTS - 1);
+                slot = current == SLOTS - 1 ? -1 : this.nextOccupied(level, current + 1);
+                if (slot >= 0) {
+                    // Start of the block of that slot, with the lower bytes at zero
+                    long high = shift + BITS == Long.SIZE ? 0 : (this.now >>> (shift + BITS)) << (shift + BITS);
+                    this.now = high | ((long) slot << shift);
+                    this.cascade(level * SLOTS + slot);
+                    break;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Re-inserts the events of a slot, which now belong to lower levels.
+     */
+    private void cascade(int index) {
+        int event = this.heads[index];
+        this.heads[index] = NONE;
+        this.tails[index] = NONE;
+        this.occupied[index >>> 6] &= ~(1L << index);
+        while (event != NONE) {
+            int following = this.next[event];
+            this.insert(event);
+            event = following;
+        }
+    }
+
+    private void insert(int event) {
+        long time = this.times[event];
+        long difference = time ^ this.now;
+        int level = difference == 0 ? 0 : (Long.SIZE - 1 - Long.numberOfLeadingZeros(difference)) / BITS;
+        int index = level * SLOTS + ((int) (time >>> (level * BITS)) & (SLOTS - 1));
+        this.next[event] = NONE;
+        if (this.tails[index] == NONE) {
+            this.heads[index] = event;
+            this.occupied[index >>> 6] |= 1L << index;
+        } else {
+            this.next[this.tails[index]] = event;
+        }
+        this.tails[index] = event;
+    }
+
+    /**
+     * @return the first non-empty slot of the level at or after {@code from}, or -1
+     */
+    private int nextOccupied(int level, int from) {
+        int base = level * SLOTS;
+        int word = (base + from) >>> 6;
+        int last = (base + SLOTS - 1) >>> 6;
+        long bits = this.occupied[word] & (-1L << (from & 63));
+        while (true) {
+            if (bits != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(bits) - base;
+            }
+            if (++word > last) {
+                return -1;
+            }
+            bits = this.occupied[word];
+        }
+    }
+
+    private int allocate() {
+        if (this.free != NONE) {
+            int event = this.free;
+            this.free = this.next[event];
+            return event;
+        }
+        if (this.used == this.times.length) {
+            int capacity = 2 * this.used;
+            this.times = Arrays.copyOf(this.times, capacity);
+            this.payloads = Arrays.copyOf(this.payloads, capacity);
+            this.next = Arrays.copyOf(this.next, capacity);
+        }
+        return this.used++;
+    }
+}
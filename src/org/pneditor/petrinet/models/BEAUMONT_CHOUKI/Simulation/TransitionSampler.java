@@ -0,0 +1,287 @@
+package org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeIn;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeOut;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.EdgeZero;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Edges.ReadEdge;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Place;
+import org.pneditor.petrinet.models.BEAUMONT_CHOUKI.Nodes.Transition;
+
+/**
+ * Draws the next transition of a simulation according to the weights and priorities of
+ * the transitions ({@link Transition#getWeight()}, {@link Transition#getPriority()}).
+ * <p>
+ * Only the drawable transitions of the highest priority can be drawn, each with a
+ * probability proportional to its weight. The weights of the drawable transitions are
+ * kept in one Fenwick (binary indexed) tree per priority level, so that drawing a
+ * transition and updating one weight both take {@code O(log T)} time. After a transition
+ * is drawn, {@link #update(Transition)} only re-tests the transitions having an input edge
+ * from one of the places it changed, or an output edge to one of them if the place has a
+ * capacity, instead of rebuilding the list of drawable transitions.
+ * </p>
+ * <p>
+ * The sampler is built for a fixed structure: edges and transitions must not be added or
+ * removed, nor capacities set or removed, while it is used. Token counts may be changed
+ * by other means, followed by a call to {@link #refresh()}.
+ * </p>
+ */
+public final class TransitionSampler {
+
+    private final List<Transition> transitions;
+    private final Map<Transition, Integer> indices = new HashMap<Transition, Integer>();
+    private final Map<Place, int[]> dependents = new HashMap<Place, int[]>();
+    private final int[] levelOf;
+    private final int[] positionOf;
+    private final double[] weights;
+    private final boolean[] drawable;
+    private final int[][] levelTransitions;
+    private final double[][] trees;
+    private final int[] drawableCounts;
+
+    /**
+     * Creates a sampler for the given transitions, in the current marking.
+     *
+     * @param transitions the transitions of the net
+     */
+    public TransitionSampler(List<Transition> transitions) {
+        this.transitions = new ArrayList<Transition>(transitions);
+        int count = this.transitions.size();
+
+        // Priority levels, highest first
+        TreeSet<Integer> priorities = new TreeSet<Integer>();
+        for (Transition transition : this.transitions) {
+            priorities.add(transition.getPriority());
+        }
+        List<Integer> levels = new ArrayList<Integer>(priorities.descendingSet());
+        int[] levelSizes = new int[levels.size()];
+        this.levelOf = new int[count];
+        this.positionOf = new int[count];
+        for (int t = 0; t < count; ++t) {
+            int level = levels.indexOf(this.transitions.get(t).getPriority());
+            this.levelOf[t] = level;
+            this.positionOf[t] = levelSizes[level]++;
+        }
+        this.levelTransitions = new int[levels.size()][];
+        this.trees = new double[levels.size()][];
+        for (int level = 0; level < levelSizes.length; ++level) {
+            this.levelTransitions[level] = new int[levelSizes[level]];
+            this.trees[level] = new double[levelSizes[level] + 1];
+        }
+        this.drawableCounts = new int[levels.size()];
+        this.weights = new double[count];
+        this.drawable = new boolean[count];
+
+        // Transitions to re-test when the tokens of a place change: the ones taking from
+        // it, and the ones putting into it if it has a capacity
+        Map<Place, List<Integer>> dependentLists = new HashMap<Place, List<Integer>>();
+        for (int t = 0; t < count; ++t) {
+            Transition transition = this.transitions.get(t);
+            this.indices.put(transition, t);
+            this.levelTransitions[this.levelOf[t]][this.positionOf[t]] = t;
+            for (EdgeIn edge : transition.getEdgesIn()) {
+                addDependent(dependentLists, edge.getOrigin(), t);
+            }
+            for (EdgeOut edge : transition.getEdgesOut()) {
+                if (edge.getArrival().isBounded()) {
+                    addDependent(dependentLists, edge.getArrival(), t);
+                }
+            }
+        }
+        for (Map.Entry<Place, List<Integer>> entry : dependentLists.entrySet()) {
+            int[] array = new int[entry.getValue().size()];
+            for (int i = 0; i < array.length; ++i) {
+                array[i] = entry.getValue().get(i);
+            }
+            this.dependents.put(entry.getKey(), array);
+        }
+        this.refresh();
+    }
+
+    private static void addDependent(Map<Place, List<Integer>> dependentLists, Place place, int t) {
+        List<Integer> list = dependentLists.get(place);
+        if (list == null) {
+            list = new ArrayList<Integer>();
+            dependentLists.put(place, list);
+        }
+        if (list.isEmpty() || list.get(list.size() - 1) != t) {
+            list.add(t);
+        }
+    }
+
+    /**
+     * Re-tests every transition and rebuilds the trees, in {@code O(T)} plus the cost of
+     * the tests. Needed after the tokens were changed without drawing a transition.
+     */
+    public void refresh() {
+        for (int level = 0; level < this.trees.length; ++level) {
+            Arrays.fill(this.trees[level], 0);
+            this.drawableCounts[level] = 0;
+        }
+        for (int t = 0; t < this.weights.length; ++t) {
+            Transition transition = this.transitions.get(t);
+            this.drawable[t] = transition.isDrawable();
+            this.weights[t] = transition.getWeight();
+            if (this.drawable[t]) {
+                this.trees[this.levelOf[t]][this.positionOf[t] + 1] = this.weights[t];
+                ++this.drawableCounts[this.levelOf[t]];
+            }
+        }
+        // Linear-time construction: push every node to its parent
+        for (double[] tree : this.trees) {
+            for (int i = 1; i < tree.length; ++i) {
+                int parent = i + (i & -i);
+                if (parent < tree.length) {
+                    tree[parent] += tree[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates the drawable transitions after {@code fired} was drawn, re-testing only
+     * the transitions with an input edge from a place changed by {@code fired}, or an
+     * output edge to such a place with a capacity. Places that are only read
+     * ({@link ReadEdge}, {@link EdgeZero}) keep their tokens, so the transitions sharing
+     * them are not re-tested.
+     *
+     * @param fired the transition just drawn
+     */
+    public void update(Transition fired) {
+        for (EdgeIn edge : fired.getEdgesIn()) {
+            if (!(edge instanceof ReadEdge || edge instanceof EdgeZero)) {
+                this.retest(edge.getOrigin());
+            }
+        }
+        for (EdgeOut edge : fired.getEdgesOut()) {
+            this.retest(edge.getArrival());
+        }
+    }
+
+    private void retest(Place place) {
+        int[] transitionIndices = this.dependents.get(place);
+        if (transitionIndices == null) {
+            return;
+        }
+        for (int t : transitionIndices) {
+            boolean isDrawable = this.transitions.get(t).isDrawable();
+            if (isDrawable != this.drawable[t]) {
+                this.drawable[t] = isDrawable;
+                this.drawableCounts[this.levelOf[t]] += isDrawable ? 1 : -1;
+                this.add(t, isDrawable ? this.weights[t] : -this.weights[t]);
+            }
+        }
+    }
+
+    /**
+     * Takes a new weight of a transition into account, in {@code O(log T)}.
+     *
+     * @param transition a transition whose weight was changed
+     * @throws IllegalArgumentException if the transition is not known by the sampler
+     */
+    public void updateWeight(Transition transition) throws IllegalArgumentException {
+        Integer t = this.indices.get(transition);
+        if (t == null) {
+            throw new IllegalArgumentException(
+                "TransitionSampler.updateWeight(transition) -- The argument transition is unknown.");
+        }
+        double weight = transition.getWeight();
+        if (this.drawable[t]) {
+            this.add(t, weight - this.weights[t]);
+        }
+        this.weights[t] = weight;
+    }
+
+    private void add(int t, double delta) {
+        double[] tree = this.trees[this.levelOf[t]];
+        for (int i = this.positionOf[t] + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Tells whether at least one transition is drawable.
+     *
+     * @return {@code true} if {@link #sample(double)} will return a transition
+     */
+    public boolean hasDrawable() {
+        for (int count : this.drawableCounts) {
+            if (count > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tells whether a transition is drawable, as last tested by the sampler.
+     *
+     * @param transition a transition of the net
+     * @return {@code true} if {@link #sample(double)} may return the transition, ignoring
+     *         priorities
+     * @throws IllegalArgumentException if the transition is not known by the sampler
+     */
+    public boolean isDrawable(Transition transition) throws IllegalArgumentException {
+        Integer t = this.indices.get(transition);
+        if (t == null) {
+            throw new IllegalArgumentException(
+                "TransitionSampler.isDrawable(transition) -- The argument transition is unknown.");
+        }
+        return this.drawable[t];
+    }
+
+    /**
+     * Draws a transition among the drawable ones of the highest priority, with
+     * probability proportional to its weight.
+     *
+     * @param uniform a random number in {@code [0, 1)}
+     * @return the transition, or {@code null} if no transition is drawable
+     */
+    public Transition sample(double uniform) {
+        for (int level = 0; level < this.trees.length; ++level) {
+            if (this.drawableCounts[level] == 0) {
+                continue;
+            }
+            Transition transition = this.search(level, uniform);
+            if (transition == null) {
+                // Rounding errors accumulated in the sums: rebuild and retry once
+                this.refresh();
+                transition = this.search(level, uniform);
+            }
+            return transition;
+        }
+        return null;
+    }
+
+    /**
+     * Finds the first position whose prefix sum exceeds {@code uniform * total}.
+     */
+    private Transition search(int level, double uniform) {
+        double[] tree = this.trees[level];
+        int size = tree.length - 1;
+        double total = 0;
+        for (int i = size; i > 0; i -= i & -i) {
+            total += tree[i];
+        }
+        double target = uniform * total;
+        int position = 0;
+        for (int step = Integer.highestOneBit(Math.max(1, size)); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= size && tree[next] <= target) {
+                position = next;
+                target -= tree[next];
+            }
+        }
+        if (position >= size) {
+            return null;
+        }
+        int t = this.levelTransitions[level][position];
+        return this.drawable[t] ? this.transitions.get(t) : null;
+    }
+}
@@ -20,6 +20,7 @@ import java.awt.Point;
 import java.awt.Rectangle;
 import java.io.File; 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.List;
@@ -33,6 +34,9 @@ import org.pneditor.editor.gpetrinet.GraphicElement;
 import org.pneditor.editor.gpetrinet.GraphicPetriNet;
 import org.pneditor.editor.gpetrinet.GraphicPlace;
 import org.pneditor.editor.gpetrinet.GraphicTransition;
+import org.pneditor.metrics.Metrics;
+import org.pneditor.metrics.Timer;
+import org.pneditor.monitoring.FlightRecorderEvents;
 import org.pneditor.petrinet.AbstractArc;
 import org.pneditor.petrinet.ResetArcMultiplicityException;
 
@@ -44,6 +48,8 @@ import logger.PNEditorLogger;
  */
 public final class DocumentExporter {
 
+	private static final Timer EXPORT = Metrics.timer("document.export");
+
 	private final XmlDocument xmlDocument = new XmlDocument();
 	
 	public DocumentExporter(final GraphicPetriNet petriNet) {
@@ -54,11 +60,26 @@ public final class DocumentExporter {
 	}
 
 	public void writeToFile(final File file) throws JAXBException {
+		final FlightRecorderEvents.Timing event = FlightRecorderEvents.beginDocument();
+		final long start = EXPORT.start();
+		try {
+			marshal(file);
+		} finally {
+			EXPORT.stop(start);
+			if (event.end()) {
+				final XmlPetriNet xmlPetriNet = this.xmlDocument.petriNet;
+				FlightRecorderEvents.commitDocument(event, "export", file, xmlPetriNet.places.size(),
+						xmlPetriNet.transitions.size(), xmlPetriNet.arcs.size());
+			}
+		}
+	}
+
+	private void marshal(final File file) throws JAXBException {
 		final JAXBContext ctx = JAXBContext.newInstance(XmlDocument.class);
 		final Marshaller marshaller = ctx.createMarshaller();
 		marshaller.setProperty("jaxb.formatted.output", true);
-		try {
-			marshaller.marshal(this.xmlDocument, Files.newOutputStream(Paths.get(file.toURI())));
+		try (OutputStream out = Files.newOutputStream(Paths.get(file.toURI()))) {
+			marshaller.marshal(this.xmlDocument, out);
 		} catch (IOException e) {
 			PNEditorLogger.severeLogs(e.getMessage());
 		}
@@ -86,6 +107,9 @@ public final class DocumentExporter {
 		xmlPlace.y = place.getCenter().y;
 		xmlPlace.label = place.getLabel();
 		xmlPlace.tokens = place.getPlace().getTokens();
+		if (place.getPlace().hasCapacity()) {
+			xmlPlace.capacity = place.getPlace().getCapacity();
+		}
 		return xmlPlace;
 	}
 
@@ -103,7 +127,8 @@ public final class DocumentExporter {
 		final XmlArc xmlArc = new XmlArc();
 		xmlArc.sourceId = arc.getSource().getId();
 		xmlArc.destinationId = arc.getDestination().getId();
-		xmlArc.type = arc.isRegular() ? "regular" : arc.isInhibitory() ? "inhibitory" : "reset";
+		xmlArc.type = arc.isRegular() ? "regular"
+				: arc.isInhibitory() ? "inhibitory" : arc.isRead() ? "read" : "reset";
 		if (!arc.isReset()) {
 			try {
 				xmlArc.multiplicity = arc.getMultiplicity();
@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -36,11 +37,14 @@ import org.pneditor.editor.gpetrinet.GraphicNode;
 import org.pneditor.editor.gpetrinet.GraphicPetriNet;
 import org.pneditor.editor.gpetrinet.GraphicPlace;
 import org.pneditor.editor.gpetrinet.GraphicTransition;
+import org.pneditor.metrics.Metrics;
+import org.pneditor.metrics.Timer;
+import org.pneditor.monitoring.FlightRecorderEvents;
 import org.pneditor.petrinet.AbstractArc;
 import org.pneditor.petrinet.AbstractPlace;
 import org.pneditor.petrinet.AbstractTransition;
-import org.pneditor.petrinet.ResetArcMultiplicityException;
-import org.pneditor.petrinet.UnimplementedCaseException;
+import org.pneditor.petrinet.NetBatch;
+import org.pneditor.petrinet.PetriNetInterface;
 
 import logger.PNEditorLogger;
 
@@ -50,17 +54,127 @@ import logger.PNEditorLogger;
  */
 public class DocumentImporter {
 
+	private static final Timer IMPORT = Metrics.timer("document.import");
+
 	private XmlDocument xmlDocument;
 	final private Map<Integer, GraphicNode> nodeReferences = new HashMap<>();
 
 	public GraphicPetriNet readFromFile(final File file, final String model)
 			throws JAXBException, FileNotFoundException, IOException {
+		final FlightRecorderEvents.Timing event = FlightRecorderEvents.beginDocument();
+		final long start = IMPORT.start();
+		try {
+			this.xmlDocument = unmarshal(file);
+			return getPetriNet(model);
+		} finally {
+			IMPORT.stop(start);
+			commit(event, file);
+		}
+	}
+
+	/**
+	 * Reads only the net of a document into {@code petriNet}, without creating
+	 * any graphic element, so that documents can be loaded without a display.
+	 *
+	 * @param petriNet an empty net of the wanted model
+	 * @return {@code petriNet}
+	 */
+	public PetriNetInterface readPetriNetFromFile(final File file, final PetriNetInterface petriNet)
+			throws JAXBException, FileNotFoundException, IOException {
+		final FlightRecorderEvents.Timing event = FlightRecorderEvents.beginDocument();
+		final long start = IMPORT.start();
+		try {
+			return readPetriNet(file, petriNet);
+		} finally {
+			IMPORT.stop(start);
+			commit(event, file);
+		}
+	}
+
+	private void commit(final FlightRecorderEvents.Timing event, final File file) {
+		if (event.end()) {
+			final XmlPetriNet xmlPetriNet = this.xmlDocument == null ? new XmlPetriNet() : this.xmlDocument.petriNet;
+			FlightRecorderEvents.commitDocument(event, "import", file, xmlPetriNet.places.size(),
+					xmlPetriNet.transitions.size(), xmlPetriNet.arcs.size());
+		}
+	}
+
+	private PetriNetInterface readPetriNet(final File file, final PetriNetInterface petriNet)
+			throws JAXBException, IOException {
+		this.xmlDocument = unmarshal(file);
+		addToNet(this.xmlDocument.petriNet, petriNet, new ArrayList<>());
+		return petriNet;
+	}
+
+	/**
+	 * Adds the places, transitions and arcs of the document to {@code petriNet}
+	 * in one batch, the nodes in the order of the document.
+	 *
+	 * @param batchedArcs filled with the arcs of the document put in the batch,
+	 *                    in the order of the batch
+	 * @return the committed batch
+	 */
+	private static NetBatch addToNet(final XmlPetriNet xmlPetriNet, final PetriNetInterface petriNet,
+			final List<XmlArc> batchedArcs) {
+		final NetBatch batch = petriNet.newBatch(xmlPetriNet.places.size() + xmlPetriNet.transitions.size(),
+				xmlPetriNet.arcs.size());
+		final Map<Integer, Integer> indexes = new HashMap<>();
+		for (final XmlPlace xmlPlace : xmlPetriNet.places) {
+			indexes.put(xmlPlace.id, batch.addPlace(xmlPlace.id, xmlPlace.tokens,
+					xmlPlace.capacity == null ? NetBatch.NO_CAPACITY : xmlPlace.capacity));
+		}
+		for (final XmlTransition xmlTransition : xmlPetriNet.transitions) {
+			indexes.put(xmlTransition.id, batch.addTransition(xmlTransition.id));
+		}
+		for (final XmlArc xmlArc : xmlPetriNet.arcs) {
+			final Integer source = indexes.get(xmlArc.sourceId);
+			final Integer destination = indexes.get(xmlArc.destinationId);
+			final int kind = arcKind(xmlArc.type);
+			try {
+				if (source == null || destination == null || kind < 0) {
+					throw new IllegalArgumentException("Unknown " + xmlArc.type + " arc from " + xmlArc.sourceId
+							+ " to " + xmlArc.destinationId);
+				}
+				batch.addArc(kind, source, destination, xmlArc.multiplicity);
+				batchedArcs.add(xmlArc);
+			} catch (IllegalArgumentException e) {
+				PNEditorLogger.severeLogs(e.getMessage());
+			}
+		}
+		batch.commit();
+
+		int node = 0;
+		for (final XmlPlace xmlPlace : xmlPetriNet.places) {
+			batch.getNode(node++).setLabel(xmlPlace.label);
+		}
+		for (final XmlTransition xmlTransition : xmlPetriNet.transitions) {
+			batch.getNode(node++).setLabel(xmlTransition.label);
+		}
+		return batch;
+	}
+
+	/**
+	 * @return the kind of arc of a {@code type} of the document, -1 if unknown
+	 */
+	private static int arcKind(final String type) {
+		if ("regular".equals(type)) {
+			return NetBatch.REGULAR;
+		} else if ("reset".equals(type)) {
+			return NetBatch.RESET;
+		} else if ("inhibitory".equals(type)) {
+			return NetBatch.INHIBITORY;
+		} else if ("read".equals(type)) {
+			return NetBatch.READ;
+		}
+		return -1;
+	}
+
+	private static XmlDocument unmarshal(final File file) throws JAXBException, IOException {
 		final JAXBContext ctx = JAXBContext.newInstance(XmlDocument.class);
 		final Unmarshaller unmarshaller = ctx.createUnmarshaller();
-		final InputStream fileInputStream = Files.newInputStream(Paths.get(file.toURI()));
-		this.xmlDocument = (XmlDocument) unmarshaller.unmarshal(fileInputStream);
-		fileInputStream.close();
-		return getPetriNet(model);
+		try (InputStream fileInputStream = Files.newInputStream(Paths.get(file.toURI()))) {
+			return (XmlDocument) unmarshaller.unmarshal(fileInputStream);
+		}
 	}
 
 	private GraphicPetriNet getPetriNet(final String model) {
@@ -69,58 +183,38 @@ public class DocumentImporter {
 
 	private GraphicPetriNet getNewPetriNet(final XmlPetriNet xmlPetriNet, final String model) {
 		final GraphicPetriNet gPetriNet = new GraphicPetriNet(model);
+		final List<XmlArc> batchedArcs = new ArrayList<>();
+		final NetBatch batch = addToNet(xmlPetriNet, gPetriNet.getPetriNet(), batchedArcs);
+		int node = 0;
 		for (final XmlPlace xmlPlace : xmlPetriNet.places) {
-			addNewPlace(xmlPlace, gPetriNet);
+			addNewPlace(xmlPlace, (AbstractPlace) batch.getNode(node++), gPetriNet);
 		}
 		for (final XmlTransition xmlTransition : xmlPetriNet.transitions) {
-			addNewTransition(xmlTransition, gPetriNet);
+			addNewTransition(xmlTransition, (AbstractTransition) batch.getNode(node++), gPetriNet);
 		}
-		for (final XmlArc xmlArc : xmlPetriNet.arcs) {
-			addNewArc(xmlArc, gPetriNet);
+		for (int arc = 0; arc < batchedArcs.size(); arc++) {
+			// an arc the model does not support is left out
+			if (batch.getArc(arc) != null) {
+				addNewArc(batchedArcs.get(arc), batch.getArc(arc), gPetriNet);
+			}
 		}
 		return gPetriNet;
 	}
 
-	private void addNewArc(final XmlArc xmlArc, final GraphicPetriNet gPetriNet) {
-		AbstractArc arc = null;
-		try {
-			if ("regular".equals(xmlArc.type)) {
-				arc = gPetriNet.getPetriNet().addRegArc(this.nodeReferences.get(xmlArc.sourceId).getNode(),
-						this.nodeReferences.get(xmlArc.destinationId).getNode());
-				arc.setMultiplicity(xmlArc.multiplicity);
-			} else if ("reset".equals(xmlArc.type)) {
-				arc = gPetriNet.getPetriNet().addResArc(
-						((GraphicPlace) this.nodeReferences.get(xmlArc.sourceId)).getPlace(),
-						((GraphicTransition) this.nodeReferences.get(xmlArc.destinationId)).getTransition());
-			} else if ("inhibitory".equals(xmlArc.type)) {
-				arc = gPetriNet.getPetriNet().addInhibArc(
-						((GraphicPlace) this.nodeReferences.get(xmlArc.sourceId)).getPlace(),
-						((GraphicTransition) this.nodeReferences.get(xmlArc.destinationId)).getTransition());
-				arc.setMultiplicity(xmlArc.multiplicity);
-			}
-			
-
-			final GraphicArc gArc = new GraphicArc(arc);
-			gArc.setDestination(this.nodeReferences.get(xmlArc.destinationId));
-			gArc.setSource(this.nodeReferences.get(xmlArc.sourceId));
-			final List<Point> breakPoints = new LinkedList<>();
-			for (final XmlPoint xmlPoint : xmlArc.breakPoints) {
-				breakPoints.add(new Point(xmlPoint.x, xmlPoint.y));
-			}
-			gArc.setBreakPoints(breakPoints);
-			gPetriNet.addElement(gArc);
-		} catch (ResetArcMultiplicityException | UnimplementedCaseException e) {
-			// should not happen since we're manipulating new objects, except if a behavior
-			// is not implemented, which would return UnimplementedCaseException
-			PNEditorLogger.severeLogs(e.getMessage());
-		} 
-
+	private void addNewArc(final XmlArc xmlArc, final AbstractArc arc, final GraphicPetriNet gPetriNet) {
+		final GraphicArc gArc = new GraphicArc(arc);
+		gArc.setDestination(this.nodeReferences.get(xmlArc.destinationId));
+		gArc.setSource(this.nodeReferences.get(xmlArc.sourceId));
+		final List<Point> breakPoints = new LinkedList<>();
+		for (final XmlPoint xmlPoint : xmlArc.breakPoints) {
+			breakPoints.add(new Point(xmlPoint.x, xmlPoint.y));
+		}
+		gArc.setBreakPoints(breakPoints);
+		gPetriNet.addElement(gArc);
 	}
 
-	private void addNewPlace(final XmlPlace xmlPlace, final GraphicPetriNet gPetriNet) {
-		final AbstractPlace createdPlace = gPetriNet.getPetriNet().addAbstractPlace(xmlPlace.id);
-		createdPlace.setLabel(xmlPlace.label);
-		createdPlace.setTokens(xmlPlace.tokens);
+	private void addNewPlace(final XmlPlace xmlPlace, final AbstractPlace createdPlace,
+			final GraphicPetriNet gPetriNet) {
 		final GraphicPlace representation = new GraphicPlace(createdPlace, xmlPlace.x, xmlPlace.y);
 		representation.setPlace(createdPlace);
 		gPetriNet.addElement(representation);
@@ -128,9 +222,8 @@ public class DocumentImporter {
 		this.nodeReferences.put(xmlPlace.id, representation);
 	}
 
-	private void addNewTransition(final XmlTransition xmlTransition, final GraphicPetriNet gPetriNet) {
-		final AbstractTransition createdTransition = gPetriNet.getPetriNet().addAbstractTransition(xmlTransition.id);
-		createdTransition.setLabel(xmlTransition.label);
+	private void addNewTransition(final XmlTransition xmlTransition, final AbstractTransition createdTransition,
+			final GraphicPetriNet gPetriNet) {
 		final GraphicTransition representation = new GraphicTransition(createdTransition, xmlTransition.x, xmlTransition.y);
 		representation.setTransition(createdTransition);
 		gPetriNet.addElement(representation);
@@ -0,0 +1,90 @@
+package org.pneditor.save.xml;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.JAXBException;
+
+import org.pneditor.editor.gpetrinet.GraphicArc;
+import org.pneditor.editor.gpetrinet.GraphicNode;
+import org.pneditor.editor.gpetrinet.GraphicPetriNet;
+import org.pneditor.editor.gpetrinet.GraphicPlace;
+import org.pneditor.editor.gpetrinet.GraphicTransition;
+import org.pneditor.petrinet.AbstractArc;
+import org.pneditor.petrinet.generator.InterfaceNetBuilder;
+
+/**
+ * Builds a generated net together with its drawing, laid out on the grid given
+ * by the generator, so that it can be saved as a {@code .pflow} document.
+ */
+public class GraphicNetBuilder extends InterfaceNetBuilder {
+
+	/** The distance in pixels between two cells of the grid. */
+	public static final int SPACING = 80;
+
+	private final GraphicPetriNet graphicPetriNet;
+	private final List<GraphicPlace> graphicPlaces = new ArrayList<>();
+	private final List<GraphicTransition> graphicTransitions = new ArrayList<>();
+
+	/**
+	 * @param model the name of the model of the net, as for
+	 *              {@link GraphicPetriNet#GraphicPetriNet(String)}
+	 */
+	public GraphicNetBuilder(final String model) {
+		this(new GraphicPetriNet(model));
+	}
+
+	private GraphicNetBuilder(final GraphicPetriNet graphicPetriNet) {
+		super(graphicPetriNet.getPetriNet());
+		this.graphicPetriNet = graphicPetriNet;
+	}
+
+	public GraphicPetriNet getGraphicPetriNet() {
+		return this.graphicPetriNet;
+	}
+
+	@Override
+	public int addPlace(final int tokens, final int row, final int column) {
+		final int index = super.addPlace(tokens, row, column);
+		final GraphicPlace place = new GraphicPlace(getPlaces().get(index), column * SPACING, row * SPACING);
+		this.graphicPlaces.add(place);
+		this.graphicPetriNet.addElement(place);
+		return index;
+	}
+
+	@Override
+	public int addTransition(final int row, final int column) {
+		final int index = super.addTransition(row, column);
+		final GraphicTransition transition = new GraphicTransition(getTransitions().get(index), column * SPACING,
+				row * SPACING);
+		this.graphicTransitions.add(transition);
+		this.graphicPetriNet.addElement(transition);
+		return index;
+	}
+
+	@Override
+	public void addInputArc(final int place, final int transition, final int weight) {
+		addGraphicArc(this.graphicPlaces.get(place), this.graphicTransitions.get(transition), weight);
+	}
+
+	@Override
+	public void addOutputArc(final int transition, final int place, final int weight) {
+		addGraphicArc(this.graphicTransitions.get(transition), this.graphicPlaces.get(place), weight);
+	}
+
+	private void addGraphicArc(final GraphicNode source, final GraphicNode destination, final int weight) {
+		final AbstractArc arc = connect(source.getNode(), destination.getNode(), weight);
+		final GraphicArc graphicArc = new GraphicArc(arc);
+		graphicArc.setSource(source);
+		graphicArc.setDestination(destination);
+		this.graphicPetriNet.addElement(graphicArc);
+	}
+
+	/**
+	 * Saves the net built so far as a {@code .pflow} document.
+	 */
+	public void writeToFile(final File file) throws JAXBException {
+		new DocumentExporter(this.graphicPetriNet).writeToFile(file);
+	}
+}
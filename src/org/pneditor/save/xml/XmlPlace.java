@@ -27,4 +27,8 @@ public class XmlPlace extends XmlNode {
     @XmlElement(name = "tokens")
     public int tokens;
 
+    /** Absent when the place has no capacity. */
+    @XmlElement(name = "capacity")
+    public Integer capacity;
+
 }